@@ -0,0 +1,153 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.sstable.spatialindex.SpatialIndexEntry;
+
+public class BenchmarkDataGenerator {
+	
+	/**
+	 * The seed of the random generator, all benchmarks work on the same data
+	 */
+	public final static long SEED = 4711;
+	
+	/**
+	 * The max extend of a generated bounding box per dimension
+	 */
+	private final static double MAX_EXTEND = 10;
+	
+	/**
+	 * The size of the data space per dimension
+	 */
+	private final static double SPACE_SIZE = 1000;
+	
+	/**
+	 * The random generator
+	 */
+	private final Random random;
+	
+	/**
+	 * The dimensions of the data
+	 */
+	private final int dimensions;
+	
+	public BenchmarkDataGenerator(final int dimensions) {
+		this.random = new Random(SEED);
+		this.dimensions = dimensions;
+	}
+	
+	/**
+	 * Generate a random bounding box with the given extend
+	 * @param extend
+	 * @return
+	 */
+	public Hyperrectangle generateBoundingBox(final double extend) {
+		final double[] values = new double[dimensions * 2];
+		
+		for(int dimension = 0; dimension < dimensions; dimension++) {
+			final double begin = random.nextDouble() * SPACE_SIZE;
+			values[2 * dimension] = begin;
+			values[2 * dimension + 1] = begin + random.nextDouble() * extend;
+		}
+		
+		return new Hyperrectangle(values);
+	}
+	
+	/**
+	 * Generate a random bounding box
+	 * @return
+	 */
+	public Hyperrectangle generateBoundingBox() {
+		return generateBoundingBox(MAX_EXTEND);
+	}
+	
+	/**
+	 * Generate a list of bounding boxes
+	 * @param elements
+	 * @param extend
+	 * @return
+	 */
+	public List<Hyperrectangle> generateBoundingBoxes(final int elements, final double extend) {
+		final List<Hyperrectangle> boundingBoxes = new ArrayList<>(elements);
+		
+		for(int i = 0; i < elements; i++) {
+			boundingBoxes.add(generateBoundingBox(extend));
+		}
+		
+		return boundingBoxes;
+	}
+	
+	/**
+	 * Generate a list of tuples with the keys key_0 ... key_n, sorted by key
+	 * @param elements
+	 * @param valueSize
+	 * @return
+	 */
+	public List<Tuple> generateTuples(final int elements, final int valueSize) {
+		final List<Tuple> tuples = new ArrayList<>(elements);
+		
+		for(int i = 0; i < elements; i++) {
+			final byte[] value = new byte[valueSize];
+			random.nextBytes(value);
+			tuples.add(new Tuple(getKey(i), generateBoundingBox(), value, i));
+		}
+		
+		tuples.sort((t1, t2) -> t1.getKey().compareTo(t2.getKey()));
+		
+		return tuples;
+	}
+	
+	/**
+	 * Generate the entries for a spatial index
+	 * @param elements
+	 * @return
+	 */
+	public List<SpatialIndexEntry> generateSpatialIndexEntries(final int elements) {
+		final List<SpatialIndexEntry> entries = new ArrayList<>(elements);
+		
+		for(int i = 0; i < elements; i++) {
+			entries.add(new SpatialIndexEntry(generateBoundingBox(), i));
+		}
+		
+		return entries;
+	}
+	
+	/**
+	 * Get a random key of the generated tuples
+	 * @param elements
+	 * @return
+	 */
+	public String getRandomKey(final int elements) {
+		return getKey(random.nextInt(elements));
+	}
+	
+	/**
+	 * Get the key for the tuple number
+	 * @param tupleNumber
+	 * @return
+	 */
+	public static String getKey(final int tupleNumber) {
+		return "key_" + tupleNumber;
+	}
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HyperrectangleBenchmark {
+	
+	/**
+	 * The number of bounding boxes
+	 */
+	private final static int ELEMENTS = 1024;
+
+	/**
+	 * The dimensions of the bounding boxes
+	 */
+	@Param({"2", "3"})
+	public int dimensions;
+	
+	/**
+	 * The bounding boxes
+	 */
+	private Hyperrectangle[] boundingBoxes;
+	
+	@Setup
+	public void setup() {
+		// Large boxes, so a part of the boxes intersect
+		final List<Hyperrectangle> boxes = new BenchmarkDataGenerator(dimensions)
+				.generateBoundingBoxes(ELEMENTS, 500);
+		
+		boundingBoxes = boxes.toArray(new Hyperrectangle[0]);
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(ELEMENTS)
+	public void intersects(final Blackhole blackhole) {
+		for(int i = 0; i < ELEMENTS; i++) {
+			final Hyperrectangle box1 = boundingBoxes[i];
+			final Hyperrectangle box2 = boundingBoxes[(i + 1) % ELEMENTS];
+			blackhole.consume(box1.intersects(box2));
+		}
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(ELEMENTS)
+	public void getIntersection(final Blackhole blackhole) {
+		for(int i = 0; i < ELEMENTS; i++) {
+			final Hyperrectangle box1 = boundingBoxes[i];
+			final Hyperrectangle box2 = boundingBoxes[(i + 1) % ELEMENTS];
+			blackhole.consume(box1.getIntersection(box2));
+		}
+	}
+}
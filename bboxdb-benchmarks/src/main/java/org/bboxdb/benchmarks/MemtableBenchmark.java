@@ -0,0 +1,143 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.benchmarks;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.memtable.Memtable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MemtableBenchmark {
+	
+	/**
+	 * The number of tuples in the memtable
+	 */
+	private final static int TUPLES = 10000;
+	
+	/**
+	 * The name of the table
+	 */
+	private final static TupleStoreName TABLE_NAME = new TupleStoreName("benchmarkgroup_memtable");
+
+	/**
+	 * Keep only the newest version per key
+	 */
+	@Param({"false", "true"})
+	public boolean collapseVersions;
+	
+	/**
+	 * The tuples to insert
+	 */
+	private List<Tuple> tuples;
+	
+	/**
+	 * The memtable with all tuples (used by the read benchmarks)
+	 */
+	private Memtable filledMemtable;
+	
+	/**
+	 * The data generator for the query parameter
+	 */
+	private BenchmarkDataGenerator dataGenerator;
+	
+	@Setup
+	public void setup() throws StorageManagerException {
+		dataGenerator = new BenchmarkDataGenerator(2);
+		tuples = dataGenerator.generateTuples(TUPLES, 100);
+		filledMemtable = createMemtable();
+	}
+	
+	@TearDown
+	public void tearDown() {
+		closeMemtable(filledMemtable);
+	}
+	
+	/**
+	 * Create a memtable and insert all tuples
+	 * @return
+	 * @throws StorageManagerException
+	 */
+	private Memtable createMemtable() throws StorageManagerException {
+		final Memtable memtable = new Memtable(TABLE_NAME, TUPLES, Long.MAX_VALUE, null, collapseVersions);
+		memtable.init();
+		memtable.acquire();
+		
+		for(final Tuple tuple : tuples) {
+			memtable.put(tuple);
+		}
+		
+		return memtable;
+	}
+	
+	/**
+	 * Close the memtable
+	 * @param memtable
+	 */
+	private void closeMemtable(final Memtable memtable) {
+		memtable.deleteOnClose();
+		memtable.release();
+		memtable.shutdown();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(TUPLES)
+	public void put() throws StorageManagerException {
+		final Memtable memtable = createMemtable();
+		closeMemtable(memtable);
+	}
+	
+	@Benchmark
+	public List<Tuple> getKey() {
+		return filledMemtable.get(dataGenerator.getRandomKey(TUPLES));
+	}
+	
+	@Benchmark
+	public void getBoundingBox(final Blackhole blackhole) {
+		final Hyperrectangle boundingBox = dataGenerator.generateBoundingBox(50);
+		final Iterator<Tuple> iterator = filledMemtable.getAllTuplesInBoundingBox(boundingBox);
+		
+		while(iterator.hasNext()) {
+			blackhole.consume(iterator.next());
+		}
+	}
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.network.NetworkPackageDecoder;
+import org.bboxdb.network.packages.NetworkPackage;
+import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.network.packages.request.InsertTupleRequest;
+import org.bboxdb.network.packages.request.QueryHyperrectangleRequest;
+import org.bboxdb.network.packages.response.TupleResponse;
+import org.bboxdb.network.routing.RoutingHeader;
+import org.bboxdb.network.routing.RoutingHop;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NetworkPackageBenchmark {
+	
+	/**
+	 * The name of the table
+	 */
+	private final static String TABLE_NAME = "benchmarkgroup_network";
+	
+	/**
+	 * The routing header of the requests
+	 */
+	private final static RoutingHeader ROUTING_HEADER = new RoutingHeader((short) 0, 
+			Arrays.asList(new RoutingHop(new BBoxDBInstance("127.0.0.1:50505"), Arrays.asList(1l, 2l))));
+
+	/**
+	 * The size of the tuple value
+	 */
+	@Param({"100", "1024"})
+	public int valueSize;
+	
+	/**
+	 * The insert request
+	 */
+	private InsertTupleRequest insertRequest;
+	
+	/**
+	 * The encoded insert request
+	 */
+	private byte[] encodedInsertRequest;
+	
+	/**
+	 * The tuple response
+	 */
+	private TupleResponse tupleResponse;
+	
+	/**
+	 * The encoded tuple response
+	 */
+	private byte[] encodedTupleResponse;
+	
+	/**
+	 * The query request
+	 */
+	private QueryHyperrectangleRequest queryRequest;
+	
+	/**
+	 * The encoded query request
+	 */
+	private byte[] encodedQueryRequest;
+	
+	@Setup
+	public void setup() throws IOException, PackageEncodeException {
+		final BenchmarkDataGenerator dataGenerator = new BenchmarkDataGenerator(2);
+		final Tuple tuple = dataGenerator.generateTuples(1, valueSize).get(0);
+		
+		insertRequest = new InsertTupleRequest((short) 1, ROUTING_HEADER, 
+				new TupleStoreName(TABLE_NAME), tuple);
+		encodedInsertRequest = encode(insertRequest);
+		
+		tupleResponse = new TupleResponse((short) 1, TABLE_NAME, tuple);
+		encodedTupleResponse = encode(tupleResponse);
+		
+		queryRequest = new QueryHyperrectangleRequest((short) 1, ROUTING_HEADER, TABLE_NAME, 
+				dataGenerator.generateBoundingBox(), true, (short) 1000);
+		encodedQueryRequest = encode(queryRequest);
+	}
+	
+	/**
+	 * Encode the network package
+	 * @param networkPackage
+	 * @return
+	 * @throws IOException
+	 * @throws PackageEncodeException
+	 */
+	private static byte[] encode(final NetworkPackage networkPackage) 
+			throws IOException, PackageEncodeException {
+		
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		networkPackage.writeToOutputStream(outputStream);
+		outputStream.close();
+		return outputStream.toByteArray();
+	}
+	
+	@Benchmark
+	public byte[] encodeInsertRequest() throws IOException, PackageEncodeException {
+		return encode(insertRequest);
+	}
+	
+	@Benchmark
+	public InsertTupleRequest decodeInsertRequest() throws IOException, PackageEncodeException {
+		return InsertTupleRequest.decodeTuple(NetworkPackageDecoder.encapsulateBytes(encodedInsertRequest));
+	}
+	
+	@Benchmark
+	public byte[] encodeTupleResponse() throws IOException, PackageEncodeException {
+		return encode(tupleResponse);
+	}
+	
+	@Benchmark
+	public TupleResponse decodeTupleResponse() throws PackageEncodeException {
+		return TupleResponse.decodePackage(NetworkPackageDecoder.encapsulateBytes(encodedTupleResponse));
+	}
+	
+	@Benchmark
+	public byte[] encodeQueryRequest() throws IOException, PackageEncodeException {
+		return encode(queryRequest);
+	}
+	
+	@Benchmark
+	public QueryHyperrectangleRequest decodeQueryRequest() throws IOException, PackageEncodeException {
+		return QueryHyperrectangleRequest.decodeTuple(NetworkPackageDecoder.encapsulateBytes(encodedQueryRequest));
+	}
+}
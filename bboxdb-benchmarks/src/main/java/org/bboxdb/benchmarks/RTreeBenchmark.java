@@ -0,0 +1,152 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.sstable.spatialindex.SpatialIndexEntry;
+import org.bboxdb.storage.sstable.spatialindex.rtree.RTreeBuilder;
+import org.bboxdb.storage.sstable.spatialindex.rtree.RTreeMemoryReader;
+import org.bboxdb.storage.sstable.spatialindex.rtree.mmf.RTreeMMFReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RTreeBenchmark {
+	
+	/**
+	 * The number of entries in the index
+	 */
+	@Param({"10000", "100000"})
+	public int entries;
+	
+	/**
+	 * The max size of the nodes
+	 */
+	@Param({"32"})
+	public int maxNodeSize;
+	
+	/**
+	 * The index entries
+	 */
+	private List<SpatialIndexEntry> indexEntries;
+	
+	/**
+	 * The data generator for the query parameter
+	 */
+	private BenchmarkDataGenerator dataGenerator;
+	
+	/**
+	 * The index
+	 */
+	private RTreeBuilder rtreeBuilder;
+	
+	/**
+	 * The index file
+	 */
+	private File indexFile;
+	
+	/**
+	 * The memory reader
+	 */
+	private RTreeMemoryReader memoryReader;
+	
+	/**
+	 * The memory mapped file reader
+	 */
+	private RTreeMMFReader mmfReader;
+
+	@Setup
+	public void setup() throws IOException, StorageManagerException, InterruptedException {
+		dataGenerator = new BenchmarkDataGenerator(2);
+		indexEntries = dataGenerator.generateSpatialIndexEntries(entries);
+		
+		rtreeBuilder = new RTreeBuilder(maxNodeSize);
+		rtreeBuilder.bulkInsert(indexEntries);
+		
+		indexFile = File.createTempFile("rtree-", "-benchmark");
+		
+		try (final RandomAccessFile randomAccessFile = new RandomAccessFile(indexFile, "rw")) {
+			rtreeBuilder.writeToFile(randomAccessFile);
+		}
+		
+		memoryReader = new RTreeMemoryReader();
+		mmfReader = new RTreeMMFReader();
+		
+		try (final RandomAccessFile randomAccessFile = new RandomAccessFile(indexFile, "r")) {
+			memoryReader.readFromFile(randomAccessFile);
+		}
+		
+		try (final RandomAccessFile randomAccessFile = new RandomAccessFile(indexFile, "r")) {
+			mmfReader.readFromFile(randomAccessFile);
+		}
+	}
+	
+	@TearDown
+	public void tearDown() {
+		memoryReader.close();
+		mmfReader.close();
+		indexFile.delete();
+	}
+	
+	@Benchmark
+	public RTreeBuilder build() {
+		final RTreeBuilder builder = new RTreeBuilder(maxNodeSize);
+		builder.bulkInsert(indexEntries);
+		return builder;
+	}
+	
+	@Benchmark
+	public List<? extends SpatialIndexEntry> searchBuilder() {
+		final Hyperrectangle boundingBox = dataGenerator.generateBoundingBox(50);
+		return rtreeBuilder.getEntriesForRegion(boundingBox);
+	}
+	
+	@Benchmark
+	public List<? extends SpatialIndexEntry> searchMemoryReader() {
+		final Hyperrectangle boundingBox = dataGenerator.generateBoundingBox(50);
+		return memoryReader.getEntriesForRegion(boundingBox);
+	}
+	
+	@Benchmark
+	public List<? extends SpatialIndexEntry> searchMMFReader() throws StorageManagerException {
+		final Hyperrectangle boundingBox = dataGenerator.generateBoundingBox(50);
+		return mmfReader.getEntriesForRegion(boundingBox);
+	}
+}
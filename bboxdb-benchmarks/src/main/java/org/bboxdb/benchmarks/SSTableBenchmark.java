@@ -0,0 +1,157 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bboxdb.commons.io.FileUtil;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.sstable.SSTableHelper;
+import org.bboxdb.storage.sstable.SSTableWriter;
+import org.bboxdb.storage.sstable.reader.SSTableKeyIndexReader;
+import org.bboxdb.storage.sstable.reader.SSTableReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SSTableBenchmark {
+	
+	/**
+	 * The number of tuples in the sstable
+	 */
+	private final static int TUPLES = 10000;
+	
+	/**
+	 * The name of the table
+	 */
+	private final static TupleStoreName TABLE_NAME = new TupleStoreName("benchmarkgroup_sstable");
+	
+	/**
+	 * The number of the sstable that is read
+	 */
+	private final static int READ_TABLE_NUMBER = 1;
+	
+	/**
+	 * The number of the sstable that is written by the flush benchmark
+	 */
+	private final static int WRITE_TABLE_NUMBER = 2;
+	
+	/**
+	 * The storage directory
+	 */
+	private File storageDirectory;
+	
+	/**
+	 * The tuples of the sstable, sorted by key
+	 */
+	private List<Tuple> tuples;
+	
+	/**
+	 * The data generator for the query parameter
+	 */
+	private BenchmarkDataGenerator dataGenerator;
+	
+	/**
+	 * The sstable reader
+	 */
+	private SSTableReader sstableReader;
+	
+	/**
+	 * The key index reader
+	 */
+	private SSTableKeyIndexReader keyIndexReader;
+
+	@Setup
+	public void setup() throws IOException, StorageManagerException, InterruptedException {
+		storageDirectory = Files.createTempDirectory("bboxdb-benchmark").toFile();
+		new File(SSTableHelper.getSSTableDir(storageDirectory.getAbsolutePath(), TABLE_NAME)).mkdirs();
+		
+		dataGenerator = new BenchmarkDataGenerator(2);
+		tuples = dataGenerator.generateTuples(TUPLES, 100);
+		
+		final SSTableWriter writer = new SSTableWriter(storageDirectory.getAbsolutePath(), 
+				TABLE_NAME, READ_TABLE_NUMBER, TUPLES);
+		writer.open();
+		writer.addData(tuples);
+		writer.close();
+		
+		sstableReader = new SSTableReader(storageDirectory.getAbsolutePath(), TABLE_NAME, READ_TABLE_NUMBER);
+		sstableReader.init();
+		keyIndexReader = new SSTableKeyIndexReader(sstableReader);
+		keyIndexReader.init();
+	}
+	
+	@TearDown
+	public void tearDown() throws InterruptedException {
+		keyIndexReader.shutdown();
+		sstableReader.shutdown();
+		FileUtil.deleteRecursive(storageDirectory.toPath());
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(TUPLES)
+	public void flush() throws StorageManagerException {
+		final SSTableWriter writer = new SSTableWriter(storageDirectory.getAbsolutePath(), 
+				TABLE_NAME, WRITE_TABLE_NUMBER, TUPLES);
+		
+		writer.open();
+		writer.addData(tuples);
+		writer.close();
+		writer.deleteFromDisk();
+	}
+	
+	@Benchmark
+	public List<Integer> keyIndexLookup() throws StorageManagerException {
+		return keyIndexReader.getPositionsForTuple(dataGenerator.getRandomKey(TUPLES));
+	}
+	
+	@Benchmark
+	public List<Tuple> keyIndexLookupAndRead() throws StorageManagerException {
+		final String key = dataGenerator.getRandomKey(TUPLES);
+		final List<Integer> positions = keyIndexReader.getPositionsForTuple(key);
+		final List<Tuple> result = new ArrayList<>(positions.size());
+		
+		for(final int position : positions) {
+			result.add(sstableReader.getTupleAtPosition(position));
+		}
+		
+		return result;
+	}
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bboxdb.commons.DuplicateResolver;
+import org.bboxdb.commons.SortedIteratorMerger;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.util.TupleHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SortedIteratorMergerBenchmark {
+	
+	/**
+	 * The number of tuples per list
+	 */
+	private final static int TUPLES_PER_LIST = 10000;
+
+	/**
+	 * The number of sorted lists to merge (e.g., the sstables of a compaction)
+	 */
+	@Param({"2", "8"})
+	public int lists;
+	
+	/**
+	 * The sorted tuple lists
+	 */
+	private List<List<Tuple>> tupleLists;
+	
+	/**
+	 * The duplicate resolver, keeps the most recent version of a key
+	 */
+	private final static DuplicateResolver<Tuple> NEWEST_TUPLE_RESOLVER = (tuples) -> {
+		final Tuple newestTuple = tuples.stream().reduce(TupleHelper::returnMostRecentTuple).get();
+		tuples.clear();
+		tuples.add(newestTuple);
+	};
+	
+	@Setup
+	public void setup() {
+		final BenchmarkDataGenerator dataGenerator = new BenchmarkDataGenerator(2);
+		tupleLists = new ArrayList<>();
+		
+		// The lists share their keys, so the duplicate resolver has to merge the versions
+		for(int i = 0; i < lists; i++) {
+			tupleLists.add(dataGenerator.generateTuples(TUPLES_PER_LIST, 10));
+		}
+	}
+	
+	@Benchmark
+	public void merge(final Blackhole blackhole) {
+		final List<Iterator<Tuple>> iterators = new ArrayList<>();
+		
+		for(final List<Tuple> tupleList : tupleLists) {
+			iterators.add(tupleList.iterator());
+		}
+		
+		final SortedIteratorMerger<Tuple> merger = new SortedIteratorMerger<>(iterators, 
+				(t1, t2) -> t1.getKey().compareTo(t2.getKey()), NEWEST_TUPLE_RESOLVER);
+		
+		for(final Tuple tuple : merger) {
+			blackhole.consume(tuple);
+		}
+	}
+}
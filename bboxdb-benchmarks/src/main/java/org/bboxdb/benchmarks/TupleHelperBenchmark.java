@@ -0,0 +1,83 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.util.TupleHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TupleHelperBenchmark {
+
+	/**
+	 * The size of the tuple value
+	 */
+	@Param({"100", "1024"})
+	public int valueSize;
+	
+	/**
+	 * The tuple to encode
+	 */
+	private Tuple tuple;
+	
+	/**
+	 * The encoded tuple
+	 */
+	private byte[] encodedTuple;
+	
+	@Setup
+	public void setup() throws IOException {
+		tuple = new BenchmarkDataGenerator(2).generateTuples(1, valueSize).get(0);
+		encodedTuple = TupleHelper.tupleToBytes(tuple);
+	}
+	
+	@Benchmark
+	public byte[] encode() throws IOException {
+		return TupleHelper.tupleToBytes(tuple);
+	}
+	
+	@Benchmark
+	public Tuple decodeByteBuffer() throws IOException {
+		return TupleHelper.decodeTuple(ByteBuffer.wrap(encodedTuple));
+	}
+	
+	@Benchmark
+	public Tuple decodeInputStream() throws IOException {
+		return TupleHelper.decodeTuple(new ByteArrayInputStream(encodedTuple));
+	}
+}
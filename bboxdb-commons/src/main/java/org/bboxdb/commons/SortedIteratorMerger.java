@@ -19,16 +19,19 @@ package org.bboxdb.commons;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.PriorityQueue;
 
 /**
  * This class merges a set with sorted iterators and returns a sorted 
  * list of elements. Duplicates are eliminated according the 
  * duplicateResolver
+ * 
+ * The iterators are kept in a heap ordered by their current element, so 
+ * the next element is found in O(log k) for k iterators.
  *
  * @param <E>
  */
@@ -39,44 +42,53 @@ public class SortedIteratorMerger<E> implements Iterable<E> {
 		 * The list with unconsumed duplicates for the current key
 		 */
 		final List<E> unconsumedDuplicates = new ArrayList<E>();
+		
+		/**
+		 * The position of the next unconsumed duplicate
+		 */
+		int duplicatePosition = 0;
 
 		@Override
 		public boolean hasNext() {
 			
-			if(! unconsumedDuplicates.isEmpty()) {
+			if(duplicatePosition < unconsumedDuplicates.size()) {
 				return true;
 			}
 			
 			// Any new values left?
-			return iteratorElementMap.values()
-					.stream()
-					.anyMatch(e -> Objects.nonNull(e));
+			return ! iteratorHeap.isEmpty();
 		}
 
 		@Override
 		public E next() {
 						
 			// Consume the duplicates first 
-			if(! unconsumedDuplicates.isEmpty()) {
-				return unconsumedDuplicates.remove(0);
+			if(duplicatePosition < unconsumedDuplicates.size()) {
+				return unconsumedDuplicates.get(duplicatePosition++);
+			}
+			
+			if(iteratorHeap.isEmpty()) {
+				throw new NoSuchElementException();
 			}
 			
-			final E lowestElement = iteratorElementMap
-					.values()
-					.stream()
-					.filter(e -> Objects.nonNull(e))
-					.min(elementComparator)
-					.orElse(null);
+			unconsumedDuplicates.clear();
+			duplicatePosition = 0;
 			
-			assert (lowestElement != null);
+			final E lowestElement = iteratorHeap.peek().element;
 			
-			for(final Iterator<E> iteratorToCheck : iteratorElementMap.keySet()) {
-				E element = iteratorElementMap.get(iteratorToCheck);
+			// Move the searched element from the iterators to the result list
+			while(! iteratorHeap.isEmpty() 
+					&& belongsElementToCurrentKey(lowestElement, iteratorHeap.peek().element)) {
+				
+				final IteratorHead iteratorHead = iteratorHeap.poll();
 				
-				// Move the searched element from the iterator list to the result list
-				while(belongsElementToCurrentKey(lowestElement, element)) {	
-					unconsumedDuplicates.add(element);
-					element = refreshIterator(iteratorToCheck);
+				do {
+					unconsumedDuplicates.add(iteratorHead.element);
+					refreshIterator(iteratorHead);
+				} while(belongsElementToCurrentKey(lowestElement, iteratorHead.element));
+				
+				if(iteratorHead.element != null) {
+					iteratorHeap.add(iteratorHead);
 				}
 			}
 			
@@ -84,8 +96,7 @@ public class SortedIteratorMerger<E> implements Iterable<E> {
 			duplicateResolver.removeDuplicates(unconsumedDuplicates);
 			assert (! unconsumedDuplicates.isEmpty());
 			
-			
-			return unconsumedDuplicates.remove(0);				
+			return unconsumedDuplicates.get(duplicatePosition++);				
 		}
 
 		/**
@@ -106,12 +117,38 @@ public class SortedIteratorMerger<E> implements Iterable<E> {
 			return false;
 		}
 	}
+	
+	/**
+	 * An iterator together with the last fetched element
+	 */
+	private final class IteratorHead {
+		
+		/**
+		 * The iterator
+		 */
+		private final Iterator<E> iterator;
+		
+		/**
+		 * The position of the iterator in the iterator list
+		 */
+		private final int position;
+		
+		/**
+		 * The last fetched element, null if the iterator is exhausted
+		 */
+		private E element;
+
+		public IteratorHead(final Iterator<E> iterator, final int position) {
+			this.iterator = iterator;
+			this.position = position;
+		}
+	}
 
 	/**
-	 * The iterator map, contains all iterators and the
-	 * last fetched element
+	 * The iterator heap, contains all non exhausted iterators 
+	 * ordered by the last fetched element
 	 */
-	protected final Map<Iterator<E>, E> iteratorElementMap;
+	private final PriorityQueue<IteratorHead> iteratorHeap;
 	
 	/**
 	 * The element comparator
@@ -136,31 +173,42 @@ public class SortedIteratorMerger<E> implements Iterable<E> {
 		this.duplicateResolver = Objects.requireNonNull(duplicateResolver);
 		Objects.requireNonNull(iteratorList);
 
-		iteratorElementMap = new HashMap<>();
+		// Equal elements are returned in the order of the iterator list
+		final Comparator<IteratorHead> headComparator = (h1, h2) -> {
+			final int result = elementComparator.compare(h1.element, h2.element);
+			
+			if(result != 0) {
+				return result;
+			}
+			
+			return Integer.compare(h1.position, h2.position);
+		};
 		
-		for(final Iterator<E> iterator : iteratorList) {
-			iteratorElementMap.put(iterator, null);
-			refreshIterator(iterator);
+		iteratorHeap = new PriorityQueue<>(Math.max(1, iteratorList.size()), headComparator);
+		
+		for(int position = 0; position < iteratorList.size(); position++) {
+			final IteratorHead iteratorHead = new IteratorHead(iteratorList.get(position), position);
+			refreshIterator(iteratorHead);
+			
+			if(iteratorHead.element != null) {
+				iteratorHeap.add(iteratorHead);
+			}
 		}		
 	}
 	
 	/**
 	 * Refresh the specified iterator
-	 * @param iterator
+	 * @param iteratorHead
 	 */
-	protected E refreshIterator(final Iterator<E> iterator) {
+	private void refreshIterator(final IteratorHead iteratorHead) {
 		
-		if(! iterator.hasNext()) {
-			iteratorElementMap.put(iterator, null);
-			return null;
+		if(! iteratorHead.iterator.hasNext()) {
+			iteratorHead.element = null;
+			return;
 		}
 		
-		final E element = iterator.next();
+		iteratorHead.element = iteratorHead.iterator.next();
 		readElements++;
-		
-		iteratorElementMap.put(iterator, element);
-		
-		return element;
 	}
 
 	@Override
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.commons.math;
+
+/**
+ * Calculate positions on a Hilbert space filling curve for a arbitrary number 
+ * of dimensions (algorithm of J. Skilling, Programming the Hilbert curve, 2004).
+ * 
+ * Points that are close on the curve are also close in space. The curve of 
+ * a grid cell visits all sub cells before it leaves the cell.
+ */
+public class HilbertCurve {
+	
+	/**
+	 * The maximal bits of a curve index
+	 */
+	private final static int MAX_INDEX_BITS = 63;
+	
+	/**
+	 * The maximal bits per dimension
+	 */
+	private final static int MAX_BITS_PER_DIMENSION = 31;
+	
+	/**
+	 * Get the maximal usable bits per dimension for the given dimensions
+	 * @param dimensions
+	 * @return
+	 */
+	public static int getMaxBitsPerDimension(final int dimensions) {
+		
+		if(dimensions <= 0) {
+			throw new IllegalArgumentException("Invalid dimension: " + dimensions);
+		}
+		
+		return Math.min(MAX_BITS_PER_DIMENSION, MAX_INDEX_BITS / dimensions);
+	}
+	
+	/**
+	 * Get the position on the curve for the given grid coordinates. Each coordinate 
+	 * needs to be in the range [0, 2^bitsPerDimension).
+	 * 
+	 * @param coordinates
+	 * @param bitsPerDimension
+	 * @return
+	 */
+	public static long getIndex(final long[] coordinates, final int bitsPerDimension) {
+		
+		final int dimensions = coordinates.length;
+		
+		if(bitsPerDimension <= 0 || bitsPerDimension > getMaxBitsPerDimension(dimensions)) {
+			throw new IllegalArgumentException("Invalid bits per dimension " + bitsPerDimension 
+					+ " for " + dimensions + " dimensions");
+		}
+		
+		final long[] x = coordinates.clone();
+		final long m = 1L << (bitsPerDimension - 1);
+		
+		// Inverse undo
+		for(long q = m; q > 1; q >>= 1) {
+			final long p = q - 1;
+			
+			for(int i = 0; i < dimensions; i++) {
+				if((x[i] & q) != 0) {
+					x[0] ^= p;
+				} else {
+					final long t = (x[0] ^ x[i]) & p;
+					x[0] ^= t;
+					x[i] ^= t;
+				}
+			}
+		}
+		
+		// Gray encode
+		for(int i = 1; i < dimensions; i++) {
+			x[i] ^= x[i - 1];
+		}
+		
+		long t = 0;
+		for(long q = m; q > 1; q >>= 1) {
+			if((x[dimensions - 1] & q) != 0) {
+				t ^= q - 1;
+			}
+		}
+		
+		for(int i = 0; i < dimensions; i++) {
+			x[i] ^= t;
+		}
+		
+		// Interleave the transposed bits into the index
+		long index = 0;
+		for(int bit = bitsPerDimension - 1; bit >= 0; bit--) {
+			for(int i = 0; i < dimensions; i++) {
+				index = (index << 1) | ((x[i] >> bit) & 1);
+			}
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * Get the position on the curve for the given point. The space is divided 
+	 * into a grid with 2^bitsPerDimension cells per dimension. Points outside 
+	 * of the space are mapped to the nearest cell.
+	 * 
+	 * @param space
+	 * @param point
+	 * @param bitsPerDimension
+	 * @return
+	 */
+	public static long getIndex(final Hyperrectangle space, final double[] point, 
+			final int bitsPerDimension) {
+		
+		if(space.getDimension() != point.length) {
+			throw new IllegalArgumentException("Dimension of the space " + space.getDimension() 
+				+ " does not match the dimension of the point " + point.length);
+		}
+		
+		final long cells = 1L << bitsPerDimension;
+		final long[] coordinates = new long[point.length];
+		
+		for(int dimension = 0; dimension < point.length; dimension++) {
+			final double low = space.getCoordinateLow(dimension);
+			final double extent = space.getExtent(dimension);
+			final double position = (point[dimension] - low) / extent;
+			final long cell = (long) Math.floor(position * cells);
+			coordinates[dimension] = Math.max(0, Math.min(cells - 1, cell));
+		}
+		
+		return getIndex(coordinates, bitsPerDimension);
+	}
+}
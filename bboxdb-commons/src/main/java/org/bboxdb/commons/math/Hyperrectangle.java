@@ -513,7 +513,7 @@ public class Hyperrectangle implements Comparable<Hyperrectangle> {
 		// Construct the covering bounding box
 		for(int d = 0; d < dimensions; d++) {
 			double resultMin = Double.MAX_VALUE;
-			double resultMax = Double.MIN_VALUE;
+			double resultMax = -Double.MAX_VALUE;
 
 			for(final Hyperrectangle currentBox : boundingBoxes) {
 				resultMin = Math.min(resultMin, currentBox.getCoordinateLow(d));
@@ -0,0 +1,659 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.commons.math;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory index that answers 'which values intersect the bounding box' queries.
+ * 
+ * The values are stored in a dynamic R-tree. Inserts choose the subtree with the least 
+ * enlargement and split overflowing nodes (R*-tree split), deletes condense underfull 
+ * nodes and reinsert their entries. The heuristics use the margin of the boxes instead 
+ * of the area, because the boxes can be unbounded (e.g., the distribution regions).
+ *
+ * @param <T> - the type of the values, used as key in a hash map
+ */
+public class HyperrectangleIndex<T> {
+	
+	/**
+	 * The entries of all values
+	 */
+	private final Map<T, Node<T>> entries;
+	
+	/**
+	 * Entries that can not be indexed (e.g., FULL_SPACE or other dimensions), 
+	 * these entries are always checked
+	 */
+	private final Map<T, Node<T>> unindexedEntries;
+	
+	/**
+	 * The root node, null for a empty tree
+	 */
+	private Node<T> root;
+	
+	/**
+	 * The lock for the tree
+	 */
+	private final ReadWriteLock lock;
+	
+	/**
+	 * The max number of children per node
+	 */
+	private final static int MAX_NODE_SIZE = 16;
+	
+	/**
+	 * The min number of children per node (except the root node)
+	 */
+	private final static int MIN_NODE_SIZE = 6;
+	
+	/**
+	 * The limit for the coordinates in the heuristics, unbounded coordinates are
+	 * clamped to this value
+	 */
+	private final static double COORDINATE_LIMIT = 1E300;
+	
+	public HyperrectangleIndex() {
+		this.entries = new HashMap<>();
+		this.unindexedEntries = new HashMap<>();
+		this.lock = new ReentrantReadWriteLock();
+		this.root = null;
+	}
+	
+	/**
+	 * Add or update a value
+	 * @param value
+	 * @param boundingBox
+	 */
+	public void put(final T value, final Hyperrectangle boundingBox) {
+		lock.writeLock().lock();
+		
+		try {
+			removeEntry(value);
+			
+			final Node<T> entry = new Node<>(value, boundingBox);
+			entries.put(value, entry);
+			
+			if(isIndexable(boundingBox)) {
+				insert(entry);
+			} else {
+				unindexedEntries.put(value, entry);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Remove a value
+	 * @param value
+	 * @return
+	 */
+	public boolean remove(final T value) {
+		lock.writeLock().lock();
+		
+		try {
+			return removeEntry(value);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Remove all values
+	 */
+	public void clear() {
+		lock.writeLock().lock();
+		
+		try {
+			entries.clear();
+			unindexedEntries.clear();
+			root = null;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Is the value contained in the index
+	 * @param value
+	 * @return
+	 */
+	public boolean contains(final T value) {
+		lock.readLock().lock();
+		
+		try {
+			return entries.containsKey(value);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * The number of values in the index
+	 * @return
+	 */
+	public int size() {
+		lock.readLock().lock();
+		
+		try {
+			return entries.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Get all values whose bounding box intersects the given bounding box 
+	 * (see Hyperrectangle.intersects)
+	 * 
+	 * @param boundingBox
+	 * @return
+	 */
+	public List<T> getValuesForBoundingBox(final Hyperrectangle boundingBox) {
+		
+		if(boundingBox == null) {
+			return new ArrayList<>();
+		}
+		
+		lock.readLock().lock();
+		
+		try {
+			// Intersects everything
+			if(boundingBox == Hyperrectangle.FULL_SPACE || boundingBox.getDimension() == 0) {
+				return new ArrayList<>(entries.keySet());
+			}
+			
+			final List<T> result = new ArrayList<>();
+			
+			for(final Node<T> entry : unindexedEntries.values()) {
+				if(entry.box != null && entry.box.intersects(boundingBox)) {
+					result.add(entry.value);
+				}
+			}
+			
+			// Indexed boxes with other dimensions don't intersect 
+			if(root == null || boundingBox.getDimension() != root.low.length) {
+				return result;
+			}
+			
+			final Node<T> queryNode = new Node<>(null, boundingBox);
+			final Deque<Node<T>> nodesToVisit = new ArrayDeque<>();
+			nodesToVisit.push(root);
+			
+			while(! nodesToVisit.isEmpty()) {
+				final Node<T> node = nodesToVisit.pop();
+				
+				if(! node.isOverlapping(queryNode)) {
+					continue;
+				}
+				
+				if(node.isEntry()) {
+					// Exact check, respects open and closed intervals
+					if(node.box.intersects(boundingBox)) {
+						result.add(node.value);
+					}
+				} else {
+					node.children.forEach(c -> nodesToVisit.push(c));
+				}
+			}
+			
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Can the bounding box be stored in the tree
+	 * @param boundingBox
+	 * @return
+	 */
+	private boolean isIndexable(final Hyperrectangle boundingBox) {
+		
+		if(boundingBox == null || boundingBox == Hyperrectangle.FULL_SPACE 
+				|| boundingBox.getDimension() == 0) {
+			return false;
+		}
+		
+		// The dimension of the tree is determined by the first entry
+		return root == null || boundingBox.getDimension() == root.low.length;
+	}
+	
+	/**
+	 * Remove the entry of the value
+	 * @param value
+	 * @return
+	 */
+	private boolean removeEntry(final T value) {
+		final Node<T> entry = entries.remove(value);
+		
+		if(entry == null) {
+			return false;
+		}
+		
+		if(unindexedEntries.remove(value) == null) {
+			delete(entry);
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Insert the entry into the tree
+	 * @param entry
+	 */
+	private void insert(final Node<T> entry) {
+		
+		if(root == null) {
+			root = new Node<>(true, entry.low.length);
+		}
+		
+		Node<T> node = root;
+		
+		// Choose the subtree with the least enlargement
+		while(! node.leaf) {
+			Node<T> bestChild = null;
+			double bestEnlargement = Double.POSITIVE_INFINITY;
+			double bestMargin = Double.POSITIVE_INFINITY;
+			
+			for(final Node<T> child : node.children) {
+				final double margin = child.getMargin();
+				final double enlargement = child.getMarginWith(entry) - margin;
+				
+				if(bestChild == null || enlargement < bestEnlargement 
+						|| (enlargement == bestEnlargement && margin < bestMargin)) {
+					bestChild = child;
+					bestEnlargement = enlargement;
+					bestMargin = margin;
+				}
+			}
+			
+			node = bestChild;
+		}
+		
+		node.addChild(entry);
+		adjustTree(node);
+	}
+	
+	/**
+	 * Split the overflowing nodes and update the bounds up to the root
+	 * @param node
+	 */
+	private void adjustTree(Node<T> node) {
+		while(node != null) {
+			if(node.children.size() > MAX_NODE_SIZE) {
+				final Node<T> sibling = split(node);
+				
+				if(node.parent == null) {
+					root = new Node<>(false, node.low.length);
+					root.addChild(node);
+					root.addChild(sibling);
+					return;
+				}
+				
+				node.parent.addChild(sibling);
+			} else {
+				node.recalculateBounds();
+			}
+			
+			node = node.parent;
+		}
+	}
+	
+	/**
+	 * Split the node (R*-tree split). The node keeps the first group of 
+	 * children, the second group is moved into the returned sibling.
+	 * 
+	 * @param node
+	 * @return the new sibling
+	 */
+	private Node<T> split(final Node<T> node) {
+		final int dimension = node.low.length;
+		final int distributions = node.children.size() - 2 * MIN_NODE_SIZE + 1;
+		
+		List<Node<T>> bestOrder = null;
+		double bestMarginSum = Double.POSITIVE_INFINITY;
+		
+		// Choose the split axis with the smallest margins
+		for(int d = 0; d < dimension; d++) {
+			final int splitDimension = d;
+			
+			final List<Comparator<Node<T>>> comparators = new ArrayList<>();
+			comparators.add(Comparator.comparingDouble(n -> n.low[splitDimension]));
+			comparators.add(Comparator.comparingDouble(n -> n.high[splitDimension]));
+			
+			for(final Comparator<Node<T>> comparator : comparators) {
+				final List<Node<T>> order = new ArrayList<>(node.children);
+				order.sort(comparator);
+				
+				double marginSum = 0;
+				
+				for(int k = 0; k < distributions; k++) {
+					final int splitPos = MIN_NODE_SIZE + k;
+					marginSum += getMargin(order.subList(0, splitPos), dimension) 
+							+ getMargin(order.subList(splitPos, order.size()), dimension);
+				}
+				
+				if(bestOrder == null || marginSum < bestMarginSum) {
+					bestOrder = order;
+					bestMarginSum = marginSum;
+				}
+			}
+		}
+		
+		// Choose the distribution with the smallest overlap
+		int bestSplitPos = MIN_NODE_SIZE;
+		double bestOverlap = Double.POSITIVE_INFINITY;
+		double bestMargin = Double.POSITIVE_INFINITY;
+		
+		for(int k = 0; k < distributions; k++) {
+			final int splitPos = MIN_NODE_SIZE + k;
+			final Node<T> group1 = new Node<>(bestOrder.subList(0, splitPos), dimension);
+			final Node<T> group2 = new Node<>(bestOrder.subList(splitPos, bestOrder.size()), dimension);
+			
+			final double overlap = group1.getOverlapMargin(group2);
+			final double margin = group1.getMargin() + group2.getMargin();
+			
+			if(overlap < bestOverlap || (overlap == bestOverlap && margin < bestMargin)) {
+				bestSplitPos = splitPos;
+				bestOverlap = overlap;
+				bestMargin = margin;
+			}
+		}
+		
+		node.children.clear();
+		node.children.addAll(bestOrder.subList(0, bestSplitPos));
+		node.recalculateBounds();
+		
+		final Node<T> sibling = new Node<>(node.leaf, dimension);
+		bestOrder.subList(bestSplitPos, bestOrder.size()).forEach(c -> sibling.addChild(c));
+		
+		return sibling;
+	}
+	
+	/**
+	 * Get the margin of the covering box of the nodes
+	 * @param nodes
+	 * @param dimension
+	 * @return
+	 */
+	private double getMargin(final List<Node<T>> nodes, final int dimension) {
+		return new Node<>(nodes, dimension).getMargin();
+	}
+	
+	/**
+	 * Delete the entry from the tree
+	 * @param entry
+	 */
+	private void delete(final Node<T> entry) {
+		Node<T> node = entry.parent;
+		node.children.remove(entry);
+		entry.parent = null;
+		
+		// Condense the tree, the entries of underfull nodes are reinserted
+		final List<Node<T>> orphanedEntries = new ArrayList<>();
+		
+		while(node.parent != null) {
+			final Node<T> parent = node.parent;
+			
+			if(node.children.size() < MIN_NODE_SIZE) {
+				parent.children.remove(node);
+				node.collectEntries(orphanedEntries);
+			} else {
+				node.recalculateBounds();
+			}
+			
+			node = parent;
+		}
+		
+		root.recalculateBounds();
+		
+		// Shorten the tree
+		while(! root.leaf && root.children.size() == 1) {
+			root = root.children.get(0);
+			root.parent = null;
+		}
+		
+		if(root.children.isEmpty()) {
+			root = null;
+		}
+		
+		for(final Node<T> orphanedEntry : orphanedEntries) {
+			insert(orphanedEntry);
+		}
+	}
+	
+	/**
+	 * Clamp the coordinate for the heuristics
+	 * @param coordinate
+	 * @return
+	 */
+	private static double clamp(final double coordinate) {
+		return Math.max(-COORDINATE_LIMIT, Math.min(COORDINATE_LIMIT, coordinate));
+	}
+	
+	/**
+	 * A node of the tree, either a entry or a directory node
+	 */
+	private static class Node<T> {
+		
+		/**
+		 * The lower coordinates of the node
+		 */
+		private final double[] low;
+		
+		/**
+		 * The upper coordinates of the node
+		 */
+		private final double[] high;
+		
+		/**
+		 * The value (entry nodes only)
+		 */
+		private final T value;
+		
+		/**
+		 * The bounding box (entry nodes only)
+		 */
+		private final Hyperrectangle box;
+		
+		/**
+		 * The children (directory nodes only)
+		 */
+		private final List<Node<T>> children;
+		
+		/**
+		 * Are the children entries (directory nodes only)
+		 */
+		private final boolean leaf;
+		
+		/**
+		 * The parent node, null for the root node and unindexed entries
+		 */
+		private Node<T> parent;
+		
+		public Node(final T value, final Hyperrectangle box) {
+			this.value = value;
+			this.box = box;
+			this.children = null;
+			this.leaf = false;
+			
+			final int dimension = (box == null) ? 0 : box.getDimension();
+			this.low = new double[dimension];
+			this.high = new double[dimension];
+			
+			for(int d = 0; d < dimension; d++) {
+				low[d] = box.getCoordinateLow(d);
+				high[d] = box.getCoordinateHigh(d);
+			}
+		}
+		
+		public Node(final boolean leaf, final int dimension) {
+			this.value = null;
+			this.box = null;
+			this.children = new ArrayList<>(MAX_NODE_SIZE + 1);
+			this.leaf = leaf;
+			this.low = new double[dimension];
+			this.high = new double[dimension];
+			
+			recalculateBounds();
+		}
+		
+		/**
+		 * A temporary node that covers the given nodes, the 
+		 * parent of the nodes is not changed
+		 * @param nodes
+		 * @param dimension
+		 */
+		public Node(final List<Node<T>> nodes, final int dimension) {
+			this.value = null;
+			this.box = null;
+			this.children = new ArrayList<>(nodes);
+			this.leaf = false;
+			this.low = new double[dimension];
+			this.high = new double[dimension];
+			
+			recalculateBounds();
+		}
+		
+		/**
+		 * Is this node a entry
+		 * @return
+		 */
+		public boolean isEntry() {
+			return children == null;
+		}
+		
+		/**
+		 * Add a child and extend the bounds
+		 * @param child
+		 */
+		public void addChild(final Node<T> child) {
+			children.add(child);
+			child.parent = this;
+			
+			for(int d = 0; d < low.length; d++) {
+				low[d] = Math.min(low[d], child.low[d]);
+				high[d] = Math.max(high[d], child.high[d]);
+			}
+		}
+		
+		/**
+		 * Recalculate the bounds from the children
+		 */
+		public void recalculateBounds() {
+			for(int d = 0; d < low.length; d++) {
+				low[d] = Double.POSITIVE_INFINITY;
+				high[d] = Double.NEGATIVE_INFINITY;
+				
+				for(final Node<T> child : children) {
+					low[d] = Math.min(low[d], child.low[d]);
+					high[d] = Math.max(high[d], child.high[d]);
+				}
+			}
+		}
+		
+		/**
+		 * Add all entries of the subtree to the list
+		 * @param result
+		 */
+		public void collectEntries(final List<Node<T>> result) {
+			if(leaf) {
+				result.addAll(children);
+			} else {
+				children.forEach(c -> c.collectEntries(result));
+			}
+		}
+		
+		/**
+		 * Get the margin (the sum of the edge lengths) of the node
+		 * @return
+		 */
+		public double getMargin() {
+			double margin = 0;
+			
+			for(int d = 0; d < low.length; d++) {
+				margin += clamp(high[d]) - clamp(low[d]);
+			}
+			
+			return margin;
+		}
+		
+		/**
+		 * Get the margin of the node, when the other node is added
+		 * @param otherNode
+		 * @return
+		 */
+		public double getMarginWith(final Node<T> otherNode) {
+			double margin = 0;
+			
+			for(int d = 0; d < low.length; d++) {
+				margin += clamp(Math.max(high[d], otherNode.high[d])) 
+						- clamp(Math.min(low[d], otherNode.low[d]));
+			}
+			
+			return margin;
+		}
+		
+		/**
+		 * Get the margin of the overlapping area of both nodes
+		 * @param otherNode
+		 * @return
+		 */
+		public double getOverlapMargin(final Node<T> otherNode) {
+			double margin = 0;
+			
+			for(int d = 0; d < low.length; d++) {
+				final double overlap = clamp(Math.min(high[d], otherNode.high[d])) 
+						- clamp(Math.max(low[d], otherNode.low[d]));
+				
+				if(overlap < 0) {
+					return 0;
+				}
+				
+				margin += overlap;
+			}
+			
+			return margin;
+		}
+		
+		/**
+		 * Is the node overlapping with the other node (closed intervals)
+		 * @param otherNode
+		 * @return
+		 */
+		public boolean isOverlapping(final Node<T> otherNode) {
+			for(int d = 0; d < low.length; d++) {
+				if(low[d] > otherNode.high[d] || high[d] < otherNode.low[d]) {
+					return false;
+				}
+			}
+			
+			return true;
+		}
+	}
+}
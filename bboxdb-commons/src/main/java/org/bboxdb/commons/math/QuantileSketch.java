@@ -0,0 +1,458 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.commons.math;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A mergeable streaming quantile sketch (KLL). 
+ * 
+ * The sketch keeps a small, bounded number of items in a hierarchy of levels. 
+ * An item on level h represents 2^h of the added values. When a level is full, 
+ * it is sorted and every second item is promoted to the next level. The rank 
+ * error is approx. 1.65 / k, independent of the number of added values.
+ * 
+ * The sketch is not thread safe.
+ */
+public class QuantileSketch {
+	
+	/**
+	 * The default accuracy parameter (rank error ~ 1%)
+	 */
+	public final static int DEFAULT_K = 200;
+	
+	/**
+	 * The capacity decay of the lower levels
+	 */
+	private final static double CAPACITY_DECAY = 2.0 / 3.0;
+	
+	/**
+	 * The minimal capacity of a level
+	 */
+	private final static int MIN_LEVEL_CAPACITY = 2;
+	
+	/**
+	 * The accuracy parameter
+	 */
+	private final int k;
+	
+	/**
+	 * The levels of the sketch
+	 */
+	private final List<Level> levels;
+	
+	/**
+	 * The number of added values
+	 */
+	private long count;
+	
+	/**
+	 * The smallest added value
+	 */
+	private double min;
+	
+	/**
+	 * The biggest added value
+	 */
+	private double max;
+	
+	public QuantileSketch() {
+		this(DEFAULT_K);
+	}
+	
+	public QuantileSketch(final int k) {
+		
+		if(k < MIN_LEVEL_CAPACITY) {
+			throw new IllegalArgumentException("Invalid value for k: " + k);
+		}
+		
+		this.k = k;
+		this.levels = new ArrayList<>();
+		this.levels.add(new Level());
+		this.count = 0;
+		this.min = Double.NaN;
+		this.max = Double.NaN;
+	}
+	
+	/**
+	 * Add a value to the sketch, NaN values are ignored
+	 * @param value
+	 */
+	public void add(final double value) {
+		
+		if(Double.isNaN(value)) {
+			return;
+		}
+		
+		updateMinMax(value, value);
+		count++;
+		
+		levels.get(0).add(value);
+		compressIfNeeded();
+	}
+	
+	/**
+	 * Merge the values of the other sketch into this sketch
+	 * @param other
+	 */
+	public void merge(final QuantileSketch other) {
+		
+		if(other.isEmpty()) {
+			return;
+		}
+		
+		while(levels.size() < other.levels.size()) {
+			levels.add(new Level());
+		}
+		
+		for(int level = 0; level < other.levels.size(); level++) {
+			final Level otherLevel = other.levels.get(level);
+			final Level ownLevel = levels.get(level);
+			
+			for(int i = 0; i < otherLevel.size; i++) {
+				ownLevel.add(otherLevel.items[i]);
+			}
+		}
+		
+		updateMinMax(other.min, other.max);
+		count = count + other.count;
+		
+		compressIfNeeded();
+	}
+	
+	/**
+	 * Get the fraction of the added values, that are smaller or equal than the given value
+	 * @param value
+	 * @return the rank in [0, 1], 0 for an empty sketch
+	 */
+	public double getRank(final double value) {
+		
+		if(isEmpty()) {
+			return 0;
+		}
+		
+		long weight = 0;
+		long totalWeight = 0;
+		
+		for(int level = 0; level < levels.size(); level++) {
+			final Level currentLevel = levels.get(level);
+			final long levelWeight = 1L << level;
+			
+			for(int i = 0; i < currentLevel.size; i++) {
+				if(currentLevel.items[i] <= value) {
+					weight = weight + levelWeight;
+				}
+			}
+			
+			totalWeight = totalWeight + currentLevel.size * levelWeight;
+		}
+		
+		return (double) weight / (double) totalWeight;
+	}
+	
+	/**
+	 * Get the value at the given rank
+	 * @param rank - the rank in [0, 1]
+	 * @return
+	 */
+	public double getQuantile(final double rank) {
+		
+		if(isEmpty()) {
+			throw new IllegalStateException("Unable to get a quantile of an empty sketch");
+		}
+		
+		if(rank < 0 || rank > 1) {
+			throw new IllegalArgumentException("Rank has to be in [0, 1]: " + rank);
+		}
+		
+		if(rank == 0) {
+			return min;
+		}
+		
+		if(rank == 1) {
+			return max;
+		}
+		
+		final int retainedItems = getRetainedItems();
+		final double[] values = new double[retainedItems];
+		final long[] weights = new long[retainedItems];
+		final Integer[] order = new Integer[retainedItems];
+		
+		int position = 0;
+		long totalWeight = 0;
+		
+		for(int level = 0; level < levels.size(); level++) {
+			final Level currentLevel = levels.get(level);
+			final long levelWeight = 1L << level;
+			
+			for(int i = 0; i < currentLevel.size; i++) {
+				values[position] = currentLevel.items[i];
+				weights[position] = levelWeight;
+				order[position] = position;
+				totalWeight = totalWeight + levelWeight;
+				position++;
+			}
+		}
+		
+		Arrays.sort(order, (i1, i2) -> Double.compare(values[i1], values[i2]));
+		
+		final double targetWeight = rank * totalWeight;
+		long weight = 0;
+		
+		for(final int index : order) {
+			weight = weight + weights[index];
+			
+			if(weight >= targetWeight) {
+				return values[index];
+			}
+		}
+		
+		return max;
+	}
+	
+	/**
+	 * Is the sketch empty
+	 * @return
+	 */
+	public boolean isEmpty() {
+		return count == 0;
+	}
+	
+	/**
+	 * Get the number of added values
+	 * @return
+	 */
+	public long getCount() {
+		return count;
+	}
+	
+	/**
+	 * Get the smallest added value (NaN for an empty sketch)
+	 * @return
+	 */
+	public double getMin() {
+		return min;
+	}
+	
+	/**
+	 * Get the biggest added value (NaN for an empty sketch)
+	 * @return
+	 */
+	public double getMax() {
+		return max;
+	}
+	
+	/**
+	 * Get the number of items retained in the sketch
+	 * @return
+	 */
+	public int getRetainedItems() {
+		return levels.stream().mapToInt(l -> l.size).sum();
+	}
+	
+	/**
+	 * Encode the sketch into an array
+	 * 
+	 * Format: k, count, min, max, number of levels, [level size, level items]*
+	 * 
+	 * @return
+	 */
+	public double[] toArray() {
+		final double[] result = new double[5 + levels.size() + getRetainedItems()];
+		
+		result[0] = k;
+		result[1] = count;
+		result[2] = min;
+		result[3] = max;
+		result[4] = levels.size();
+		
+		int position = 5;
+		
+		for(final Level level : levels) {
+			result[position++] = level.size;
+			System.arraycopy(level.items, 0, result, position, level.size);
+			position = position + level.size;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Decode a sketch from an array
+	 * @param data
+	 * @return
+	 */
+	public static QuantileSketch fromArray(final double[] data) {
+		
+		if(data == null || data.length < 5) {
+			throw new IllegalArgumentException("Unable to decode sketch, invalid data");
+		}
+		
+		final QuantileSketch sketch = new QuantileSketch((int) data[0]);
+		sketch.count = (long) data[1];
+		sketch.min = data[2];
+		sketch.max = data[3];
+		
+		final int numberOfLevels = (int) data[4];
+		int position = 5;
+		
+		sketch.levels.clear();
+		
+		try {
+			for(int level = 0; level < numberOfLevels; level++) {
+				final Level currentLevel = new Level();
+				final int levelSize = (int) data[position++];
+				
+				for(int i = 0; i < levelSize; i++) {
+					currentLevel.add(data[position++]);
+				}
+				
+				sketch.levels.add(currentLevel);
+			}
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("Unable to decode sketch, invalid data", e);
+		}
+		
+		if(sketch.levels.isEmpty()) {
+			sketch.levels.add(new Level());
+		}
+		
+		return sketch;
+	}
+	
+	/**
+	 * Update the min and max value
+	 * @param minValue
+	 * @param maxValue
+	 */
+	private void updateMinMax(final double minValue, final double maxValue) {
+		if(isEmpty()) {
+			min = minValue;
+			max = maxValue;
+		} else {
+			min = Math.min(min, minValue);
+			max = Math.max(max, maxValue);
+		}
+	}
+	
+	/**
+	 * Get the capacity of the given level
+	 * @param level
+	 * @return
+	 */
+	private int getLevelCapacity(final int level) {
+		final int depth = levels.size() - level - 1;
+		final int capacity = (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth));
+		return Math.max(MIN_LEVEL_CAPACITY, capacity);
+	}
+	
+	/**
+	 * Compact levels until the sketch is below its capacity
+	 */
+	private void compressIfNeeded() {
+		
+		while(true) {
+			int totalCapacity = 0;
+			int levelToCompact = -1;
+			
+			for(int level = 0; level < levels.size(); level++) {
+				final int capacity = getLevelCapacity(level);
+				totalCapacity = totalCapacity + capacity;
+				
+				if(levelToCompact == -1 && levels.get(level).size >= capacity) {
+					levelToCompact = level;
+				}
+			}
+			
+			if(getRetainedItems() < totalCapacity || levelToCompact == -1) {
+				return;
+			}
+			
+			compactLevel(levelToCompact);
+		}
+	}
+	
+	/**
+	 * Compact the given level, every second item is promoted to the next level
+	 * @param level
+	 */
+	private void compactLevel(final int level) {
+		
+		if(level + 1 == levels.size()) {
+			levels.add(new Level());
+		}
+		
+		final Level currentLevel = levels.get(level);
+		final Level nextLevel = levels.get(level + 1);
+		
+		Arrays.sort(currentLevel.items, 0, currentLevel.size);
+		
+		final boolean oddSize = currentLevel.size % 2 == 1;
+		final int pairedItems = oddSize ? currentLevel.size - 1 : currentLevel.size;
+		final int offset = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+		
+		for(int i = offset; i < pairedItems; i = i + 2) {
+			nextLevel.add(currentLevel.items[i]);
+		}
+		
+		// Keep the unpaired item on the current level
+		if(oddSize) {
+			currentLevel.items[0] = currentLevel.items[currentLevel.size - 1];
+			currentLevel.size = 1;
+		} else {
+			currentLevel.size = 0;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "QuantileSketch [k=" + k + ", count=" + count + ", min=" + min + ", max=" + max
+				+ ", levels=" + levels.size() + ", retainedItems=" + getRetainedItems() + "]";
+	}
+	
+	/**
+	 * A level of the sketch
+	 */
+	private static class Level {
+		
+		/**
+		 * The items of the level
+		 */
+		private double[] items = new double[8];
+		
+		/**
+		 * The number of used items
+		 */
+		private int size = 0;
+		
+		/**
+		 * Add an item to the level
+		 * @param value
+		 */
+		private void add(final double value) {
+			if(size == items.length) {
+				items = Arrays.copyOf(items, items.length * 2);
+			}
+			
+			items[size++] = value;
+		}
+	}
+}
@@ -19,9 +19,12 @@ package org.bboxdb;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
 
 import org.bboxdb.commons.DuplicateResolver;
 import org.bboxdb.commons.SortedIteratorMerger;
@@ -267,4 +270,73 @@ public class TestSortedIteratorMerger {
 		Assert.assertTrue(resultList.contains("geh"));
 		Assert.assertEquals(7, mergeIterator.getReadElements());
 	}
+	
+	/**
+	 * Test the merge of many iterators
+	 */
+	@Test(timeout=60000)
+	public void testMergeManyIterators() {
+		final Random random = new Random();
+		final List<Iterator<String>> iteratorList = new ArrayList<>();
+		final List<String> expectedList = new ArrayList<>();
+		
+		for(int i = 0; i < 50; i++) {
+			final List<String> list = new ArrayList<>();
+			
+			for(int element = 0; element < 100; element++) {
+				list.add(Integer.toString(random.nextInt(100000)));
+			}
+			
+			Collections.sort(list);
+			expectedList.addAll(list);
+			iteratorList.add(list.iterator());
+		}
+		
+		Collections.sort(expectedList);
+		
+		final SortedIteratorMerger<String> mergeIterator = new SortedIteratorMerger<String>(
+				iteratorList, STRING_COMPARATOR, DEFAULT_DUPLICATE_RESOLVER);
+		
+		Assert.assertEquals(expectedList, getResultList(mergeIterator));
+		Assert.assertEquals(5000, mergeIterator.getReadElements());
+	}
+	
+	/**
+	 * The duplicates are passed to the resolver in the order of the iterators
+	 */
+	@Test(timeout=60000)
+	public void testDuplicateOrder() {
+		final List<String> list1 = Arrays.asList("a", "b1");
+		final List<String> list2 = Arrays.asList("b2", "c");
+		final List<String> list3 = Arrays.asList("b3");
+		
+		final List<List<String>> duplicates = new ArrayList<>();
+		final DuplicateResolver<String> duplicateResolver = (e) -> duplicates.add(new ArrayList<>(e));
+		
+		final SortedIteratorMerger<String> mergeIterator = new SortedIteratorMerger<String>(
+				Arrays.asList(list3.iterator(), list1.iterator(), list2.iterator()), 
+				(e1, e2) -> e1.substring(0, 1).compareTo(e2.substring(0, 1)), 
+				duplicateResolver);
+		
+		final List<String> resultList = getResultList(mergeIterator);
+		
+		Assert.assertEquals(Arrays.asList("a", "b3", "b1", "b2", "c"), resultList);
+		Assert.assertEquals(3, duplicates.size());
+		Assert.assertEquals(Arrays.asList("b3", "b1", "b2"), duplicates.get(1));
+	}
+	
+	/**
+	 * Test next on an exhausted iterator
+	 */
+	@Test(expected=NoSuchElementException.class)
+	public void testNextOnExhaustedIterator() {
+		final SortedIteratorMerger<String> mergeIterator = new SortedIteratorMerger<String>(
+				Arrays.asList(Arrays.asList("a").iterator()), 
+				STRING_COMPARATOR, 
+				DEFAULT_DUPLICATE_RESOLVER);
+		
+		final Iterator<String> iterator = mergeIterator.iterator();
+		Assert.assertEquals("a", iterator.next());
+		iterator.next();
+	}
 }
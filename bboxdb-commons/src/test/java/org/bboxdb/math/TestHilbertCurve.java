@@ -0,0 +1,130 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.math;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bboxdb.commons.math.HilbertCurve;
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestHilbertCurve {
+
+	/**
+	 * Test the curve in two dimensions
+	 */
+	@Test(timeout=60000)
+	public void testCurve2D() {
+		testCurve(2, 4);
+	}
+	
+	/**
+	 * Test the curve in three dimensions
+	 */
+	@Test(timeout=60000)
+	public void testCurve3D() {
+		testCurve(3, 3);
+	}
+	
+	/**
+	 * Test the curve in four dimensions
+	 */
+	@Test(timeout=60000)
+	public void testCurve4D() {
+		testCurve(4, 2);
+	}
+	
+	/**
+	 * Every cell is visited once and consecutive cells are neighbors
+	 * @param dimensions
+	 * @param bits
+	 */
+	private void testCurve(final int dimensions, final int bits) {
+		final long cellsPerDimension = 1L << bits;
+		final int totalCells = (int) Math.pow(cellsPerDimension, dimensions);
+		
+		final Map<Long, long[]> cells = new HashMap<>();
+		
+		for(int cell = 0; cell < totalCells; cell++) {
+			final long[] coordinates = new long[dimensions];
+			int value = cell;
+			
+			for(int dimension = 0; dimension < dimensions; dimension++) {
+				coordinates[dimension] = value % cellsPerDimension;
+				value /= cellsPerDimension;
+			}
+			
+			final long index = HilbertCurve.getIndex(coordinates, bits);
+			Assert.assertTrue(index >= 0 && index < totalCells);
+			Assert.assertNull(cells.put(index, coordinates));
+		}
+		
+		for(long index = 1; index < totalCells; index++) {
+			final long[] cell1 = cells.get(index - 1);
+			final long[] cell2 = cells.get(index);
+			
+			long distance = 0;
+			for(int dimension = 0; dimension < dimensions; dimension++) {
+				distance += Math.abs(cell1[dimension] - cell2[dimension]);
+			}
+			
+			Assert.assertEquals(1, distance);
+		}
+	}
+	
+	/**
+	 * Test the index of points
+	 */
+	@Test(timeout=60000)
+	public void testPointIndex() {
+		final Hyperrectangle space = new Hyperrectangle(0d, 4d, 0d, 4d);
+		
+		Assert.assertEquals(HilbertCurve.getIndex(new long[] {1, 2}, 2), 
+				HilbertCurve.getIndex(space, new double[] {1.5, 2.5}, 2));
+		
+		// Points outside of the space
+		Assert.assertEquals(HilbertCurve.getIndex(new long[] {0, 3}, 2), 
+				HilbertCurve.getIndex(space, new double[] {-1, 10}, 2));
+		
+		Assert.assertEquals(HilbertCurve.getIndex(new long[] {3, 3}, 2), 
+				HilbertCurve.getIndex(space, new double[] {4, 4}, 2));
+	}
+	
+	/**
+	 * Test the bits per dimension
+	 */
+	@Test(timeout=60000)
+	public void testBitsPerDimension() {
+		Assert.assertEquals(31, HilbertCurve.getMaxBitsPerDimension(1));
+		Assert.assertEquals(31, HilbertCurve.getMaxBitsPerDimension(2));
+		Assert.assertEquals(21, HilbertCurve.getMaxBitsPerDimension(3));
+		
+		final long index = HilbertCurve.getIndex(new long[] {(1L << 31) - 1, 0}, 31);
+		Assert.assertTrue(index > 0);
+	}
+	
+	/**
+	 * Test invalid parameter
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidBits() {
+		HilbertCurve.getIndex(new long[] {1, 2, 3}, 22);
+	}
+}
@@ -247,6 +247,18 @@ public class TestHyperrectangle {
 		Assert.assertEquals(boundingBox1, Hyperrectangle.getCoveringBox(Hyperrectangle.FULL_SPACE, null, boundingBox1, Hyperrectangle.FULL_SPACE));
 	}
 
+	/**
+	 * Test the creation of the covering bounding box with negative coordinates
+	 */
+	@Test(timeout=60000)
+	public void testCoverBoundingBox3() {
+		final Hyperrectangle boundingBox1 = new Hyperrectangle(-5d, -3d, -5d, -3d);
+		final Hyperrectangle boundingBox2 = new Hyperrectangle(-4d, -2d, -6d, -4d);
+
+		final Hyperrectangle coveringBox = Hyperrectangle.getCoveringBox(boundingBox1, boundingBox2);
+		Assert.assertEquals(new Hyperrectangle(-5d, -2d, -6d, -3d), coveringBox);
+	}
+
 	/**
 	 * Merge two boxes with wrong dimension
 	 */
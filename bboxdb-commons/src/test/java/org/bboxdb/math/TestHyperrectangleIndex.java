@@ -0,0 +1,239 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.math;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bboxdb.commons.math.DoubleInterval;
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.commons.math.HyperrectangleIndex;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestHyperrectangleIndex {
+
+	/**
+	 * Test the empty index
+	 */
+	@Test(timeout=60000)
+	public void testEmptyIndex() {
+		final HyperrectangleIndex<Long> index = new HyperrectangleIndex<>();
+		Assert.assertEquals(0, index.size());
+		Assert.assertTrue(index.getValuesForBoundingBox(new Hyperrectangle(1d, 2d)).isEmpty());
+		Assert.assertTrue(index.getValuesForBoundingBox(Hyperrectangle.FULL_SPACE).isEmpty());
+	}
+	
+	/**
+	 * Test put, update and remove
+	 */
+	@Test(timeout=60000)
+	public void testUpdate() {
+		final HyperrectangleIndex<Long> index = new HyperrectangleIndex<>();
+		index.put(1L, new Hyperrectangle(1d, 2d, 1d, 2d));
+		index.put(2L, new Hyperrectangle(5d, 6d, 5d, 6d));
+		index.put(3L, Hyperrectangle.FULL_SPACE);
+		
+		Assert.assertEquals(3, index.size());
+		Assert.assertEquals(toSet(1L, 3L), new HashSet<>(
+				index.getValuesForBoundingBox(new Hyperrectangle(1.5d, 1.6d, 1.5d, 1.6d))));
+		
+		index.put(1L, new Hyperrectangle(10d, 12d, 10d, 12d));
+		Assert.assertEquals(toSet(3L), new HashSet<>(
+				index.getValuesForBoundingBox(new Hyperrectangle(1.5d, 1.6d, 1.5d, 1.6d))));
+		
+		Assert.assertTrue(index.remove(3L));
+		Assert.assertFalse(index.remove(3L));
+		Assert.assertTrue(index.getValuesForBoundingBox(new Hyperrectangle(1.5d, 1.6d, 1.5d, 1.6d)).isEmpty());
+		Assert.assertEquals(toSet(1L, 2L), new HashSet<>(index.getValuesForBoundingBox(Hyperrectangle.FULL_SPACE)));
+		
+		index.clear();
+		Assert.assertEquals(0, index.size());
+		Assert.assertTrue(index.getValuesForBoundingBox(Hyperrectangle.FULL_SPACE).isEmpty());
+	}
+	
+	/**
+	 * Test open intervals (e.g. the regions of the KD-tree)
+	 */
+	@Test(timeout=60000)
+	public void testOpenIntervals() {
+		final HyperrectangleIndex<Long> index = new HyperrectangleIndex<>();
+		
+		final Hyperrectangle left = new Hyperrectangle(new ArrayList<>(Arrays.asList(
+				new DoubleInterval(0, 5, true, false))));
+		
+		final Hyperrectangle right = new Hyperrectangle(new ArrayList<>(Arrays.asList(
+				new DoubleInterval(5, 10, true, true))));
+		
+		index.put(1L, left);
+		index.put(2L, right);
+		
+		Assert.assertEquals(toSet(2L), new HashSet<>(index.getValuesForBoundingBox(new Hyperrectangle(5d, 5d))));
+		Assert.assertEquals(toSet(1L), new HashSet<>(index.getValuesForBoundingBox(new Hyperrectangle(4d, 4.5d))));
+	}
+	
+	/**
+	 * Compare the index with a full scan
+	 */
+	@Test(timeout=60000)
+	public void testRandomBoxes() {
+		final HyperrectangleIndex<Integer> index = new HyperrectangleIndex<>();
+		final List<Hyperrectangle> boxes = new ArrayList<>();
+		final Random random = new Random(42);
+		
+		for(int i = 0; i < 5000; i++) {
+			final Hyperrectangle box = getRandomBox(random);
+			boxes.add(box);
+			index.put(i, box);
+		}
+		
+		for(int query = 0; query < 200; query++) {
+			final Hyperrectangle queryBox = getRandomBox(random);
+			
+			final Set<Integer> expected = new HashSet<>();
+			for(int i = 0; i < boxes.size(); i++) {
+				if(boxes.get(i).intersects(queryBox)) {
+					expected.add(i);
+				}
+			}
+			
+			final List<Integer> result = index.getValuesForBoundingBox(queryBox);
+			Assert.assertEquals(expected.size(), result.size());
+			Assert.assertEquals(expected, new HashSet<>(result));
+		}
+	}
+
+	/**
+	 * Compare the index with a full scan after mixed inserts, updates and deletes
+	 */
+	@Test(timeout=60000)
+	public void testRandomUpdates() {
+		final HyperrectangleIndex<Integer> index = new HyperrectangleIndex<>();
+		final Map<Integer, Hyperrectangle> boxes = new HashMap<>();
+		final Random random = new Random(42);
+		
+		for(int round = 0; round < 50; round++) {
+			for(int operation = 0; operation < 200; operation++) {
+				final int value = random.nextInt(2000);
+				
+				if(random.nextInt(3) == 0) {
+					Assert.assertEquals(boxes.remove(value) != null, index.remove(value));
+				} else {
+					final Hyperrectangle box = getRandomBox(random);
+					boxes.put(value, box);
+					index.put(value, box);
+				}
+			}
+			
+			Assert.assertEquals(boxes.size(), index.size());
+			assertQueriesEqualFullScan(index, boxes, random);
+		}
+		
+		// Delete all entries, the tree is condensed
+		for(final Integer value : new ArrayList<>(boxes.keySet())) {
+			Assert.assertTrue(index.remove(value));
+			boxes.remove(value);
+			
+			if(boxes.size() % 250 == 0) {
+				assertQueriesEqualFullScan(index, boxes, random);
+			}
+		}
+		
+		Assert.assertEquals(0, index.size());
+		Assert.assertTrue(index.getValuesForBoundingBox(new Hyperrectangle(0d, 100d, 0d, 100d)).isEmpty());
+	}
+	
+	/**
+	 * Test unbounded boxes (e.g. the regions of the KD-tree)
+	 */
+	@Test(timeout=60000)
+	public void testUnboundedBoxes() {
+		final HyperrectangleIndex<Integer> index = new HyperrectangleIndex<>();
+		final Map<Integer, Hyperrectangle> boxes = new HashMap<>();
+		final Random random = new Random(42);
+		
+		for(int i = 0; i < 1000; i++) {
+			final double x = random.nextDouble() * 100;
+			final double y = random.nextDouble() * 100;
+			
+			final Hyperrectangle box = random.nextBoolean() 
+					? new Hyperrectangle(Double.NEGATIVE_INFINITY, x, y, Double.POSITIVE_INFINITY)
+					: new Hyperrectangle(x, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, y);
+			
+			boxes.put(i, box);
+			index.put(i, box);
+		}
+		
+		for(int i = 0; i < 1000; i += 3) {
+			boxes.remove(i);
+			index.remove(i);
+		}
+		
+		assertQueriesEqualFullScan(index, boxes, random);
+	}
+	
+	/**
+	 * Compare random queries with a full scan
+	 * @param index
+	 * @param boxes
+	 * @param random
+	 */
+	private void assertQueriesEqualFullScan(final HyperrectangleIndex<Integer> index, 
+			final Map<Integer, Hyperrectangle> boxes, final Random random) {
+		
+		for(int query = 0; query < 50; query++) {
+			final Hyperrectangle queryBox = getRandomBox(random);
+			
+			final Set<Integer> expected = boxes.entrySet().stream()
+					.filter(e -> e.getValue().intersects(queryBox))
+					.map(e -> e.getKey())
+					.collect(Collectors.toSet());
+			
+			final List<Integer> result = index.getValuesForBoundingBox(queryBox);
+			Assert.assertEquals(expected.size(), result.size());
+			Assert.assertEquals(expected, new HashSet<>(result));
+		}
+	}
+
+	/**
+	 * Get a random 2d box
+	 * @param random
+	 * @return
+	 */
+	private Hyperrectangle getRandomBox(final Random random) {
+		final double x = random.nextDouble() * 100;
+		final double y = random.nextDouble() * 100;
+		return new Hyperrectangle(x, x + random.nextDouble() * 5, y, y + random.nextDouble() * 5);
+	}
+	
+	/**
+	 * Build a set 
+	 * @param values
+	 * @return
+	 */
+	private Set<Long> toSet(final Long... values) {
+		return Arrays.stream(values).collect(Collectors.toSet());
+	}
+}
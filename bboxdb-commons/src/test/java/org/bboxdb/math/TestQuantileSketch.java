@@ -0,0 +1,167 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.math;
+
+import java.util.Random;
+
+import org.bboxdb.commons.math.QuantileSketch;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestQuantileSketch {
+	
+	/**
+	 * The allowed rank error in the tests
+	 */
+	private final static double RANK_ERROR = 0.03;
+
+	/**
+	 * Test the empty sketch
+	 */
+	@Test(timeout=60000)
+	public void testEmptySketch() {
+		final QuantileSketch sketch = new QuantileSketch();
+		Assert.assertTrue(sketch.isEmpty());
+		Assert.assertEquals(0, sketch.getCount());
+		Assert.assertEquals(0, sketch.getRank(10), 0.0001);
+		
+		sketch.add(Double.NaN);
+		Assert.assertTrue(sketch.isEmpty());
+	}
+	
+	/**
+	 * Query an empty sketch
+	 */
+	@Test(expected=IllegalStateException.class)
+	public void testEmptySketchQuantile() {
+		final QuantileSketch sketch = new QuantileSketch();
+		sketch.getQuantile(0.5);
+	}
+	
+	/**
+	 * Test a small sketch, all values are retained
+	 */
+	@Test(timeout=60000)
+	public void testExactSketch() {
+		final QuantileSketch sketch = new QuantileSketch();
+		
+		for(int i = 1; i <= 100; i++) {
+			sketch.add(i);
+		}
+		
+		Assert.assertEquals(100, sketch.getCount());
+		Assert.assertEquals(100, sketch.getRetainedItems());
+		Assert.assertEquals(1, sketch.getMin(), 0.0001);
+		Assert.assertEquals(100, sketch.getMax(), 0.0001);
+		Assert.assertEquals(1, sketch.getQuantile(0), 0.0001);
+		Assert.assertEquals(50, sketch.getQuantile(0.5), 0.0001);
+		Assert.assertEquals(100, sketch.getQuantile(1), 0.0001);
+		Assert.assertEquals(0.25, sketch.getRank(25), 0.0001);
+	}
+	
+	/**
+	 * Test the accuracy of the sketch on skewed data
+	 */
+	@Test(timeout=60000)
+	public void testSkewedData() {
+		final QuantileSketch sketch = new QuantileSketch();
+		final Random random = new Random(42);
+		
+		final int values = 500_000;
+		
+		for(int i = 0; i < values; i++) {
+			// Exponential distribution
+			sketch.add(-Math.log(1 - random.nextDouble()));
+		}
+		
+		Assert.assertEquals(values, sketch.getCount());
+		Assert.assertTrue(sketch.getRetainedItems() < 5 * QuantileSketch.DEFAULT_K);
+		
+		// The median of the exponential distribution is ln(2)
+		final double median = sketch.getQuantile(0.5);
+		Assert.assertEquals(0.5, 1 - Math.exp(-median), RANK_ERROR);
+		
+		final double percentile90 = sketch.getQuantile(0.9);
+		Assert.assertEquals(0.9, 1 - Math.exp(-percentile90), RANK_ERROR);
+		
+		Assert.assertEquals(0.5, sketch.getRank(Math.log(2)), RANK_ERROR);
+	}
+	
+	/**
+	 * Test the merge of sketches
+	 */
+	@Test(timeout=60000)
+	public void testMerge() {
+		final QuantileSketch sketch1 = new QuantileSketch();
+		final QuantileSketch sketch2 = new QuantileSketch();
+		
+		for(int i = 0; i < 100_000; i++) {
+			sketch1.add(i);
+		}
+		
+		for(int i = 100_000; i < 400_000; i++) {
+			sketch2.add(i);
+		}
+		
+		sketch1.merge(sketch2);
+		sketch1.merge(new QuantileSketch());
+		
+		Assert.assertEquals(400_000, sketch1.getCount());
+		Assert.assertEquals(0, sketch1.getMin(), 0.0001);
+		Assert.assertEquals(399_999, sketch1.getMax(), 0.0001);
+		Assert.assertEquals(0.5, sketch1.getQuantile(0.5) / 400_000.0, RANK_ERROR);
+		Assert.assertEquals(0.25, sketch1.getRank(100_000), RANK_ERROR);
+		
+		final QuantileSketch sketch3 = new QuantileSketch();
+		sketch3.merge(sketch1);
+		Assert.assertEquals(sketch1.getCount(), sketch3.getCount());
+		Assert.assertEquals(0.5, sketch3.getQuantile(0.5) / 400_000.0, RANK_ERROR);
+	}
+	
+	/**
+	 * Test the encoding and decoding of the sketch
+	 */
+	@Test(timeout=60000)
+	public void testEncodeDecode() {
+		final QuantileSketch sketch = new QuantileSketch();
+		
+		for(int i = 0; i < 10_000; i++) {
+			sketch.add(i);
+		}
+		
+		final QuantileSketch decodedSketch = QuantileSketch.fromArray(sketch.toArray());
+		
+		Assert.assertEquals(sketch.getCount(), decodedSketch.getCount());
+		Assert.assertEquals(sketch.getRetainedItems(), decodedSketch.getRetainedItems());
+		Assert.assertEquals(sketch.getMin(), decodedSketch.getMin(), 0.0001);
+		Assert.assertEquals(sketch.getMax(), decodedSketch.getMax(), 0.0001);
+		Assert.assertEquals(sketch.getQuantile(0.3), decodedSketch.getQuantile(0.3), 0.0001);
+		Assert.assertArrayEquals(sketch.toArray(), decodedSketch.toArray(), 0.0001);
+		
+		final QuantileSketch emptySketch = QuantileSketch.fromArray(new QuantileSketch().toArray());
+		Assert.assertTrue(emptySketch.isEmpty());
+	}
+	
+	/**
+	 * Decode invalid data
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void testDecodeInvalid() {
+		QuantileSketch.fromArray(new double[] {200, 10, 1, 2, 1, 5, 1});
+	}
+}
@@ -0,0 +1,390 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.experiments.cluster;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bboxdb.commons.MathUtil;
+import org.bboxdb.commons.MicroSecondTimestampProvider;
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.network.client.BBoxDBCluster;
+import org.bboxdb.network.client.future.EmptyResultFuture;
+import org.bboxdb.network.client.future.JoinedTupleListFuture;
+import org.bboxdb.network.client.future.OperationFuture;
+import org.bboxdb.network.client.future.TupleListFuture;
+import org.bboxdb.network.client.tools.FixedSizeFutureStore;
+import org.bboxdb.storage.entity.DistributionGroupConfiguration;
+import org.bboxdb.storage.entity.DistributionGroupConfigurationBuilder;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreConfigurationBuilder;
+import org.bboxdb.tools.generator.SyntheticDataGenerator;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Iterators;
+import com.google.common.io.Files;
+
+public class ClusterThroughputBenchmark implements Runnable {
+
+	/**
+	 * The number of BBoxDB instances
+	 */
+	private final int instances;
+	
+	/**
+	 * The number of tuples to insert per table
+	 */
+	private final int tuples;
+	
+	/**
+	 * The number of queries per query workload
+	 */
+	private final int queries;
+	
+	/**
+	 * The size of the tuple values
+	 */
+	private final int tupleSize;
+	
+	/**
+	 * The distribution group
+	 */
+	private final static String DISTRIBUTION_GROUP = "clusterbench";
+	
+	/**
+	 * The first table
+	 */
+	private final static String TABLE1 = DISTRIBUTION_GROUP + "_table1";
+	
+	/**
+	 * The second table
+	 */
+	private final static String TABLE2 = DISTRIBUTION_GROUP + "_table2";
+	
+	/**
+	 * The port of the zookeeper, the instances are using the following ports
+	 */
+	private final static int BASE_PORT = 52180;
+	
+	/**
+	 * The max number of pending insert futures
+	 */
+	private final static int MAX_PENDING_FUTURES = 1000;
+	
+	/**
+	 * The edge length of the range and join queries
+	 */
+	private final static double QUERY_SIZE = 10;
+	
+	/**
+	 * The time to wait for the results of the continuous query
+	 */
+	private final static long CONTINUOUS_QUERY_TIMEOUT_IN_MS = TimeUnit.SECONDS.toMillis(30);
+
+	public ClusterThroughputBenchmark(final int instances, final int tuples, final int queries, 
+			final int tupleSize) {
+		
+		this.instances = instances;
+		this.tuples = tuples;
+		this.queries = queries;
+		this.tupleSize = tupleSize;
+	}
+
+	@Override
+	public void run() {
+		final File baseDir = Files.createTempDir();
+		System.out.println("Starting local cluster with " + instances + " instances in " + baseDir);
+		
+		try(final LocalBBoxDBCluster cluster = new LocalBBoxDBCluster(instances, baseDir, BASE_PORT)) {
+			cluster.start();
+			
+			final BBoxDBCluster bboxDBCluster = cluster.createClient();
+			
+			try {
+				if(! bboxDBCluster.connect()) {
+					throw new IllegalStateException("Unable to connect to the local cluster");
+				}
+				
+				cluster.waitForInstances();
+				createTables(bboxDBCluster);
+				
+				System.out.println("#Workload\tOperations\tOps/s\tAvg (us)\tp50 (us)\tp95 (us)\tp99 (us)");
+				executeInsertWorkload(bboxDBCluster);
+				executeRangeQueryWorkload(bboxDBCluster);
+				executeJoinWorkload(bboxDBCluster);
+				executeContinuousQueryWorkload(bboxDBCluster);
+			} finally {
+				bboxDBCluster.close();
+			}
+		} catch (Exception e) {
+			System.err.println("Got exception while executing experiment: " + e);
+			e.printStackTrace();
+			System.exit(-1);
+		}
+	}
+
+	/**
+	 * Create the distribution group and the tables
+	 * @param bboxDBCluster
+	 * @throws Exception
+	 */
+	private void createTables(final BBoxDBCluster bboxDBCluster) throws Exception {
+		final DistributionGroupConfiguration configuration = DistributionGroupConfigurationBuilder.create(2)
+				.withReplicationFactor((short) 1)
+				.build();
+		
+		final EmptyResultFuture groupFuture = bboxDBCluster.createDistributionGroup(DISTRIBUTION_GROUP, 
+				configuration);
+		waitForSuccess(groupFuture);
+		
+		// Wait for distribution group to appear
+		Thread.sleep(5000);
+		
+		for(final String table : Arrays.asList(TABLE1, TABLE2)) {
+			final EmptyResultFuture tableFuture = bboxDBCluster.createTable(table, 
+					TupleStoreConfigurationBuilder.create().build());
+			waitForSuccess(tableFuture);
+		}
+	}
+
+	/**
+	 * Insert the synthetic tuples into both tables
+	 * @param bboxDBCluster
+	 * @throws Exception
+	 */
+	private void executeInsertWorkload(final BBoxDBCluster bboxDBCluster) throws Exception {
+		final LatencyStatistics statistics = new LatencyStatistics();
+		final FixedSizeFutureStore pendingFutures = new FixedSizeFutureStore(MAX_PENDING_FUTURES);
+		
+		pendingFutures.addFailedFutureCallback(f -> System.err.println("Insert failed: " 
+				+ f.getAllMessages()));
+		
+		final List<EmptyResultFuture> futures = new ArrayList<>();
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		
+		for(int i = 0; i < tuples; i++) {
+			for(final String table : Arrays.asList(TABLE1, TABLE2)) {
+				final EmptyResultFuture future = bboxDBCluster.insertTuple(table, 
+						getRandomTuple(table + "_" + i));
+				
+				pendingFutures.put(future);
+				futures.add(future);
+			}
+		}
+		
+		pendingFutures.waitForCompletion();
+		stopwatch.stop();
+		
+		futures.forEach(f -> statistics.record(f.getCompletionTime(TimeUnit.MICROSECONDS)));
+		
+		printResult("insert", statistics, stopwatch);
+	}
+	
+	/**
+	 * Execute the range queries
+	 * @param bboxDBCluster
+	 * @throws Exception
+	 */
+	private void executeRangeQueryWorkload(final BBoxDBCluster bboxDBCluster) throws Exception {
+		final LatencyStatistics statistics = new LatencyStatistics();
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		for(int i = 0; i < queries; i++) {
+			final Stopwatch queryStopwatch = Stopwatch.createStarted();
+			final TupleListFuture future = bboxDBCluster.queryRectangle(TABLE1, getRandomQueryBox());
+			waitForSuccess(future);
+			Iterators.size(future.iterator());
+			
+			statistics.record(queryStopwatch.elapsed(TimeUnit.MICROSECONDS));
+		}
+		
+		printResult("range", statistics, stopwatch);
+	}
+	
+	/**
+	 * Execute the spatial joins
+	 * @param bboxDBCluster
+	 * @throws Exception
+	 */
+	private void executeJoinWorkload(final BBoxDBCluster bboxDBCluster) throws Exception {
+		final LatencyStatistics statistics = new LatencyStatistics();
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		for(int i = 0; i < queries; i++) {
+			final Stopwatch queryStopwatch = Stopwatch.createStarted();
+			final JoinedTupleListFuture future = bboxDBCluster.queryJoin(Arrays.asList(TABLE1, TABLE2), 
+					getRandomQueryBox());
+			waitForSuccess(future);
+			Iterators.size(future.iterator());
+			
+			statistics.record(queryStopwatch.elapsed(TimeUnit.MICROSECONDS));
+		}
+		
+		printResult("join", statistics, stopwatch);
+	}
+	
+	/**
+	 * Register a continuous query and measure the delay between the creation 
+	 * of a tuple and the delivery of the tuple to the client
+	 * @param bboxDBCluster
+	 * @throws Exception
+	 */
+	private void executeContinuousQueryWorkload(final BBoxDBCluster bboxDBCluster) throws Exception {
+		final LatencyStatistics statistics = new LatencyStatistics();
+		final Hyperrectangle queryBox = new Hyperrectangle(-1d, 111d, -1d, 111d);
+		final TupleListFuture queryFuture = bboxDBCluster.queryRectangleContinuous(TABLE1, queryBox);
+		
+		final Thread consumerThread = new Thread(() -> {
+			try {
+				queryFuture.waitForCompletion();
+				
+				for(final Tuple tuple : queryFuture) {
+					final long now = MicroSecondTimestampProvider.getNewTimestamp();
+					statistics.record(now - tuple.getVersionTimestamp());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		
+		consumerThread.setDaemon(true);
+		consumerThread.start();
+		
+		// Give the server the chance to register the query
+		Thread.sleep(1000);
+		
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final FixedSizeFutureStore pendingFutures = new FixedSizeFutureStore(MAX_PENDING_FUTURES);
+		
+		for(int i = 0; i < queries; i++) {
+			final Tuple tuple = getRandomTuple("continuous_" + i);
+			pendingFutures.put(bboxDBCluster.insertTuple(TABLE1, tuple));
+		}
+		
+		pendingFutures.waitForCompletion();
+		
+		while(statistics.getCount() < queries 
+				&& stopwatch.elapsed(TimeUnit.MILLISECONDS) < CONTINUOUS_QUERY_TIMEOUT_IN_MS) {
+			Thread.sleep(10);
+		}
+		
+		if(statistics.getCount() < queries) {
+			System.err.format("Continuous query has received only %d of %d tuples%n", 
+					statistics.getCount(), queries);
+		}
+		
+		printResult("continuous", statistics, stopwatch);
+	}
+
+	/**
+	 * Print the result of a workload
+	 * @param workload
+	 * @param statistics
+	 * @param stopwatch
+	 */
+	private void printResult(final String workload, final LatencyStatistics statistics, 
+			final Stopwatch stopwatch) {
+		
+		final long elapsedMs = Math.max(1, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+		final double throughput = statistics.getCount() * 1000.0 / elapsedMs;
+		
+		System.out.format("%s\t%d\t%.2f\t%.0f\t%d\t%d\t%d%n", workload, statistics.getCount(), 
+				throughput, statistics.getAverage(), statistics.getPercentile(50), 
+				statistics.getPercentile(95), statistics.getPercentile(99));
+	}
+	
+	/**
+	 * Get a new tuple with a random bounding box and a random value. The 
+	 * data has the same layout as the data of the synthetic data generator
+	 * @param key
+	 * @return
+	 */
+	private Tuple getRandomTuple(final String key) {
+		final double[] values = new double[4];
+		
+		for(int dimension = 0; dimension < 2; dimension++) {
+			final double begin = ThreadLocalRandom.current().nextDouble() * 100;
+			values[dimension * 2] = begin;
+			values[dimension * 2 + 1] = begin + ThreadLocalRandom.current().nextDouble() * 10;
+		}
+		
+		final String value = SyntheticDataGenerator.getRandomString(tupleSize);
+		return new Tuple(key, new Hyperrectangle(values), value.getBytes());
+	}
+	
+	/**
+	 * Get a random query box
+	 * @return
+	 */
+	private Hyperrectangle getRandomQueryBox() {
+		final double beginX = ThreadLocalRandom.current().nextDouble() * 100;
+		final double beginY = ThreadLocalRandom.current().nextDouble() * 100;
+		return new Hyperrectangle(beginX, beginX + QUERY_SIZE, beginY, beginY + QUERY_SIZE);
+	}
+	
+	/**
+	 * Wait for the future and check the result
+	 * @param future
+	 * @throws InterruptedException
+	 */
+	private void waitForSuccess(final OperationFuture future) throws InterruptedException {
+		future.waitForCompletion();
+		
+		if(future.isFailed()) {
+			throw new IllegalStateException("Operation failed: " + future.getAllMessages());
+		}
+	}
+
+	/**
+	 * Main * Main * Main
+	 */
+	public static void main(final String[] args) throws Exception {
+
+		if(args.length != 4) {
+			System.err.println("Usage: programm <instances> <tuples> <queries> <tuple size>");
+			System.exit(-1);
+		}
+
+		final String instancesString = Objects.requireNonNull(args[0]);
+		final String tuplesString = Objects.requireNonNull(args[1]);
+		final String queriesString = Objects.requireNonNull(args[2]);
+		final String tupleSizeString = Objects.requireNonNull(args[3]);
+
+		final int instances = MathUtil.tryParseInt(instancesString, () -> "Unable to parse: " + instancesString);
+		final int tuples = MathUtil.tryParseInt(tuplesString, () -> "Unable to parse: " + tuplesString);
+		final int queries = MathUtil.tryParseInt(queriesString, () -> "Unable to parse: " + queriesString);
+		final int tupleSize = MathUtil.tryParseInt(tupleSizeString, () -> "Unable to parse: " + tupleSizeString);
+
+		if(instances <= 0 || tuples <= 0 || queries <= 0 || tupleSize <= 0) {
+			System.err.println("All parameters have to be positive");
+			System.exit(-1);
+		}
+
+		final ClusterThroughputBenchmark experiment = new ClusterThroughputBenchmark(instances, tuples, 
+				queries, tupleSize);
+		experiment.run();
+		
+		// The client and the server threads are not daemon threads
+		System.exit(0);
+	}
+}
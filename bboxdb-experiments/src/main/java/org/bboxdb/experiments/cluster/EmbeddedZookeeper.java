@@ -0,0 +1,107 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.experiments.cluster;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+import org.apache.zookeeper.server.ServerCnxnFactory;
+import org.apache.zookeeper.server.ZooKeeperServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class EmbeddedZookeeper implements Closeable {
+
+	/**
+	 * The data directory of the server
+	 */
+	private final File dataDir;
+	
+	/**
+	 * The port of the server
+	 */
+	private final int port;
+	
+	/**
+	 * The zookeeper server
+	 */
+	private ZooKeeperServer server;
+	
+	/**
+	 * The connection factory
+	 */
+	private ServerCnxnFactory connectionFactory;
+	
+	/**
+	 * The tick time of the server
+	 */
+	private final static int TICK_TIME_IN_MS = 2000;
+	
+	/**
+	 * The max number of client connections
+	 */
+	private final static int MAX_CLIENT_CONNECTIONS = 100;
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(EmbeddedZookeeper.class);
+
+	public EmbeddedZookeeper(final File dataDir, final int port) {
+		this.dataDir = dataDir;
+		this.port = port;
+	}
+	
+	/**
+	 * Start the server on the loopback interface
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public void start() throws IOException, InterruptedException {
+		logger.info("Starting embedded zookeeper on port {} (data dir {})", port, dataDir);
+		
+		server = new ZooKeeperServer(dataDir, dataDir, TICK_TIME_IN_MS);
+		
+		final InetSocketAddress address = new InetSocketAddress(LocalBBoxDBCluster.LOOPBACK_ADDRESS, port);
+		connectionFactory = ServerCnxnFactory.createFactory(address, MAX_CLIENT_CONNECTIONS);
+		connectionFactory.startup(server);
+	}
+	
+	/**
+	 * Get the connection string of the server
+	 * @return
+	 */
+	public String getConnectionString() {
+		return LocalBBoxDBCluster.LOOPBACK_ADDRESS + ":" + port;
+	}
+
+	@Override
+	public void close() {
+		if(connectionFactory != null) {
+			connectionFactory.shutdown();
+			connectionFactory = null;
+		}
+		
+		if(server != null) {
+			server.shutdown();
+			server = null;
+		}
+	}
+}
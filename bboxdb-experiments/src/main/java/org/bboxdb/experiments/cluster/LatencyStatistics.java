@@ -0,0 +1,84 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.experiments.cluster;
+
+import java.util.Arrays;
+
+public class LatencyStatistics {
+
+	/**
+	 * The recorded latencies (in microseconds)
+	 */
+	private long[] latencies;
+	
+	/**
+	 * The number of recorded latencies
+	 */
+	private int size;
+	
+	public LatencyStatistics() {
+		this.latencies = new long[1024];
+		this.size = 0;
+	}
+	
+	/**
+	 * Record a new latency
+	 * @param latencyInMicroseconds
+	 */
+	public synchronized void record(final long latencyInMicroseconds) {
+		if(size == latencies.length) {
+			latencies = Arrays.copyOf(latencies, size * 2);
+		}
+		
+		latencies[size] = latencyInMicroseconds;
+		size++;
+	}
+	
+	/**
+	 * Get the number of recorded latencies
+	 * @return
+	 */
+	public synchronized int getCount() {
+		return size;
+	}
+	
+	/**
+	 * Get the given percentile (0 < percentile <= 100)
+	 * @param percentile
+	 * @return
+	 */
+	public synchronized long getPercentile(final double percentile) {
+		if(size == 0) {
+			return 0;
+		}
+		
+		final long[] sorted = Arrays.copyOf(latencies, size);
+		Arrays.sort(sorted);
+		
+		final int position = (int) Math.ceil(percentile / 100.0 * size) - 1;
+		return sorted[Math.max(0, Math.min(size - 1, position))];
+	}
+	
+	/**
+	 * Get the average latency
+	 * @return
+	 */
+	public synchronized double getAverage() {
+		return Arrays.stream(latencies, 0, size).average().orElse(0);
+	}
+}
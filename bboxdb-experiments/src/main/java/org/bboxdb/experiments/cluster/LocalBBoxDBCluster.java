@@ -0,0 +1,278 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.experiments.cluster;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.bboxdb.BBoxDBMain;
+import org.bboxdb.commons.NetworkInterfaceHelper;
+import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.distribution.membership.BBoxDBInstanceManager;
+import org.bboxdb.distribution.membership.BBoxDBInstanceState;
+import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
+import org.bboxdb.network.client.BBoxDBCluster;
+import org.bboxdb.storage.sstable.SSTableHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A BBoxDB cluster on the local host. The cluster consists of an in-process zookeeper 
+ * and N BBoxDB instances. The instances are executed as child JVMs, because the 
+ * services of a BBoxDB instance (membership, connection handling, space partitioner cache)
+ * are process wide singletons.
+ */
+public class LocalBBoxDBCluster implements Closeable {
+	
+	/**
+	 * The number of BBoxDB instances
+	 */
+	private final int numberOfInstances;
+
+	/**
+	 * The base directory of the cluster
+	 */
+	private final File baseDir;
+	
+	/**
+	 * The first network port
+	 */
+	private final int basePort;
+
+	/**
+	 * The zookeeper server
+	 */
+	private EmbeddedZookeeper zookeeper;
+	
+	/**
+	 * The BBoxDB processes
+	 */
+	private final List<Process> processes;
+
+	/**
+	 * The loopback address
+	 */
+	public final static String LOOPBACK_ADDRESS = "127.0.0.1";
+	
+	/**
+	 * The name of the cluster
+	 */
+	public final static String CLUSTER_NAME = "localcluster";
+	
+	/**
+	 * The time to wait for the instances to become ready
+	 */
+	private final static long STARTUP_TIMEOUT_IN_MS = TimeUnit.MINUTES.toMillis(2);
+	
+	/**
+	 * The time to wait for a process on shutdown
+	 */
+	private final static long SHUTDOWN_TIMEOUT_IN_SECONDS = 10;
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(LocalBBoxDBCluster.class);
+
+	public LocalBBoxDBCluster(final int numberOfInstances, final File baseDir, final int basePort) {
+		this.numberOfInstances = numberOfInstances;
+		this.baseDir = baseDir;
+		this.basePort = basePort;
+		this.processes = new ArrayList<>();
+	}
+	
+	/**
+	 * Start zookeeper and the BBoxDB instances
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public void start() throws IOException, InterruptedException {
+		final File zookeeperDir = new File(baseDir, "zookeeper");
+		zookeeperDir.mkdirs();
+		
+		// The zookeeper uses the first port, the instances the following ports
+		zookeeper = new EmbeddedZookeeper(zookeeperDir, basePort);
+		zookeeper.start();
+		
+		for(int instance = 0; instance < numberOfInstances; instance++) {
+			processes.add(startInstance(instance));
+		}
+	}
+
+	/**
+	 * Start the given BBoxDB instance in a new JVM
+	 * @param instance
+	 * @return 
+	 * @throws IOException
+	 */
+	private Process startInstance(final int instance) throws IOException {
+		final File instanceDir = new File(baseDir, "instance" + instance);
+		final File configDir = new File(instanceDir, "conf");
+		final File storageDir = new File(instanceDir, "storage");
+		configDir.mkdirs();
+		new File(SSTableHelper.getDataDir(storageDir.getAbsolutePath())).mkdirs();
+		
+		final int port = basePort + instance + 1;
+		writeConfiguration(new File(configDir, "bboxdb.yaml"), port, storageDir, getInstanceIp());
+		
+		// The configuration directory has to be the first classpath entry 
+		final String classpath = configDir.getAbsolutePath() + File.pathSeparator 
+				+ System.getProperty("java.class.path");
+		
+		final List<String> command = new ArrayList<>();
+		command.add(new File(System.getProperty("java.home"), "bin/java").getAbsolutePath());
+		command.addAll(getInheritedJVMArguments());
+		command.add("-Dbboxdb.log.dir=" + instanceDir.getAbsolutePath());
+		command.add("-cp");
+		command.add(classpath);
+		command.add(BBoxDBMain.class.getName());
+		
+		logger.info("Starting BBoxDB instance {} on port {}", instance, port);
+		
+		return new ProcessBuilder(command)
+				.redirectErrorStream(true)
+				.redirectOutput(new File(instanceDir, "bboxdb.out.log"))
+				.start();
+	}
+	
+	/**
+	 * Get the JVM arguments that are passed to the instances (e.g., the 
+	 * --add-exports flags that are required for the memory mapped files)
+	 * @return
+	 */
+	private List<String> getInheritedJVMArguments() {
+		return ManagementFactory.getRuntimeMXBean().getInputArguments()
+				.stream()
+				.filter(a -> a.startsWith("--add-") || a.startsWith("-Xmx") || a.startsWith("-Xms"))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Get the IP of the instances. Connections to loopback addresses are routed by 
+	 * the client via the first non loopback IPv4 address, so the instances have to 
+	 * register this address in zookeeper.
+	 * @return
+	 */
+	private String getInstanceIp() {
+		try {
+			return NetworkInterfaceHelper.getFirstNonLoopbackIPv4AsString();
+		} catch (SocketException e) {
+			logger.warn("Unable to determine non loopback IP, using " + LOOPBACK_ADDRESS, e);
+			return LOOPBACK_ADDRESS;
+		}
+	}
+
+	/**
+	 * Write the configuration of an instance
+	 * @param configFile
+	 * @param port
+	 * @param storageDir
+	 * @param instanceIp
+	 * @throws IOException 
+	 */
+	private void writeConfiguration(final File configFile, final int port, final File storageDir, 
+			final String instanceIp) throws IOException {
+		
+		try(final PrintWriter writer = new PrintWriter(configFile)) {
+			writer.println("storageDirectories: ['" + storageDir.getAbsolutePath() + "']");
+			writer.println("networkListenPort: " + port);
+			writer.println("localip: " + instanceIp);
+			writer.println("clustername: " + CLUSTER_NAME);
+			writer.println("zookeepernodes: ['" + zookeeper.getConnectionString() + "']");
+			writer.println("performanceCounterPort: -1");
+		}
+	}
+	
+	/**
+	 * Wait until all instances are registered as ready in zookeeper. The membership 
+	 * is observed by the client, so a client has to be connected before.
+	 * @throws InterruptedException
+	 */
+	public void waitForInstances() throws InterruptedException {
+		final long startTime = System.currentTimeMillis();
+		
+		while(System.currentTimeMillis() - startTime < STARTUP_TIMEOUT_IN_MS) {
+			final List<BBoxDBInstance> instances = BBoxDBInstanceManager.getInstance().getInstances();
+			
+			final long readyInstances = instances.stream()
+					.filter(i -> i.getState() == BBoxDBInstanceState.READY)
+					.count();
+			
+			if(readyInstances >= numberOfInstances) {
+				logger.info("All {} instances are ready", numberOfInstances);
+				return;
+			}
+			
+			for(final Process process : processes) {
+				if(! process.isAlive()) {
+					throw new IllegalStateException("A BBoxDB instance has terminated, see the logs in " 
+							+ baseDir);
+				}
+			}
+			
+			Thread.sleep(500);
+		}
+		
+		throw new IllegalStateException("The instances are not ready after " 
+				+ STARTUP_TIMEOUT_IN_MS + " ms, see the logs in " + baseDir);
+	}
+	
+	/**
+	 * Create a new client for the cluster. The zookeeper client of the cluster 
+	 * connection is also used as default zookeeper client of this JVM.
+	 * @return
+	 */
+	public BBoxDBCluster createClient() {
+		final BBoxDBCluster bboxDBCluster = new BBoxDBCluster(zookeeper.getConnectionString(), CLUSTER_NAME);
+		ZookeeperClientFactory.setDefaultZookeeperClient(bboxDBCluster.getZookeeperClient());
+		return bboxDBCluster;
+	}
+
+	@Override
+	public void close() {
+		for(final Process process : processes) {
+			process.destroy();
+		}
+		
+		for(final Process process : processes) {
+			try {
+				if(! process.waitFor(SHUTDOWN_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+					process.destroyForcibly();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				process.destroyForcibly();
+			}
+		}
+		
+		processes.clear();
+		
+		if(zookeeper != null) {
+			zookeeper.close();
+			zookeeper = null;
+		}
+	}
+}
@@ -0,0 +1,302 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.experiments.misc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.bboxdb.commons.MathUtil;
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.distribution.partitioner.HilbertSpacePartitioner;
+import org.bboxdb.distribution.partitioner.regionsplit.SamplingBasedSplitStrategy;
+import org.bboxdb.tools.partitioning.SampleReader;
+
+/**
+ * Compare the number of regions that are touched by range queries for 
+ * the K-D tree and the Hilbert curve partitioning
+ */
+public class TestHilbertRegionCount implements Runnable {
+
+	/**
+	 * The number of queries per run
+	 */
+	public final static int QUERIES = 1000;
+	
+	/**
+	 * The number of samples to read
+	 */
+	public final static int SAMPLE_SIZE = 100000;
+	
+	/**
+	 * The filename
+	 */
+	private final String filename;
+	
+	/**
+	 * The format
+	 */
+	private final String format;
+	
+	/**
+	 * The amount of regions
+	 */
+	private final List<Integer> regions;
+	
+	/**
+	 * The query size (as fraction of the root box extent per dimension)
+	 */
+	private final double querySize;
+
+	public TestHilbertRegionCount(final String filename, final String format, 
+			final List<Integer> regions, final double querySize) {
+		
+		this.filename = filename;
+		this.format = format;
+		this.regions = regions;
+		this.querySize = querySize;
+	}
+
+	@Override
+	public void run() {
+		try {
+			final List<Hyperrectangle> samples = SampleReader.readSamples(filename, format, SAMPLE_SIZE);
+			
+			if(samples.isEmpty()) {
+				System.err.println("Unable to read samples from: " + filename);
+				System.exit(-1);
+			}
+			
+			final Hyperrectangle rootBox = Hyperrectangle.getCoveringBox(samples);
+			final List<Hyperrectangle> queries = buildQueries(rootBox, samples);
+			
+			System.out.println("#Regions\tK-D tree (avg regions)\tHilbert (avg regions)\t"
+					+ "K-D tree (max elements)\tHilbert (max elements)");
+			
+			for(final int numberOfRegions : regions) {
+				final Map<Hyperrectangle, List<Hyperrectangle>> kdLeafs 
+					= buildKDTree(rootBox, samples, numberOfRegions);
+				
+				final Map<Hyperrectangle, List<Hyperrectangle>> hilbertLeafs 
+					= buildHilbertPartitioning(rootBox, samples, numberOfRegions);
+				
+				System.out.format("%d\t%f\t%f\t%d\t%d%n", numberOfRegions, 
+						getAverageRegions(kdLeafs, queries), getAverageRegions(hilbertLeafs, queries),
+						getMaxElements(kdLeafs), getMaxElements(hilbertLeafs));
+			}
+		} catch (IOException e) {
+			System.err.println("Got an Exception during experiment");
+			e.printStackTrace();
+			System.exit(-1);
+		}
+	}
+
+	/**
+	 * Build the K-D tree leafs, the leaf with the most elements is split on 
+	 * the median of the elements
+	 * @param rootBox
+	 * @param samples
+	 * @param numberOfRegions
+	 * @return
+	 */
+	private Map<Hyperrectangle, List<Hyperrectangle>> buildKDTree(final Hyperrectangle rootBox, 
+			final List<Hyperrectangle> samples, final int numberOfRegions) {
+		
+		final Map<Hyperrectangle, List<Hyperrectangle>> leafs = new HashMap<>();
+		final Map<Hyperrectangle, Integer> levels = new HashMap<>();
+		leafs.put(rootBox, samples);
+		levels.put(rootBox, 0);
+		
+		while(leafs.size() < numberOfRegions) {
+			final Hyperrectangle boxToSplit = getLargestLeaf(leafs);
+			final int level = levels.get(boxToSplit);
+			final int dimension = level % boxToSplit.getDimension();
+			
+			final List<Double> points = leafs.get(boxToSplit).stream()
+					.map(b -> b.getCoordinateLow(dimension))
+					.sorted()
+					.collect(Collectors.toList());
+			
+			double splitPosition = points.get(points.size() / 2);
+			
+			// Split position needs to be inside of the box
+			if(splitPosition <= boxToSplit.getCoordinateLow(dimension) 
+					|| splitPosition >= boxToSplit.getCoordinateHigh(dimension)) {
+				splitPosition = boxToSplit.getCoordinateLow(dimension) 
+						+ boxToSplit.getExtent(dimension) / 2;
+			}
+			
+			final Hyperrectangle left = boxToSplit.splitAndGetLeft(splitPosition, dimension, true);
+			final Hyperrectangle right = boxToSplit.splitAndGetRight(splitPosition, dimension, false);
+			
+			final List<Hyperrectangle> elements = leafs.remove(boxToSplit);
+			leafs.put(left, getIntersecting(elements, left));
+			leafs.put(right, getIntersecting(elements, right));
+			levels.put(left, level + 1);
+			levels.put(right, level + 1);
+		}
+		
+		return leafs;
+	}
+	
+	/**
+	 * Build the Hilbert curve leafs, the leaf with the most elements is split
+	 * on the split plane of the curve at the median of the elements
+	 * @param rootBox
+	 * @param samples
+	 * @param numberOfRegions
+	 * @return
+	 */
+	private Map<Hyperrectangle, List<Hyperrectangle>> buildHilbertPartitioning(
+			final Hyperrectangle rootBox, final List<Hyperrectangle> samples, 
+			final int numberOfRegions) {
+		
+		final Map<Hyperrectangle, List<Hyperrectangle>> leafs = new HashMap<>();
+		leafs.put(rootBox, samples);
+		
+		while(leafs.size() < numberOfRegions) {
+			final Hyperrectangle boxToSplit = getLargestLeaf(leafs);
+			final List<Hyperrectangle> elements = leafs.remove(boxToSplit);
+			
+			final List<Hyperrectangle> childBoxes = HilbertSpacePartitioner.splitBox(rootBox, 
+					boxToSplit, new SamplingBasedSplitStrategy(elements));
+			
+			for(final Hyperrectangle childBox : childBoxes) {
+				leafs.put(childBox, getIntersecting(elements, childBox));
+			}
+		}
+		
+		return leafs;
+	}
+	
+	/**
+	 * Get the leaf with the most elements
+	 * @param leafs
+	 * @return
+	 */
+	private Hyperrectangle getLargestLeaf(final Map<Hyperrectangle, List<Hyperrectangle>> leafs) {
+		return leafs.entrySet().stream()
+				.max(Comparator.comparingInt(e -> e.getValue().size()))
+				.get()
+				.getKey();
+	}
+	
+	/**
+	 * Get the elements that intersect the given box
+	 * @param elements
+	 * @param box
+	 * @return
+	 */
+	private List<Hyperrectangle> getIntersecting(final List<Hyperrectangle> elements, 
+			final Hyperrectangle box) {
+		
+		return elements.stream()
+				.filter(e -> e.intersects(box))
+				.collect(Collectors.toList());
+	}
+	
+	/**
+	 * Get the average number of leafs that are touched by the queries
+	 * @param leafs
+	 * @param queries
+	 * @return
+	 */
+	private double getAverageRegions(final Map<Hyperrectangle, List<Hyperrectangle>> leafs, 
+			final List<Hyperrectangle> queries) {
+		
+		long touchedRegions = 0;
+		
+		for(final Hyperrectangle query : queries) {
+			touchedRegions += leafs.keySet().stream().filter(b -> b.intersects(query)).count();
+		}
+		
+		return (double) touchedRegions / (double) queries.size();
+	}
+	
+	/**
+	 * Get the max number of elements of a leaf
+	 * @param leafs
+	 * @return
+	 */
+	private int getMaxElements(final Map<Hyperrectangle, List<Hyperrectangle>> leafs) {
+		return leafs.values().stream().mapToInt(List::size).max().orElse(0);
+	}
+	
+	/**
+	 * Build the range queries, the queries are centered on random samples
+	 * @param rootBox
+	 * @param samples
+	 * @return
+	 */
+	private List<Hyperrectangle> buildQueries(final Hyperrectangle rootBox, 
+			final List<Hyperrectangle> samples) {
+		
+		final Random random = new Random();
+		final List<Hyperrectangle> queries = new ArrayList<>();
+		
+		for(int i = 0; i < QUERIES; i++) {
+			final Hyperrectangle sample = samples.get(random.nextInt(samples.size()));
+			final double[] values = new double[sample.getDimension() * 2];
+			
+			for(int d = 0; d < sample.getDimension(); d++) {
+				final double center = sample.getCoordinateLow(d) + sample.getExtent(d) / 2;
+				final double halfExtent = rootBox.getExtent(d) * querySize / 2;
+				values[2 * d] = center - halfExtent;
+				values[2 * d + 1] = center + halfExtent;
+			}
+			
+			queries.add(new Hyperrectangle(values));
+		}
+		
+		return queries;
+	}
+
+	/**
+	 * Main * Main * Main
+	 * @throws IOException 
+	 */
+	public static void main(final String[] args) throws IOException {
+		
+		// Check parameter
+		if(args.length != 4) {
+			System.err.println("Usage: programm <filename> <format> <regions1,regions2,regionsN> <query size>");
+			System.exit(-1);
+		}
+		
+		final String filename = args[0];
+		final String format = args[1];
+		
+		final List<Integer> regions = new ArrayList<>();
+		for(final String element : args[2].split(",")) {
+			regions.add(MathUtil.tryParseIntOrExit(element, () -> "Unable to parse: " + element));
+		}
+		
+		final double querySize = MathUtil.tryParseDoubleOrExit(args[3], 
+				() -> "Unable to parse query size: " + args[3]);
+		
+		final TestHilbertRegionCount testHilbertRegionCount 
+			= new TestHilbertRegionCount(filename, format, regions, querySize);
+		
+		testHilbertRegionCount.run();
+	}
+}
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.experiments.misc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bboxdb.commons.MathUtil;
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.distribution.zookeeper.DistributionGroupAdapter;
+import org.bboxdb.network.client.BBoxDBCluster;
+import org.bboxdb.network.client.future.EmptyResultFuture;
+import org.bboxdb.network.client.future.TupleListFuture;
+import org.bboxdb.network.client.tools.FixedSizeFutureStore;
+import org.bboxdb.storage.entity.DistributionGroupConfiguration;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+
+import com.google.common.base.Stopwatch;
+
+public class TestKeyQueryLatency implements Runnable {
+
+	/**
+	 * The zookeeper endpoint
+	 */
+	private final String endpoint;
+
+	/**
+	 * The cluster name
+	 */
+	private final String cluster;
+
+	/**
+	 * The table to use
+	 */
+	private final String tablename;
+
+	/**
+	 * The number of keys
+	 */
+	private final int keys;
+
+	public TestKeyQueryLatency(final String endpoint, final String cluster, final String tablename, 
+			final int keys) {
+		
+		this.endpoint = endpoint;
+		this.cluster = cluster;
+		this.tablename = tablename;
+		this.keys = keys;
+	}
+
+	@Override
+	public void run() {
+		final BBoxDBCluster bboxDBCluster = new BBoxDBCluster(endpoint, cluster);
+
+		if(! bboxDBCluster.connect()) {
+			System.err.println("Unable to connect to the BBoxDB cluster, exiting");
+			System.exit(-1);
+		}
+		
+		try {
+			final DistributionGroupAdapter adapter = bboxDBCluster.getZookeeperClient()
+					.getDistributionGroupAdapter();
+			final String distributionGroup = new TupleStoreName(tablename).getDistributionGroup();
+			final DistributionGroupConfiguration configuration 
+				= adapter.getDistributionGroupConfiguration(distributionGroup);
+			
+			bboxDBCluster.createKeyDirectory(tablename);
+			
+			final List<String> insertedKeys = insertTuples(bboxDBCluster, configuration.getDimensions());
+			
+			System.out.println("#Mode\tQueries\tAvg latency (us)\t99th percentile (us)");
+			
+			bboxDBCluster.setKeyDirectoryEnabled(false);
+			executeQueries(bboxDBCluster, insertedKeys, "broadcast");
+			
+			bboxDBCluster.setKeyDirectoryEnabled(true);
+			executeQueries(bboxDBCluster, insertedKeys, "directory");
+		} catch (Exception e) {
+			System.err.println("Got exception while executing experiment: " + e);
+			System.exit(-1);
+		} finally {
+			bboxDBCluster.close();
+		}
+	}
+
+	/**
+	 * Insert the tuples
+	 * @param bboxDBCluster
+	 * @param dimensions
+	 * @return
+	 * @throws Exception
+	 */
+	private List<String> insertTuples(final BBoxDBCluster bboxDBCluster, final int dimensions) 
+			throws Exception {
+		
+		final List<String> insertedKeys = new ArrayList<>();
+		final FixedSizeFutureStore pendingFutures = new FixedSizeFutureStore(1000);
+		
+		for(int i = 0; i < keys; i++) {
+			final String key = "keylatency" + i;
+			final double[] values = new double[dimensions * 2];
+			
+			for(int dimension = 0; dimension < dimensions; dimension++) {
+				final double begin = ThreadLocalRandom.current().nextDouble(1000);
+				values[dimension * 2] = begin;
+				values[dimension * 2 + 1] = begin + 1;
+			}
+			
+			final Tuple tuple = new Tuple(key, new Hyperrectangle(values), key.getBytes());
+			final EmptyResultFuture future = bboxDBCluster.insertTuple(tablename, tuple);
+			pendingFutures.put(future);
+			insertedKeys.add(key);
+		}
+		
+		pendingFutures.waitForCompletion();
+		
+		return insertedKeys;
+	}
+	
+	/**
+	 * Query all keys and print the latency
+	 * @param bboxDBCluster
+	 * @param insertedKeys
+	 * @param mode
+	 * @throws Exception
+	 */
+	private void executeQueries(final BBoxDBCluster bboxDBCluster, final List<String> insertedKeys, 
+			final String mode) throws Exception {
+		
+		final long[] latencies = new long[insertedKeys.size()];
+		
+		for(int i = 0; i < insertedKeys.size(); i++) {
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+			final TupleListFuture future = bboxDBCluster.queryKey(tablename, insertedKeys.get(i));
+			future.waitForCompletion();
+			latencies[i] = stopwatch.elapsed(TimeUnit.MICROSECONDS);
+			
+			if(future.isFailed()) {
+				System.err.println("Query failed: " + future.getAllMessages());
+			}
+		}
+		
+		Arrays.sort(latencies);
+		
+		final double average = Arrays.stream(latencies).average().orElse(0);
+		final long percentile = latencies[(int) Math.min(latencies.length - 1, latencies.length * 0.99)];
+		
+		System.out.format("%s\t%d\t%.0f\t%d%n", mode, latencies.length, average, percentile);
+	}
+
+	/**
+	 * Main * Main * Main
+	 */
+	public static void main(final String[] args) throws Exception {
+
+		if(args.length != 4) {
+			System.err.println("Usage: programm <endpoint> <cluster> <table> <keys>");
+			System.exit(-1);
+		}
+
+		final String endpoint = Objects.requireNonNull(args[0]);
+		final String cluster = Objects.requireNonNull(args[1]);
+		final String table = Objects.requireNonNull(args[2]);
+		final String keysString = Objects.requireNonNull(args[3]);
+
+		final int keys = MathUtil.tryParseInt(keysString, () -> "Unable to parse: " + keysString);
+
+		if(keys <= 0) {
+			System.err.println("The number of keys has to be positive");
+			System.exit(-1);
+		}
+
+		final TestKeyQueryLatency experiment = new TestKeyQueryLatency(endpoint, cluster, table, keys);
+		experiment.run();
+	}
+}
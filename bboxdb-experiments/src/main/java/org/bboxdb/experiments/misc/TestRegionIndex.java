@@ -0,0 +1,162 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.experiments.misc;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.distribution.region.DistributionRegion;
+
+import com.google.common.base.Stopwatch;
+
+/**
+ * Compare the region lookup by walking the distribution region tree 
+ * with the lookup in the region index
+ */
+public class TestRegionIndex implements Runnable {
+	
+	/**
+	 * The number of lookups per run
+	 */
+	public final static int LOOKUPS = 1000;
+	
+	/**
+	 * The name of the distribution group
+	 */
+	private final static String GROUP = "testgroup";
+
+	@Override
+	public void run() {
+		System.out.println("#Regions\tTree walk (ms)\tIndex (ms)");
+
+		for(final int regions : Arrays.asList(10000, 100000)) {
+			final DistributionRegion rootRegion = buildTree(regions);
+			final List<Hyperrectangle> queries = buildQueries(LOOKUPS);
+			
+			// Warm up and build the index snapshot
+			runIndexLookups(rootRegion, queries);
+			
+			final long treeWalkTime = runTreeWalkLookups(rootRegion, queries);
+			final long indexTime = runIndexLookups(rootRegion, queries);
+			
+			System.out.format("%d\t%d\t%d%n", regions, treeWalkTime, indexTime);
+		}
+	}
+
+	/**
+	 * Lookup the regions by walking the tree
+	 * @param rootRegion
+	 * @param queries
+	 * @return
+	 */
+	private long runTreeWalkLookups(final DistributionRegion rootRegion, 
+			final List<Hyperrectangle> queries) {
+		
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		
+		for(final Hyperrectangle query : queries) {
+			rootRegion.getThisAndChildRegions(r -> r.getConveringBox().intersects(query));
+		}
+		
+		return stopwatch.elapsed(TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Lookup the regions with the region index
+	 * @param rootRegion
+	 * @param queries
+	 * @return
+	 */
+	private long runIndexLookups(final DistributionRegion rootRegion, 
+			final List<Hyperrectangle> queries) {
+		
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		
+		for(final Hyperrectangle query : queries) {
+			rootRegion.getThisAndChildRegions(query, r -> true);
+		}
+		
+		return stopwatch.elapsed(TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Build a KD-tree like region tree with the given number of leaf regions
+	 * @param leafRegions
+	 * @return
+	 */
+	private DistributionRegion buildTree(final int leafRegions) {
+		final DistributionRegion rootRegion = new DistributionRegion(GROUP, 
+				new Hyperrectangle(0d, 100d, 0d, 100d));
+		
+		final Deque<DistributionRegion> leafs = new ArrayDeque<>();
+		leafs.add(rootRegion);
+		long regionId = 1;
+		
+		while(leafs.size() < leafRegions) {
+			final DistributionRegion region = leafs.removeFirst();
+			final Hyperrectangle box = region.getConveringBox();
+			final int dimension = region.getLevel() % 2;
+			final double splitPosition = box.getCoordinateLow(dimension) + box.getExtent(dimension) / 2;
+			
+			final DistributionRegion left = new DistributionRegion(GROUP, region, 
+					box.splitAndGetLeft(splitPosition, dimension, true), regionId++);
+			
+			final DistributionRegion right = new DistributionRegion(GROUP, region, 
+					box.splitAndGetRight(splitPosition, dimension, false), regionId++);
+			
+			region.addChildren(0, left);
+			region.addChildren(1, right);
+			
+			leafs.addLast(left);
+			leafs.addLast(right);
+		}
+		
+		return rootRegion;
+	}
+	
+	/**
+	 * Build the query boxes (e.g., tuples of the insert path)
+	 * @param number
+	 * @return
+	 */
+	private List<Hyperrectangle> buildQueries(final int number) {
+		final Random random = new Random();
+		final Hyperrectangle[] queries = new Hyperrectangle[number];
+		
+		for(int i = 0; i < number; i++) {
+			final double x = random.nextDouble() * 99;
+			final double y = random.nextDouble() * 99;
+			queries[i] = new Hyperrectangle(x, x + 0.01, y, y + 0.01);
+		}
+		
+		return Arrays.asList(queries);
+	}
+	
+	/**
+	 * Main * Main * Main
+	 */
+	public static void main(final String[] args) {
+		final TestRegionIndex testRegionIndex = new TestRegionIndex();
+		testRegionIndex.run();
+	}
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.experiments.misc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.bboxdb.commons.DuplicateResolver;
+import org.bboxdb.commons.SortedIteratorMerger;
+
+import com.google.common.base.Stopwatch;
+
+/**
+ * Measure the throughput of the sorted iterator merger for a 
+ * different number of input iterators (e.g., SSTables in a compaction)
+ */
+public class TestSortedIteratorMergerPerformance implements Runnable {
+	
+	/**
+	 * The total number of elements per run
+	 */
+	public final static int ELEMENTS = 1000000;
+	
+	/**
+	 * The number of measured runs
+	 */
+	public final static int RUNS = 5;
+	
+	/**
+	 * The duplicate resolver, keep only the first element
+	 */
+	private final static DuplicateResolver<Long> DUPLICATE_RESOLVER = (d) -> {
+		if(d.size() > 1) {
+			d.subList(1, d.size()).clear();
+		}
+	};
+
+	@Override
+	public void run() {
+		System.out.println("#Iterators\tTime (ms)\tTime per element (ns)");
+		
+		for(final int iterators : Arrays.asList(2, 10, 50)) {
+			final List<List<Long>> lists = buildLists(iterators);
+			
+			// Warm up
+			runMerge(lists);
+			
+			long totalTime = 0;
+			for(int i = 0; i < RUNS; i++) {
+				totalTime += runMerge(lists);
+			}
+			
+			final long time = totalTime / RUNS;
+			System.out.format("%d\t%d\t%f%n", iterators, TimeUnit.NANOSECONDS.toMillis(time), 
+					(double) time / (double) ELEMENTS);
+		}
+	}
+
+	/**
+	 * Merge the lists and return the needed time in nanoseconds
+	 * @param lists
+	 * @return
+	 */
+	private long runMerge(final List<List<Long>> lists) {
+		final List<Iterator<Long>> iterators = new ArrayList<>();
+		
+		for(final List<Long> list : lists) {
+			iterators.add(list.iterator());
+		}
+		
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		
+		final SortedIteratorMerger<Long> merger = new SortedIteratorMerger<>(iterators, 
+				Comparator.naturalOrder(), DUPLICATE_RESOLVER);
+		
+		long checksum = 0;
+		for(final Long element : merger) {
+			checksum += element;
+		}
+		
+		final long time = stopwatch.elapsed(TimeUnit.NANOSECONDS);
+		
+		if(checksum == 0) {
+			System.err.println("Merge returns no elements");
+		}
+		
+		return time;
+	}
+	
+	/**
+	 * Build the sorted input lists, some keys are contained in multiple lists
+	 * @param numberOfLists
+	 * @return
+	 */
+	private List<List<Long>> buildLists(final int numberOfLists) {
+		final Random random = new Random(numberOfLists);
+		final List<List<Long>> lists = new ArrayList<>();
+		
+		for(int i = 0; i < numberOfLists; i++) {
+			final List<Long> list = new ArrayList<>();
+			
+			for(int element = 0; element < ELEMENTS / numberOfLists; element++) {
+				list.add((long) random.nextInt(ELEMENTS * 2));
+			}
+			
+			Collections.sort(list);
+			lists.add(list);
+		}
+		
+		return lists;
+	}
+	
+	/**
+	 * Main * Main * Main
+	 */
+	public static void main(final String[] args) {
+		final TestSortedIteratorMergerPerformance test = new TestSortedIteratorMergerPerformance();
+		test.run();
+	}
+}
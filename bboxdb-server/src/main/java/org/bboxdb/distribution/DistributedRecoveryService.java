@@ -17,6 +17,7 @@
  *******************************************************************************/
 package org.bboxdb.distribution;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
@@ -51,6 +52,9 @@ import org.bboxdb.storage.tuplestore.manager.TupleStoreUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.prometheus.client.Counter;
+import io.prometheus.client.Summary;
+
 public class DistributedRecoveryService implements BBoxDBService {
 	
 	/**
@@ -58,6 +62,27 @@ public class DistributedRecoveryService implements BBoxDBService {
 	 */
 	protected final TupleStoreManagerRegistry storageRegistry;
 	
+	/**
+	 * The recovered tuples
+	 */
+	private final static Counter recoveredTuplesTotal = Counter.build()
+			.name("bboxdb_recovery_tuples_total")
+			.help("Total recovered tuples").register();
+	
+	/**
+	 * The recovered SSTables
+	 */
+	private final static Counter recoveredSSTablesTotal = Counter.build()
+			.name("bboxdb_recovery_sstables_total")
+			.help("Total SSTables written by the recovery").register();
+	
+	/**
+	 * The recovery latency
+	 */
+	private final static Summary recoveryLatency = Summary.build()
+			.name("bboxdb_recovery_table_latency_seconds")
+			.help("Recovery latency per table in seconds.").register();
+	
 	/**
 	 * The Logger
 	 */
@@ -234,6 +259,8 @@ public class DistributedRecoveryService implements BBoxDBService {
 		final long requestTupleTimestamp = outdatedDistributionRegion.getLocalVersion() 
 				- Const.MAX_NODE_CLOCK_DELTA;
 		
+		final Summary.Timer recoveryTimer = recoveryLatency.startTimer();
+		
 		final TupleListFuture result = connection.queryInsertedTime
 				(sstableName, requestTupleTimestamp);
 		
@@ -245,14 +272,48 @@ public class DistributedRecoveryService implements BBoxDBService {
 			return;
 		}
 		
+		// The received tuples are written in chunks directly into new SSTables, 
+		// the memtable and the write ahead log are bypassed
+		final int chunkSize = storageRegistry.getConfiguration().getMemtableEntriesMax();
+		final List<Tuple> chunk = new ArrayList<>(chunkSize);
 		long insertedTuples = 0;
+		
 		for(final Tuple tuple : result) {
-			tableManager.put(tuple);
+			chunk.add(tuple);
 			insertedTuples++;
+			
+			if(chunk.size() >= chunkSize) {
+				writeRecoveryChunk(tableManager, chunk);
+			}
 		}
 		
-		logger.info("Recovery: successfully inserted {} tuples into table {}", insertedTuples,
-				sstableName);
+		writeRecoveryChunk(tableManager, chunk);
+		
+		final double recoveryTime = recoveryTimer.observeDuration();
+		
+		logger.info("Recovery: successfully inserted {} tuples into table {} ({} tuples/s)", 
+				insertedTuples, sstableName, Math.round(insertedTuples / Math.max(recoveryTime, 0.001)));
+	}
+
+	/**
+	 * Write the chunk of recovered tuples into the table
+	 * @param tableManager
+	 * @param chunk
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 */
+	private void writeRecoveryChunk(final TupleStoreManager tableManager, final List<Tuple> chunk) 
+			throws StorageManagerException, RejectedException {
+		
+		if(chunk.isEmpty()) {
+			return;
+		}
+		
+		tableManager.bulkLoad(chunk);
+		
+		recoveredTuplesTotal.inc(chunk.size());
+		recoveredSSTablesTotal.inc();
+		chunk.clear();
 	}
 
 	@Override
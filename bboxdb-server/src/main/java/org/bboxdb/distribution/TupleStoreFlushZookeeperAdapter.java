@@ -50,7 +50,7 @@ public class TupleStoreFlushZookeeperAdapter implements BiConsumer<TupleStoreNam
 			final SpacePartitioner spacepartitioner = SpacePartitionerCache.getInstance()
 					.getSpacePartitionerForGroupName(distributionGroup);
 
-			final DistributionRegion distributionGroupRoot = spacepartitioner.getRootNode();
+			final DistributionRegion distributionGroupRoot = spacepartitioner.getRootNodeSnapshot();
 			
 			if(distributionGroupRoot == null) {
 				logger.error("Root for {} is null, not executing callback", ssTableName);
@@ -59,6 +59,11 @@ public class MembershipConnectionService implements BBoxDBService {
 	 * The amount of tuples per page
 	 */
 	private short tuplesPerPage;
+	
+	/**
+	 * Is the tracing of queries enabled?
+	 */
+	private boolean queryTracingEnabled;
 
 	/**
 	 * The tuple store manager registry (used for gossip, between server<->server connections)
@@ -86,6 +91,7 @@ public class MembershipConnectionService implements BBoxDBService {
 		this.knownInstances = new ConcurrentHashMap<>();
 		this.pagingEnabled = false;
 		this.tuplesPerPage = 0;
+		this.queryTracingEnabled = false;
 		this.blacklist = new HashSet<>();
 	}
 
@@ -225,6 +231,7 @@ public class MembershipConnectionService implements BBoxDBService {
 
 		client.setPagingEnabled(pagingEnabled);
 		client.setTuplesPerPage(tuplesPerPage);
+		client.setQueryTracingEnabled(queryTracingEnabled);
 		client.setTupleStoreManagerRegistry(tupleStoreManagerRegistry);
 
 		final boolean result = connection.connect();
@@ -323,6 +330,23 @@ public class MembershipConnectionService implements BBoxDBService {
 		this.tuplesPerPage = tuplesPerPage;
 		serverConnections.values().forEach(c -> c.getBboxDBClient().setTuplesPerPage(tuplesPerPage));
 	}
+	
+	/**
+	 * Is the tracing of queries enabled
+	 * @return
+	 */
+	public boolean isQueryTracingEnabled() {
+		return queryTracingEnabled;
+	}
+
+	/**
+	 * Enable or disable the tracing of queries
+	 * @param queryTracingEnabled
+	 */
+	public void setQueryTracingEnabled(final boolean queryTracingEnabled) {
+		this.queryTracingEnabled = queryTracingEnabled;
+		serverConnections.values().forEach(c -> c.getBboxDBClient().setQueryTracingEnabled(queryTracingEnabled));
+	}
 
 	/**
 	 * Get the tuple store manager registry (used for gossip in keep alive)
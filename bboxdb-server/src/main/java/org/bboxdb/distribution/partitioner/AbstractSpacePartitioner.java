@@ -101,20 +101,33 @@ public abstract class AbstractSpacePartitioner implements SpacePartitioner{
 
 	@Override
 	public DistributionRegion getRootNode() throws BBoxDBException {
+		return getOrCreateDistributionRegionSyncer().getRootNode();
+	}
+	
+	@Override
+	public DistributionRegion getRootNodeSnapshot() throws BBoxDBException {
+		return getOrCreateDistributionRegionSyncer().getRootNodeSnapshot();
+	}
 	
+	/**
+	 * Get the distribution region syncer, the syncer is created on the first call
+	 * @return
+	 * @throws BBoxDBException
+	 */
+	private DistributionRegionSyncer getOrCreateDistributionRegionSyncer() throws BBoxDBException {
+		
 		synchronized (this) {
 			if(distributionRegionSyncer == null) {
 				this.distributionRegionSyncer = new DistributionRegionSyncer(spacePartitionerContext);
 				spacePartitionerContext.getDistributionRegionMapper().clear();
 			}
 		}
-	
 		
 		if(! active) {
 			throw new BBoxDBException("Get root node on a non active space partitoner called");
 		}
-	
-		return distributionRegionSyncer.getRootNode();
+		
+		return distributionRegionSyncer;
 	}
 
 	@Override
@@ -133,6 +146,12 @@ public abstract class AbstractSpacePartitioner implements SpacePartitioner{
 				spacePartitionerContext.getDistributionGroupName());
 		
 		this.active = false;
+		
+		synchronized (this) {
+			if(distributionRegionSyncer != null) {
+				distributionRegionSyncer.shutdown();
+			}
+		}
 	}
 
 	@Override
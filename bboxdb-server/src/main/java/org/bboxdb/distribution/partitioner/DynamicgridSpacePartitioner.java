@@ -48,9 +48,14 @@ public class DynamicgridSpacePartitioner extends AbstractGridSpacePartitioner {
 	public List<DistributionRegion> splitRegion(final DistributionRegion regionToSplit, 
 			final Collection<Hyperrectangle> samples) throws BBoxDBException {
 		
+		return splitRegion(regionToSplit, new SamplingBasedSplitStrategy(samples));
+	}
+	
+	@Override
+	public List<DistributionRegion> splitRegion(final DistributionRegion regionToSplit, 
+			final SplitpointStrategy splitpointStrategy) throws BBoxDBException {
+		
 		try {
-			final SplitpointStrategy splitpointStrategy = new SamplingBasedSplitStrategy(samples);
-			
 			final Hyperrectangle regionBox = regionToSplit.getConveringBox();
 			final double splitPosition = splitpointStrategy.getSplitPoint(0, regionBox);
 			
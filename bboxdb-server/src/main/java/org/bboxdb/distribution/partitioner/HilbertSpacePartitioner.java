@@ -0,0 +1,367 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.partitioner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.bboxdb.commons.math.DoubleInterval;
+import org.bboxdb.commons.math.HilbertCurve;
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.distribution.partitioner.regionsplit.SamplingBasedSplitStrategy;
+import org.bboxdb.distribution.partitioner.regionsplit.SplitpointStrategy;
+import org.bboxdb.distribution.placement.ResourceAllocationException;
+import org.bboxdb.distribution.region.DistributionRegion;
+import org.bboxdb.distribution.zookeeper.ZookeeperException;
+import org.bboxdb.distribution.zookeeper.ZookeeperNotFoundException;
+import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.DistributionGroupConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Partition the space along a Hilbert curve. The curve divides the interval 
+ * of a region into two halves. Because the curve visits all sub cells of a 
+ * cell before it leaves the cell, the halves are again boxes (cubes or boxes 
+ * with a side ratio of 2:1) and no thin regions are created.
+ * 
+ * The split plane of the curve halves determines the split dimension and the 
+ * order of the children. The split position is taken from the data (e.g., the
+ * median of the samples), so the children contain the same amount of data. A 
+ * region is a single box, so the curve interval is only cut in the middle when 
+ * the data is uniformly distributed. Each child covers the part of the curve 
+ * on its side of the split plane. Without usable data the region is split into 
+ * the curve halves.
+ * 
+ * The space partitioner needs the bounding box of the space as config.
+ */
+public class HilbertSpacePartitioner extends AbstractTreeSpacePartitoner {
+
+	/**
+	 * The number of children of a split
+	 */
+	private final static int NUMBER_OF_CHILDREN = 2;
+	
+	/**
+	 * The logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(HilbertSpacePartitioner.class);
+
+	@Override
+	public void createRootNode(final DistributionGroupConfiguration configuration) 
+			throws BBoxDBException {
+		
+		final String spConfig = configuration.getSpacePartitionerConfig();
+		
+		// A curve is only defined on a bounded space 
+		if(! spConfig.contains("[") || ! spConfig.contains("]")) {
+			throw new BBoxDBException("The hilbert space partitioner needs the bounding box "
+					+ "of the space as config (e.g. [[-180,180]:[-90,90]]), got: " + spConfig);
+		}
+		
+		super.createRootNode(configuration);
+	}
+	
+	@Override
+	public List<DistributionRegion> splitRegion(final DistributionRegion regionToSplit,
+			final SplitpointStrategy splitpointStrategy) throws BBoxDBException {
+		
+		try {
+			logger.info("Splitting region {}", regionToSplit.getIdentifier());
+
+			final String parentPath
+				= distributionRegionZookeeperAdapter.getZookeeperPathForDistributionRegion(regionToSplit);
+
+			final Hyperrectangle rootBox = regionToSplit.getRootRegion().getConveringBox();
+			final List<Hyperrectangle> childBoxes = splitBox(rootBox, regionToSplit.getConveringBox(), 
+					splitpointStrategy);
+
+			for(int i = 0; i < childBoxes.size(); i++) {
+				final Hyperrectangle childBox = childBoxes.get(i);
+				distributionRegionZookeeperAdapter.createNewChild(parentPath, i, childBox, distributionGroupName);
+			}
+
+			waitUntilChildrenAreCreated(regionToSplit, NUMBER_OF_CHILDREN);
+			allocateSystems(regionToSplit, NUMBER_OF_CHILDREN);
+			setStateToRedistributionActiveAndWait(regionToSplit, NUMBER_OF_CHILDREN);
+
+			// Children ready (state: redistribution active // write access = true)
+			// update parent state and redirect write operations
+			distributionRegionZookeeperAdapter.setStateForDistributionGroup(parentPath, DistributionRegionState.SPLITTING);
+
+			return regionToSplit.getDirectChildren();
+		} catch (ZookeeperException | ZookeeperNotFoundException | ResourceAllocationException e) {
+			throw new BBoxDBException(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BBoxDBException(e);
+		}
+	}
+	
+	@Override
+	public List<DistributionRegion> splitRegion(final DistributionRegion regionToSplit,
+			final Collection<Hyperrectangle> samples) throws BBoxDBException {
+		
+		return splitRegion(regionToSplit, new SamplingBasedSplitStrategy(samples));
+	}
+	
+	/**
+	 * Split the box along the split plane of the curve halves at the position of the 
+	 * split point strategy. The first box of the result contains the beginning of the 
+	 * curve interval. The box is split into the curve halves, if the strategy provides 
+	 * no position inside of the box.
+	 * 
+	 * @param rootBox
+	 * @param box
+	 * @param splitpointStrategy
+	 * @return
+	 */
+	public static List<Hyperrectangle> splitBox(final Hyperrectangle rootBox, final Hyperrectangle box, 
+			final SplitpointStrategy splitpointStrategy) {
+		
+		final List<Hyperrectangle> curveHalves = splitBox(rootBox, box);
+		final int splitDimension = getSplitDimension(box, curveHalves.get(0));
+		final DoubleInterval interval = box.getIntervalForDimension(splitDimension);
+		
+		final double splitPosition;
+		
+		try {
+			splitPosition = splitpointStrategy.getSplitPoint(splitDimension, box);
+		} catch (StorageManagerException e) {
+			logger.warn("Unable to get the split point for {}, splitting into the curve halves", box, e);
+			return curveHalves;
+		}
+		
+		if(! (splitPosition > interval.getBegin() && splitPosition < interval.getEnd())) {
+			logger.warn("Split point {} is not inside of {}, splitting into the curve halves", 
+					splitPosition, box);
+			return curveHalves;
+		}
+		
+		final Hyperrectangle lowerBox = box.splitAndGetLeft(splitPosition, splitDimension, true);
+		final Hyperrectangle upperBox = box.splitAndGetRight(splitPosition, splitDimension, false);
+		
+		// Keep the order of the curve
+		if(curveHalves.get(0).getCoordinateLow(splitDimension) > interval.getBegin()) {
+			return Arrays.asList(upperBox, lowerBox);
+		}
+		
+		return Arrays.asList(lowerBox, upperBox);
+	}
+	
+	/**
+	 * Get the dimension in which the half is smaller than the box
+	 * @param box
+	 * @param half
+	 * @return
+	 */
+	private static int getSplitDimension(final Hyperrectangle box, final Hyperrectangle half) {
+		return IntStream.range(0, box.getDimension())
+			.boxed()
+			.min(Comparator.comparingDouble(d -> half.getExtent(d) / box.getExtent(d)))
+			.orElse(0);
+	}
+	
+	/**
+	 * Split the box into the two halves of its curve interval. The first box of 
+	 * the result contains the first half of the interval.
+	 * 
+	 * @param rootBox
+	 * @param box
+	 * @return
+	 */
+	public static List<Hyperrectangle> splitBox(final Hyperrectangle rootBox, final Hyperrectangle box) {
+		
+		final int dimensions = box.getDimension();
+		final int[] cellsPerDimension = getCellsPerDimension(rootBox, box);
+		long totalCells;
+		
+		try {
+			totalCells = Arrays.stream(cellsPerDimension).asLongStream().reduce(1, Math::multiplyExact);
+		} catch(ArithmeticException e) {
+			totalCells = Long.MAX_VALUE;
+		}
+		
+		if(dimensions >= Long.SIZE - 1 || totalCells > (1L << dimensions)) {
+			logger.warn("Box {} is not aligned to the curve, splitting in the middle", box);
+			return splitInTheMiddle(rootBox, box);
+		}
+		
+		// Order the cells of the box by their position on the curve
+		final int bits = HilbertCurve.getMaxBitsPerDimension(dimensions);
+		final List<int[]> cells = getCells(cellsPerDimension);
+		final long[] curveIndex = new long[cells.size()];
+		
+		for(int i = 0; i < cells.size(); i++) {
+			final double[] center = getCellCenter(box, cellsPerDimension, cells.get(i));
+			curveIndex[i] = HilbertCurve.getIndex(rootBox, center, bits);
+		}
+		
+		final List<int[]> firstHalf = IntStream.range(0, cells.size())
+				.boxed()
+				.sorted(Comparator.comparingLong(i -> curveIndex[i]))
+				.limit(cells.size() / 2)
+				.map(i -> cells.get(i))
+				.collect(Collectors.toList());
+		
+		// The first half of the curve interval covers one half of the box
+		for(int dimension = 0; dimension < dimensions; dimension++) {
+			final int halfCells = cellsPerDimension[dimension] / 2;
+			
+			if(cellsPerDimension[dimension] % 2 != 0) {
+				continue;
+			}
+			
+			final int dim = dimension;
+			final boolean lowerHalf = firstHalf.stream().allMatch(c -> c[dim] < halfCells);
+			final boolean upperHalf = firstHalf.stream().allMatch(c -> c[dim] >= halfCells);
+			
+			if(lowerHalf || upperHalf) {
+				final List<Hyperrectangle> halves = splitInTheMiddle(box, dimension);
+				
+				if(upperHalf) {
+					return Arrays.asList(halves.get(1), halves.get(0));
+				}
+				
+				return halves;
+			}
+		}
+		
+		// The curve resolution is exceeded
+		logger.warn("Unable to find the curve split for {}, splitting in the middle", box);
+		return splitInTheMiddle(rootBox, box);
+	}
+
+	/**
+	 * Get the number of cubic cells per dimension of the box. A cube is 
+	 * divided into 2^d cells.
+	 * 
+	 * @param rootBox
+	 * @param box
+	 * @return
+	 */
+	private static int[] getCellsPerDimension(final Hyperrectangle rootBox, final Hyperrectangle box) {
+		
+		final int dimensions = box.getDimension();
+		final double[] relativeExtent = new double[dimensions];
+		
+		for(int dimension = 0; dimension < dimensions; dimension++) {
+			relativeExtent[dimension] = box.getExtent(dimension) / rootBox.getExtent(dimension);
+		}
+		
+		final double cellExtent = Arrays.stream(relativeExtent).min().orElse(1);
+		final int[] cellsPerDimension = new int[dimensions];
+		boolean isCube = true;
+		
+		for(int dimension = 0; dimension < dimensions; dimension++) {
+			final long cells = Math.round(relativeExtent[dimension] / cellExtent);
+			cellsPerDimension[dimension] = (int) Math.min(Integer.MAX_VALUE, Math.max(1, cells));
+			isCube = isCube && cellsPerDimension[dimension] == 1;
+		}
+		
+		if(isCube) {
+			Arrays.fill(cellsPerDimension, 2);
+		}
+		
+		return cellsPerDimension;
+	}
+	
+	/**
+	 * Get the coordinates of all cells
+	 * @param cellsPerDimension
+	 * @return
+	 */
+	private static List<int[]> getCells(final int[] cellsPerDimension) {
+		
+		final List<int[]> cells = new ArrayList<>();
+		cells.add(new int[cellsPerDimension.length]);
+		
+		for(int dimension = 0; dimension < cellsPerDimension.length; dimension++) {
+			final List<int[]> expandedCells = new ArrayList<>();
+			
+			for(final int[] cell : cells) {
+				for(int i = 0; i < cellsPerDimension[dimension]; i++) {
+					final int[] expandedCell = cell.clone();
+					expandedCell[dimension] = i;
+					expandedCells.add(expandedCell);
+				}
+			}
+			
+			cells.clear();
+			cells.addAll(expandedCells);
+		}
+		
+		return cells;
+	}
+	
+	/**
+	 * Get the center of the given cell
+	 * @param box
+	 * @param cellsPerDimension
+	 * @param cell
+	 * @return
+	 */
+	private static double[] getCellCenter(final Hyperrectangle box, final int[] cellsPerDimension, 
+			final int[] cell) {
+		
+		final double[] center = new double[cell.length];
+		
+		for(int dimension = 0; dimension < cell.length; dimension++) {
+			final double cellExtent = box.getExtent(dimension) / cellsPerDimension[dimension];
+			center[dimension] = box.getCoordinateLow(dimension) + (cell[dimension] + 0.5) * cellExtent;
+		}
+		
+		return center;
+	}
+	
+	/**
+	 * Split the box in the middle of the longest dimension (relative to the root box)
+	 * @param rootBox
+	 * @param box
+	 * @return
+	 */
+	private static List<Hyperrectangle> splitInTheMiddle(final Hyperrectangle rootBox, 
+			final Hyperrectangle box) {
+		
+		final int splitDimension = IntStream.range(0, box.getDimension())
+			.boxed()
+			.max(Comparator.comparingDouble(d -> box.getExtent(d) / rootBox.getExtent(d)))
+			.orElse(0);
+		
+		return splitInTheMiddle(box, splitDimension);
+	}
+
+	/**
+	 * Split the box in the middle of the given dimension
+	 * @param box
+	 * @param dimension
+	 * @return
+	 */
+	private static List<Hyperrectangle> splitInTheMiddle(final Hyperrectangle box, final int dimension) {
+		final double splitPosition = box.getIntervalForDimension(dimension).getMidpoint();
+		final Hyperrectangle lowerBox = box.splitAndGetLeft(splitPosition, dimension, true);
+		final Hyperrectangle upperBox = box.splitAndGetRight(splitPosition, dimension, false);
+		return Arrays.asList(lowerBox, upperBox);
+	}
+}
@@ -54,10 +54,15 @@ public class KDtreeSpacePartitioner extends AbstractTreeSpacePartitoner {
 	@Override
 	public List<DistributionRegion> splitRegion(final DistributionRegion regionToSplit,
 			final Collection<Hyperrectangle> samples) throws BBoxDBException {
+		
+		return splitRegion(regionToSplit, new SamplingBasedSplitStrategy(samples));
+	}
+	
+	@Override
+	public List<DistributionRegion> splitRegion(final DistributionRegion regionToSplit,
+			final SplitpointStrategy splitpointStrategy) throws BBoxDBException {
 
 		try {
-			final SplitpointStrategy splitpointStrategy = new SamplingBasedSplitStrategy(samples);
-
 			final int splitDimension = getSplitDimension(regionToSplit);
 			final Hyperrectangle regionBox = regionToSplit.getConveringBox();
 			final double splitPosition = splitpointStrategy.getSplitPoint(splitDimension, regionBox);
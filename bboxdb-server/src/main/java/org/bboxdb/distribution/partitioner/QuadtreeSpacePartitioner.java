@@ -24,6 +24,7 @@ import java.util.List;
 import org.bboxdb.commons.ListHelper;
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.commons.math.DoubleInterval;
+import org.bboxdb.distribution.partitioner.regionsplit.SplitpointStrategy;
 import org.bboxdb.distribution.placement.ResourceAllocationException;
 import org.bboxdb.distribution.region.DistributionRegion;
 import org.bboxdb.distribution.zookeeper.ZookeeperException;
@@ -40,6 +41,14 @@ public class QuadtreeSpacePartitioner extends AbstractTreeSpacePartitoner {
 	 */
 	private final static Logger logger = LoggerFactory.getLogger(QuadtreeSpacePartitioner.class);
 
+	@Override
+	public List<DistributionRegion> splitRegion(final DistributionRegion regionToSplit,
+			final SplitpointStrategy splitpointStrategy) throws BBoxDBException {
+		
+		// The quadtree splits always in the middle of the region
+		return splitRegion(regionToSplit, new ArrayList<>());
+	}
+	
 	@Override
 	public List<DistributionRegion> splitRegion(final DistributionRegion regionToSplit,
 			final Collection<Hyperrectangle> samples) throws BBoxDBException {
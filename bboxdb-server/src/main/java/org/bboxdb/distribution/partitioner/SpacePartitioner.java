@@ -21,6 +21,7 @@ import java.util.Collection;
 import java.util.List;
 
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.distribution.partitioner.regionsplit.SplitpointStrategy;
 import org.bboxdb.distribution.placement.ResourceAllocationException;
 import org.bboxdb.distribution.region.DistributionRegion;
 import org.bboxdb.distribution.region.DistributionRegionCallback;
@@ -53,6 +54,14 @@ public interface SpacePartitioner {
 	 */
 	public DistributionRegion getRootNode() throws BBoxDBException;
 	
+	/**
+	 * Get a read only snapshot of the region tree. The snapshot is not changed
+	 * by later updates and can be used without locking.
+	 * @return
+	 * @throws BBoxDBException 
+	 */
+	public DistributionRegion getRootNodeSnapshot() throws BBoxDBException;
+	
 	/**
 	 * Is the splitting of the region supported?
 	 * 
@@ -74,6 +83,16 @@ public interface SpacePartitioner {
 	public List<DistributionRegion> splitRegion(final DistributionRegion regionToSplit, 
 			final Collection<Hyperrectangle> samples) throws BBoxDBException;
 	
+	/**
+	 * Split the region and return the newly created child regions
+	 * 
+	 * @param regionToSplit
+	 * @param splitpointStrategy - the strategy to determine the split point
+	 * @throws BBoxDBException 
+	 */
+	public List<DistributionRegion> splitRegion(final DistributionRegion regionToSplit, 
+			final SplitpointStrategy splitpointStrategy) throws BBoxDBException;
+	
 	/**
 	 * A split is complete
 	 * @param regionToSplit
@@ -17,10 +17,10 @@
  *******************************************************************************/
 package org.bboxdb.distribution.partitioner;
 
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.apache.zookeeper.WatchedEvent;
@@ -69,7 +69,7 @@ public class SpacePartitionerCache implements Watcher {
 	/**
 	 * The instance
 	 */
-	private static SpacePartitionerCache instance;
+	private static volatile SpacePartitionerCache instance;
 	
 	/**
 	 * The Logger
@@ -77,19 +77,29 @@ public class SpacePartitionerCache implements Watcher {
 	private final static Logger logger = LoggerFactory.getLogger(SpacePartitionerCache.class);
 
 	private SpacePartitionerCache() {
-		this.spacePartitioner = new HashMap<>();
-		this.distributionRegionIdMapper = new HashMap<>();
-		this.partitionerVersions = new HashMap<>();
-		this.callbacks = new HashMap<>();
+		this.spacePartitioner = new ConcurrentHashMap<>();
+		this.distributionRegionIdMapper = new ConcurrentHashMap<>();
+		this.partitionerVersions = new ConcurrentHashMap<>();
+		this.callbacks = new ConcurrentHashMap<>();
 		this.zookeeperClient = ZookeeperClientFactory.getZookeeperClient();
 	}
 	
-	public synchronized static SpacePartitionerCache getInstance() {
-		 if(instance == null) {
-			 instance = new SpacePartitionerCache();
-		 }
-		 
-		 return instance;
+	public static SpacePartitionerCache getInstance() {
+		
+		// Fast path, no lock is needed when the instance exists
+		final SpacePartitionerCache existingInstance = instance;
+		
+		if(existingInstance != null) {
+			return existingInstance;
+		}
+		
+		synchronized (SpacePartitionerCache.class) {
+			if(instance == null) {
+				instance = new SpacePartitionerCache();
+			}
+			
+			return instance;
+		}
 	}
 	
 	/**
@@ -100,10 +110,30 @@ public class SpacePartitionerCache implements Watcher {
 	 * @throws ZookeeperException 
 	 * @throws ZookeeperNotFoundException 
 	 */
-	public synchronized SpacePartitioner getSpacePartitionerForGroupName(final String groupName) 
+	public SpacePartitioner getSpacePartitionerForGroupName(final String groupName) 
+			throws BBoxDBException {
+		
+		// Fast path, the space partitioner is already known
+		final SpacePartitioner existingSpacePartitioner = spacePartitioner.get(groupName);
+		
+		if(existingSpacePartitioner != null) {
+			return existingSpacePartitioner;
+		}
+		
+		return createSpacePartitioner(groupName);
+	}
+	
+	/**
+	 * Create the space partitioner for the given group name
+	 * @param groupName
+	 * @return
+	 * @throws BBoxDBException
+	 */
+	private synchronized SpacePartitioner createSpacePartitioner(final String groupName) 
 			throws BBoxDBException {
 		
 		try {
+			// Space partitioner might be created while we are waiting for the lock
 			if(! spacePartitioner.containsKey(groupName)) {		
 				final String path = zookeeperClient
 						.getDistributionGroupAdapter().getDistributionGroupPath(groupName);
@@ -141,7 +171,7 @@ public class SpacePartitionerCache implements Watcher {
 	 * Get all known distribution groups
 	 * @return
 	 */
-	public synchronized Set<String> getAllKnownDistributionGroups() {
+	public Set<String> getAllKnownDistributionGroups() {
 		return new HashSet<>(spacePartitioner.keySet());
 	}
 	
@@ -201,8 +231,7 @@ public class SpacePartitionerCache implements Watcher {
 					logger.info("Our space partitioner version is {}, zookeeper version is {}", 
 							memoryVersion, zookeeperVersion);
 					
-					resetSpacePartitioner(groupname);
-					getSpacePartitionerForGroupName(groupname);
+					reloadSpacePartitioner(groupname);
 				} 
 			} catch (ZookeeperNotFoundException e) {
 				logger.info("Version for {} not found, deleting in memory version", groupname);
@@ -213,12 +242,26 @@ public class SpacePartitionerCache implements Watcher {
 		}			
 	}
 
+	/**
+	 * Reload the space partitioner. Readers that call the cache during the 
+	 * reload wait on the lock until the new space partitioner is created.
+	 * 
+	 * @param groupname
+	 * @throws BBoxDBException 
+	 */
+	private synchronized void reloadSpacePartitioner(final String groupname) 
+			throws BBoxDBException {
+		
+		resetSpacePartitioner(groupname);
+		createSpacePartitioner(groupname);
+	}
+
 	/**
 	 * Reset the space partitioner
 	 * 
 	 * @param groupname
 	 */
-	private void resetSpacePartitioner(final String groupname) {
+	private synchronized void resetSpacePartitioner(final String groupname) {
 		
 		final SpacePartitioner deletedSpacePartitioner = spacePartitioner.remove(groupname);
 		
@@ -25,6 +25,7 @@ import org.bboxdb.commons.InputParseException;
 import org.bboxdb.commons.MathUtil;
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.distribution.partitioner.regionsplit.SplitpointStrategy;
 import org.bboxdb.distribution.placement.ResourceAllocationException;
 import org.bboxdb.distribution.region.DistributionRegion;
 import org.bboxdb.distribution.zookeeper.ZookeeperException;
@@ -114,6 +115,13 @@ public class StaticgridSpacePartitioner extends AbstractGridSpacePartitioner {
 		
 		throw new BBoxDBException("Unsupported operation");
 	}
+	
+	@Override
+	public List<DistributionRegion> splitRegion(final DistributionRegion regionToSplit, 
+			final SplitpointStrategy splitpointStrategy) throws BBoxDBException {
+		
+		throw new BBoxDBException("Unsupported operation");
+	}
 
 	@Override
 	public List<List<DistributionRegion>> getMergeCandidates(final DistributionRegion distributionRegion) {
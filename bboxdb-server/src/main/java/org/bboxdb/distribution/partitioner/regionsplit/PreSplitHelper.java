@@ -0,0 +1,269 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.partitioner.regionsplit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.commons.math.QuantileSketch;
+import org.bboxdb.distribution.partitioner.DistributionRegionState;
+import org.bboxdb.distribution.partitioner.SpacePartitioner;
+import org.bboxdb.distribution.region.DistributionRegion;
+import org.bboxdb.distribution.region.DistributionRegionCallback;
+import org.bboxdb.misc.BBoxDBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class PreSplitHelper {
+
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(PreSplitHelper.class);
+	
+	/**
+	 * The minimal number of samples in a region to perform a split
+	 */
+	public final static int MIN_SAMPLES_FOR_SPLIT = 2;
+	
+	/**
+	 * The time to wait for the zookeeper callback of a completed split
+	 */
+	public final static int SPLIT_COMPLETE_TIMEOUT_IN_SEC = 30;
+	
+	/**
+	 * Split the (empty) distribution group until the given number of active regions is reached. 
+	 * The region with the most samples is split first, the split point is the median of the 
+	 * samples in the region. The systems of the new regions are allocated by the placement 
+	 * strategy of the distribution group.
+	 * 
+	 * @param spacePartitioner
+	 * @param samples
+	 * @param regions - the wanted number of active regions
+	 * @return the number of active regions
+	 * @throws BBoxDBException
+	 */
+	public static int preSplit(final SpacePartitioner spacePartitioner, 
+			final Collection<Hyperrectangle> samples, final int regions) throws BBoxDBException {
+		
+		final DistributionRegion rootNode = spacePartitioner.getRootNode();
+		
+		if(rootNode == null) {
+			throw new BBoxDBException("Root node is null, unable to pre-split the distribution group");
+		}
+		
+		if(rootNode.getThisAndChildRegions().size() != 1) {
+			throw new BBoxDBException("Distribution group is already split, unable to pre-split");
+		}
+		
+		List<DistributionRegion> activeRegions = getActiveRegions(rootNode);
+		
+		while(activeRegions.size() < regions) {
+			final DistributionRegion regionToSplit = getRegionToSplit(activeRegions, samples);
+			
+			if(regionToSplit == null) {
+				logger.warn("Not enough samples to create {} regions, stopping at {} regions", 
+						regions, activeRegions.size());
+				break;
+			}
+			
+			final List<QuantileSketch> sketches = getSketchesForRegion(regionToSplit, samples);
+			final SplitpointStrategy splitpointStrategy = new SketchBasedSplitStrategy(sketches);
+			
+			logger.info("Pre-splitting region {} ({} of {} regions)", 
+					regionToSplit.getIdentifier(), activeRegions.size(), regions);
+			
+			final List<DistributionRegion> destination 
+				= spacePartitioner.splitRegion(regionToSplit, splitpointStrategy);
+			
+			// The region contains no data, so no redistribution is needed
+			spacePartitioner.splitComplete(regionToSplit, destination);
+			
+			// Wait until the new regions are active, otherwise the split region is
+			// still active in the region tree and would be split again
+			waitForSplitComplete(spacePartitioner, regionToSplit, destination);
+			
+			activeRegions = getActiveRegions(spacePartitioner.getRootNode());
+		}
+		
+		return activeRegions.size();
+	}
+	
+	/**
+	 * Wait until the zookeeper callback of the completed split is processed
+	 * @param spacePartitioner
+	 * @param regionToSplit
+	 * @param destination
+	 * @throws BBoxDBException
+	 */
+	private static void waitForSplitComplete(final SpacePartitioner spacePartitioner, 
+			final DistributionRegion regionToSplit, final List<DistributionRegion> destination) 
+					throws BBoxDBException {
+		
+		final CountDownLatch latch = new CountDownLatch(1);
+		
+		final DistributionRegionCallback callback = (e, r) -> {
+			if(isSplitComplete(regionToSplit, destination)) {
+				latch.countDown();
+			}
+		};
+		
+		spacePartitioner.registerCallback(callback);
+		
+		try {
+			if(isSplitComplete(regionToSplit, destination)) {
+				return;
+			}
+			
+			if(! latch.await(SPLIT_COMPLETE_TIMEOUT_IN_SEC, TimeUnit.SECONDS)) {
+				throw new BBoxDBException("The split of region " + regionToSplit.getIdentifier() 
+					+ " is not complete after " + SPLIT_COMPLETE_TIMEOUT_IN_SEC + " seconds");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BBoxDBException(e);
+		} finally {
+			spacePartitioner.unregisterCallback(callback);
+		}
+	}
+	
+	/**
+	 * Is the region split and are the new regions active
+	 * @param regionToSplit
+	 * @param destination
+	 * @return
+	 */
+	private static boolean isSplitComplete(final DistributionRegion regionToSplit, 
+			final List<DistributionRegion> destination) {
+		
+		if(regionToSplit.getState() != DistributionRegionState.SPLIT) {
+			return false;
+		}
+		
+		return destination.stream().allMatch(r -> r.getState() == DistributionRegionState.ACTIVE);
+	}
+	
+	/**
+	 * Get the active region with the most samples
+	 * @param activeRegions
+	 * @param samples
+	 * @return the region or null, if no region contains enough samples for a split
+	 */
+	public static DistributionRegion getRegionToSplit(final List<DistributionRegion> activeRegions, 
+			final Collection<Hyperrectangle> samples) {
+		
+		DistributionRegion regionToSplit = null;
+		long maxSamples = MIN_SAMPLES_FOR_SPLIT - 1;
+		
+		for(final DistributionRegion region : activeRegions) {
+			final Hyperrectangle coveringBox = region.getConveringBox();
+			
+			final long samplesInRegion = samples.stream()
+					.filter(s -> isCenterCovered(coveringBox, s))
+					.count();
+			
+			if(samplesInRegion > maxSamples) {
+				maxSamples = samplesInRegion;
+				regionToSplit = region;
+			}
+		}
+		
+		return regionToSplit;
+	}
+	
+	/**
+	 * Get the sketches of the sample centers of the region (one per dimension)
+	 * @param region
+	 * @param samples
+	 * @return
+	 */
+	public static List<QuantileSketch> getSketchesForRegion(final DistributionRegion region, 
+			final Collection<Hyperrectangle> samples) {
+		
+		final Hyperrectangle coveringBox = region.getConveringBox();
+		final List<QuantileSketch> sketches = new ArrayList<>();
+		
+		for(final Hyperrectangle sample : samples) {
+			
+			if(! isCenterCovered(coveringBox, sample)) {
+				continue;
+			}
+			
+			for(int dimension = 0; dimension < sample.getDimension(); dimension++) {
+				if(sketches.size() <= dimension) {
+					sketches.add(new QuantileSketch());
+				}
+				
+				final double center = sample.getIntervalForDimension(dimension).getMidpoint();
+				sketches.get(dimension).add(center);
+			}
+		}
+		
+		return sketches;
+	}
+	
+	/**
+	 * Is the center of the sample covered by the box
+	 * @param coveringBox
+	 * @param sample
+	 * @return
+	 */
+	private static boolean isCenterCovered(final Hyperrectangle coveringBox, final Hyperrectangle sample) {
+		
+		// Ignore empty boxes (e.g. deleted tuples)
+		if(sample == null || sample.getDimension() == 0) {
+			return false;
+		}
+		
+		// Full space
+		if(coveringBox.getDimension() == 0) {
+			return true;
+		}
+		
+		if(coveringBox.getDimension() != sample.getDimension()) {
+			return false;
+		}
+		
+		for(int dimension = 0; dimension < sample.getDimension(); dimension++) {
+			final double center = sample.getIntervalForDimension(dimension).getMidpoint();
+			
+			if(! coveringBox.isCoveringPointInDimension(center, dimension)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Get the active regions
+	 * @param rootNode
+	 * @return
+	 */
+	private static List<DistributionRegion> getActiveRegions(final DistributionRegion rootNode) {
+		return rootNode.getThisAndChildRegions()
+				.stream()
+				.filter(r -> r.getState() == DistributionRegionState.ACTIVE)
+				.collect(Collectors.toList());
+	}
+}
@@ -33,6 +33,7 @@ import org.bboxdb.distribution.zookeeper.DistributionRegionAdapter;
 import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
 import org.bboxdb.distribution.zookeeper.ZookeeperException;
 import org.bboxdb.distribution.zookeeper.ZookeeperNotFoundException;
+import org.bboxdb.misc.BBoxDBConfigurationManager;
 import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.storage.entity.DistributionGroupConfiguration;
 import org.slf4j.Logger;
@@ -92,6 +93,11 @@ public class RegionMergeHelper {
 			return false;
 		}
 		
+		if(isMergedRequestRateTooHigh(sources)) {
+			logger.info("Request rate of {} is too high for a merge", sourceIds);
+			return false;
+		}
+		
 		final OptionalDouble childRegionSize = getTotalRegionSize(sources);
 		
 		if(! childRegionSize.isPresent()) {
@@ -114,6 +120,31 @@ public class RegionMergeHelper {
 		} 
 	}
 
+	/**
+	 * Would the merged region immediately exceed the configured split request rate?
+	 * @param sources
+	 * @return
+	 */
+	private static boolean isMergedRequestRateTooHigh(final List<DistributionRegion> sources) {
+		
+		final double maxRequestRate = BBoxDBConfigurationManager.getConfiguration()
+				.getRegionSplitRequestRate();
+		
+		// Load based split is disabled
+		if(maxRequestRate <= 0) {
+			return false;
+		}
+		
+		// Read only, the request rate history is updated by the split check
+		final double mergedRequestRate = sources
+				.stream()
+				.map(r -> StatisticsHelper.getRequestRate(r))
+				.mapToDouble(r -> r.orElse(0))
+				.sum();
+		
+		return mergedRequestRate > maxRequestRate;
+	}
+
 	/**
 	 * Get a list with the region ids
 	 * @param sources
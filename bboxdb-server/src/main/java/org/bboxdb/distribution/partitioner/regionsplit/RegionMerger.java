@@ -167,6 +167,9 @@ public class RegionMerger {
 			for(final DistributionRegion childRegion : source) {
 				mergeDataFromChildRegion(destination, tupleStoreName, tupleRedistributor, childRegion);					
 			}
+			
+			// Wait until the remote systems have confirmed all tuples
+			tupleRedistributor.flush();
 
 			logger.info("Final statistics for merge ({}): {}", 
 					tupleStoreName,tupleRedistributor.getStatistics());
@@ -27,6 +27,7 @@ import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
 import org.bboxdb.distribution.region.DistributionRegion;
 import org.bboxdb.distribution.zookeeper.ZookeeperException;
 import org.bboxdb.distribution.zookeeper.ZookeeperNotFoundException;
+import org.bboxdb.misc.BBoxDBConfigurationManager;
 import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.storage.entity.DistributionGroupConfiguration;
 import org.slf4j.Logger;
@@ -52,6 +53,11 @@ public class RegionSplitHelper {
 			return false;
 		}
 		
+		if(isRegionRequestRateOverflow(region)) {
+			logger.info("Region {} has a sustained request rate overflow", region.getIdentifier());
+			return true;
+		}
+		
 		final OptionalDouble sizeOfRegionInMB = StatisticsHelper.getAndUpdateStatistics(region);
 
 		if(! sizeOfRegionInMB.isPresent()) {
@@ -66,6 +72,32 @@ public class RegionSplitHelper {
 		} 
 	}
 	
+	/**
+	 * Is the request rate of the region above the configured split rate 
+	 * for the whole statistics history?
+	 * 
+	 * @param region
+	 * @return
+	 */
+	private static boolean isRegionRequestRateOverflow(final DistributionRegion region) {
+		
+		final double maxRequestRate = BBoxDBConfigurationManager.getConfiguration()
+				.getRegionSplitRequestRate();
+		
+		// Load based split is disabled
+		if(maxRequestRate <= 0) {
+			return false;
+		}
+		
+		final OptionalDouble requestRate = StatisticsHelper.getAndUpdateRequestRate(region);
+		
+		if(! requestRate.isPresent()) {
+			return false;
+		}
+		
+		return StatisticsHelper.isRequestRateSustainedAbove(region.getIdentifier(), maxRequestRate);
+	}
+	
 	/**
 	 * Get maximal size of a region
 	 * @return
@@ -18,10 +18,9 @@
 package org.bboxdb.distribution.partitioner.regionsplit;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 
-import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.commons.math.QuantileSketch;
 import org.bboxdb.distribution.partitioner.DistributionRegionState;
 import org.bboxdb.distribution.partitioner.SpacePartitioner;
 import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
@@ -41,12 +40,22 @@ import org.bboxdb.storage.tuplestore.manager.TupleStoreUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.prometheus.client.Gauge;
+
 public class RegionSplitter {
 
 	/**
 	 * The storage reference
 	 */
 	private final TupleStoreManagerRegistry registry;
+	
+	/**
+	 * The progress of the running redistribution
+	 */
+	private final static Gauge spreadProgress = Gauge.build()
+			.name("bboxdb_region_split_progress_ratio")
+			.help("Progress of the tuple store that is redistributed by a region split (0 to 1).")
+			.register();
 
 	/**
 	 * The Logger
@@ -87,10 +96,12 @@ public class RegionSplitter {
 		final List<DistributionRegion> destination = new ArrayList<>();
 		
 		try {
-			final Collection<Hyperrectangle> samples 
-				= SamplingHelper.getSamplesForRegion(region, tupleStoreManagerRegistry);
+			final List<QuantileSketch> sketches 
+				= SamplingHelper.getSketchesForRegion(region, tupleStoreManagerRegistry);
+			
+			final SplitpointStrategy splitpointStrategy = new SketchBasedSplitStrategy(sketches);
 			
-			final List<DistributionRegion> splitRegions = spacePartitioner.splitRegion(region, samples);
+			final List<DistributionRegion> splitRegions = spacePartitioner.splitRegion(region, splitpointStrategy);
 			destination.addAll(splitRegions);
 	
 			redistributeDataSplit(region, destination);
@@ -283,13 +294,19 @@ public class RegionSplitter {
 			storages.addAll(aquiredStorages);
 			
 			final int totalSotrages = aquiredStorages.size();
+			spreadProgress.set(0);
 			
 			for(int i = 0; i < totalSotrages; i++) {
 				final ReadOnlyTupleStore storage = aquiredStorages.get(i);
 				logger.info("Spread tuple storage {} number {} of {}", 
 						storage.getInternalName(), i, totalSotrages - 1);
 						spreadStorage(tupleRedistributor, storage);
+				spreadProgress.set((double) (i + 1) / totalSotrages);
 			}
+			
+			// Wait until the remote systems have confirmed all tuples
+			tupleRedistributor.flush();
+			spreadProgress.set(1);
 
 			logger.info("Final statistics for spread ({}): {}", 
 					ssTableManager.getTupleStoreName().getFullname(),
@@ -22,10 +22,14 @@ import java.util.Collection;
 import java.util.List;
 
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.commons.math.QuantileSketch;
 import org.bboxdb.distribution.region.DistributionRegion;
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreMetaData;
 import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.sstable.SSTableMetadataBuilder;
+import org.bboxdb.storage.sstable.reader.SSTableFacade;
 import org.bboxdb.storage.tuplestore.ReadOnlyTupleStore;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
@@ -57,6 +61,100 @@ public class SamplingHelper {
 		return getSamples(region.getConveringBox(), tupleStoreManagerRegistry, tables);
 	}
 
+	/**
+	 * Get the quantile sketches of the bounding box centers for the region (one per dimension). 
+	 * 
+	 * The sketches of the SSTables are read from the SSTable metadata, only memtables
+	 * and SSTables written by older versions are read. 
+	 * 
+	 * @param region
+	 * @param tupleStoreManagerRegistry
+	 * @return
+	 * @throws StorageManagerException
+	 */
+	public static List<QuantileSketch> getSketchesForRegion(final DistributionRegion region,
+			final TupleStoreManagerRegistry tupleStoreManagerRegistry) throws StorageManagerException {
+		
+		final List<TupleStoreName> tables = TupleStoreUtil
+				.getAllTablesForDistributionGroupAndRegionId
+				(tupleStoreManagerRegistry, region.getDistributionGroupName(), region.getRegionId());
+		
+		final List<QuantileSketch> sketches = new ArrayList<>();
+		
+		for(final TupleStoreName ssTableName : tables) {
+			final TupleStoreManager sstableManager = tupleStoreManagerRegistry
+					.getTupleStoreManager(ssTableName);
+			
+			final List<ReadOnlyTupleStore> tupleStores = sstableManager.getAllTupleStorages();
+			
+			for(final ReadOnlyTupleStore tupleStore : tupleStores) {
+				if(! tupleStore.acquire()) {
+					continue;
+				}
+				
+				try {
+					mergeSketches(sketches, getSketchesForTupleStore(tupleStore));
+				} finally {
+					tupleStore.release();
+				}
+			}
+		}
+		
+		logger.info("Got sketches for region {} with {} values", region.getIdentifier(), 
+				sketches.isEmpty() ? 0 : sketches.get(0).getCount());
+		
+		return sketches;
+	}
+
+	/**
+	 * Get the sketches for the tuple store
+	 * @param tupleStore
+	 * @return
+	 */
+	private static List<QuantileSketch> getSketchesForTupleStore(final ReadOnlyTupleStore tupleStore) {
+		
+		if(tupleStore instanceof SSTableFacade) {
+			final TupleStoreMetaData metaData = ((SSTableFacade) tupleStore).getSsTableMetadata();
+			final double[][] sketchData = metaData.getCenterSketchData();
+			
+			if(sketchData.length > 0 || metaData.getTuples() == 0) {
+				final List<QuantileSketch> sketches = new ArrayList<>();
+				
+				for(final double[] data : sketchData) {
+					sketches.add(QuantileSketch.fromArray(data));
+				}
+				
+				return sketches;
+			}
+		}
+		
+		// Memtables and SSTables without sketches
+		final SSTableMetadataBuilder metadataBuilder = new SSTableMetadataBuilder();
+		
+		for(final Tuple tuple : tupleStore) {
+			metadataBuilder.updateCenterSketches(tuple.getBoundingBox());
+		}
+		
+		return metadataBuilder.getCenterSketches();
+	}
+	
+	/**
+	 * Merge the sketches into the result list
+	 * @param result
+	 * @param sketches
+	 */
+	private static void mergeSketches(final List<QuantileSketch> result, 
+			final List<QuantileSketch> sketches) {
+		
+		for(int dimension = 0; dimension < sketches.size(); dimension++) {
+			if(result.size() <= dimension) {
+				result.add(new QuantileSketch());
+			}
+			
+			result.get(dimension).merge(sketches.get(dimension));
+		}
+	}
+
 	/**
 	 * Get the samples
 	 * 
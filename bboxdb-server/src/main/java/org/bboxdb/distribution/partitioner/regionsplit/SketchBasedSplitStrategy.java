@@ -0,0 +1,76 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.partitioner.regionsplit;
+
+import java.util.List;
+
+import org.bboxdb.commons.MathUtil;
+import org.bboxdb.commons.math.DoubleInterval;
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.commons.math.QuantileSketch;
+import org.bboxdb.storage.StorageManagerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class SketchBasedSplitStrategy implements SplitpointStrategy {
+
+	/**
+	 * The quantile sketches of the bounding box centers (one per dimension)
+	 */
+	private final List<QuantileSketch> sketches;
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(SketchBasedSplitStrategy.class);
+
+	public SketchBasedSplitStrategy(final List<QuantileSketch> sketches) {
+		this.sketches = sketches;
+	}
+
+	@Override
+	public double getSplitPoint(final int splitDimension, final Hyperrectangle coveringBox) 
+			throws StorageManagerException {
+		
+		if(splitDimension >= sketches.size() || sketches.get(splitDimension).isEmpty()) {
+			throw new StorageManagerException("Unable to determine split point, no sketch for dimension " 
+					+ splitDimension);
+		}
+		
+		final QuantileSketch sketch = sketches.get(splitDimension);
+		final DoubleInterval groupInterval = coveringBox.getIntervalForDimension(splitDimension);
+		
+		// Only the values inside of the covering box are relevant
+		final double beginRank = sketch.getRank(groupInterval.getBegin());
+		final double endRank = sketch.getRank(groupInterval.getEnd());
+		
+		if(endRank <= beginRank) {
+			throw new StorageManagerException("Unable to determine split point, no values in " 
+					+ groupInterval);
+		}
+		
+		final double medianRank = (beginRank + endRank) / 2.0;
+		final double splitPosition = sketch.getQuantile(medianRank);
+		final double splitPositonRound = MathUtil.round(splitPosition, 5);
+		
+		logger.info("Sketch contains {} values, split at dimension {} at {}", 
+				sketch.getCount(), splitDimension, splitPositonRound);
+		
+		return splitPositonRound;
+	}
+}
@@ -52,6 +52,11 @@ public class StatisticsHelper {
 	 */
 	private final static Map<String, Queue<Double>> statisticsHistory;
 	
+	/**
+	 * The request rate history
+	 */
+	private final static Map<String, Queue<Double>> requestRateHistory;
+	
 	/**
 	 * The statistics length
 	 */
@@ -62,6 +67,7 @@ public class StatisticsHelper {
 			= ZookeeperClientFactory.getZookeeperClient().getDistributionRegionAdapter();
 		
 		statisticsHistory = new HashMap<>();
+		requestRateHistory = new HashMap<>();
 	}
 
 	/**
@@ -96,6 +102,113 @@ public class StatisticsHelper {
 		} 
 	}
 
+	/**
+	 * Get the request rate of the region and update the history
+	 * @param region
+	 * @return
+	 */
+	public static OptionalDouble getAndUpdateRequestRate(final DistributionRegion region) {
+		
+		final OptionalDouble requestRate = getRequestRate(region);
+		
+		if(requestRate.isPresent()) {
+			final String regionIdentifier = region.getIdentifier();
+			updateRequestRateHistory(regionIdentifier, requestRate.getAsDouble());
+		}
+		
+		return requestRate;
+	}
+	
+	/**
+	 * Get the request rate of the region, the history is not changed
+	 * @param region
+	 * @return
+	 */
+	public static OptionalDouble getRequestRate(final DistributionRegion region) {
+		
+		try {
+			final Map<BBoxDBInstance, Map<String, Long>> statistics 
+				= distributionGroupZookeeperAdapter.getRegionStatistics(region);
+			
+			return calculateRequestRate(statistics);
+		} catch (Exception e) {
+			logger.error("Got an exception while reading statistics", e);
+			return OptionalDouble.empty();
+		} 
+	}
+	
+	/**
+	 * Calculate the request rate of a region. Writes are executed on all replicas, 
+	 * so the max write rate is used. Reads are executed on one replica, 
+	 * so the read rates of all systems are summed up.
+	 * 
+	 * @param statistics
+	 * @return
+	 */
+	public static OptionalDouble calculateRequestRate(final Map<BBoxDBInstance, Map<String, Long>> statistics) {
+		
+		final boolean ratesAvailable = statistics
+				.values()
+				.stream()
+				.anyMatch(p -> p.containsKey(ZookeeperNodeNames.NAME_STATISTICS_READ_RATE)
+						|| p.containsKey(ZookeeperNodeNames.NAME_STATISTICS_WRITE_RATE));
+		
+		if(! ratesAvailable) {
+			return OptionalDouble.empty();
+		}
+		
+		final long readRate = statistics
+				.values()
+				.stream()
+				.mapToLong(p -> p.getOrDefault(ZookeeperNodeNames.NAME_STATISTICS_READ_RATE, 0L))
+				.sum();
+		
+		final long writeRate = statistics
+				.values()
+				.stream()
+				.mapToLong(p -> p.getOrDefault(ZookeeperNodeNames.NAME_STATISTICS_WRITE_RATE, 0L))
+				.max()
+				.orElse(0);
+		
+		return OptionalDouble.of(readRate + writeRate);
+	}
+	
+	/**
+	 * Update the request rate history
+	 * 
+	 * @param regionIdentifier
+	 * @param requestRate
+	 */
+	public static void updateRequestRateHistory(final String regionIdentifier, final double requestRate) {
+		
+		synchronized (requestRateHistory) {
+			requestRateHistory
+				.computeIfAbsent(regionIdentifier, (e) -> EvictingQueue.create(HISTORY_LENGTH))
+				.add(requestRate);
+		}
+	}
+	
+	/**
+	 * Is the request rate of the region above the given rate for the whole history?
+	 * 
+	 * @param regionIdentifier
+	 * @param requestRate
+	 * @return
+	 */
+	public static boolean isRequestRateSustainedAbove(final String regionIdentifier, 
+			final double requestRate) {
+		
+		synchronized (requestRateHistory) {
+			final Queue<Double> history = requestRateHistory.get(regionIdentifier);
+			
+			if(history == null || history.size() < HISTORY_LENGTH) {
+				return false;
+			}
+			
+			return history.stream().allMatch(r -> r > requestRate);
+		}
+	}
+
 	/**
 	 * Update the statistics 
 	 * 
@@ -158,5 +271,9 @@ public class StatisticsHelper {
 		synchronized (statisticsHistory) {
 			statisticsHistory.clear();
 		}
+		
+		synchronized (requestRateHistory) {
+			requestRateHistory.clear();
+		}
 	}
 }
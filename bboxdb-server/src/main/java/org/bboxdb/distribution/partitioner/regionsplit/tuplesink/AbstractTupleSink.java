@@ -52,4 +52,10 @@ public abstract class AbstractTupleSink {
 	 * @throws StorageManagerException
 	 */
 	public abstract void sinkTuple(final Tuple tuple) throws StorageManagerException;
+	
+	/**
+	 * Wait until all sinked tuples are stored (end of stream)
+	 * @throws StorageManagerException
+	 */
+	public abstract void flush() throws StorageManagerException;
 }
\ No newline at end of file
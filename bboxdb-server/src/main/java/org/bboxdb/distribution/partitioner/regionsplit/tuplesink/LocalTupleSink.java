@@ -45,4 +45,9 @@ public class LocalTupleSink extends AbstractTupleSink {
 			throw new StorageManagerException(e);
 		}
 	}
+
+	@Override
+	public void flush() throws StorageManagerException {
+		// Tuples are stored synchronously
+	}
 }
@@ -17,8 +17,14 @@
  *******************************************************************************/
 package org.bboxdb.distribution.partitioner.regionsplit.tuplesink;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.network.client.BBoxDBConnection;
+import org.bboxdb.network.client.future.EmptyResultFuture;
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreName;
@@ -29,10 +35,38 @@ public class NetworkTupleSink extends AbstractTupleSink {
 	 * The connection to spread data too
 	 */
 	private final BBoxDBConnection connection;
+	
+	/**
+	 * The insert futures that are not confirmed (oldest first)
+	 */
+	private final Deque<EmptyResultFuture> pendingFutures;
+	
+	/**
+	 * The max number of unconfirmed inserts
+	 */
+	private final int maxPendingFutures;
+	
+	/**
+	 * The default max number of unconfirmed inserts
+	 */
+	public final static int DEFAULT_MAX_PENDING_FUTURES = 5000;
+	
+	/**
+	 * The timeout for a insert confirmation
+	 */
+	private final static long CONFIRMATION_TIMEOUT_IN_SEC = 120;
 
 	public NetworkTupleSink(final TupleStoreName tablename, final BBoxDBConnection connection) {
+		this(tablename, connection, DEFAULT_MAX_PENDING_FUTURES);
+	}
+	
+	public NetworkTupleSink(final TupleStoreName tablename, final BBoxDBConnection connection, 
+			final int maxPendingFutures) {
+		
 		super(tablename);
 		this.connection = connection;
+		this.maxPendingFutures = maxPendingFutures;
+		this.pendingFutures = new ArrayDeque<>();
 	}
 
 	@Override
@@ -40,9 +74,70 @@ public class NetworkTupleSink extends AbstractTupleSink {
 		sinkedTuples++;
 		
 		try {
-			connection.getBboxDBClient().insertTuple(tablename, tuple);
+			final EmptyResultFuture future = connection.getBboxDBClient().insertTuple(tablename, tuple);
+			pendingFutures.addLast(future);
 		} catch (BBoxDBException e) {
 			throw new StorageManagerException(e);
 		}
+		
+		// Remove confirmed futures without blocking
+		while(! pendingFutures.isEmpty() && pendingFutures.peekFirst().isDone()) {
+			checkFuture(pendingFutures.pollFirst());
+		}
+		
+		// Window is full, wait for the oldest insert
+		while(pendingFutures.size() >= maxPendingFutures) {
+			waitForFuture(pendingFutures.pollFirst());
+		}
+	}
+	
+	@Override
+	public void flush() throws StorageManagerException {
+		while(! pendingFutures.isEmpty()) {
+			waitForFuture(pendingFutures.pollFirst());
+		}
+	}
+	
+	/**
+	 * Get the number of unconfirmed inserts
+	 * @return
+	 */
+	public int getPendingFutures() {
+		return pendingFutures.size();
+	}
+	
+	/**
+	 * Wait until the future is done and check the result
+	 * @param future
+	 * @throws StorageManagerException
+	 */
+	private void waitForFuture(final EmptyResultFuture future) throws StorageManagerException {
+		try {
+			future.waitForCompletion(CONFIRMATION_TIMEOUT_IN_SEC, TimeUnit.SECONDS);
+			
+			if(! future.isDone()) {
+				throw new StorageManagerException("Insert was not confirmed by " 
+						+ connection.getConnectionName() + " in " + CONFIRMATION_TIMEOUT_IN_SEC + " seconds");
+			}
+			
+			checkFuture(future);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new StorageManagerException(e);
+		} catch (TimeoutException e) {
+			throw new StorageManagerException(e);
+		}
+	}
+
+	/**
+	 * Check the result of a done future
+	 * @param future
+	 * @throws StorageManagerException
+	 */
+	private void checkFuture(final EmptyResultFuture future) throws StorageManagerException {
+		if(future.isFailed()) {
+			throw new StorageManagerException("Unable to redistribute tuple to " 
+					+ connection.getConnectionName() + ": " + future.getAllMessages());
+		}
 	}
 }
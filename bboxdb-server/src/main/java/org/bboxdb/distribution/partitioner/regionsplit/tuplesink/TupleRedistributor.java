@@ -22,7 +22,9 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import org.bboxdb.commons.math.HyperrectangleIndex;
 import org.bboxdb.distribution.membership.BBoxDBInstance;
 import org.bboxdb.distribution.membership.MembershipConnectionService;
 import org.bboxdb.distribution.region.DistributionRegion;
@@ -41,6 +43,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+
+import io.prometheus.client.Counter;
 
 public class TupleRedistributor {
 	
@@ -54,6 +59,11 @@ public class TupleRedistributor {
 	 */
 	private final Map<DistributionRegion, List<AbstractTupleSink>> regionMap;
 	
+	/**
+	 * The spatial index of the registered regions
+	 */
+	private final HyperrectangleIndex<DistributionRegion> regionIndex;
+	
 	/**
 	 * The amount of total redistributed tuples
 	 */
@@ -64,6 +74,19 @@ public class TupleRedistributor {
 	 */
 	private final TupleStoreManagerRegistry tupleStoreManagerRegistry;
 	
+	/**
+	 * The stopwatch for the throughput
+	 */
+	private final Stopwatch stopwatch;
+	
+	/**
+	 * The redistributed tuples counter
+	 */
+	private final static Counter redistributedTuplesTotal = Counter.build()
+			.name("bboxdb_redistributed_tuples_total")
+			.help("Total tuples read for redistribution (region split and merge).")
+			.register();
+	
 	/**
 	 * The Logger
 	 */
@@ -80,7 +103,9 @@ public class TupleRedistributor {
 		this.tupleStoreManagerRegistry = tupleStoreManagerRegistry;
 		this.tupleStoreName = tupleStoreName;
 		this.regionMap = new HashMap<DistributionRegion, List<AbstractTupleSink>>();
+		this.regionIndex = new HyperrectangleIndex<>();
 		this.redistributedTuples = 0;
+		this.stopwatch = Stopwatch.createStarted();
 	}
 
 	/**
@@ -96,6 +121,7 @@ public class TupleRedistributor {
 		}
 		
 		regionMap.put(distributionRegion, sinks);
+		regionIndex.put(distributionRegion, distributionRegion.getConveringBox());
 	}
 	
 	/**
@@ -172,13 +198,12 @@ public class TupleRedistributor {
 		boolean tupleRedistributed = false;
 		
 		redistributedTuples++;
+		redistributedTuplesTotal.inc();
 		
-		for(final DistributionRegion region : regionMap.keySet()) {
-			if(belongsTupleToRegion(tuple, region)) {
-				for(final AbstractTupleSink tupleSink : regionMap.get(region)) {
-					tupleSink.sinkTuple(tuple);
-					tupleRedistributed = true;
-				}
+		for(final DistributionRegion region : getRegionsForTuple(tuple)) {
+			for(final AbstractTupleSink tupleSink : regionMap.get(region)) {
+				tupleSink.sinkTuple(tuple);
+				tupleRedistributed = true;
 			}
 		}
 		
@@ -186,26 +211,34 @@ public class TupleRedistributor {
 			throw new StorageManagerException("Tuple " + tuple + " was not redistributed");
 		}
 	}
+	
+	/**
+	 * Wait until all redistributed tuples are stored
+	 * @throws StorageManagerException
+	 */
+	public void flush() throws StorageManagerException {
+		for(final List<AbstractTupleSink> sinks : regionMap.values()) {
+			for(final AbstractTupleSink tupleSink : sinks) {
+				tupleSink.flush();
+			}
+		}
+	}
 
 	/**
-	 * Check if a tuple belongs to the given region
+	 * Get the regions the tuple belongs to
 	 * 
 	 * @param tuple
-	 * @param region
 	 * @return
 	 */
-	private boolean belongsTupleToRegion(final Tuple tuple, final DistributionRegion region) {
-		// Tuple overlaps with region
-		if(region.getConveringBox().intersects(tuple.getBoundingBox())) {
-			return true;
-		}
+	private Collection<DistributionRegion> getRegionsForTuple(final Tuple tuple) {
 		
 		// Deleted tuples should always be redistributed
 		if(TupleHelper.isDeletedTuple(tuple)) {
-			return true;
+			return regionMap.keySet();
 		}
 		
-		return false;
+		// Tuple overlaps with region
+		return regionIndex.getValuesForBoundingBox(tuple.getBoundingBox());
 	}
 	
 	/**
@@ -234,6 +267,10 @@ public class TupleRedistributor {
 		final float percent = ((float) totalRedistributedTuples / (float) redistributedTuples * 100);
 		sb.append(" Total redistributed tuples: " + totalRedistributedTuples);
 		sb.append(String.format(" (%.2f %%)", percent));
+		
+		final long elapsedMs = Math.max(1, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+		final float tuplesPerSecond = (float) redistributedTuples / elapsedMs * 1000;
+		sb.append(String.format(" Throughput: %.2f tuples/s", tuplesPerSecond));
 
 		return sb.toString();
 	}
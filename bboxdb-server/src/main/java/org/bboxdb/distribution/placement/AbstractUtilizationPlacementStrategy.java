@@ -100,7 +100,7 @@ public abstract class AbstractUtilizationPlacementStrategy extends ResourcePlace
 			final SpacePartitioner spacepartitioner = SpacePartitionerCache
 				.getInstance().getSpacePartitionerForGroupName(groupName);
 			
-			final DistributionRegion region = spacepartitioner.getRootNode();
+			final DistributionRegion region = spacepartitioner.getRootNodeSnapshot();
 			final Multiset<BBoxDBInstance> regionSystemUsage 
 				= DistributionRegionHelper.getSystemUtilization(region);
 		
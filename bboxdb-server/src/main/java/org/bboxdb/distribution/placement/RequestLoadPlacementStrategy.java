@@ -0,0 +1,196 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.placement;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.distribution.partitioner.SpacePartitioner;
+import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
+import org.bboxdb.distribution.region.DistributionRegion;
+import org.bboxdb.distribution.zookeeper.DistributionGroupAdapter;
+import org.bboxdb.distribution.zookeeper.DistributionRegionAdapter;
+import org.bboxdb.distribution.zookeeper.ZookeeperClient;
+import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
+import org.bboxdb.distribution.zookeeper.ZookeeperException;
+import org.bboxdb.distribution.zookeeper.ZookeeperNodeNames;
+import org.bboxdb.distribution.zookeeper.ZookeeperNotFoundException;
+import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.storage.sstable.SSTableConst;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Multiset;
+
+public class RequestLoadPlacementStrategy extends AbstractUtilizationPlacementStrategy {
+	
+	/**
+	 * The Logger
+	 */
+	protected final static Logger logger = LoggerFactory.getLogger(RequestLoadPlacementStrategy.class);
+	
+	/**
+	 * The load of a region without any requests (in requests per second). Used
+	 * to spread the regions across systems with the same request load.
+	 */
+	protected final static double REGION_BASE_LOAD = 1.0;
+	
+	/**
+	 * The max age of the cached system load. The region statistics are 
+	 * published with the same interval, a newer value can not be read.
+	 */
+	protected final static long SYSTEM_LOAD_MAX_AGE_IN_MS = SSTableConst.THREAD_STATISTICS_DELAY;
+	
+	/**
+	 * The cached system load, shared by all instances (a new instance 
+	 * of the strategy is created for each resource allocation)
+	 */
+	private static Map<BBoxDBInstance, Double> cachedSystemLoad = null;
+	
+	/**
+	 * The time when the system load was cached
+	 */
+	private static long cachedSystemLoadTimestamp = 0;
+	
+	/**
+	 * The measured request load (reads and writes per second) of the systems
+	 */
+	private Map<BBoxDBInstance, Double> systemLoad = new HashMap<>();
+	
+	public RequestLoadPlacementStrategy() {
+
+	}
+	
+	@Override
+	public synchronized BBoxDBInstance getInstancesForNewRessource(final List<BBoxDBInstance> systems, 
+			final Collection<BBoxDBInstance> blacklist) throws ResourceAllocationException {
+		
+		try {
+			systemLoad = getSystemLoad();
+		} catch (Exception e) {
+			throw new ResourceAllocationException("Got an zookeeper exception while ressource allocation", e);
+		}
+		
+		return super.getInstancesForNewRessource(systems, blacklist);
+	}
+	
+	/**
+	 * Get the cached request load of the systems, the load is recalculated 
+	 * when the cached value is older than the statistics update interval
+	 * 
+	 * @return
+	 * @throws ZookeeperException
+	 * @throws ZookeeperNotFoundException
+	 * @throws BBoxDBException
+	 */
+	protected Map<BBoxDBInstance, Double> getSystemLoad() 
+			throws ZookeeperException, ZookeeperNotFoundException, BBoxDBException {
+		
+		synchronized (RequestLoadPlacementStrategy.class) {
+			final long cacheAge = System.currentTimeMillis() - cachedSystemLoadTimestamp;
+			
+			if(cachedSystemLoad == null || cacheAge > SYSTEM_LOAD_MAX_AGE_IN_MS) {
+				cachedSystemLoad = calculateSystemLoad();
+				cachedSystemLoadTimestamp = System.currentTimeMillis();
+			}
+			
+			return cachedSystemLoad;
+		}
+	}
+	
+	/**
+	 * Invalidate the cached system load
+	 */
+	@VisibleForTesting
+	public static void invalidateSystemLoadCache() {
+		synchronized (RequestLoadPlacementStrategy.class) {
+			cachedSystemLoad = null;
+		}
+	}
+	
+	/**
+	 * Calculate the request load of each system, based on the 
+	 * request rates published in the region statistics
+	 * 
+	 * @return
+	 * @throws ZookeeperException
+	 * @throws ZookeeperNotFoundException
+	 * @throws BBoxDBException
+	 */
+	protected Map<BBoxDBInstance, Double> calculateSystemLoad() 
+			throws ZookeeperException, ZookeeperNotFoundException, BBoxDBException {
+		
+		final ZookeeperClient zookeeperClient = ZookeeperClientFactory.getZookeeperClient();
+		final DistributionGroupAdapter groupAdapter = zookeeperClient.getDistributionGroupAdapter();
+		final DistributionRegionAdapter regionAdapter = zookeeperClient.getDistributionRegionAdapter();
+		
+		final Map<BBoxDBInstance, Double> result = new HashMap<>();
+		
+		for(final String groupName : groupAdapter.getDistributionGroups()) {
+			final SpacePartitioner spacepartitioner = SpacePartitionerCache
+					.getInstance().getSpacePartitionerForGroupName(groupName);
+			
+			final DistributionRegion rootRegion = spacepartitioner.getRootNodeSnapshot();
+			
+			if(rootRegion == null) {
+				continue;
+			}
+			
+			for(final DistributionRegion region : rootRegion.getThisAndChildRegions()) {
+				final Map<BBoxDBInstance, Map<String, Long>> statistics 
+					= regionAdapter.getRegionStatistics(region);
+				
+				for(final Map.Entry<BBoxDBInstance, Map<String, Long>> entry : statistics.entrySet()) {
+					final Map<String, Long> values = entry.getValue();
+					final long requests = values.getOrDefault(ZookeeperNodeNames.NAME_STATISTICS_READ_RATE, 0L)
+							+ values.getOrDefault(ZookeeperNodeNames.NAME_STATISTICS_WRITE_RATE, 0L);
+					
+					result.merge(entry.getKey(), (double) requests, Double::sum);
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Calculate the request load usage factor
+	 * @param systemUsage
+	 * @param distributedInstance
+	 * @return
+	 */
+	@Override
+	protected double calculateUsageFactor(final Multiset<BBoxDBInstance> systemUsage,
+			final BBoxDBInstance distributedInstance) {
+		
+		final double requestLoad = systemLoad.getOrDefault(distributedInstance, 0.0);
+		final double regionLoad = systemUsage.count(distributedInstance) * REGION_BASE_LOAD;
+		
+		return 1.0 / (1.0 + requestLoad + regionLoad);
+	}
+
+	@Override
+	protected Predicate<? super BBoxDBInstance> getUnusableSystemsFilterPredicate() {
+		return i -> true;
+	}
+}
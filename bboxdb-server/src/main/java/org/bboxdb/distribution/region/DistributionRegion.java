@@ -19,12 +19,16 @@ package org.bboxdb.distribution.region;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.commons.math.HyperrectangleIndex;
 import org.bboxdb.distribution.membership.BBoxDBInstance;
 import org.bboxdb.distribution.partitioner.DistributionRegionState;
 import org.bboxdb.storage.entity.DistributionGroupHelper;
@@ -66,6 +70,16 @@ public class DistributionRegion {
 	 */
 	private final long regionid;
 
+	/**
+	 * The spatial index of all regions of the tree (root region only)
+	 */
+	private final HyperrectangleIndex<DistributionRegion> regionIndex;
+
+	/**
+	 * Is the region part of a read only snapshot
+	 */
+	private boolean readOnly;
+
 	/**
 	 * The root pointer of the root element of the tree
 	 */
@@ -93,6 +107,13 @@ public class DistributionRegion {
 		this.regionid = regionid;
 		this.systems = new ArrayList<>();
 		this.children = new ConcurrentHashMap<>();
+		
+		if(parent == ROOT_NODE_ROOT_POINTER) {
+			this.regionIndex = new HyperrectangleIndex<>();
+			this.regionIndex.put(this, boundingBox);
+		} else {
+			this.regionIndex = null;
+		}
 	}
 
 	/**
@@ -156,11 +177,36 @@ public class DistributionRegion {
 
 		return result;
 	}
+	
+	/**
+	 * Get this and all children that intersect the bounding box and match the predicate. 
+	 * On the root region, the regions are looked up in the region index instead of 
+	 * visiting all regions of the tree.
+	 * 
+	 * @param boundingBox
+	 * @param predicate
+	 * @return
+	 */
+	public List<DistributionRegion> getThisAndChildRegions(final Hyperrectangle boundingBox, 
+			final Predicate<DistributionRegion> predicate) {
+		
+		if(! isRootElement()) {
+			return getThisAndChildRegions(r -> r.getConveringBox().intersects(boundingBox) 
+					&& predicate.test(r));
+		}
+		
+		return regionIndex.getValuesForBoundingBox(boundingBox)
+				.stream()
+				.filter(predicate)
+				.sorted(Comparator.comparingLong(DistributionRegion::getRegionId))
+				.collect(Collectors.toList());
+	}
 
 	/**
 	 * Set the children to state active
 	 */
 	public void makeChildrenActive() {
+		checkWritable();
 		children.values().forEach(c -> c.setState(DistributionRegionState.ACTIVE));
 	}
 
@@ -168,7 +214,7 @@ public class DistributionRegion {
 	 * Merge the distribution group
 	 */
 	public void merge() {
-		children.clear();
+		removeAllChildren();
 	}
 
 	/**
@@ -184,6 +230,7 @@ public class DistributionRegion {
 	 * @param state
 	 */
 	public void setState(final DistributionRegionState state) {
+		checkWritable();
 		this.state = state;
 	}
 
@@ -257,6 +304,7 @@ public class DistributionRegion {
 	 * @param newChild
 	 */
 	public void addChildren(final long childNumber, final DistributionRegion newChild) {
+		checkWritable();
 
 		if(newChild.getParent() != this) {
 			throw new IllegalArgumentException("Parent of child " + newChild + " is not this " + this);
@@ -267,6 +315,14 @@ public class DistributionRegion {
 		}
 
 		children.put(childNumber, newChild);
+		
+		// Index the new region, when this region is part of the tree
+		final HyperrectangleIndex<DistributionRegion> index = getRootRegion().regionIndex;
+		
+		if(index.contains(this)) {
+			index.put(newChild, newChild.getConveringBox());
+			newChild.getAllChildren().forEach(c -> index.put(c, c.getConveringBox()));
+		}
 	}
 
 	/**
@@ -298,7 +354,10 @@ public class DistributionRegion {
 	 * Remove the children
 	 */
 	public void removeAllChildren() {
+		checkWritable();
+		final List<DistributionRegion> removedRegions = getAllChildren();
 		children.clear();
+		removeFromIndex(removedRegions);
 	}
 
 	/**
@@ -306,7 +365,24 @@ public class DistributionRegion {
 	 * @return
 	 */
 	public DistributionRegion removeChildren(final long childrenNumber) {
-		return children.remove(childrenNumber);
+		checkWritable();
+		final DistributionRegion removedRegion = children.remove(childrenNumber);
+		
+		if(removedRegion != null) {
+			final List<DistributionRegion> removedRegions = removedRegion.getThisAndChildRegions();
+			removeFromIndex(removedRegions);
+		}
+		
+		return removedRegion;
+	}
+	
+	/**
+	 * Remove the regions from the region index
+	 * @param removedRegions
+	 */
+	private void removeFromIndex(final List<DistributionRegion> removedRegions) {
+		final HyperrectangleIndex<DistributionRegion> index = getRootRegion().regionIndex;
+		removedRegions.forEach(r -> index.remove(r));
 	}
 
 	/**
@@ -372,6 +448,7 @@ public class DistributionRegion {
 	 * @param system
 	 */
 	public void addSystem(final BBoxDBInstance system) {
+		checkWritable();
 		systems.add(system);
 	}
 
@@ -380,6 +457,7 @@ public class DistributionRegion {
 	 * @param newSystems
 	 */
 	public void setSystems(final Collection<BBoxDBInstance> newSystems) {
+		checkWritable();
 
 		if(newSystems == null || newSystems.isEmpty()) {
 			systems.clear();
@@ -400,5 +478,58 @@ public class DistributionRegion {
 	public long getRegionId() {
 		return regionid;
 	}
-}
 
+	/**
+	 * Create a read only copy of the whole region tree. The copy is not changed
+	 * by later updates of this tree, so it can be shared between threads.
+	 * @return
+	 */
+	public DistributionRegion createSnapshot() {
+		
+		if(! isRootElement()) {
+			throw new IllegalStateException("Snapshots can only be created from the root region");
+		}
+		
+		final DistributionRegion snapshot = copyRegion(ROOT_NODE_ROOT_POINTER);
+		snapshot.getThisAndChildRegions().forEach(r -> r.readOnly = true);
+		
+		return snapshot;
+	}
+	
+	/**
+	 * Copy this region and all children
+	 * @param newParent
+	 * @return
+	 */
+	private DistributionRegion copyRegion(final DistributionRegion newParent) {
+		final DistributionRegion copy = new DistributionRegion(distributionGroupName, newParent, 
+				converingBox, regionid);
+		
+		copy.state = state;
+		copy.systems = new ArrayList<>(systems);
+		
+		for(final Entry<Long, DistributionRegion> child : children.entrySet()) {
+			copy.addChildren(child.getKey(), child.getValue().copyRegion(copy));
+		}
+		
+		return copy;
+	}
+	
+	/**
+	 * Is this region part of a read only snapshot?
+	 * @return
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+	
+	/**
+	 * Ensure the region can be changed
+	 */
+	private void checkWritable() {
+		if(readOnly) {
+			throw new UnsupportedOperationException("Region " + getIdentifier() 
+				+ " is part of a read only snapshot");
+		}
+	}
+}
@@ -85,7 +85,7 @@ public class DistributionRegionHelper {
 			final DistributionRegion rootRegion,
 			final Hyperrectangle boundingBox) {
 
-		return rootRegion.getThisAndChildRegions((d) -> d.getConveringBox().intersects(boundingBox));
+		return rootRegion.getThisAndChildRegions(boundingBox, (d) -> true);
 	}
 
 	/**
@@ -21,6 +21,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -29,6 +30,7 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.commons.math.HyperrectangleIndex;
 import org.bboxdb.misc.Const;
 import org.bboxdb.storage.entity.TupleStoreName;
 import org.slf4j.Logger;
@@ -43,6 +45,11 @@ public class DistributionRegionIdMapper {
 	 */
 	private final Map<Long, Hyperrectangle> regions;
 	
+	/**
+	 * The spatial index of the regions
+	 */
+	private final HyperrectangleIndex<Long> regionIndex;
+	
 	/**
 	 * The distribution group name
 	 */
@@ -61,6 +68,7 @@ public class DistributionRegionIdMapper {
 	public DistributionRegionIdMapper(final String distributionGroup) {		
 		this.distributionGroup = distributionGroup;
 		this.regions = new ConcurrentHashMap<>();
+		this.regionIndex = new HyperrectangleIndex<>();
 		this.MUTEX = new Object();
 	}
 	
@@ -68,11 +76,7 @@ public class DistributionRegionIdMapper {
 	 * Search the region ids that are overlapped by the bounding box
 	 */
 	public Set<Long> getRegionIdsForRegion(final Hyperrectangle region) {
-		return regions.entrySet()
-			.stream()
-			.filter(e -> e.getValue().intersects(region))
-			.map(e -> e.getKey())
-			.collect(Collectors.toSet());
+		return new HashSet<>(regionIndex.getValuesForBoundingBox(region));
 	}
 	
 	/**
@@ -82,7 +86,16 @@ public class DistributionRegionIdMapper {
 	public Set<Long> getAllRegionIds() {
 		return new HashSet<>(regions.keySet());
 	}
-	
+
+	/**
+	 * Get the bounding box of the given local region
+	 * @param regionId
+	 * @return the bounding box or an empty optional if the region is not known locally
+	 */
+	public Optional<Hyperrectangle> getBoundingBoxForRegionId(final long regionId) {
+		return Optional.ofNullable(regions.get(regionId));
+	}
+
 	/**
 	 * Get the SSTables that are responsible for a given bounding box
 	 * @param region
@@ -131,6 +144,32 @@ public class DistributionRegionIdMapper {
 		return convertRegionIdToTableNames(ssTableName, namprefixes);		
 	}
 
+	/**
+	 * Get the local tables that overlap the given regions. Local regions that are
+	 * created by a split or merge of the given regions are also returned.
+	 * 
+	 * @param regionIds
+	 * @param ssTableName
+	 * @return the tables or an empty optional if a region is not known locally
+	 */
+	public Optional<List<TupleStoreName>> getLocalTablesForRegionIds(final Collection<Long> regionIds, 
+			final TupleStoreName ssTableName) {
+		
+		final Set<Long> localRegionIds = new HashSet<>();
+		
+		for(final long regionId : regionIds) {
+			final Hyperrectangle boundingBox = regions.get(regionId);
+			
+			if(boundingBox == null) {
+				return Optional.empty();
+			}
+			
+			localRegionIds.addAll(getRegionIdsForRegion(boundingBox));
+		}
+		
+		return Optional.of(convertRegionIdToTableNames(ssTableName, localRegionIds));
+	}
+	
 	/**
 	 * Prefix all entries of the given list with the name of the sstable
 	 * @param ssTableName
@@ -163,6 +202,7 @@ public class DistributionRegionIdMapper {
 		logger.info("Add local mapping for: {} / {}", regionId, distributionGroup);
 		
 		regions.put(regionId, boundingBox);
+		regionIndex.put(regionId, boundingBox);
 			
 		synchronized (MUTEX) {
 			MUTEX.notifyAll();
@@ -179,6 +219,7 @@ public class DistributionRegionIdMapper {
 		
 		final boolean removed = regions.containsKey(regionId);
 		regions.remove(regionId);
+		regionIndex.remove(regionId);
 		
 		if(removed) {
 			logger.info("Mapping for region id {} / {} removed", regionId, distributionGroup);
@@ -198,6 +239,7 @@ public class DistributionRegionIdMapper {
 		logger.info("Clear all local mappings in {}", distributionGroup);
 		
 		regions.clear();
+		regionIndex.clear();
 		
 		synchronized (MUTEX) {
 			MUTEX.notifyAll();
@@ -17,13 +17,19 @@
  *******************************************************************************/
 package org.bboxdb.distribution.region;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.apache.zookeeper.WatchedEvent;
 import org.apache.zookeeper.Watcher;
@@ -36,6 +42,7 @@ import org.bboxdb.distribution.partitioner.SpacePartitionerContext;
 import org.bboxdb.distribution.zookeeper.DistributionGroupAdapter;
 import org.bboxdb.distribution.zookeeper.DistributionRegionAdapter;
 import org.bboxdb.distribution.zookeeper.NodeMutationHelper;
+import org.bboxdb.distribution.zookeeper.ZookeeperBatchRead;
 import org.bboxdb.distribution.zookeeper.ZookeeperClient;
 import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
 import org.bboxdb.distribution.zookeeper.ZookeeperException;
@@ -46,6 +53,8 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
 
+import io.prometheus.client.Summary;
+
 public class DistributionRegionSyncer implements Watcher {
 
 	/**
@@ -56,7 +65,28 @@ public class DistributionRegionSyncer implements Watcher {
 	/**
 	 * The root node of the K-D-Tree
 	 */
-	private DistributionRegion rootNode;
+	private volatile DistributionRegion rootNode;
+	
+	/**
+	 * The read only snapshot of the tree, replaced on the next read after a change
+	 */
+	private volatile DistributionRegion rootNodeSnapshot;
+	
+	/**
+	 * Is the snapshot outdated
+	 */
+	private volatile boolean snapshotOutdated;
+	
+	/**
+	 * The lock for the tree. The tree is only changed and copied with this lock.
+	 */
+	private final Object syncerLock = new Object();
+	
+	/**
+	 * The events of a tree that is not published yet (only used with the syncer lock)
+	 */
+	private List<Runnable> deferredEvents;
+	
 	/**
 	 * The region mapper
 	 */
@@ -86,6 +116,20 @@ public class DistributionRegionSyncer implements Watcher {
 	 * The zookeeper client
 	 */
 	private final ZookeeperClient zookeeperClient;
+	
+	/**
+	 * The executor for the zookeeper events. The events are not processed by the 
+	 * zookeeper event thread, so the batch reads can wait for their results.
+	 */
+	private final ExecutorService eventExecutor;
+	
+	/**
+	 * The region tree sync latency
+	 */
+	private final static Summary syncLatency = Summary.build()
+			.name("bboxdb_region_tree_sync_latency_seconds")
+			.help("Latency of the region tree synchronization in seconds.")
+			.labelNames("type").register();
 
 	/**
 	 * The logger
@@ -102,7 +146,13 @@ public class DistributionRegionSyncer implements Watcher {
 		this.distributionRegionMapper = spacePartitionerContext.getDistributionRegionMapper();
 		this.callbacks = spacePartitionerContext.getCallbacks();
 		this.zookeeperClient = zookeeperClient;
-		this.versions = new HashMap<>();
+		this.versions = new ConcurrentHashMap<>();
+		
+		this.eventExecutor = Executors.newSingleThreadExecutor(r -> {
+			final Thread thread = new Thread(r, "Region syncer for " + distributionGroupName);
+			thread.setDaemon(true);
+			return thread;
+		});
 	}
 
 	/**
@@ -110,26 +160,46 @@ public class DistributionRegionSyncer implements Watcher {
 	 */
 	@Override
 	public void process(final WatchedEvent event) {
-		try {
-			// Ignore events like connected and disconnected
-			if(event == null || event.getPath() == null) {
-				return;
-			}
-
-			if(! event.getPath().endsWith(ZookeeperNodeNames.NAME_NODE_VERSION)) {
-				logger.debug("Ignoring event: {}", event);
-				return;
-			}
+		// Ignore events like connected and disconnected
+		if(event == null || event.getPath() == null) {
+			return;
+		}
 
-			if(event.getType() == EventType.NodeDeleted) {
-				processNodeDeletedEvent(event);
-				return;
+		if(! event.getPath().endsWith(ZookeeperNodeNames.NAME_NODE_VERSION)) {
+			logger.debug("Ignoring event: {}", event);
+			return;
+		}
+		
+		try {
+			eventExecutor.submit(() -> handleEvent(event));
+		} catch (RejectedExecutionException e) {
+			logger.debug("Syncer is shut down, ignoring event: {}", event);
+		}
+	}
+	
+	/**
+	 * Handle the zookeeper event
+	 * @param event
+	 */
+	private void handleEvent(final WatchedEvent event) {
+		
+		final Summary.Timer syncTimer = syncLatency.labels("update").startTimer();
+		
+		try {
+			synchronized (syncerLock) {
+				if(event.getType() == EventType.NodeDeleted) {
+					processNodeDeletedEvent(event);
+				} else {
+					logger.debug("Handling event: {}", event);
+					processNodeUpdateEvent(event);
+				}
+				
+				snapshotOutdated = true;
 			}
-
-			logger.debug("Handling event: {}", event);
-			processNodeUpdateEvent(event);
 		} catch (Throwable e) {
 			logger.error("Got uncatched throwable during event handling", e);
+		} finally {
+			syncTimer.observeDuration();
 		}
 	}
 
@@ -183,20 +253,34 @@ public class DistributionRegionSyncer implements Watcher {
 			return;
 		}
 
-		updateNodeIfNeeded(nodePath, region);
+		try {
+			final ZookeeperBatchRead batchRead = zookeeperClient.createBatchRead();
+			updateNodeIfNeeded(nodePath, region, batchRead);
+		} catch (ZookeeperException e) {
+			logger.error("Got exception while handling zookeeper callback", e);
+		}
 	}
 
 	/**
-	 * Update the given node as needed
+	 * Update the given node as needed. The data of the node is read with the 
+	 * batch read, when the node is not already prefetched.
+	 * 
 	 * @param nodePath
 	 * @param region
+	 * @param batchRead
 	 */
-	private void updateNodeIfNeeded(final String nodePath, final DistributionRegion region) {
+	private void updateNodeIfNeeded(final String nodePath, final DistributionRegion region, 
+			final ZookeeperBatchRead batchRead) {
+		
 		try {
 			logger.debug("updateNodeIfNeeded called with path {}", nodePath);
+			
+			if(! batchRead.isRequested(nodePath)) {
+				distributionRegionAdapter.addRegionReadRequests(batchRead, nodePath, this);
+				batchRead.execute();
+			}
 
-			final long remoteVersion = NodeMutationHelper.getNodeMutationVersion(
-					zookeeperClient, nodePath, this);
+			final long remoteVersion = NodeMutationHelper.getNodeMutationVersion(batchRead, nodePath);
 
 			final long localVersion = versions.getOrDefault(region, 0l);
 
@@ -215,7 +299,7 @@ public class DistributionRegionSyncer implements Watcher {
 			logger.debug("Updating node {} (local {} / remote {})",
 					nodePath, localVersion, remoteVersion);
 
-			updateNode(nodePath, region);
+			updateNode(nodePath, region, batchRead);
 			versions.put(region, remoteVersion);
 			notifyCallbacks(DistributionRegionEvent.CHANGED, region);
 			updateLocalMappings();
@@ -231,23 +315,22 @@ public class DistributionRegionSyncer implements Watcher {
 	 * Update the given node
 	 * @param nodePath
 	 * @param region
+	 * @param batchRead
 	 * @throws InterruptedException
 	 */
-	private void updateNode(final String nodePath, final DistributionRegion region)
-			throws InterruptedException {
+	private void updateNode(final String nodePath, final DistributionRegion region, 
+			final ZookeeperBatchRead batchRead) throws InterruptedException {
 
 		logger.debug("updateNode called with node {}", nodePath);
 
-		final Watcher callbackWatcher = this;
-
 		final Retryer<Boolean> retryer = new Retryer<>(10, 100, TimeUnit.MILLISECONDS, () -> {
 			try {
 				final Collection<BBoxDBInstance> systemsForDistributionRegion
-					= distributionRegionAdapter.getSystemsForDistributionRegion(region);
+					= distributionRegionAdapter.getSystemsForDistributionRegion(batchRead, nodePath);
 
 				region.setSystems(systemsForDistributionRegion);
 
-				final int regionId = distributionGroupAdapter.getRegionIdForPath(nodePath);
+				final int regionId = distributionGroupAdapter.getRegionIdForPath(batchRead, nodePath);
 
 				if(region.getRegionId() != regionId) {
 					throw new RuntimeException("Replacing region id " + region.getRegionId()
@@ -257,7 +340,7 @@ public class DistributionRegionSyncer implements Watcher {
 				final DistributionRegionState oldState = region.getState();
 
 				final DistributionRegionState newState
-					= distributionRegionAdapter.getStateForDistributionRegion(nodePath, callbackWatcher);
+					= distributionRegionAdapter.getStateForDistributionRegion(batchRead, nodePath);
 
 				final boolean writeAccessEnabled
 					= DistributionRegionHelper.PREDICATE_REGIONS_FOR_WRITE.test(newState);
@@ -271,7 +354,7 @@ public class DistributionRegionSyncer implements Watcher {
 					region.setState(newState);
 				}
 
-				updateChildrenForRegion(nodePath, region);
+				updateChildrenForRegion(nodePath, region, batchRead);
 
 				region.setState(newState);
 
@@ -291,48 +374,120 @@ public class DistributionRegionSyncer implements Watcher {
 	}
 
 	/**
-	 * Read split position and read children
+	 * Read split position and read children. The subtrees of all new children 
+	 * are read with pipelined requests.
+	 * 
 	 * @param path
 	 * @param region
+	 * @param batchRead
 	 * @throws ZookeeperException
 	 * @throws ZookeeperNotFoundException
 	 */
-	private void updateChildrenForRegion(final String path, final DistributionRegion region)
-			throws ZookeeperException, ZookeeperNotFoundException {
+	private void updateChildrenForRegion(final String path, final DistributionRegion region, 
+			final ZookeeperBatchRead batchRead) throws ZookeeperException, ZookeeperNotFoundException {
 
-		final List<String> children = zookeeperClient.getChildren(path);
+		final List<String> childPaths = getChildPaths(path, batchRead);
 		final List<Long> registeredChildren = region.getAllChildrenNumbers();
-
-		// Process all registered children
-		for(final String child : children) {
-			if(! child.startsWith(ZookeeperNodeNames.NAME_CHILDREN)) {
+		final List<String> newChildPaths = new ArrayList<>();
+		
+		for(final String childPath : childPaths) {
+			if(batchRead.isRequested(childPath)) {
 				continue;
 			}
+			
+			if(region.getChildNumber(getChildNumber(childPath)) == null) {
+				newChildPaths.add(childPath);
+			} else {
+				NodeMutationHelper.addNodeMutationVersionRequest(batchRead, childPath, null);
+			}
+		}
+		
+		readSubtrees(newChildPaths, batchRead);
+		batchRead.execute();
 
-			final String childPath = path + "/" + child;
+		// Process all registered children
+		for(final String childPath : childPaths) {
 			logger.debug("Reading {}", childPath);
 
-			if(! NodeMutationHelper.isNodeCompletelyCreated(zookeeperClient, childPath)) {
-				logger.debug("Node {} not complete, skipping", childPath);
+			if(! NodeMutationHelper.isNodeCompletelyCreated(batchRead, childPath)) {
+				logger.debug("Node {} not complete, skipping", childPath);
 				continue;
 			}
 
-			final String[] split = child.split("-");
-			final int childNumber = Integer.parseInt(split[1]);
+			final int childNumber = getChildNumber(childPath);
 
 			// Mark as seen
 			registeredChildren.removeIf((c) -> c == childNumber);
 
 			if(region.getChildNumber(childNumber) == null) {
-				final DistributionRegion newChild = readChild(childPath, region);
+				final DistributionRegion newChild = readChild(childPath, region, batchRead);
 				region.addChildren(childNumber, newChild);
-				updateNodeIfNeeded(childPath, newChild);
+				updateNodeIfNeeded(childPath, newChild, batchRead);
 				notifyCallbacks(DistributionRegionEvent.ADDED, newChild);
 			}
 		}
 
 		deleteRemovedChildren(region, registeredChildren);
 	}
+	
+	/**
+	 * Read the given nodes and all children level by level. One batch is 
+	 * executed per level of the tree.
+	 * 
+	 * @param paths
+	 * @param batchRead
+	 * @throws ZookeeperException
+	 * @throws ZookeeperNotFoundException
+	 */
+	private void readSubtrees(final Collection<String> paths, final ZookeeperBatchRead batchRead) 
+			throws ZookeeperException, ZookeeperNotFoundException {
+		
+		List<String> pathsToRead = new ArrayList<>(paths);
+		
+		while(! pathsToRead.isEmpty()) {
+			pathsToRead.forEach(p -> distributionRegionAdapter.addRegionReadRequests(batchRead, p, this));
+			batchRead.execute();
+			
+			final List<String> nextLevel = new ArrayList<>();
+			
+			for(final String path : pathsToRead) {
+				// Deleted or not completely created nodes are read by the watcher later
+				if(NodeMutationHelper.isNodeCompletelyCreated(batchRead, path) && batchRead.exists(path)) {
+					nextLevel.addAll(getChildPaths(path, batchRead));
+				}
+			}
+			
+			pathsToRead = nextLevel;
+		}
+	}
+	
+	/**
+	 * Get the paths of the child regions
+	 * @param path
+	 * @param batchRead
+	 * @return
+	 * @throws ZookeeperNotFoundException
+	 */
+	private List<String> getChildPaths(final String path, final ZookeeperBatchRead batchRead) 
+			throws ZookeeperNotFoundException {
+		
+		return batchRead.getChildrenResult(path)
+				.stream()
+				.filter(c -> c.startsWith(ZookeeperNodeNames.NAME_CHILDREN))
+				.map(c -> path + "/" + c)
+				.collect(Collectors.toList());
+	}
+	
+	/**
+	 * Get the child number from the path of the child
+	 * @param childPath
+	 * @return
+	 */
+	private int getChildNumber(final String childPath) {
+		final String child = childPath.substring(childPath.lastIndexOf('/') + 1);
+		final String[] split = child.split("-");
+		return Integer.parseInt(split[1]);
+	}
 
 	/**
 	 * Delete the not found children
@@ -353,15 +508,16 @@ public class DistributionRegionSyncer implements Watcher {
 	 * Read the child from the path
 	 * @param childPath
 	 * @param parentRegion
+	 * @param batchRead
 	 * @return
 	 * @throws ZookeeperNotFoundException
 	 * @throws ZookeeperException
 	 */
-	private DistributionRegion readChild(final String childPath, final DistributionRegion parentRegion)
-			throws ZookeeperException, ZookeeperNotFoundException {
+	private DistributionRegion readChild(final String childPath, final DistributionRegion parentRegion, 
+			final ZookeeperBatchRead batchRead) throws ZookeeperException, ZookeeperNotFoundException {
 
-		final Hyperrectangle boundingBox = distributionRegionAdapter.getBoundingBoxForPath(childPath);
-		final long regionId = distributionGroupAdapter.getRegionIdForPath(childPath);
+		final Hyperrectangle boundingBox = distributionRegionAdapter.getBoundingBoxForPath(batchRead, childPath);
+		final long regionId = distributionGroupAdapter.getRegionIdForPath(batchRead, childPath);
 
 		final DistributionRegion region = new DistributionRegion(distributionGroupName, parentRegion, boundingBox, regionId);
 
@@ -414,33 +570,104 @@ public class DistributionRegionSyncer implements Watcher {
 	}
 
 	/**
-	 * Get the root node
+	 * Get the root node. The tree is read completely before it is published.
 	 * @return
 	 */
 	public DistributionRegion getRootNode() {
-
-		// Reload root node
-		if(rootNode == null) {
-			final String groupNameString = distributionGroupName.toString();
-			final String path = distributionGroupAdapter.getDistributionGroupRootElementPath(groupNameString);
-
-			try {
-				if(NodeMutationHelper.isNodeCompletelyCreated(zookeeperClient, path)) {
-					logger.info("Create new root element for {}", distributionGroupName);
-
-					final Hyperrectangle rootBoundingBox = distributionRegionAdapter.getBoundingBoxForPath(path);
-
-					rootNode = new DistributionRegion(distributionGroupName, rootBoundingBox);
-					updateNodeIfNeeded(path, rootNode);
-				} else {
-					logger.info("Root node does not exist");
-				}
-			} catch (ZookeeperException | ZookeeperNotFoundException e) {
-				logger.debug("Got exception while reading root node", e);
+		
+		final DistributionRegion currentRootNode = rootNode;
+		
+		if(currentRootNode != null) {
+			return currentRootNode;
+		}
+		
+		synchronized (syncerLock) {
+			if(rootNode == null) {
+				readRootNode();
 			}
+			
+			return rootNode;
+		}
+	}
+	
+	/**
+	 * Read the whole tree with one batch per level and publish the root node
+	 */
+	private void readRootNode() {
+		final String groupNameString = distributionGroupName.toString();
+		final String path = distributionGroupAdapter.getDistributionGroupRootElementPath(groupNameString);
+
+		final Summary.Timer syncTimer = syncLatency.labels("full").startTimer();
+		
+		// The callbacks are executed after the tree is published
+		deferredEvents = new ArrayList<>();
+		
+		try {
+			final ZookeeperBatchRead batchRead = zookeeperClient.createBatchRead();
+			readSubtrees(Arrays.asList(path), batchRead);
+			
+			if(NodeMutationHelper.isNodeCompletelyCreated(batchRead, path)) {
+				logger.info("Create new root element for {}", distributionGroupName);
+
+				final Hyperrectangle rootBoundingBox = distributionRegionAdapter
+						.getBoundingBoxForPath(batchRead, path);
+
+				final DistributionRegion newRootNode 
+					= new DistributionRegion(distributionGroupName, rootBoundingBox);
+				
+				updateNodeIfNeeded(path, newRootNode, batchRead);
+				
+				rootNode = newRootNode;
+				snapshotOutdated = true;
+				updateLocalMappings();
+				
+				final double syncTime = syncTimer.observeDuration();
+				
+				logger.info("Read region tree of {} with {} regions in {} round trips ({} ms)", 
+						distributionGroupName, newRootNode.getThisAndChildRegions().size(), 
+						batchRead.getRoundTrips(), Math.round(syncTime * 1000));
+			} else {
+				logger.info("Root node does not exist");
+			}
+		} catch (ZookeeperException | ZookeeperNotFoundException e) {
+			logger.debug("Got exception while reading root node", e);
+		} finally {
+			final List<Runnable> events = deferredEvents;
+			deferredEvents = null;
+			
+			// No events for a tree that is not published
+			if(rootNode != null) {
+				events.forEach(Runnable::run);
+			}
+		}
+	}
+	
+	/**
+	 * Get a read only snapshot of the tree. The snapshot is consistent and can be 
+	 * used without synchronization, but it is not updated on changes. 
+	 * @return
+	 */
+	public DistributionRegion getRootNodeSnapshot() {
+		
+		final DistributionRegion currentSnapshot = rootNodeSnapshot;
+		
+		if(currentSnapshot != null && ! snapshotOutdated) {
+			return currentSnapshot;
+		}
+		
+		synchronized (syncerLock) {
+			if(rootNode == null) {
+				readRootNode();
+			}
+			
+			// Copy the tree only once for all changes since the last snapshot
+			if(snapshotOutdated || rootNodeSnapshot == null) {
+				rootNodeSnapshot = (rootNode == null) ? null : rootNode.createSnapshot();
+				snapshotOutdated = false;
+			}
+			
+			return rootNodeSnapshot;
 		}
-
-		return rootNode;
 	}
 
 	/**
@@ -478,16 +705,32 @@ public class DistributionRegionSyncer implements Watcher {
 		if(region == null) {
 			return;
 		}
+		
+		if(deferredEvents != null) {
+			deferredEvents.add(() -> notifyCallbacks(event, region));
+			return;
+		}
 
 		callbacks.forEach(c -> c.regionChanged(event, region));
 	}
 
+	/**
+	 * Shutdown the syncer, no further events are processed
+	 */
+	public void shutdown() {
+		eventExecutor.shutdownNow();
+	}
+
 	/**
 	 * Clear in memory data
 	 */
 	@VisibleForTesting
 	public void clear() {
-		rootNode = null;
-		versions.clear();
+		synchronized (syncerLock) {
+			rootNode = null;
+			rootNodeSnapshot = null;
+			snapshotOutdated = false;
+			versions.clear();
+		}
 	}
 }
@@ -0,0 +1,202 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.statistics;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import org.bboxdb.network.routing.RoutingHeader;
+import org.bboxdb.storage.entity.TupleStoreName;
+
+public class RegionRequestStatistics {
+	
+	/**
+	 * The read requests per region since the last reset
+	 */
+	private final static Map<String, LongAdder> readRequests = new ConcurrentHashMap<>();
+	
+	/**
+	 * The write requests per region since the last reset
+	 */
+	private final static Map<String, LongAdder> writeRequests = new ConcurrentHashMap<>();
+	
+	/**
+	 * Record a read request for the given region
+	 * @param distributionGroup
+	 * @param regionId
+	 */
+	public static void recordRead(final String distributionGroup, final long regionId) {
+		readRequests.computeIfAbsent(getKey(distributionGroup, regionId), (k) -> new LongAdder()).increment();
+	}
+	
+	/**
+	 * Record a write request for the given region
+	 * @param distributionGroup
+	 * @param regionId
+	 */
+	public static void recordWrite(final String distributionGroup, final long regionId) {
+		writeRequests.computeIfAbsent(getKey(distributionGroup, regionId), (k) -> new LongAdder()).increment();
+	}
+	
+	/**
+	 * Record a read request for the regions of the local routing hop
+	 * @param requestTable
+	 * @param routingHeader
+	 */
+	public static void recordReads(final TupleStoreName requestTable, final RoutingHeader routingHeader) {
+		
+		if(routingHeader == null || ! routingHeader.isRoutedPackage() 
+				|| routingHeader.getRoutingList().isEmpty()) {
+			return;
+		}
+		
+		final String distributionGroup = requestTable.getDistributionGroup();
+		final List<Long> regions = routingHeader.getRoutingHop().getDistributionRegions();
+		
+		for(final long regionId : regions) {
+			recordRead(distributionGroup, regionId);
+		}
+	}
+	
+	/**
+	 * Record a read request for the regions of the local routing hop
+	 * @param requestTables
+	 * @param routingHeader
+	 */
+	public static void recordReads(final List<TupleStoreName> requestTables, 
+			final RoutingHeader routingHeader) {
+		
+		for(final TupleStoreName requestTable : requestTables) {
+			recordReads(requestTable, routingHeader);
+		}
+	}
+	
+	/**
+	 * Get and reset the read requests of the region
+	 * @param distributionGroup
+	 * @param regionId
+	 * @return
+	 */
+	public static long getAndResetReadRequests(final String distributionGroup, final long regionId) {
+		return getAndReset(readRequests, getKey(distributionGroup, regionId));
+	}
+	
+	/**
+	 * Get and reset the write requests of the region
+	 * @param distributionGroup
+	 * @param regionId
+	 * @return
+	 */
+	public static long getAndResetWriteRequests(final String distributionGroup, final long regionId) {
+		return getAndReset(writeRequests, getKey(distributionGroup, regionId));
+	}
+	
+	/**
+	 * Remove the recorded requests of all regions of the distribution group, 
+	 * that are not contained in the given set of active regions
+	 * @param distributionGroup
+	 * @param activeRegions
+	 */
+	public static void retainRegions(final String distributionGroup, final Set<Long> activeRegions) {
+		final Predicate<String> isInactiveRegion = (k) -> distributionGroup.equals(getDistributionGroup(k))
+				&& ! activeRegions.contains(getRegionId(k));
+		
+		readRequests.keySet().removeIf(isInactiveRegion);
+		writeRequests.keySet().removeIf(isInactiveRegion);
+	}
+	
+	/**
+	 * Remove the recorded requests of all regions of the distribution groups, 
+	 * that are not contained in the given list
+	 * @param distributionGroups
+	 */
+	public static void retainDistributionGroups(final Collection<String> distributionGroups) {
+		final Predicate<String> isDeletedGroup = (k) -> ! distributionGroups.contains(getDistributionGroup(k));
+		
+		readRequests.keySet().removeIf(isDeletedGroup);
+		writeRequests.keySet().removeIf(isDeletedGroup);
+	}
+	
+	/**
+	 * Get the number of regions with recorded requests
+	 * @return
+	 */
+	public static int getNumberOfRecordedRegions() {
+		final Set<String> regions = new HashSet<>(readRequests.keySet());
+		regions.addAll(writeRequests.keySet());
+		return regions.size();
+	}
+	
+	/**
+	 * Remove all recorded requests
+	 */
+	public static void clear() {
+		readRequests.clear();
+		writeRequests.clear();
+	}
+
+	/**
+	 * Get and reset the counter
+	 * @param requests
+	 * @param key
+	 * @return
+	 */
+	private static long getAndReset(final Map<String, LongAdder> requests, final String key) {
+		final LongAdder counter = requests.get(key);
+		
+		if(counter == null) {
+			return 0;
+		}
+		
+		return counter.sumThenReset();
+	}
+
+	/**
+	 * Get the key for the region
+	 * @param distributionGroup
+	 * @param regionId
+	 * @return
+	 */
+	private static String getKey(final String distributionGroup, final long regionId) {
+		return distributionGroup + "_" + regionId;
+	}
+	
+	/**
+	 * Get the distribution group of the key
+	 * @param key
+	 * @return
+	 */
+	private static String getDistributionGroup(final String key) {
+		return key.substring(0, key.lastIndexOf('_'));
+	}
+	
+	/**
+	 * Get the region id of the key
+	 * @param key
+	 * @return
+	 */
+	private static long getRegionId(final String key) {
+		return Long.parseLong(key.substring(key.lastIndexOf('_') + 1));
+	}
+}
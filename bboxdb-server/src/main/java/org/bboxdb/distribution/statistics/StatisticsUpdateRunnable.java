@@ -18,7 +18,10 @@
 package org.bboxdb.distribution.statistics;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.bboxdb.commons.concurrent.ExceptionSafeRunnable;
 import org.bboxdb.commons.math.Hyperrectangle;
@@ -64,10 +67,16 @@ public class StatisticsUpdateRunnable extends ExceptionSafeRunnable {
 	 */
 	private final DistributionRegionAdapter regionAdapter;
 	
+	/**
+	 * The time of the last region statistics update
+	 */
+	private long lastRegionStatisticsUpdate;
+	
 	public StatisticsUpdateRunnable(final TupleStoreManagerRegistry storageRegistry) {
 		this.storageRegistry = storageRegistry;
 		this.groupAdapter = ZookeeperClientFactory.getZookeeperClient().getDistributionGroupAdapter();
 		this.regionAdapter = ZookeeperClientFactory.getZookeeperClient().getDistributionRegionAdapter();
+		this.lastRegionStatisticsUpdate = System.currentTimeMillis();
 	}
 	
 	@Override
@@ -125,6 +134,10 @@ public class StatisticsUpdateRunnable extends ExceptionSafeRunnable {
 	 */
 	private void updateRegionStatistics() {
 		
+		final long now = System.currentTimeMillis();
+		final double elapsedSeconds = Math.max(1, now - lastRegionStatisticsUpdate) / 1000.0;
+		lastRegionStatisticsUpdate = now;
+		
 		try {
 			final List<String> allDistributionGroups = groupAdapter.getDistributionGroups();
 			for(final String distributionGroup : allDistributionGroups) {
@@ -137,9 +150,13 @@ public class StatisticsUpdateRunnable extends ExceptionSafeRunnable {
 				final Collection<Long> allIds = regionIdMapper.getRegionIdsForRegion(Hyperrectangle.FULL_SPACE);
 				
 				for(final long id : allIds) {
-					updateRegionStatistics(distributionGroup, id);
+					updateRegionStatistics(distributionGroup, id, elapsedSeconds);
 				}
+				
+				removeInactiveRegionStatistics(spacePartitioner, distributionGroup);
 			}
+			
+			RegionRequestStatistics.retainDistributionGroups(allDistributionGroups);
 
 		} catch (Exception e) {
 			
@@ -151,22 +168,48 @@ public class StatisticsUpdateRunnable extends ExceptionSafeRunnable {
 		}
 	}
 
+	/**
+	 * Remove the recorded requests of the regions that are no longer active 
+	 * (e.g., split or merged regions)
+	 * @param spacePartitioner
+	 * @param distributionGroup
+	 * @throws BBoxDBException
+	 */
+	private void removeInactiveRegionStatistics(final SpacePartitioner spacePartitioner, 
+			final String distributionGroup) throws BBoxDBException {
+		
+		final DistributionRegion rootRegion = spacePartitioner.getRootNodeSnapshot();
+		
+		if(rootRegion == null) {
+			RegionRequestStatistics.retainRegions(distributionGroup, new HashSet<>());
+			return;
+		}
+		
+		final Set<Long> activeRegions = rootRegion.getThisAndChildRegions().stream()
+				.filter(r -> DistributionRegionHelper.PREDICATE_REGIONS_FOR_WRITE.test(r.getState()))
+				.map(r -> r.getRegionId())
+				.collect(Collectors.toSet());
+		
+		RegionRequestStatistics.retainRegions(distributionGroup, activeRegions);
+	}
+
 	/**
 	 * Update region statistics
 	 * 
 	 * @param distributionGroup
 	 * @param regionId
+	 * @param elapsedSeconds
 	 * @throws ZookeeperException 
 	 * @throws StorageManagerException 
 	 * @throws InterruptedException 
 	 */
-	private void updateRegionStatistics(final String distributionGroup, final long regionId) 
-			throws BBoxDBException, ZookeeperException, StorageManagerException, InterruptedException {
+	private void updateRegionStatistics(final String distributionGroup, final long regionId, 
+			final double elapsedSeconds) throws BBoxDBException, ZookeeperException, StorageManagerException, InterruptedException {
 		
 		final SpacePartitioner spacePartitioner = SpacePartitionerCache.getInstance()
 				.getSpacePartitionerForGroupName(distributionGroup);
 		
-		final DistributionRegion distributionRegion = spacePartitioner.getRootNode();
+		final DistributionRegion distributionRegion = spacePartitioner.getRootNodeSnapshot();
 
 		final DistributionRegion regionToSplit = DistributionRegionHelper.getDistributionRegionForNamePrefix(
 				distributionRegion, regionId);
@@ -179,10 +222,17 @@ public class StatisticsUpdateRunnable extends ExceptionSafeRunnable {
 		
 		final long totalSizeInMb = totalSize / (1024 * 1024);
 		
-		logger.debug("Updating region statistics: {} / {}. Size in MB: {} / Tuples: {}", 
-				distributionGroup, regionId, totalSizeInMb, totalTuples);
+		final long readRate = Math.round(RegionRequestStatistics
+				.getAndResetReadRequests(distributionGroup, regionId) / elapsedSeconds);
+		
+		final long writeRate = Math.round(RegionRequestStatistics
+				.getAndResetWriteRequests(distributionGroup, regionId) / elapsedSeconds);
+		
+		logger.debug("Updating region statistics: {} / {}. Size in MB: {} / Tuples: {} / "
+				+ "Reads per second: {} / Writes per second: {}", distributionGroup, regionId, 
+				totalSizeInMb, totalTuples, readRate, writeRate);
 										
 		regionAdapter.updateRegionStatistics(regionToSplit, ZookeeperClientFactory.getLocalInstanceName(), 
-				totalSizeInMb, totalTuples);
+				totalSizeInMb, totalTuples, readRate, writeRate);
 	}
 }
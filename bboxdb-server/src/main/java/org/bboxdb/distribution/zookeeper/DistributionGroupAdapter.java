@@ -290,6 +290,27 @@ public class DistributionGroupAdapter {
 		}		
 	}
 	
+	/**
+	 * Get the region id for the given path from the batch
+	 * @param batchRead
+	 * @param path
+	 * @return
+	 * @throws ZookeeperException
+	 * @throws ZookeeperNotFoundException
+	 */
+	public int getRegionIdForPath(final ZookeeperBatchRead batchRead, final String path) 
+			throws ZookeeperException, ZookeeperNotFoundException {
+		
+		final String namePrefixPath = path + "/" + ZookeeperNodeNames.NAME_NAMEPREFIX;
+		final String namePrefix = batchRead.getStringResult(namePrefixPath);
+		
+		try {
+			return Integer.parseInt(namePrefix);
+		} catch (NumberFormatException e) {
+			throw new ZookeeperException("Unable to parse name prefix '" + namePrefix + "' for " + namePrefixPath);
+		}
+	}
+	
 	/**
 	 * Get the distribution group configuration
 	 * @param distributionGroup
@@ -74,6 +74,77 @@ public class DistributionRegionAdapter {
 		}		
 	}
 	
+	/**
+	 * Add all requests that are needed to read the region on the given path to the batch. 
+	 * The watcher is registered on the version and the state of the region.
+	 * @param batchRead
+	 * @param path
+	 * @param watcher
+	 */
+	public void addRegionReadRequests(final ZookeeperBatchRead batchRead, final String path, 
+			final Watcher watcher) {
+		
+		NodeMutationHelper.addNodeMutationVersionRequest(batchRead, path, watcher);
+		batchRead.getData(path + "/" + ZookeeperNodeNames.NAME_BOUNDINGBOX);
+		batchRead.getData(path + "/" + ZookeeperNodeNames.NAME_NAMEPREFIX);
+		batchRead.getData(path + "/" + ZookeeperNodeNames.NAME_REGION_STATE, watcher);
+		batchRead.getChildren(path + "/" + ZookeeperNodeNames.NAME_SYSTEMS);
+		batchRead.getChildren(path);
+	}
+	
+	/**
+	 * Get the bounding box for a given path from the batch
+	 * @param batchRead
+	 * @param path
+	 * @return
+	 * @throws ZookeeperException
+	 * @throws ZookeeperNotFoundException
+	 */
+	public Hyperrectangle getBoundingBoxForPath(final ZookeeperBatchRead batchRead, final String path) 
+			throws ZookeeperException, ZookeeperNotFoundException {
+		
+		final String splitPathName = path + "/" + ZookeeperNodeNames.NAME_BOUNDINGBOX;
+		final String boundingBoxString = batchRead.getStringResult(splitPathName);
+		
+		try {
+			return new Hyperrectangle(boundingBoxString);
+		} catch (NumberFormatException e) {
+			throw new ZookeeperException("Unable to parse bounding box '" + boundingBoxString + "' for " + splitPathName);
+		}
+	}
+	
+	/**
+	 * Get the state for a given path from the batch
+	 * @param batchRead
+	 * @param path
+	 * @return
+	 * @throws ZookeeperNotFoundException
+	 */
+	public DistributionRegionState getStateForDistributionRegion(final ZookeeperBatchRead batchRead, 
+			final String path) throws ZookeeperNotFoundException {
+		
+		final String statePath = path + "/" + ZookeeperNodeNames.NAME_REGION_STATE;
+		final String state = batchRead.getStringResult(statePath);
+		return DistributionRegionState.fromString(state);
+	}
+	
+	/**
+	 * Get the systems for the region on the given path from the batch
+	 * @param batchRead
+	 * @param path
+	 * @return
+	 * @throws ZookeeperNotFoundException
+	 */
+	public Collection<BBoxDBInstance> getSystemsForDistributionRegion(final ZookeeperBatchRead batchRead, 
+			final String path) throws ZookeeperNotFoundException {
+		
+		final List<String> children = batchRead.getChildrenResult(path + "/" + ZookeeperNodeNames.NAME_SYSTEMS);
+		
+		return children.stream()
+			.map(c -> new BBoxDBInstance(c))
+			.collect(Collectors.toList());
+	}
+	
 	/**
 	 * Set the split position for the given path
 	 * @param path
@@ -475,6 +546,44 @@ public class DistributionRegionAdapter {
 	public void updateRegionStatistics(final DistributionRegion region, 
 			final BBoxDBInstance system, final long size, final long tuple) throws ZookeeperException {
 		
+		writeRegionStatistics(region, system, size, tuple);
+	}
+	
+	/**
+	 * Update the region statistics including the request rates
+	 * @param region
+	 * @param system
+	 * @param size
+	 * @param tuple
+	 * @param readRate
+	 * @param writeRate
+	 * @throws ZookeeperException
+	 */
+	public void updateRegionStatistics(final DistributionRegion region, 
+			final BBoxDBInstance system, final long size, final long tuple, 
+			final long readRate, final long writeRate) throws ZookeeperException {
+		
+		final String path = writeRegionStatistics(region, system, size, tuple);
+		
+		final String readRatePath = path + "/" + ZookeeperNodeNames.NAME_STATISTICS_READ_RATE;
+		zookeeperClient.replacePersistentNode(readRatePath, Long.toString(readRate).getBytes());
+		
+		final String writeRatePath = path + "/" + ZookeeperNodeNames.NAME_STATISTICS_WRITE_RATE;
+		zookeeperClient.replacePersistentNode(writeRatePath, Long.toString(writeRate).getBytes());
+	}
+
+	/**
+	 * Write the size based region statistics
+	 * @param region
+	 * @param system
+	 * @param size
+	 * @param tuple
+	 * @return the statistics path of the system
+	 * @throws ZookeeperException
+	 */
+	private String writeRegionStatistics(final DistributionRegion region, final BBoxDBInstance system, 
+			final long size, final long tuple) throws ZookeeperException {
+		
 		if(system == null) {
 			throw new IllegalArgumentException("Unable to add system with value null");
 		}
@@ -491,6 +600,8 @@ public class DistributionRegionAdapter {
 		
 		final String tuplePath = path + "/" + ZookeeperNodeNames.NAME_STATISTICS_TOTAL_TUPLES;
 		zookeeperClient.replacePersistentNode(tuplePath, Long.toString(tuple).getBytes());
+		
+		return path;
 	}
 	
 	/**
@@ -549,6 +660,20 @@ public class DistributionRegionAdapter {
 					systemMap.put(ZookeeperNodeNames.NAME_STATISTICS_TOTAL_TUPLES, tuples);
 				}
 				
+				final String readRatePath = path + "/" + ZookeeperNodeNames.NAME_STATISTICS_READ_RATE;
+				if(zookeeperClient.exists(readRatePath)) {
+					final String readString = zookeeperClient.readPathAndReturnString(readRatePath);
+					final long readRate = MathUtil.tryParseLong(readString, () -> "Unable to parse " + readString);
+					systemMap.put(ZookeeperNodeNames.NAME_STATISTICS_READ_RATE, readRate);
+				}
+				
+				final String writeRatePath = path + "/" + ZookeeperNodeNames.NAME_STATISTICS_WRITE_RATE;
+				if(zookeeperClient.exists(writeRatePath)) {
+					final String writeString = zookeeperClient.readPathAndReturnString(writeRatePath);
+					final long writeRate = MathUtil.tryParseLong(writeString, () -> "Unable to parse " + writeString);
+					systemMap.put(ZookeeperNodeNames.NAME_STATISTICS_WRITE_RATE, writeRate);
+				}
+				
 				result.put(new BBoxDBInstance(system), systemMap);
 			} catch (InputParseException | ZookeeperNotFoundException e) {
 				logger.error("Unable to read statistics", e);
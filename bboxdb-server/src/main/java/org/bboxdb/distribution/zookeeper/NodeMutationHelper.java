@@ -80,4 +80,42 @@ public class NodeMutationHelper {
 		return DataEncoderHelper.readLongFromByte(result);
 	}
 	
+	/**
+	 * Add the request for the version of the node mutation to the batch
+	 * @param batchRead
+	 * @param path
+	 * @param watcher
+	 */
+	public static void addNodeMutationVersionRequest(final ZookeeperBatchRead batchRead, 
+			final String path, final Watcher watcher) {
+		
+		batchRead.getData(path + "/" + ZookeeperNodeNames.NAME_NODE_VERSION, watcher);
+	}
+	
+	/**
+	 * Is the node completely created? The version of the node needs to be requested
+	 * in the batch
+	 * @param batchRead
+	 * @param path
+	 * @return
+	 */
+	public static boolean isNodeCompletelyCreated(final ZookeeperBatchRead batchRead, 
+			final String path) {
+		
+		return batchRead.exists(path + "/" + ZookeeperNodeNames.NAME_NODE_VERSION);
+	}
+	
+	/**
+	 * Get the version of the node mutation from the batch
+	 * @param batchRead
+	 * @param path
+	 * @return
+	 * @throws ZookeeperNotFoundException
+	 */
+	public static long getNodeMutationVersion(final ZookeeperBatchRead batchRead, 
+			final String path) throws ZookeeperNotFoundException {
+		
+		final byte[] result = batchRead.getDataResult(path + "/" + ZookeeperNodeNames.NAME_NODE_VERSION);
+		return DataEncoderHelper.readLongFromByte(result);
+	}
 }
@@ -0,0 +1,389 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.zookeeper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.zookeeper.AsyncCallback.ChildrenCallback;
+import org.apache.zookeeper.AsyncCallback.DataCallback;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.KeeperException.Code;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.ZooKeeper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.prometheus.client.Counter;
+
+public class ZookeeperBatchRead {
+
+	/**
+	 * The zookeeper client instance
+	 */
+	private final ZooKeeper zookeeper;
+	
+	/**
+	 * The timeout for the execution of a batch in milliseconds
+	 */
+	private final long timeoutInMs;
+	
+	/**
+	 * Is the batch executed by the zookeeper event thread? The async results are 
+	 * delivered by this thread, so the requests are executed synchronously.
+	 */
+	private final boolean eventThread;
+	
+	/**
+	 * The pending data requests and the watcher for the request
+	 */
+	private final Map<String, Watcher> pendingDataRequests;
+	
+	/**
+	 * The pending children requests
+	 */
+	private final Set<String> pendingChildrenRequests;
+	
+	/**
+	 * All executed or pending requests
+	 */
+	private final Set<String> requestedPaths;
+	
+	/**
+	 * The results of the data requests
+	 */
+	private final Map<String, byte[]> dataResults;
+	
+	/**
+	 * The results of the children requests
+	 */
+	private final Map<String, List<String>> childrenResults;
+	
+	/**
+	 * The failed requests
+	 */
+	private final Map<String, Code> failedRequests;
+	
+	/**
+	 * The number of executed round trips
+	 */
+	private int roundTrips;
+	
+	/**
+	 * The executed batches
+	 */
+	private final static Counter batchesTotal = Counter.build()
+			.name("bboxdb_zookeeper_batch_reads_total")
+			.help("Total executed zookeeper batch reads.").register();
+	
+	/**
+	 * The executed requests
+	 */
+	private final static Counter batchRequestsTotal = Counter.build()
+			.name("bboxdb_zookeeper_batch_read_requests_total")
+			.help("Total zookeeper requests executed in batch reads.").register();
+	
+	/**
+	 * The logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(ZookeeperBatchRead.class);
+
+	public ZookeeperBatchRead(final ZooKeeper zookeeper, final long timeoutInMs) {
+		this(zookeeper, timeoutInMs, false);
+	}
+	
+	public ZookeeperBatchRead(final ZooKeeper zookeeper, final long timeoutInMs, 
+			final boolean eventThread) {
+		
+		this.zookeeper = zookeeper;
+		this.timeoutInMs = timeoutInMs;
+		this.eventThread = eventThread;
+		this.pendingDataRequests = new HashMap<>();
+		this.pendingChildrenRequests = new HashSet<>();
+		this.requestedPaths = new HashSet<>();
+		this.dataResults = new HashMap<>();
+		this.childrenResults = new HashMap<>();
+		this.failedRequests = new HashMap<>();
+		this.roundTrips = 0;
+	}
+	
+	/**
+	 * Add a data request without a watcher
+	 * @param path
+	 * @return
+	 */
+	public ZookeeperBatchRead getData(final String path) {
+		return getData(path, null);
+	}
+	
+	/**
+	 * Add a data request, the watcher is registered on the node (if not null)
+	 * @param path
+	 * @param watcher
+	 * @return
+	 */
+	public ZookeeperBatchRead getData(final String path, final Watcher watcher) {
+		pendingDataRequests.put(path, watcher);
+		requestedPaths.add(path);
+		return this;
+	}
+	
+	/**
+	 * Add a children request
+	 * @param path
+	 * @return
+	 */
+	public ZookeeperBatchRead getChildren(final String path) {
+		pendingChildrenRequests.add(path);
+		requestedPaths.add(path);
+		return this;
+	}
+	
+	/**
+	 * Is the path requested in this batch?
+	 * @param path
+	 * @return
+	 */
+	public boolean isRequested(final String path) {
+		return requestedPaths.contains(path);
+	}
+	
+	/**
+	 * Execute all pending requests. The requests are send pipelined to the server, so 
+	 * the batch needs only one round trip. Requests for non existing nodes are not 
+	 * treated as error, the result for these nodes is missing.
+	 * 
+	 * @throws ZookeeperException
+	 */
+	public void execute() throws ZookeeperException {
+		
+		final int requests = pendingDataRequests.size() + pendingChildrenRequests.size();
+		
+		if(requests == 0) {
+			return;
+		}
+		
+		// Async results are delivered by the event thread, we can't wait for them
+		// when we are called by this thread
+		if(eventThread) {
+			executeSynchronously();
+		} else {
+			executeAsynchronously(requests);
+		}
+		
+		roundTrips++;
+		batchesTotal.inc();
+		batchRequestsTotal.inc(requests);
+
+		if(! failedRequests.isEmpty()) {
+			final Map.Entry<String, Code> failedRequest = failedRequests.entrySet().iterator().next();
+			
+			// Allow to request the paths again
+			requestedPaths.removeAll(pendingDataRequests.keySet());
+			requestedPaths.removeAll(pendingChildrenRequests);
+			pendingDataRequests.clear();
+			pendingChildrenRequests.clear();
+			failedRequests.clear();
+			
+			throw new ZookeeperException(KeeperException.create(failedRequest.getValue(), 
+					failedRequest.getKey()));
+		}
+		
+		pendingDataRequests.clear();
+		pendingChildrenRequests.clear();
+	}
+
+	/**
+	 * Execute the requests with the zookeeper async API. The callbacks write into the
+	 * result maps of this execution, the results are taken over when all callbacks are
+	 * executed. Callbacks that arrive after a timeout are ignored.
+	 * 
+	 * @param requests
+	 * @throws ZookeeperException
+	 */
+	private void executeAsynchronously(final int requests) throws ZookeeperException {
+		final CountDownLatch latch = new CountDownLatch(requests);
+		final AtomicBoolean closed = new AtomicBoolean(false);
+		
+		final Map<String, byte[]> batchDataResults = new ConcurrentHashMap<>();
+		final Map<String, List<String>> batchChildrenResults = new ConcurrentHashMap<>();
+		final Map<String, Code> batchFailedRequests = new ConcurrentHashMap<>();
+		
+		final DataCallback dataCallback = (rc, path, ctx, data, stat) -> {
+			if(closed.get()) {
+				logger.debug("Ignoring late result for {}", path);
+				return;
+			}
+			
+			handleResult(rc, path, () -> batchDataResults.put(path, data), batchFailedRequests);
+			latch.countDown();
+		};
+		
+		final ChildrenCallback childrenCallback = (rc, path, ctx, children) -> {
+			if(closed.get()) {
+				logger.debug("Ignoring late result for {}", path);
+				return;
+			}
+			
+			handleResult(rc, path, () -> batchChildrenResults.put(path, children), batchFailedRequests);
+			latch.countDown();
+		};
+		
+		for(final Map.Entry<String, Watcher> request : pendingDataRequests.entrySet()) {
+			zookeeper.getData(request.getKey(), request.getValue(), dataCallback, null);
+		}
+		
+		for(final String path : pendingChildrenRequests) {
+			zookeeper.getChildren(path, null, childrenCallback, null);
+		}
+		
+		try {
+			if(! latch.await(timeoutInMs, TimeUnit.MILLISECONDS)) {
+				closed.set(true);
+				throw new ZookeeperException("Batch read was not completed in " + timeoutInMs + " ms");
+			}
+		} catch (InterruptedException e) {
+			closed.set(true);
+			Thread.currentThread().interrupt();
+			throw new ZookeeperException(e);
+		}
+		
+		dataResults.putAll(batchDataResults);
+		childrenResults.putAll(batchChildrenResults);
+		failedRequests.putAll(batchFailedRequests);
+	}
+	
+	/**
+	 * Execute the requests one by one
+	 * @throws ZookeeperException 
+	 */
+	private void executeSynchronously() throws ZookeeperException {
+		
+		logger.debug("Executing {} requests synchronously", 
+				pendingDataRequests.size() + pendingChildrenRequests.size());
+		
+		try {
+			for(final Map.Entry<String, Watcher> request : pendingDataRequests.entrySet()) {
+				final String path = request.getKey();
+				
+				try {
+					dataResults.put(path, zookeeper.getData(path, request.getValue(), null));
+				} catch (KeeperException e) {
+					handleResult(e.code().intValue(), path, null, failedRequests);
+				}
+			}
+			
+			for(final String path : pendingChildrenRequests) {
+				try {
+					childrenResults.put(path, zookeeper.getChildren(path, null));
+				} catch (KeeperException e) {
+					handleResult(e.code().intValue(), path, null, failedRequests);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ZookeeperException(e);
+		}
+	}
+	
+	/**
+	 * Handle the result code of a request
+	 * @param rc
+	 * @param path
+	 * @param successHandler
+	 * @param failures
+	 */
+	private void handleResult(final int rc, final String path, final Runnable successHandler, 
+			final Map<String, Code> failures) {
+		
+		final Code code = Code.get(rc);
+		
+		if(code == Code.OK) {
+			successHandler.run();
+		} else if(code != Code.NONODE) {
+			failures.put(path, code);
+		}
+	}
+	
+	/**
+	 * Does the node exist? The node is unknown when it is not requested before
+	 * @param path
+	 * @return
+	 */
+	public boolean exists(final String path) {
+		return dataResults.containsKey(path) || childrenResults.containsKey(path);
+	}
+
+	/**
+	 * Get the result of the data request
+	 * @param path
+	 * @return
+	 * @throws ZookeeperNotFoundException
+	 */
+	public byte[] getDataResult(final String path) throws ZookeeperNotFoundException {
+		final byte[] result = dataResults.get(path);
+		
+		if(result == null) {
+			throw new ZookeeperNotFoundException("The path does not exist: " + path);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Get the result of the data request as string
+	 * @param path
+	 * @return
+	 * @throws ZookeeperNotFoundException
+	 */
+	public String getStringResult(final String path) throws ZookeeperNotFoundException {
+		return new String(getDataResult(path));
+	}
+	
+	/**
+	 * Get the result of the children request
+	 * @param path
+	 * @return
+	 * @throws ZookeeperNotFoundException
+	 */
+	public List<String> getChildrenResult(final String path) throws ZookeeperNotFoundException {
+		final List<String> result = childrenResults.get(path);
+		
+		if(result == null) {
+			throw new ZookeeperNotFoundException("The path does not exist: " + path);
+		}
+		
+		return new ArrayList<>(result);
+	}
+	
+	/**
+	 * Get the number of round trips
+	 * @return
+	 */
+	public int getRoundTrips() {
+		return roundTrips;
+	}
+}
@@ -57,6 +57,12 @@ public class ZookeeperClient implements BBoxDBService, AcquirableResource {
 	 */
 	private ZooKeeper zookeeper;
 	
+	/**
+	 * The event thread of the zookeeper client instance, the watchers and the
+	 * async callbacks are executed by this thread
+	 */
+	private volatile Thread eventThread;
+	
 	/**
 	 * Service state
 	 */
@@ -105,6 +111,8 @@ public class ZookeeperClient implements BBoxDBService, AcquirableResource {
 			zookeeper = new ZooKeeper(connectionString, ZOOKEEPER_SESSION_TIMEOUT, new Watcher() {
 				@Override
 				public void process(final WatchedEvent event) {
+					eventThread = Thread.currentThread();
+					
 					if (event.getState() == Watcher.Event.KeeperState.SyncConnected) {
 						connectLatch.countDown();
 					}
@@ -168,6 +176,7 @@ public class ZookeeperClient implements BBoxDBService, AcquirableResource {
 		}
 
 		zookeeper = null;
+		eventThread = null;
 	}
 	
 	/**
@@ -669,6 +678,21 @@ public class ZookeeperClient implements BBoxDBService, AcquirableResource {
 		return serviceState;
 	}
 	
+	/**
+	 * Create a new batch read, the requests of the batch are pipelined
+	 * @return
+	 * @throws ZookeeperException 
+	 */
+	public ZookeeperBatchRead createBatchRead() throws ZookeeperException {
+		
+		if(! serviceState.isInRunningState()) {
+			throw new ZookeeperException("Zookeeper is not connected");
+		}
+		
+		final boolean isEventThread = (Thread.currentThread() == eventThread);
+		return new ZookeeperBatchRead(zookeeper, ZOOKEEPER_SESSION_TIMEOUT, isEventThread);
+	}
+	
 	/**
 	 * Get the group adapter
 	 * @return
@@ -84,6 +84,16 @@ public class ZookeeperNodeNames {
 	 */
 	public final static String NAME_STATISTICS_TOTAL_SIZE = "total_size";
 	
+	/**
+	 * Name of the statistics read rate node (requests per second)
+	 */
+	public final static String NAME_STATISTICS_READ_RATE = "read_rate";
+	
+	/**
+	 * Name of the statistics write rate node (requests per second)
+	 */
+	public final static String NAME_STATISTICS_WRITE_RATE = "write_rate";
+	
 	/**
 	 * Name of the region state node
 	 */
@@ -18,6 +18,7 @@
 package org.bboxdb.misc;
 
 import java.net.SocketException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -48,6 +49,11 @@ public class BBoxDBConfiguration {
 	 */
 	private int memtableFlushThreadsPerStorage = 2;
 	
+	/**
+	 * Replace older versions of a key in the memtable, when the table keeps only one version
+	 */
+	private boolean memtableCollapseVersions = true;
+	
 	/**
 	 * The classname of the spatial index builder
 	 */
@@ -68,6 +74,17 @@ public class BBoxDBConfiguration {
 	 */
 	private boolean storageWriteAheadLog = false;
 	
+	/**
+	 * The amount of threads to open the existing tuple stores on startup
+	 */
+	private int storageStartupThreads = 4;
+	
+	/**
+	 * The directories (in addition to the storage directories) that can 
+	 * contain staging directories for the import of SSTables
+	 */
+	private List<String> storageImportDirectories = new ArrayList<>();
+	
 	/**
 	 * The port for client requests
 	 */
@@ -93,6 +110,40 @@ public class BBoxDBConfiguration {
 	 */
 	private String localip = null;
 	
+	/**
+	 * The number of replica acknowledgements needed before an insert 
+	 * is confirmed (ONE, QUORUM or ALL)
+	 */
+	private String replicationWriteConsistency = "ALL";
+	
+	/**
+	 * The sustained request rate (reads and writes per second) that 
+	 * triggers a region split. A value of 0 disables the load based split.
+	 */
+	private double regionSplitRequestRate = 0;
+	
+	/**
+	 * The max number of queued tuples per continuous query
+	 */
+	private int continuousQueryQueueSize = 1024;
+	
+	/**
+	 * The max number of tuples per result page of a continuous query
+	 */
+	private int continuousQueryPageSize = 1000;
+	
+	/**
+	 * The time (in milliseconds) to wait for further tuples before 
+	 * a result page of a continuous query is sent
+	 */
+	private int continuousQueryFlushDelay = 10;
+	
+	/**
+	 * The policy when the queue of a continuous query is full 
+	 * (DROP_OLDEST, DROP_NEWEST or DISCONNECT)
+	 */
+	private String continuousQueryOverflowPolicy = "DROP_OLDEST";
+	
 	/**
 	 * The number of entries in the key cache per SSTable
 	 */
@@ -172,6 +223,54 @@ public class BBoxDBConfiguration {
 		this.localip = localip;
 	}
 
+	public String getReplicationWriteConsistency() {
+		return replicationWriteConsistency;
+	}
+
+	public void setReplicationWriteConsistency(final String replicationWriteConsistency) {
+		this.replicationWriteConsistency = replicationWriteConsistency;
+	}
+
+	public double getRegionSplitRequestRate() {
+		return regionSplitRequestRate;
+	}
+
+	public void setRegionSplitRequestRate(final double regionSplitRequestRate) {
+		this.regionSplitRequestRate = regionSplitRequestRate;
+	}
+
+	public int getContinuousQueryQueueSize() {
+		return continuousQueryQueueSize;
+	}
+
+	public void setContinuousQueryQueueSize(final int continuousQueryQueueSize) {
+		this.continuousQueryQueueSize = continuousQueryQueueSize;
+	}
+
+	public int getContinuousQueryPageSize() {
+		return continuousQueryPageSize;
+	}
+
+	public void setContinuousQueryPageSize(final int continuousQueryPageSize) {
+		this.continuousQueryPageSize = continuousQueryPageSize;
+	}
+
+	public int getContinuousQueryFlushDelay() {
+		return continuousQueryFlushDelay;
+	}
+
+	public void setContinuousQueryFlushDelay(final int continuousQueryFlushDelay) {
+		this.continuousQueryFlushDelay = continuousQueryFlushDelay;
+	}
+
+	public String getContinuousQueryOverflowPolicy() {
+		return continuousQueryOverflowPolicy;
+	}
+
+	public void setContinuousQueryOverflowPolicy(final String continuousQueryOverflowPolicy) {
+		this.continuousQueryOverflowPolicy = continuousQueryOverflowPolicy;
+	}
+
 	public int getStorageCheckpointInterval() {
 		return storageCheckpointInterval;
 	}
@@ -196,6 +295,14 @@ public class BBoxDBConfiguration {
 		this.memtableFlushThreadsPerStorage = memtableFlushThreadsPerStorage;
 	}
 
+	public boolean isMemtableCollapseVersions() {
+		return memtableCollapseVersions;
+	}
+
+	public void setMemtableCollapseVersions(final boolean memtableCollapseVersions) {
+		this.memtableCollapseVersions = memtableCollapseVersions;
+	}
+
 	public String getStorageSpatialIndexBuilder() {
 		return storageSpatialIndexBuilder;
 	}
@@ -235,5 +342,21 @@ public class BBoxDBConfiguration {
 	public void setStorageWriteAheadLog(final boolean storageWriteAheadLog) {
 		this.storageWriteAheadLog = storageWriteAheadLog;
 	}
+
+	public int getStorageStartupThreads() {
+		return storageStartupThreads;
+	}
+
+	public void setStorageStartupThreads(final int storageStartupThreads) {
+		this.storageStartupThreads = storageStartupThreads;
+	}
+
+	public List<String> getStorageImportDirectories() {
+		return storageImportDirectories;
+	}
+
+	public void setStorageImportDirectories(final List<String> storageImportDirectories) {
+		this.storageImportDirectories = storageImportDirectories;
+	}
 	
 }
@@ -94,6 +94,11 @@ public class NetworkConst {
 	 */
 	public static final short REQUEST_TYPE_CANCEL_QUERY = 0x13;
 	
+	/**
+	 * Import SSTables from a staging directory
+	 */
+	public static final short REQUEST_TYPE_IMPORT_SSTABLES = 0x14;
+	
 	/**
 	 * Query type key
 	 */
@@ -129,6 +134,11 @@ public class NetworkConst {
 	 */
 	public static final byte REQUEST_QUERY_JOIN = 0x07;
 	
+	/**
+	 * Query type aggregate (count, covering box, histogram)
+	 */
+	public static final byte REQUEST_QUERY_AGGREGATE = 0x08;
+	
 	/**
 	 * Response type hello
 	 */
@@ -183,6 +193,26 @@ public class NetworkConst {
 	 * Compression envelope request
 	 */
 	public static final short RESPONSE_TYPE_COMPRESSION = 0x10;
+	
+	/**
+	 * The trace of a query
+	 */
+	public static final short RESPONSE_TYPE_QUERY_TRACE = 0x11;
+	
+	/**
+	 * The result of an aggregate query
+	 */
+	public static final short RESPONSE_TYPE_AGGREGATE = 0x12;
+	
+	/**
+	 * The query flag for paging
+	 */
+	public final static byte QUERY_FLAG_PAGING = 0x01;
+	
+	/**
+	 * The query flag for tracing
+	 */
+	public final static byte QUERY_FLAG_TRACING = 0x02;
 
 	
 	/**
@@ -22,6 +22,7 @@ import java.util.List;
 
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.client.future.AggregateResultFuture;
 import org.bboxdb.network.client.future.EmptyResultFuture;
 import org.bboxdb.network.client.future.JoinedTupleListFuture;
 import org.bboxdb.network.client.future.TupleListFuture;
@@ -180,6 +181,20 @@ public interface BBoxDB extends Closeable {
 	 * @return
 	 */
 	public JoinedTupleListFuture queryJoin(final List<String> tableNames, final Hyperrectangle boundingBox) throws BBoxDBException;
+
+	/**
+	 * Aggregate the tuples inside of the bounding box on the server side. The number 
+	 * of tuples and their covering box are calculated. If the cell size is > 0, a histogram 
+	 * with the number of tuples per grid cell is calculated too.
+	 * 
+	 * @param table
+	 * @param boundingBox
+	 * @param cellSize
+	 * @return
+	 * @throws BBoxDBException
+	 */
+	public AggregateResultFuture queryAggregate(final String table, final Hyperrectangle boundingBox, 
+			final double cellSize) throws BBoxDBException;
 	
 	/**
 	 * Is the client connected?
@@ -216,5 +231,19 @@ public interface BBoxDB extends Closeable {
 	 * @param tuplesPerPage
 	 */
 	public void setTuplesPerPage(final short tuplesPerPage);
+	
+	/**
+	 * Is the tracing of queries enabled. When enabled, the servers record 
+	 * the time spent in the stages of the query execution and return the 
+	 * trace together with the result (see OperationFuture#getQueryTrace(int))
+	 * @return
+	 */
+	public boolean isQueryTracingEnabled();
+
+	/**
+	 * Enable or disable the tracing of queries
+	 * @param queryTracingEnabled
+	 */
+	public void setQueryTracingEnabled(final boolean queryTracingEnabled);
 
 }
\ No newline at end of file
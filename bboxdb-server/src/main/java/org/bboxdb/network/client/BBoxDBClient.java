@@ -29,6 +29,7 @@ import org.bboxdb.commons.MicroSecondTimestampProvider;
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.distribution.TupleStoreConfigurationCache;
 import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.client.future.AggregateResultFuture;
 import org.bboxdb.network.client.future.EmptyResultFuture;
 import org.bboxdb.network.client.future.FutureRetryPolicy;
 import org.bboxdb.network.client.future.JoinedTupleListFuture;
@@ -42,11 +43,13 @@ import org.bboxdb.network.packages.request.CreateDistributionGroupRequest;
 import org.bboxdb.network.packages.request.CreateTableRequest;
 import org.bboxdb.network.packages.request.DeleteDistributionGroupRequest;
 import org.bboxdb.network.packages.request.DeleteTableRequest;
+import org.bboxdb.network.packages.request.ImportSSTablesRequest;
 import org.bboxdb.network.packages.request.InsertTupleRequest;
 import org.bboxdb.network.packages.request.KeepAliveRequest;
 import org.bboxdb.network.packages.request.LockTupleRequest;
 import org.bboxdb.network.packages.request.NextPageRequest;
 import org.bboxdb.network.packages.request.QueryHyperrectangleContinuousRequest;
+import org.bboxdb.network.packages.request.QueryAggregateRequest;
 import org.bboxdb.network.packages.request.QueryHyperrectangleRequest;
 import org.bboxdb.network.packages.request.QueryHyperrectangleTimeRequest;
 import org.bboxdb.network.packages.request.QueryInsertTimeRequest;
@@ -78,6 +81,11 @@ public class BBoxDBClient implements BBoxDB {
 	 * The amount of tuples per page
 	 */
 	private short tuplesPerPage;
+	
+	/**
+	 * Is the tracing of queries enabled?
+	 */
+	private boolean queryTracingEnabled;
 
 	/**
 	 * The tuple store manager registry (used for gossip)
@@ -88,6 +96,7 @@ public class BBoxDBClient implements BBoxDB {
 		this.connection = Objects.requireNonNull(connection);
 		this.pagingEnabled = true;
 		this.tuplesPerPage = 50;
+		this.queryTracingEnabled = false;
 	}
 
 	/* (non-Javadoc)
@@ -138,6 +147,32 @@ public class BBoxDBClient implements BBoxDB {
 		return () -> Arrays.asList(new NetworkOperationFutureImpl(connection, packageSupplier));
 	}
 
+	/**
+	 * Attach the SSTables of a staging directory to a local table of the server
+	 * @param table - the full table name (including the region id)
+	 * @param directory - the staging directory on the server
+	 * @return
+	 */
+	public EmptyResultFuture importSSTables(final String table, final String directory) {
+		return new EmptyResultFuture(getImportSSTablesFuture(table, directory));
+	}
+
+	/**
+	 * @param table
+	 * @param directory
+	 * @return
+	 */
+	public Supplier<List<NetworkOperationFuture>> getImportSSTablesFuture(final String table,
+			final String directory) {
+
+		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
+			final short nextSequenceNumber = connection.getNextSequenceNumber();
+			return new ImportSSTablesRequest(nextSequenceNumber, table, directory);
+		};
+
+		return () -> Arrays.asList(new NetworkOperationFutureImpl(connection, packageSupplier));
+	}
+
 	/* (non-Javadoc)
 	 * @see org.bboxdb.network.client.BBoxDB#insertTuple(java.lang.String, org.bboxdb.storage.entity.Tuple)
 	 */
@@ -369,7 +404,8 @@ public class BBoxDBClient implements BBoxDB {
 			final short nextSequenceNumber = connection.getNextSequenceNumber();
 
 			return new QueryHyperrectangleRequest(nextSequenceNumber,
-					routingHeader, table, boundingBox, pagingEnabled, tuplesPerPage);
+					routingHeader, table, boundingBox, pagingEnabled, tuplesPerPage, 
+					queryTracingEnabled);
 		};
 
 		return () -> Arrays.asList(new NetworkOperationFutureImpl(connection, packageSupplier));
@@ -548,6 +584,42 @@ public class BBoxDBClient implements BBoxDB {
 		return () -> Arrays.asList(new NetworkOperationFutureImpl(connection, packageSupplier));
 	}
 
+	/**
+	 * Execute an aggregate query
+	 */
+	@Override
+	public AggregateResultFuture queryAggregate(final String table, final Hyperrectangle boundingBox, 
+			final double cellSize) {
+		
+		final RoutingHeader routingHeader = RoutingHeaderHelper.getRoutingHeaderForLocalSystemReadNE(
+				table, boundingBox, false, connection.getServerAddress());
+
+		final Supplier<List<NetworkOperationFuture>> future
+			= getQueryAggregateFuture(table, boundingBox, cellSize, routingHeader);
+
+		return new AggregateResultFuture(future);
+	}
+
+	/**
+	 * @param table
+	 * @param boundingBox
+	 * @param cellSize
+	 * @param routingHeader
+	 * @return
+	 */
+	public Supplier<List<NetworkOperationFuture>> getQueryAggregateFuture(final String table,
+			final Hyperrectangle boundingBox, final double cellSize, final RoutingHeader routingHeader) {
+
+		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
+			final short nextSequenceNumber = connection.getNextSequenceNumber();
+
+			return new QueryAggregateRequest(nextSequenceNumber, routingHeader, table, 
+					boundingBox, cellSize);
+		};
+
+		return () -> Arrays.asList(new NetworkOperationFutureImpl(connection, packageSupplier));
+	}
+
 	/**
 	 * Send a keep alive package to the server, to keep the TCP connection open.
 	 * @return
@@ -672,6 +744,22 @@ public class BBoxDBClient implements BBoxDB {
 	public void setTuplesPerPage(final short tuplesPerPage) {
 		this.tuplesPerPage = tuplesPerPage;
 	}
+	
+	/**
+	 * Is the tracing of queries enabled
+	 * @return
+	 */
+	public boolean isQueryTracingEnabled() {
+		return queryTracingEnabled;
+	}
+
+	/**
+	 * Enable or disable the tracing of queries
+	 * @param queryTracingEnabled
+	 */
+	public void setQueryTracingEnabled(final boolean queryTracingEnabled) {
+		this.queryTracingEnabled = queryTracingEnabled;
+	}
 
 	@Override
 	public boolean connect() {
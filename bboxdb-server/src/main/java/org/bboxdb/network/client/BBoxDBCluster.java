@@ -20,23 +20,35 @@ package org.bboxdb.network.client;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import org.bboxdb.commons.DuplicateResolver;
+import org.bboxdb.commons.InputParseException;
 import org.bboxdb.commons.MicroSecondTimestampProvider;
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.distribution.TupleStoreConfigurationCache;
 import org.bboxdb.distribution.membership.BBoxDBInstance;
 import org.bboxdb.distribution.membership.BBoxDBInstanceManager;
 import org.bboxdb.distribution.membership.MembershipConnectionService;
+import org.bboxdb.distribution.partitioner.SpacePartitioner;
+import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
 import org.bboxdb.distribution.partitioner.SpacePartitionerHelper;
+import org.bboxdb.distribution.partitioner.regionsplit.PreSplitHelper;
 import org.bboxdb.distribution.placement.RandomResourcePlacementStrategy;
 import org.bboxdb.distribution.placement.ResourceAllocationException;
 import org.bboxdb.distribution.placement.ResourcePlacementStrategy;
 import org.bboxdb.distribution.region.DistributionRegion;
 import org.bboxdb.distribution.region.DistributionRegionHelper;
+import org.bboxdb.distribution.zookeeper.DistributionGroupAdapter;
 import org.bboxdb.distribution.zookeeper.ZookeeperClient;
+import org.bboxdb.distribution.zookeeper.ZookeeperException;
+import org.bboxdb.distribution.zookeeper.ZookeeperNotFoundException;
 import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.client.future.AggregateResultFuture;
 import org.bboxdb.network.client.future.EmptyResultFuture;
 import org.bboxdb.network.client.future.FutureRetryPolicy;
 import org.bboxdb.network.client.future.JoinedTupleListFuture;
@@ -44,12 +56,15 @@ import org.bboxdb.network.client.future.NetworkOperationFuture;
 import org.bboxdb.network.client.future.TupleListFuture;
 import org.bboxdb.network.client.tools.AbtractClusterFutureBuilder;
 import org.bboxdb.network.client.tools.ClusterOperationType;
+import org.bboxdb.network.client.tools.KeyDirectoryHelper;
 import org.bboxdb.network.routing.RoutingHeader;
 import org.bboxdb.storage.entity.DeletedTuple;
 import org.bboxdb.storage.entity.DistributionGroupConfiguration;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreConfiguration;
+import org.bboxdb.storage.entity.TupleStoreName;
 import org.bboxdb.storage.sstable.duplicateresolver.DoNothingDuplicateResolver;
+import org.bboxdb.storage.sstable.duplicateresolver.TupleDuplicateResolverFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -70,6 +85,21 @@ public class BBoxDBCluster implements BBoxDB {
 	 */
 	private final MembershipConnectionService membershipConnectionService;
 
+	/**
+	 * Use the key directory for key queries
+	 */
+	private volatile boolean keyDirectoryEnabled = false;
+	
+	/**
+	 * The tables whose key queries can be routed by the key directory
+	 */
+	private final Map<String, Boolean> keyDirectoryRoutedTables = new ConcurrentHashMap<>();
+
+	/**
+	 * The max time to wait for the root node of a new distribution group (in ms)
+	 */
+	private final static long PRE_SPLIT_ROOT_TIMEOUT = 30_000;
+
 	/**
 	 * The Logger
 	 */
@@ -234,6 +264,103 @@ public class BBoxDBCluster implements BBoxDB {
 		}
 	}
 
+	/**
+	 * Create a new distribution group and split it into the given number of regions before 
+	 * any data is inserted. The split points are calculated from the samples, the systems 
+	 * of the regions are allocated by the placement strategy of the distribution group.
+	 * 
+	 * @param distributionGroup
+	 * @param distributionGroupConfiguration
+	 * @param samples - the bounding boxes of a sample of the data
+	 * @param regions - the wanted number of regions
+	 * @return the number of created regions
+	 * @throws BBoxDBException
+	 * @throws InterruptedException
+	 */
+	public int createDistributionGroup(final String distributionGroup,
+			final DistributionGroupConfiguration distributionGroupConfiguration, 
+			final Collection<Hyperrectangle> samples, final int regions) 
+					throws BBoxDBException, InterruptedException {
+		
+		final EmptyResultFuture future = createDistributionGroup(distributionGroup, 
+				distributionGroupConfiguration);
+		
+		future.waitForCompletion();
+		
+		if(future.isFailed()) {
+			throw new BBoxDBException("Unable to create distribution group: " + future.getAllMessages());
+		}
+		
+		final SpacePartitioner spacePartitioner = SpacePartitionerCache.getInstance()
+				.getSpacePartitionerForGroupName(distributionGroup);
+		
+		final long waitUntil = System.currentTimeMillis() + PRE_SPLIT_ROOT_TIMEOUT;
+		
+		while(spacePartitioner.getRootNode() == null) {
+			if(System.currentTimeMillis() > waitUntil) {
+				throw new BBoxDBException("Root node of " + distributionGroup + " is not available");
+			}
+			
+			Thread.sleep(100);
+		}
+		
+		return PreSplitHelper.preSplit(spacePartitioner, samples, regions);
+	}
+
+	/**
+	 * Create the key directory for the given table. The directory is stored in a
+	 * one-dimensional distribution group with the replication factor of the table. 
+	 * The servers write the directory entries of all tuples that are inserted or 
+	 * imported after the directory is created; key queries for older keys are sent 
+	 * to all regions.
+	 * 
+	 * @param table
+	 * @throws BBoxDBException
+	 * @throws InterruptedException
+	 */
+	public void createKeyDirectory(final String table) throws BBoxDBException, InterruptedException {
+		final TupleStoreName tupleStoreName = new TupleStoreName(table);
+		final String distributionGroup = tupleStoreName.getDistributionGroup();
+		final String directoryGroup = KeyDirectoryHelper.getDirectoryGroup(distributionGroup);
+		
+		try {
+			final DistributionGroupAdapter distributionGroupAdapter 
+				= zookeeperClient.getDistributionGroupAdapter();
+			
+			if(! distributionGroupAdapter.isDistributionGroupRegistered(directoryGroup)) {
+				final DistributionGroupConfiguration configuration 
+					= distributionGroupAdapter.getDistributionGroupConfiguration(distributionGroup);
+				
+				final EmptyResultFuture groupFuture = createDistributionGroup(directoryGroup, 
+						KeyDirectoryHelper.getDirectoryGroupConfiguration(configuration));
+				
+				groupFuture.waitForCompletion();
+				
+				if(groupFuture.isFailed()) {
+					throw new BBoxDBException("Unable to create distribution group: " 
+							+ groupFuture.getAllMessages());
+				}
+			}
+			
+			final TupleStoreConfiguration configuration = zookeeperClient.getTupleStoreAdapter()
+					.readTuplestoreConfiguration(tupleStoreName);
+			
+			final EmptyResultFuture tableFuture = createTable(KeyDirectoryHelper.getDirectoryTable(table), 
+					KeyDirectoryHelper.getDirectoryTableConfiguration(configuration));
+			
+			tableFuture.waitForCompletion();
+			
+			if(tableFuture.isFailed()) {
+				throw new BBoxDBException("Unable to create table: " + tableFuture.getAllMessages());
+			}
+			
+			// Wait until all servers have noticed the directory and write the entries
+			Thread.sleep(TimeUnit.SECONDS.toMillis(KeyDirectoryHelper.DIRECTORY_CHECK_INTERVAL_IN_SEC));
+		} catch (ZookeeperException | ZookeeperNotFoundException | InputParseException e) {
+			throw new BBoxDBException(e);
+		}
+	}
+
 	/**
 	 * Find a system with free resources
 	 * @return
@@ -274,8 +401,13 @@ public class BBoxDBCluster implements BBoxDB {
 			logger.debug("Query by for key {} in table {}", key, table);
 		}
 		
+		// Without a key directory, the query is sent to all regions
+		final Hyperrectangle boundingBox = isKeyDirectoryRouted(table)
+				? getBoundingBoxFromKeyDirectory(table, key).orElse(Hyperrectangle.FULL_SPACE)
+				: Hyperrectangle.FULL_SPACE;
+		
 		final AbtractClusterFutureBuilder builder = new AbtractClusterFutureBuilder(
-				ClusterOperationType.READ_FROM_NODES, table, Hyperrectangle.FULL_SPACE) {
+				ClusterOperationType.READ_FROM_NODES, table, boundingBox) {
 
 			@Override
 			protected Supplier<List<NetworkOperationFuture>> buildFuture(final BBoxDBConnection connection,
@@ -291,6 +423,78 @@ public class BBoxDBCluster implements BBoxDB {
 		return new TupleListFuture(builder.getSupplier(), duplicateResolver, table);
 	}
 
+	/**
+	 * Can the key queries of the table be routed by the key directory? The directory 
+	 * contains only the versions that are written after the directory was created. 
+	 * So, only tables that keep the newest version of a key are routed; older versions
+	 * of other tables would be missed.
+	 * 
+	 * @param table
+	 * @return
+	 * @throws BBoxDBException
+	 */
+	private boolean isKeyDirectoryRouted(final String table) throws BBoxDBException {
+		
+		if(! keyDirectoryEnabled) {
+			return false;
+		}
+		
+		final Boolean routed = keyDirectoryRoutedTables.get(table);
+		
+		if(routed != null) {
+			return routed;
+		}
+		
+		try {
+			final TupleStoreConfiguration configuration = zookeeperClient.getTupleStoreAdapter()
+					.readTuplestoreConfiguration(new TupleStoreName(table));
+			
+			final boolean newestVersionOnly = TupleDuplicateResolverFactory
+					.isOnlyNewestVersionKept(configuration);
+			
+			if(! newestVersionOnly) {
+				logger.warn("Table {} keeps more than one version, key queries are not routed "
+						+ "by the key directory", table);
+			}
+			
+			keyDirectoryRoutedTables.put(table, newestVersionOnly);
+			
+			return newestVersionOnly;
+		} catch (ZookeeperException e) {
+			throw new BBoxDBException(e);
+		}
+	}
+	
+	/**
+	 * Get the bounding box of the key from the key directory
+	 * @param table
+	 * @param key
+	 * @return the bounding box or an empty optional, if the key is not contained in the directory
+	 * @throws BBoxDBException
+	 */
+	private Optional<Hyperrectangle> getBoundingBoxFromKeyDirectory(final String table, final String key) 
+			throws BBoxDBException {
+		
+		final String directoryTable = KeyDirectoryHelper.getDirectoryTable(table);
+		
+		try {
+			final TupleListFuture future = queryRectangle(directoryTable, 
+					KeyDirectoryHelper.getDirectoryBoundingBox(key));
+			
+			future.waitForCompletion();
+			
+			if(future.isFailed()) {
+				logger.warn("Unable to read key directory {}: {}", directoryTable, future.getAllMessages());
+				return Optional.empty();
+			}
+			
+			return KeyDirectoryHelper.getBoundingBoxForKey(key, future);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BBoxDBException(e);
+		}
+	}
+
 	@Override
 	public TupleListFuture queryRectangle(final String table, final Hyperrectangle boundingBox) throws BBoxDBException {
 
@@ -446,6 +650,30 @@ public class BBoxDBCluster implements BBoxDB {
 		return new JoinedTupleListFuture(builder.getSupplier());
 	}
 
+	@Override
+	public AggregateResultFuture queryAggregate(final String table, final Hyperrectangle boundingBox, 
+			final double cellSize) throws BBoxDBException {
+
+		if(logger.isDebugEnabled()) {
+			logger.debug("Aggregate query for bounding box {} in table {}", boundingBox, table);
+		}
+		
+		// One future per region, each region is aggregated on exactly one replica
+		final AbtractClusterFutureBuilder builder = new AbtractClusterFutureBuilder(
+				ClusterOperationType.READ_FROM_NODES_HA_IF_REPLICATED, table, boundingBox) {
+
+			@Override
+			protected Supplier<List<NetworkOperationFuture>> buildFuture(final BBoxDBConnection connection,
+					final RoutingHeader routingHeader) {
+				
+				return connection.getBboxDBClient().getQueryAggregateFuture(table, boundingBox, 
+						cellSize, routingHeader);
+			}	
+		};
+
+		return new AggregateResultFuture(builder.getSupplier());
+	}
+
 	@Override
 	public boolean isConnected() {
 		return (membershipConnectionService.getNumberOfConnections() > 0);
@@ -467,6 +695,25 @@ public class BBoxDBCluster implements BBoxDB {
 		membershipConnectionService.setPagingEnabled(pagingEnabled);
 	}
 
+	/**
+	 * Is the key directory enabled
+	 * @return
+	 */
+	public boolean isKeyDirectoryEnabled() {
+		return keyDirectoryEnabled;
+	}
+
+	/**
+	 * Enable or disable the key directory. When enabled, the key directory of the
+	 * table is used to route key queries. The key directory has to be created with 
+	 * createKeyDirectory() first; the entries are written by the servers.
+	 * 
+	 * @param keyDirectoryEnabled
+	 */
+	public void setKeyDirectoryEnabled(final boolean keyDirectoryEnabled) {
+		this.keyDirectoryEnabled = keyDirectoryEnabled;
+	}
+
 	/**
 	 * Get the amount of tuples per page
 	 * @return
@@ -482,6 +729,22 @@ public class BBoxDBCluster implements BBoxDB {
 	public void setTuplesPerPage(final short tuplesPerPage) {
 		membershipConnectionService.setTuplesPerPage(tuplesPerPage);
 	}
+	
+	/**
+	 * Is the tracing of queries enabled
+	 * @return
+	 */
+	public boolean isQueryTracingEnabled() {
+		return membershipConnectionService.isQueryTracingEnabled();
+	}
+
+	/**
+	 * Enable or disable the tracing of queries
+	 * @param queryTracingEnabled
+	 */
+	public void setQueryTracingEnabled(final boolean queryTracingEnabled) {
+		membershipConnectionService.setQueryTracingEnabled(queryTracingEnabled);
+	}
 
 	@Override
 	public int getInFlightCalls() {
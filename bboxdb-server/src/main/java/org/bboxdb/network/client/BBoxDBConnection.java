@@ -47,6 +47,7 @@ import org.bboxdb.network.capabilities.PeerCapabilities;
 import org.bboxdb.network.client.future.HelloFuture;
 import org.bboxdb.network.client.future.NetworkOperationFuture;
 import org.bboxdb.network.client.future.NetworkOperationFutureImpl;
+import org.bboxdb.network.client.response.AggregateHandler;
 import org.bboxdb.network.client.response.CompressionHandler;
 import org.bboxdb.network.client.response.ErrorHandler;
 import org.bboxdb.network.client.response.HelloHandler;
@@ -55,6 +56,7 @@ import org.bboxdb.network.client.response.LockedTupleHandler;
 import org.bboxdb.network.client.response.MultipleTupleEndHandler;
 import org.bboxdb.network.client.response.MultipleTupleStartHandler;
 import org.bboxdb.network.client.response.PageEndHandler;
+import org.bboxdb.network.client.response.QueryTraceHandler;
 import org.bboxdb.network.client.response.ServerResponseHandler;
 import org.bboxdb.network.client.response.SuccessHandler;
 import org.bboxdb.network.client.response.TupleHandler;
@@ -247,6 +249,8 @@ public class BBoxDBConnection {
 		serverResponseHandler.put(NetworkConst.RESPONSE_TYPE_PAGE_END, new PageEndHandler());
 		serverResponseHandler.put(NetworkConst.RESPONSE_TYPE_JOINED_TUPLE, new JoinedTupleHandler());
 		serverResponseHandler.put(NetworkConst.RESPONSE_TYPE_TUPLE_LOCK_SUCCESS, new LockedTupleHandler());
+		serverResponseHandler.put(NetworkConst.RESPONSE_TYPE_QUERY_TRACE, new QueryTraceHandler());
+		serverResponseHandler.put(NetworkConst.RESPONSE_TYPE_AGGREGATE, new AggregateHandler());
 	}
 
 	/* (non-Javadoc)
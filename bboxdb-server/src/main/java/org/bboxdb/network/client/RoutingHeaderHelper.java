@@ -62,7 +62,7 @@ public class RoutingHeaderHelper {
 		final SpacePartitioner spacepartitioner = SpacePartitionerCache.getInstance()
 				.getSpacePartitionerForGroupName(distributionGroup);
 
-		final DistributionRegion distributionRegion = spacepartitioner.getRootNode();
+		final DistributionRegion distributionRegion = spacepartitioner.getRootNodeSnapshot();
 
 		if(boundingBox == null) {
 			boundingBox = Hyperrectangle.FULL_SPACE;
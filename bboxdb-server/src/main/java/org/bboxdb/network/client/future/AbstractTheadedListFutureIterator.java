@@ -26,6 +26,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 
 import org.bboxdb.network.client.BBoxDBClient;
 import org.bboxdb.network.client.BBoxDBConnection;
+import org.bboxdb.performance.QueryTrace;
 import org.bboxdb.storage.entity.PagedTransferableEntity;
 import org.bboxdb.storage.util.CloseableIterator;
 import org.bboxdb.storage.util.EntityDuplicateTracker;
@@ -173,6 +174,13 @@ public abstract class AbstractTheadedListFutureIterator<T extends PagedTransfera
 					 addTupleListToQueue(nextPage.get(0));
 					 
 				} while(! nextPage.isCompleteResult(0));
+				
+				// The trace is send together with the last page
+				final QueryTrace queryTrace = nextPage.getQueryTrace(0);
+				
+				if(queryTrace != null) {
+					abstractLisFuture.setQueryTrace(resultId, queryTrace);
+				}
 			}
 
 			/**
@@ -0,0 +1,49 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.client.future;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.bboxdb.storage.entity.BoundingBoxAggregate;
+
+public class AggregateResultFuture extends OperationFutureImpl<BoundingBoxAggregate> {
+
+	public AggregateResultFuture(final Supplier<List<NetworkOperationFuture>> futures) {
+		super(futures);
+	}
+
+	/**
+	 * Merge the results of all regions into one aggregate
+	 * @return
+	 * @throws InterruptedException
+	 */
+	public BoundingBoxAggregate getMergedAggregate() throws InterruptedException {
+		final BoundingBoxAggregate aggregate = new BoundingBoxAggregate();
+		
+		for(int i = 0; i < getNumberOfResultObjets(); i++) {
+			final BoundingBoxAggregate regionAggregate = get(i);
+			
+			if(regionAggregate != null) {
+				aggregate.merge(regionAggregate);
+			}
+		}
+		
+		return aggregate;
+	}
+}
@@ -23,6 +23,7 @@ import java.util.function.Consumer;
 
 import org.bboxdb.network.client.BBoxDBConnection;
 import org.bboxdb.network.packages.NetworkRequestPackage;
+import org.bboxdb.performance.QueryTrace;
 
 public interface NetworkOperationFuture {
 
@@ -92,6 +93,18 @@ public interface NetworkOperationFuture {
 	 * @param message
 	 */
 	public void setMessage(final String message);
+	
+	/**
+	 * Get the trace of the query (or null, if the query was not traced)
+	 * @return
+	 */
+	public QueryTrace getQueryTrace();
+	
+	/**
+	 * Set the trace of the query
+	 * @param queryTrace
+	 */
+	public void setQueryTrace(final QueryTrace queryTrace);
 
 	/**
 	 * Is the given result complete?
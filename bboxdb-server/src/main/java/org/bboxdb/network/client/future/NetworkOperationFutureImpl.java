@@ -26,6 +26,7 @@ import java.util.function.Supplier;
 
 import org.bboxdb.network.client.BBoxDBConnection;
 import org.bboxdb.network.packages.NetworkRequestPackage;
+import org.bboxdb.performance.QueryTrace;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -68,6 +69,11 @@ public class NetworkOperationFutureImpl implements NetworkOperationFuture {
 	 */
 	private String message;
 	
+	/**
+	 * The trace of the query
+	 */
+	private volatile QueryTrace queryTrace;
+	
 	/**
 	 * The future start time
 	 */
@@ -246,6 +252,22 @@ public class NetworkOperationFutureImpl implements NetworkOperationFuture {
 	public void setMessage(final String message) {
 		this.message = message;
 	}
+	
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#getQueryTrace()
+	 */
+	@Override
+	public QueryTrace getQueryTrace() {
+		return queryTrace;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#setQueryTrace(org.bboxdb.performance.QueryTrace)
+	 */
+	@Override
+	public void setQueryTrace(final QueryTrace queryTrace) {
+		this.queryTrace = queryTrace;
+	}
 
 	/* (non-Javadoc)
 	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#isCompleteResult()
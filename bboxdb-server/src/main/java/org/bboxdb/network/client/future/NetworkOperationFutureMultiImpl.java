@@ -17,14 +17,19 @@
  *******************************************************************************/
 package org.bboxdb.network.client.future;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.bboxdb.network.client.BBoxDBConnection;
+import org.bboxdb.network.client.tools.ReplicaLatencyTracker;
 import org.bboxdb.network.packages.NetworkRequestPackage;
+import org.bboxdb.performance.QueryTrace;
 
 public class NetworkOperationFutureMultiImpl implements NetworkOperationFuture {
 	
@@ -48,8 +53,50 @@ public class NetworkOperationFutureMultiImpl implements NetworkOperationFuture {
 	 */
 	private Consumer<NetworkOperationFuture> successCallback;
 	
+	/**
+	 * The delay until the next future is executed (hedged request). 
+	 * 0 = execute all futures at once, < 0 = execute the next future only on failure
+	 */
+	private final long hedgeDelay;
+	
+	/**
+	 * The number of executed futures
+	 */
+	private final AtomicInteger executedFutures = new AtomicInteger(0);
+	
+	/**
+	 * The execution start times of the futures
+	 */
+	private final long[] executionStartTimes;
+	
+	/**
+	 * The scheduler for the hedged requests
+	 */
+	private final static ScheduledThreadPoolExecutor hedgeScheduler;
+	
+	static {
+		hedgeScheduler = new ScheduledThreadPoolExecutor(1, (r) -> {
+			final Thread thread = new Thread(r, "Hedged request scheduler");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
 	public NetworkOperationFutureMultiImpl(final List<NetworkOperationFuture> futures) {
+		this(futures, 0);
+	}
+	
+	/**
+	 * Create a multi future, the futures are executed in the given order
+	 * @param futures
+	 * @param hedgeDelay - delay in milliseconds until the next future is executed
+	 */
+	public NetworkOperationFutureMultiImpl(final List<NetworkOperationFuture> futures, 
+			final long hedgeDelay) {
+		
 		this.futures = futures;
+		this.hedgeDelay = hedgeDelay;
+		this.executionStartTimes = new long[futures.size()];
 		
 		this.futures.forEach(f -> f.setErrorCallback(this::handleErrorCallback));
 		this.futures.forEach(f -> f.setSuccessCallback(this::handleSuccessCallback));
@@ -61,6 +108,17 @@ public class NetworkOperationFutureMultiImpl implements NetworkOperationFuture {
 			return false;
 		}
 		
+		final BBoxDBConnection connection = future.getConnection();
+		
+		if(connection != null) {
+			ReplicaLatencyTracker.getInstance().handleFailure(connection);
+		}
+		
+		// Try the next replica before the whole operation is retried
+		if(hedgeDelay != 0 && executeNextFuture()) {
+			return true;
+		}
+		
 		if(errorCallback != null) {
 			return errorCallback.handleError(future);
 		}
@@ -72,8 +130,12 @@ public class NetworkOperationFutureMultiImpl implements NetworkOperationFuture {
 		if(this.completeFuture == null) {
 			this.completeFuture = future;
 			
-			// Cancel all other operations
-			final List<NetworkOperationFuture> futuresToCancel = futures.stream()
+			updateLatency(future);
+			
+			// Cancel all other executed operations
+			final int executed = Math.min(executedFutures.get(), futures.size());
+			
+			final List<NetworkOperationFuture> futuresToCancel = futures.subList(0, executed).stream()
 				.filter(f -> ! f.equals(completeFuture))
 				.collect(Collectors.toList());
 			
@@ -109,7 +171,64 @@ public class NetworkOperationFutureMultiImpl implements NetworkOperationFuture {
 	 */
 	@Override
 	public void execute() {
-		futures.forEach(f -> f.execute());
+		
+		if(hedgeDelay == 0) {
+			executedFutures.set(futures.size());
+			Arrays.fill(executionStartTimes, System.nanoTime());
+			futures.forEach(f -> f.execute());
+			return;
+		}
+		
+		executedFutures.set(0);
+		executeNextFuture();
+	}
+	
+	/**
+	 * Execute the next future and schedule the hedged request
+	 * @return 
+	 */
+	private boolean executeNextFuture() {
+		final int nextFuture = executedFutures.getAndIncrement();
+		
+		if(nextFuture >= futures.size()) {
+			return false;
+		}
+		
+		executionStartTimes[nextFuture] = System.nanoTime();
+		futures.get(nextFuture).execute();
+		
+		if(hedgeDelay > 0 && nextFuture + 1 < futures.size()) {
+			hedgeScheduler.schedule(() -> {
+				// Only one hedged request per delay
+				if(completeFuture == null && executedFutures.get() == nextFuture + 1) {
+					executeNextFuture();
+				}
+			}, hedgeDelay, TimeUnit.MILLISECONDS);
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Update the replica latency
+	 * @param future
+	 */
+	private void updateLatency(final NetworkOperationFuture future) {
+		final BBoxDBConnection connection = future.getConnection();
+		final int futurePos = futures.indexOf(future);
+
+		if(connection == null || futurePos < 0 || future.isFailed()) {
+			return;
+		}
+		
+		final long startTime = executionStartTimes[futurePos];
+		
+		if(startTime == 0) {
+			return;
+		}
+		
+		final long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+		ReplicaLatencyTracker.getInstance().updateLatency(connection, latency);
 	}
 
 	/* (non-Javadoc)
@@ -198,6 +317,22 @@ public class NetworkOperationFutureMultiImpl implements NetworkOperationFuture {
 	public void setMessage(String message) {
 		throw new IllegalArgumentException("Unable to setMessage on multi future");
 	}
+	
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#getQueryTrace()
+	 */
+	@Override
+	public QueryTrace getQueryTrace() {
+		return getReadyFuture().getQueryTrace();
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#setQueryTrace(org.bboxdb.performance.QueryTrace)
+	 */
+	@Override
+	public void setQueryTrace(final QueryTrace queryTrace) {
+		getReadyFuture().setQueryTrace(queryTrace);
+	}
 
 	/* (non-Javadoc)
 	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#isCompleteResult()
@@ -22,6 +22,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.bboxdb.network.client.BBoxDBConnection;
+import org.bboxdb.performance.QueryTrace;
 
 public interface OperationFuture {
 
@@ -42,6 +43,13 @@ public interface OperationFuture {
 	 * @return
 	 */
 	public String getMessage(final int resultId);
+	
+	/**
+	 * Get the trace of the query
+	 * @param resultId
+	 * @return the trace or null, if the query was not traced
+	 */
+	public QueryTrace getQueryTrace(final int resultId);
 
 	/**
 	 * Is the given result complete?
@@ -17,6 +17,7 @@
  *******************************************************************************/
 package org.bboxdb.network.client.future;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
@@ -29,6 +30,7 @@ import java.util.stream.Collectors;
 import org.bboxdb.network.client.BBoxDBClient;
 import org.bboxdb.network.client.BBoxDBConnection;
 import org.bboxdb.network.packages.NetworkRequestPackage;
+import org.bboxdb.performance.QueryTrace;
 
 public class OperationFutureImpl<T> implements OperationFuture, FutureErrorCallback {
 
@@ -67,6 +69,11 @@ public class OperationFutureImpl<T> implements OperationFuture, FutureErrorCallb
 	 */
 	private Supplier<List<NetworkOperationFuture>> futureSupplier;
 
+	/**
+	 * The callbacks that are executed when the future is done
+	 */
+	private final List<Runnable> completionCallbacks = new ArrayList<>();
+
 	public OperationFutureImpl(final Supplier<List<NetworkOperationFuture>> futures) {
 		this(futures, FutureRetryPolicy.RETRY_POLICY_ALL_FUTURES);
 	}
@@ -114,9 +121,40 @@ public class OperationFutureImpl<T> implements OperationFuture, FutureErrorCallb
 
 		if(allDone) {
 			readyLatch.countDown();
+			fireCompletionCallbacks();
 		}
 	}
 
+	/**
+	 * Execute the callback when the future is done (successfully or failed). 
+	 * If the future is already done, the callback is executed immediately.
+	 * @param callback
+	 */
+	public void addCompletionCallback(final Runnable callback) {
+		synchronized (completionCallbacks) {
+			if(! isDone()) {
+				completionCallbacks.add(callback);
+				return;
+			}
+		}
+
+		callback.run();
+	}
+
+	/**
+	 * Execute and remove the registered completion callbacks
+	 */
+	private void fireCompletionCallbacks() {
+		final List<Runnable> callbacks;
+
+		synchronized (completionCallbacks) {
+			callbacks = new ArrayList<>(completionCallbacks);
+			completionCallbacks.clear();
+		}
+
+		callbacks.forEach(c -> c.run());
+	}
+
 	/* (non-Javadoc)
 	 * @see org.bboxdb.network.client.future.OperationFuture#getRequestId(int)
 	 */
@@ -147,6 +185,27 @@ public class OperationFutureImpl<T> implements OperationFuture, FutureErrorCallb
 		return futures.get(resultId).getMessage();
 	}
 
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.OperationFuture#getQueryTrace(int)
+	 */
+	@Override
+	public QueryTrace getQueryTrace(final int resultId) {
+		checkFutureSize(resultId);
+
+		return futures.get(resultId).getQueryTrace();
+	}
+	
+	/**
+	 * Set the trace of the query
+	 * @param resultId
+	 * @param queryTrace
+	 */
+	protected void setQueryTrace(final int resultId, final QueryTrace queryTrace) {
+		checkFutureSize(resultId);
+
+		futures.get(resultId).setQueryTrace(queryTrace);
+	}
+
 	@Override
 	public BBoxDBConnection getConnection(final int resultId) {
 		checkFutureSize(resultId);
@@ -49,6 +49,9 @@ public class ErrorHandler implements ServerResponseHandler {
 		
 		final AbstractBodyResponse result = ErrorResponse.decodePackage(encodedPackage);
 		
+		// The error can abort a multi tuple result (e.g., a overflowed continuous query)
+		bBoxDBConnection.getResultBuffer().remove(result.getSequenceNumber());
+		
 		if(future != null) {
 			future.setMessage(result.getBody());
 			future.setFailedState();
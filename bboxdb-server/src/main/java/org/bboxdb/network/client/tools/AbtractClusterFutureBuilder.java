@@ -19,7 +19,9 @@ package org.bboxdb.network.client.tools;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 
 import org.bboxdb.commons.math.Hyperrectangle;
@@ -102,8 +104,10 @@ public abstract class AbtractClusterFutureBuilder {
 				logger.error("Got empty hop list by bbox {} read {}", boundingBox, clusterOperationType);
 			}
 
+			final ReplicaLatencyTracker latencyTracker = ReplicaLatencyTracker.getInstance();
+			
 			for(final DistributionRegion region : regions) {
-				final List<NetworkOperationFuture> futuresPerReplicate = new ArrayList<>();
+				final Map<BBoxDBConnection, BBoxDBInstance> replicas = new IdentityHashMap<>();
 
 				for(final BBoxDBInstance instance : region.getSystems()) {
 					final BBoxDBConnection connection
@@ -114,6 +118,17 @@ public abstract class AbtractClusterFutureBuilder {
 						continue;
 					}
 					
+					replicas.put(connection, instance);
+				}
+				
+				// The replica with the lowest latency and load is queried first
+				final List<BBoxDBConnection> connections = new ArrayList<>(replicas.keySet());
+				latencyTracker.sortByScore(connections);
+				
+				final List<NetworkOperationFuture> futuresPerReplicate = new ArrayList<>();
+
+				for(final BBoxDBConnection connection : connections) {
+					final BBoxDBInstance instance = replicas.get(connection);
 					final RoutingHop hop = new RoutingHop(instance, Arrays.asList(region.getRegionId()));
 
 					final RoutingHeader routingHeader = new RoutingHeader((short) 0, Arrays.asList(hop));
@@ -122,9 +137,12 @@ public abstract class AbtractClusterFutureBuilder {
 					futuresPerReplicate.addAll(future.get());
 				}
 				
-				// Only one future of the list needs to be successful
+				// Only one future of the list needs to be successful, the next replica 
+				// is queried after the hedge delay or when the query fails
+				final long hedgeDelay = latencyTracker.isHedgedReads() ? latencyTracker.getHedgeDelay() : -1;
+				
 				final NetworkOperationFutureMultiImpl future = new NetworkOperationFutureMultiImpl(
-						futuresPerReplicate);
+						futuresPerReplicate, hedgeDelay);
 				
 				futures.add(future);
 			}
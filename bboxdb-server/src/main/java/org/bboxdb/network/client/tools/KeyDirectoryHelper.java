@@ -0,0 +1,204 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.client.tools;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.entity.DistributionGroupConfiguration;
+import org.bboxdb.storage.entity.DistributionGroupConfigurationBuilder;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreConfiguration;
+import org.bboxdb.storage.entity.TupleStoreConfigurationBuilder;
+import org.bboxdb.storage.entity.TupleStoreName;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * The key directory of a table maps the keys of the table to the bounding boxes 
+ * of the tuples. The directory is stored in a table of a one-dimensional 
+ * distribution group; the position of an entry is the hash of the key. So the 
+ * directory is partitioned and replicated across the nodes like any other table 
+ * and a lookup has to query only one region.
+ * 
+ * Bounding boxes instead of region ids are stored, so the entries stay valid
+ * when the regions of the table are split or merged.
+ * 
+ * The entries are written by the servers that store the tuples, so the directory
+ * covers all writers of the table.
+ */
+public class KeyDirectoryHelper {
+	
+	/**
+	 * The suffix of the directory distribution group
+	 */
+	public final static String DIRECTORY_GROUP_SUFFIX = "keydirectory";
+	
+	/**
+	 * The interval in which the servers check for a new key directory
+	 */
+	public final static long DIRECTORY_CHECK_INTERVAL_IN_SEC = 10;
+	
+	/**
+	 * The hash function for the keys
+	 */
+	private final static HashFunction HASH_FUNCTION = Hashing.murmur3_32();
+
+	/**
+	 * Get the name of the directory distribution group 
+	 * @param distributionGroup
+	 * @return
+	 */
+	public static String getDirectoryGroup(final String distributionGroup) {
+		return distributionGroup + DIRECTORY_GROUP_SUFFIX;
+	}
+	
+	/**
+	 * Get the distribution group that belongs to the given directory group. A user 
+	 * defined group can also end with the suffix (e.g., 'mykeydirectory'), so the 
+	 * name is only a directory group when the returned distribution group exists.
+	 * 
+	 * @param directoryGroup
+	 * @return the distribution group or an empty optional, when the name is 
+	 *         not a generated directory group name
+	 */
+	public static Optional<String> getGroupForDirectoryGroup(final String directoryGroup) {
+		
+		if(! directoryGroup.endsWith(DIRECTORY_GROUP_SUFFIX) 
+				|| directoryGroup.length() == DIRECTORY_GROUP_SUFFIX.length()) {
+			return Optional.empty();
+		}
+		
+		final int groupLength = directoryGroup.length() - DIRECTORY_GROUP_SUFFIX.length();
+		return Optional.of(directoryGroup.substring(0, groupLength));
+	}
+	
+	/**
+	 * Get the name of the directory table for the given table
+	 * @param table
+	 * @return
+	 */
+	public static String getDirectoryTable(final String table) {
+		return getDirectoryTable(new TupleStoreName(table));
+	}
+	
+	/**
+	 * Get the name of the directory table for the given table
+	 * @param tupleStoreName
+	 * @return
+	 */
+	public static String getDirectoryTable(final TupleStoreName tupleStoreName) {
+		final String directoryGroup = getDirectoryGroup(tupleStoreName.getDistributionGroup());
+		
+		return directoryGroup + "_" + tupleStoreName.getTablename();
+	}
+	
+	/**
+	 * Get the position of the key in the directory
+	 * @param key
+	 * @return
+	 */
+	public static Hyperrectangle getDirectoryBoundingBox(final String key) {
+		final double hash = HASH_FUNCTION.hashString(key, StandardCharsets.UTF_8).asInt();
+		return new Hyperrectangle(hash, hash);
+	}
+	
+	/**
+	 * Create the directory entry for the given tuple
+	 * @param tuple
+	 * @return
+	 */
+	public static Tuple getDirectoryTuple(final Tuple tuple) {
+		final byte[] boundingBoxBytes = tuple.getBoundingBox().toByteArray();
+		
+		return new Tuple(tuple.getKey(), getDirectoryBoundingBox(tuple.getKey()), 
+				boundingBoxBytes, tuple.getVersionTimestamp());
+	}
+	
+	/**
+	 * Get the bounding box that covers all entries of the key 
+	 * @param key
+	 * @param directoryTuples
+	 * @return the bounding box or an empty optional when the key is not contained
+	 */
+	public static Optional<Hyperrectangle> getBoundingBoxForKey(final String key, 
+			final Iterable<Tuple> directoryTuples) {
+		
+		final List<Hyperrectangle> boundingBoxes = new ArrayList<>();
+		
+		for(final Tuple tuple : directoryTuples) {
+			
+			// Other keys with the same hash
+			if(! key.equals(tuple.getKey())) {
+				continue;
+			}
+			
+			final Hyperrectangle boundingBox = Hyperrectangle.fromByteArray(tuple.getDataBytes());
+			
+			// A tuple without a bounding box is stored in all regions
+			if(boundingBox.getDimension() == 0) {
+				return Optional.of(Hyperrectangle.FULL_SPACE);
+			}
+			
+			boundingBoxes.add(boundingBox);
+		}
+		
+		if(boundingBoxes.isEmpty()) {
+			return Optional.empty();
+		}
+		
+		return Optional.of(Hyperrectangle.getCoveringBox(boundingBoxes));
+	}
+	
+	/**
+	 * Get the configuration of the directory distribution group
+	 * @param configuration - the configuration of the distribution group of the table
+	 * @return
+	 */
+	public static DistributionGroupConfiguration getDirectoryGroupConfiguration(
+			final DistributionGroupConfiguration configuration) {
+		
+		return DistributionGroupConfigurationBuilder.create(1)
+				.withReplicationFactor(configuration.getReplicationFactor())
+				.withMaximumRegionSize(configuration.getMaximumRegionSize())
+				.withMinimumRegionSize(configuration.getMinimumRegionSize())
+				.build();
+	}
+	
+	/**
+	 * Get the configuration of the directory table. The directory keeps 
+	 * the same versions as the table.
+	 * 
+	 * @param configuration - the configuration of the table
+	 * @return
+	 */
+	public static TupleStoreConfiguration getDirectoryTableConfiguration(
+			final TupleStoreConfiguration configuration) {
+		
+		return TupleStoreConfigurationBuilder.create()
+				.allowDuplicates(configuration.isAllowDuplicates())
+				.withVersions(configuration.getVersions())
+				.withTTL(configuration.getTTL(), TimeUnit.MILLISECONDS)
+				.build();
+	}
+}
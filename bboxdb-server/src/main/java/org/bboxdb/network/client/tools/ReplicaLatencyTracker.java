@@ -0,0 +1,201 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.client.tools;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bboxdb.network.client.BBoxDBConnection;
+
+public class ReplicaLatencyTracker {
+
+	/**
+	 * The smoothing factor of the latency EWMA
+	 */
+	private final static double ALPHA = 0.2;
+	
+	/**
+	 * The penalty factor for a failed read
+	 */
+	private final static double FAILURE_PENALTY = 2.0;
+	
+	/**
+	 * The number of latency samples used for the hedge delay
+	 */
+	private final static int LATENCY_SAMPLES = 1024;
+	
+	/**
+	 * The hedge delay if no samples are available
+	 */
+	private final static long DEFAULT_HEDGE_DELAY_MS = 50;
+	
+	/**
+	 * The minimal hedge delay
+	 */
+	private final static long MIN_HEDGE_DELAY_MS = 2;
+	
+	/**
+	 * The latency EWMA per instance in milliseconds
+	 */
+	private final Map<InetSocketAddress, Double> latencyEWMA = new ConcurrentHashMap<>();
+	
+	/**
+	 * The last read latencies (ring buffer)
+	 */
+	private final long[] latencySamples = new long[LATENCY_SAMPLES];
+	
+	/**
+	 * The total number of samples
+	 */
+	private long totalSamples = 0;
+	
+	/**
+	 * The cached p95 hedge delay (-1 = needs to be calculated)
+	 */
+	private long hedgeDelay = -1;
+	
+	/**
+	 * Send hedged requests to a second replica
+	 */
+	private volatile boolean hedgedReads = true;
+	
+	/**
+	 * The instance
+	 */
+	private static ReplicaLatencyTracker instance;
+	
+	/**
+	 * Get the instance
+	 * @return
+	 */
+	public static synchronized ReplicaLatencyTracker getInstance() {
+		if(instance == null) {
+			instance = new ReplicaLatencyTracker();
+		}
+		
+		return instance;
+	}
+	
+	/**
+	 * Record the latency of a successful read
+	 * @param connection
+	 * @param latencyInMs
+	 */
+	public void updateLatency(final BBoxDBConnection connection, final long latencyInMs) {
+		latencyEWMA.merge(connection.getServerAddress(), (double) latencyInMs, 
+				(o, n) -> (ALPHA * n) + ((1 - ALPHA) * o));
+		
+		synchronized (latencySamples) {
+			latencySamples[(int) (totalSamples % LATENCY_SAMPLES)] = latencyInMs;
+			totalSamples++;
+			
+			// Recalculate the delay after the buffer is refreshed by 1/16
+			if(totalSamples % (LATENCY_SAMPLES / 16) == 0 || totalSamples < LATENCY_SAMPLES / 16) {
+				hedgeDelay = -1;
+			}
+		}
+	}
+	
+	/**
+	 * Record a failed read
+	 * @param connection
+	 */
+	public void handleFailure(final BBoxDBConnection connection) {
+		latencyEWMA.computeIfPresent(connection.getServerAddress(), (k, v) -> v * FAILURE_PENALTY);
+	}
+	
+	/**
+	 * Get the score of the connection (lower is better). The score is the 
+	 * latency EWMA weighted by the calls that are in flight.
+	 * 
+	 * @param connection
+	 * @return
+	 */
+	public double getScore(final BBoxDBConnection connection) {
+		final double latency = latencyEWMA.getOrDefault(connection.getServerAddress(), 0.0);
+		return (latency + 1) * (connection.getInFlightCalls() + 1);
+	}
+	
+	/**
+	 * Sort the connections, the best connection first
+	 * @param connections
+	 */
+	public void sortByScore(final List<BBoxDBConnection> connections) {
+		
+		// The in flight calls are changing, so the score is calculated once per connection
+		final Map<BBoxDBConnection, Double> scores = new IdentityHashMap<>();
+		connections.forEach(c -> scores.put(c, getScore(c)));
+		
+		connections.sort(Comparator.comparingDouble(c -> scores.get(c)));
+	}
+	
+	/**
+	 * Get the delay after the hedged request is send (p95 of the read latency)
+	 * @return
+	 */
+	public long getHedgeDelay() {
+		synchronized (latencySamples) {
+			if(totalSamples == 0) {
+				return DEFAULT_HEDGE_DELAY_MS;
+			}
+			
+			if(hedgeDelay < 0) {
+				final int samples = (int) Math.min(totalSamples, LATENCY_SAMPLES);
+				final long[] sortedSamples = Arrays.copyOf(latencySamples, samples);
+				Arrays.sort(sortedSamples);
+				final int pos = (int) Math.ceil(samples * 0.95) - 1;
+				hedgeDelay = Math.max(MIN_HEDGE_DELAY_MS, sortedSamples[pos]);
+			}
+			
+			return hedgeDelay;
+		}
+	}
+	
+	/**
+	 * Are hedged reads enabled
+	 * @return
+	 */
+	public boolean isHedgedReads() {
+		return hedgedReads;
+	}
+	
+	/**
+	 * Enable or disable hedged reads
+	 * @param hedgedReads
+	 */
+	public void setHedgedReads(final boolean hedgedReads) {
+		this.hedgedReads = hedgedReads;
+	}
+	
+	/**
+	 * Remove all latency data
+	 */
+	public void clear() {
+		latencyEWMA.clear();
+		
+		synchronized (latencySamples) {
+			totalSamples = 0;
+			hedgeDelay = -1;
+		}
+	}
+}
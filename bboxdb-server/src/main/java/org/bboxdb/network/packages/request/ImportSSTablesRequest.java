@@ -0,0 +1,160 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.packages.request;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.bboxdb.commons.io.DataEncoderHelper;
+import org.bboxdb.network.NetworkConst;
+import org.bboxdb.network.NetworkPackageDecoder;
+import org.bboxdb.network.packages.NetworkRequestPackage;
+import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.storage.entity.TupleStoreName;
+
+public class ImportSSTablesRequest extends NetworkRequestPackage {
+	
+	/**
+	 * The name of the table
+	 */
+	private final TupleStoreName table;
+	
+	/**
+	 * The staging directory on the server
+	 */
+	private final String directory;
+
+	public ImportSSTablesRequest(final short sequenceNumber, final String table, 
+			final String directory) {
+		
+		super(sequenceNumber);
+		
+		this.table = new TupleStoreName(table);
+		this.directory = directory;
+	}
+	
+	@Override
+	public long writeToOutputStream(final OutputStream outputStream) throws PackageEncodeException {
+
+		try {
+			final byte[] tableBytes = table.getFullnameBytes();
+			final byte[] directoryBytes = directory.getBytes(StandardCharsets.UTF_8);
+			
+			final ByteBuffer bb = ByteBuffer.allocate(4);
+			bb.order(DataEncoderHelper.APPLICATION_BYTE_ORDER);
+			bb.putShort((short) tableBytes.length);
+			bb.putShort((short) directoryBytes.length);
+
+			// Body length
+			final long bodyLength = bb.capacity() + tableBytes.length + directoryBytes.length;
+			
+			final long headerLength = appendRequestPackageHeader(bodyLength, outputStream);
+
+			// Write body
+			outputStream.write(bb.array());
+			outputStream.write(tableBytes);
+			outputStream.write(directoryBytes);
+			
+			return headerLength + bodyLength;
+		} catch (IOException e) {
+			throw new PackageEncodeException("Got exception while converting package into bytes", e);
+		}
+	}
+	
+	/**
+	 * Decode the encoded package into a object
+	 * 
+	 * @param encodedPackage
+	 * @return
+	 * @throws PackageEncodeException 
+	 */
+	public static ImportSSTablesRequest decodeTuple(final ByteBuffer encodedPackage) throws PackageEncodeException {
+		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		
+		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, 
+				NetworkConst.REQUEST_TYPE_IMPORT_SSTABLES);
+		
+		if(decodeResult == false) {
+			throw new PackageEncodeException("Unable to decode package");
+		}
+		
+		final short tableLength = encodedPackage.getShort();
+		final short directoryLength = encodedPackage.getShort();
+		
+		final byte[] tableBytes = new byte[tableLength];
+		encodedPackage.get(tableBytes, 0, tableBytes.length);
+		final String table = new String(tableBytes, StandardCharsets.UTF_8);
+		
+		final byte[] directoryBytes = new byte[directoryLength];
+		encodedPackage.get(directoryBytes, 0, directoryBytes.length);
+		final String directory = new String(directoryBytes, StandardCharsets.UTF_8);
+		
+		if(encodedPackage.remaining() != 0) {
+			throw new PackageEncodeException("Some bytes are left after decoding: " + encodedPackage.remaining());
+		}
+		
+		return new ImportSSTablesRequest(sequenceNumber, table, directory);
+	}
+
+	@Override
+	public byte getPackageType() {
+		return NetworkConst.REQUEST_TYPE_IMPORT_SSTABLES;
+	}
+
+	public TupleStoreName getTable() {
+		return table;
+	}
+	
+	public String getDirectory() {
+		return directory;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((directory == null) ? 0 : directory.hashCode());
+		result = prime * result + ((table == null) ? 0 : table.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ImportSSTablesRequest other = (ImportSSTablesRequest) obj;
+		if (directory == null) {
+			if (other.directory != null)
+				return false;
+		} else if (!directory.equals(other.directory))
+			return false;
+		if (table == null) {
+			if (other.table != null)
+				return false;
+		} else if (!table.equals(other.table))
+			return false;
+		return true;
+	}
+
+}
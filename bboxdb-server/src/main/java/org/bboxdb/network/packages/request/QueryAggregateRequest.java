@@ -0,0 +1,186 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.packages.request;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.misc.Const;
+import org.bboxdb.network.NetworkConst;
+import org.bboxdb.network.NetworkPackageDecoder;
+import org.bboxdb.network.packages.NetworkQueryRequestPackage;
+import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.network.routing.RoutingHeader;
+import org.bboxdb.storage.entity.TupleStoreName;
+
+public class QueryAggregateRequest extends NetworkQueryRequestPackage {
+
+	/**
+	 * The name of the table
+	 */
+	protected final TupleStoreName table;
+
+	/**
+	 * The the query bounding box
+	 */
+	protected final Hyperrectangle box;
+	
+	/**
+	 * The cell size of the histogram, a value <= 0 disables the histogram
+	 */
+	protected final double cellSize;
+
+	public QueryAggregateRequest(final short sequenceNumber, final RoutingHeader routingHeader,  
+			final String table,  final Hyperrectangle box, final double cellSize) {
+		
+		super(sequenceNumber, routingHeader);
+		
+		this.table = new TupleStoreName(table);
+		this.box = box;
+		this.cellSize = cellSize;
+	}
+
+	@Override
+	public long writeToOutputStream(final OutputStream outputStream) throws PackageEncodeException {
+
+		try {
+			final byte[] tableBytes = table.getFullnameBytes();
+			final byte[] bboxBytes = box.toByteArray();
+			
+			final ByteBuffer bb = ByteBuffer.allocate(16);
+			bb.order(Const.APPLICATION_BYTE_ORDER);
+			
+			bb.put(getQueryType());
+			bb.put(NetworkConst.UNUSED_BYTE);
+			bb.putShort((short) tableBytes.length);
+			bb.putInt((int) bboxBytes.length);
+			bb.putDouble(cellSize);
+			
+			final long bodyLength = bb.capacity() + tableBytes.length + bboxBytes.length;
+			final long headerLength = appendRequestPackageHeader(bodyLength, outputStream);
+
+			// Write body
+			outputStream.write(bb.array());
+			outputStream.write(tableBytes);
+			outputStream.write(bboxBytes);
+			
+			return headerLength + bodyLength;
+		} catch (IOException e) {
+			throw new PackageEncodeException("Got exception while converting package into bytes", e);
+		}	
+	}
+	
+	/**
+	 * Decode the encoded package into a object
+	 * 
+	 * @param encodedPackage
+	 * @return
+	 * @throws PackageEncodeException 
+	 * @throws IOException 
+	 */
+	public static QueryAggregateRequest decodeTuple(final ByteBuffer encodedPackage) 
+			throws PackageEncodeException, IOException {
+		
+		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		
+		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_QUERY);
+		
+		if(decodeResult == false) {
+			throw new PackageEncodeException("Unable to decode package");
+		}
+		
+	    final byte queryType = encodedPackage.get();
+	    
+	    if(queryType != NetworkConst.REQUEST_QUERY_AGGREGATE) {
+	    	throw new PackageEncodeException("Wrong query type: " + queryType + " required type is: " + NetworkConst.REQUEST_QUERY_AGGREGATE);
+	    }
+	    
+	    // 1 unused byte
+	    encodedPackage.get();
+	    
+		final short tableLength = encodedPackage.getShort();
+	    final int bboxLength = encodedPackage.getInt();
+	    final double cellSize = encodedPackage.getDouble();
+
+		final byte[] tableBytes = new byte[tableLength];
+		encodedPackage.get(tableBytes, 0, tableBytes.length);
+		final String table = new String(tableBytes);
+		
+		final byte[] bboxBytes = new byte[bboxLength];
+		encodedPackage.get(bboxBytes, 0, bboxBytes.length);
+		final Hyperrectangle boundingBox = Hyperrectangle.fromByteArray(bboxBytes);
+		
+		if(encodedPackage.remaining() != 0) {
+			throw new PackageEncodeException("Some bytes are left after decoding: " + encodedPackage.remaining());
+		}
+		
+		final RoutingHeader routingHeader = NetworkPackageDecoder.getRoutingHeaderFromRequestPackage(encodedPackage);
+
+		return new QueryAggregateRequest(sequenceNumber, routingHeader, table, boundingBox, cellSize);
+	}
+
+	@Override
+	public byte getPackageType() {
+		return NetworkConst.REQUEST_TYPE_QUERY;
+	}
+
+	@Override
+	public byte getQueryType() {
+		return NetworkConst.REQUEST_QUERY_AGGREGATE;
+	}
+	
+	/**
+	 * The result is send in a single response, so the query is not kept on the server
+	 */
+	@Override
+	public boolean needsToBeCanceled() {
+		return false;
+	}
+	
+	public TupleStoreName getTable() {
+		return table;
+	}
+
+	public Hyperrectangle getBoundingBox() {
+		return box;
+	}
+	
+	/**
+	 * Get the cell size of the histogram
+	 * @return
+	 */
+	public double getCellSize() {
+		return cellSize;
+	}
+	
+	/**
+	 * Is a histogram requested?
+	 * @return
+	 */
+	public boolean isHistogramRequested() {
+		return cellSize > 0;
+	}
+
+	@Override
+	public String toString() {
+		return "QueryAggregateRequest [table=" + table + ", box=" + box + ", cellSize=" + cellSize + "]";
+	}
+
+}
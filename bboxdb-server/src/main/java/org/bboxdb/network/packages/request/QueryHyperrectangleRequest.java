@@ -51,17 +51,30 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 	 * The max tuples per page
 	 */
 	protected final short tuplesPerPage;
+	
+	/**
+	 * Tracing of the query execution enabled
+	 */
+	protected final boolean tracingEnabled;
 
 	public QueryHyperrectangleRequest(final short sequenceNumber, final RoutingHeader routingHeader,  
 			final String table,  final Hyperrectangle box, final boolean pagingEnabled, 
 			final short tuplesPerPage) {
 		
+		this(sequenceNumber, routingHeader, table, box, pagingEnabled, tuplesPerPage, false);
+	}
+	
+	public QueryHyperrectangleRequest(final short sequenceNumber, final RoutingHeader routingHeader,  
+			final String table,  final Hyperrectangle box, final boolean pagingEnabled, 
+			final short tuplesPerPage, final boolean tracingEnabled) {
+		
 		super(sequenceNumber, routingHeader);
 		
 		this.table = new TupleStoreName(table);
 		this.box = box;
 		this.pagingEnabled = pagingEnabled;
 		this.tuplesPerPage = tuplesPerPage;
+		this.tracingEnabled = tracingEnabled;
 	}
 
 	@Override
@@ -76,12 +89,18 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 			
 			bb.put(getQueryType());
 			
+			byte flags = 0;
+			
 			if(pagingEnabled) {
-				bb.put((byte) 1);
-			} else {
-				bb.put((byte) 0);
+				flags |= NetworkConst.QUERY_FLAG_PAGING;
+			} 
+			
+			if(tracingEnabled) {
+				flags |= NetworkConst.QUERY_FLAG_TRACING;
 			}
 			
+			bb.put(flags);
+			
 			bb.putShort(tuplesPerPage);
 			
 			bb.putShort((short) tableBytes.length);
@@ -126,10 +145,9 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 	    	throw new PackageEncodeException("Wrong query type: " + queryType + " required type is: " + NetworkConst.REQUEST_QUERY_BBOX);
 	    }
 	    
-	    boolean pagingEnabled = false;
-	    if(encodedPackage.get() != 0) {
-	    	pagingEnabled = true;
-	    }
+	    final byte flags = encodedPackage.get();
+	    final boolean pagingEnabled = (flags & NetworkConst.QUERY_FLAG_PAGING) != 0;
+	    final boolean tracingEnabled = (flags & NetworkConst.QUERY_FLAG_TRACING) != 0;
 	    
 	    final short tuplesPerPage = encodedPackage.getShort();
 		final short tableLength = encodedPackage.getShort();
@@ -155,7 +173,7 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 		final RoutingHeader routingHeader = NetworkPackageDecoder.getRoutingHeaderFromRequestPackage(encodedPackage);
 
 		return new QueryHyperrectangleRequest(sequenceNumber, routingHeader, table, boundingBox, 
-				pagingEnabled, tuplesPerPage);
+				pagingEnabled, tuplesPerPage, tracingEnabled);
 	}
 
 	@Override
@@ -183,11 +201,15 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 	public boolean isPagingEnabled() {
 		return pagingEnabled;
 	}
+	
+	public boolean isTracingEnabled() {
+		return tracingEnabled;
+	}
 
 	@Override
 	public String toString() {
 		return "QueryHyperrectangleRequest [table=" + table + ", box=" + box + ", pagingEnabled=" + pagingEnabled
-				+ ", tuplesPerPage=" + tuplesPerPage + "]";
+				+ ", tuplesPerPage=" + tuplesPerPage + ", tracingEnabled=" + tracingEnabled + "]";
 	}
 
 }
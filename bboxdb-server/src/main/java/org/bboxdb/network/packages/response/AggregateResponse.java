@@ -0,0 +1,157 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.packages.response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bboxdb.commons.io.DataEncoderHelper;
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.misc.Const;
+import org.bboxdb.network.NetworkConst;
+import org.bboxdb.network.NetworkPackageDecoder;
+import org.bboxdb.network.packages.NetworkResponsePackage;
+import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.storage.entity.BoundingBoxAggregate;
+
+public class AggregateResponse extends NetworkResponsePackage {
+
+	/**
+	 * The result of the aggregation
+	 */
+	private final BoundingBoxAggregate aggregate;
+
+	public AggregateResponse(final short sequenceNumber, final BoundingBoxAggregate aggregate) {
+		super(sequenceNumber);
+		this.aggregate = aggregate;
+	}
+
+	@Override
+	public byte getPackageType() {
+		return NetworkConst.RESPONSE_TYPE_AGGREGATE;
+	}
+
+	@Override
+	public long writeToOutputStream(final OutputStream outputStream) throws PackageEncodeException {
+		
+		try {
+			final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			bos.write(DataEncoderHelper.longToByteBuffer(aggregate.getCount()).array());
+			writeBoundingBox(aggregate.getCoveringBox(), bos);
+			
+			final Map<Hyperrectangle, Long> histogram = aggregate.getHistogram();
+			bos.write(DataEncoderHelper.intToByteBuffer(histogram.size()).array());
+			
+			for(final Map.Entry<Hyperrectangle, Long> entry : histogram.entrySet()) {
+				writeBoundingBox(entry.getKey(), bos);
+				bos.write(DataEncoderHelper.longToByteBuffer(entry.getValue()).array());
+			}
+			
+			final byte[] bodyBytes = bos.toByteArray();
+			
+			final long headerLength = appendResponsePackageHeader(bodyBytes.length, outputStream);
+			outputStream.write(bodyBytes);
+			
+			return headerLength + bodyBytes.length;
+		} catch (IOException e) {
+			throw new PackageEncodeException("Got exception while converting package into bytes", e);
+		}	
+	}
+
+	/**
+	 * Write the bounding box (int length, box bytes)
+	 * 
+	 * @param boundingBox
+	 * @param outputStream
+	 * @throws IOException
+	 */
+	private void writeBoundingBox(final Hyperrectangle boundingBox, final OutputStream outputStream) 
+			throws IOException {
+		
+		final byte[] boxBytes = boundingBox.toByteArray();
+		outputStream.write(DataEncoderHelper.intToByteBuffer(boxBytes.length).array());
+		outputStream.write(boxBytes);
+	}
+	
+	/**
+	 * Read a bounding box
+	 * @param encodedPackage
+	 * @return
+	 */
+	private static Hyperrectangle readBoundingBox(final ByteBuffer encodedPackage) {
+		final int boxLength = encodedPackage.getInt();
+		
+		if(boxLength == 0) {
+			return Hyperrectangle.FULL_SPACE;
+		}
+		
+		final byte[] boxBytes = new byte[boxLength];
+		encodedPackage.get(boxBytes, 0, boxBytes.length);
+		return Hyperrectangle.fromByteArray(boxBytes);
+	}
+	
+	/**
+	 * Decode the encoded package into a object
+	 * 
+	 * @param encodedPackage
+	 * @return
+	 * @throws PackageEncodeException 
+	 */
+	public static AggregateResponse decodePackage(final ByteBuffer encodedPackage) 
+			throws PackageEncodeException {
+		
+		final short requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
+		
+		final boolean decodeResult = NetworkPackageDecoder.validateResponsePackageHeader(
+				encodedPackage, NetworkConst.RESPONSE_TYPE_AGGREGATE);
+		
+		if(decodeResult == false) {
+			throw new PackageEncodeException("Unable to decode package");
+		}
+		
+		encodedPackage.order(Const.APPLICATION_BYTE_ORDER);
+		final long count = encodedPackage.getLong();
+		final Hyperrectangle coveringBox = readBoundingBox(encodedPackage);
+		
+		final int cells = encodedPackage.getInt();
+		final Map<Hyperrectangle, Long> histogram = new HashMap<>();
+		
+		for(int i = 0; i < cells; i++) {
+			final Hyperrectangle cell = readBoundingBox(encodedPackage);
+			histogram.put(cell, encodedPackage.getLong());
+		}
+		
+		if(encodedPackage.remaining() != 0) {
+			throw new PackageEncodeException("Some bytes are left after decoding: " + encodedPackage.remaining());
+		}
+		
+		return new AggregateResponse(requestId, new BoundingBoxAggregate(count, coveringBox, histogram));
+	}
+
+	/**
+	 * Get the result of the aggregation
+	 * @return
+	 */
+	public BoundingBoxAggregate getAggregate() {
+		return aggregate;
+	}
+}
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.packages.response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.bboxdb.commons.io.DataEncoderHelper;
+import org.bboxdb.misc.Const;
+import org.bboxdb.network.NetworkConst;
+import org.bboxdb.network.NetworkPackageDecoder;
+import org.bboxdb.network.packages.NetworkResponsePackage;
+import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.performance.QueryTrace;
+
+public class QueryTraceResponse extends NetworkResponsePackage {
+
+	/**
+	 * The trace of the query
+	 */
+	private final QueryTrace queryTrace;
+
+	public QueryTraceResponse(final short sequenceNumber, final QueryTrace queryTrace) {
+		super(sequenceNumber);
+		this.queryTrace = queryTrace;
+	}
+
+	@Override
+	public byte getPackageType() {
+		return NetworkConst.RESPONSE_TYPE_QUERY_TRACE;
+	}
+
+	@Override
+	public long writeToOutputStream(final OutputStream outputStream) throws PackageEncodeException {
+		
+		try {
+			final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			writeEntries(queryTrace.getStageTimes(), bos);
+			writeEntries(queryTrace.getCounters(), bos);
+			final byte[] bodyBytes = bos.toByteArray();
+			
+			final long headerLength = appendResponsePackageHeader(bodyBytes.length, outputStream);
+			outputStream.write(bodyBytes);
+			
+			return headerLength + bodyBytes.length;
+		} catch (IOException e) {
+			throw new PackageEncodeException("Got exception while converting package into bytes", e);
+		}	
+	}
+
+	/**
+	 * Write the entries of the map (short number of entries, 
+	 * [short name length, name, long value]*)
+	 * 
+	 * @param entries
+	 * @param outputStream
+	 * @throws IOException
+	 */
+	private void writeEntries(final Map<String, Long> entries, final OutputStream outputStream) 
+			throws IOException {
+		
+		outputStream.write(DataEncoderHelper.shortToByteBuffer((short) entries.size()).array());
+		
+		for(final Map.Entry<String, Long> entry : entries.entrySet()) {
+			final byte[] nameBytes = entry.getKey().getBytes();
+			outputStream.write(DataEncoderHelper.shortToByteBuffer((short) nameBytes.length).array());
+			outputStream.write(nameBytes);
+			outputStream.write(DataEncoderHelper.longToByteBuffer(entry.getValue()).array());
+		}
+	}
+	
+	/**
+	 * Read the entries of a map
+	 * @param encodedPackage
+	 * @return
+	 */
+	private static Map<String, Long> readEntries(final ByteBuffer encodedPackage) {
+		final Map<String, Long> entries = new LinkedHashMap<>();
+		final short numberOfEntries = encodedPackage.getShort();
+		
+		for(short i = 0; i < numberOfEntries; i++) {
+			final short nameLength = encodedPackage.getShort();
+			final byte[] nameBytes = new byte[nameLength];
+			encodedPackage.get(nameBytes, 0, nameBytes.length);
+			final long value = encodedPackage.getLong();
+			entries.put(new String(nameBytes), value);
+		}
+		
+		return entries;
+	}
+	
+	/**
+	 * Decode the encoded package into a object
+	 * 
+	 * @param encodedPackage
+	 * @return
+	 * @throws PackageEncodeException 
+	 */
+	public static QueryTraceResponse decodePackage(final ByteBuffer encodedPackage) 
+			throws PackageEncodeException {
+		
+		final short requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
+		
+		final boolean decodeResult = NetworkPackageDecoder.validateResponsePackageHeader(
+				encodedPackage, NetworkConst.RESPONSE_TYPE_QUERY_TRACE);
+		
+		if(decodeResult == false) {
+			throw new PackageEncodeException("Unable to decode package");
+		}
+		
+		encodedPackage.order(Const.APPLICATION_BYTE_ORDER);
+		final Map<String, Long> stageTimes = readEntries(encodedPackage);
+		final Map<String, Long> counters = readEntries(encodedPackage);
+		
+		if(encodedPackage.remaining() != 0) {
+			throw new PackageEncodeException("Some bytes are left after decoding: " + encodedPackage.remaining());
+		}
+		
+		return new QueryTraceResponse(requestId, new QueryTrace(stageTimes, counters));
+	}
+
+	/**
+	 * Get the trace of the query
+	 * @return
+	 */
+	public QueryTrace getQueryTrace() {
+		return queryTrace;
+	}
+}
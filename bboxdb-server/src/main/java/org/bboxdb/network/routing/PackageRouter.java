@@ -17,15 +17,21 @@
  *******************************************************************************/
 package org.bboxdb.network.routing;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.bboxdb.commons.concurrent.ExceptionSafeRunnable;
 import org.bboxdb.distribution.membership.BBoxDBInstance;
 import org.bboxdb.distribution.membership.MembershipConnectionService;
 import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
+import org.bboxdb.misc.BBoxDBConfigurationManager;
 import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.network.client.BBoxDBClient;
 import org.bboxdb.network.client.BBoxDBConnection;
@@ -39,6 +45,9 @@ import org.bboxdb.network.server.connection.ClientConnectionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.prometheus.client.Counter;
+import io.prometheus.client.Summary;
+
 public class PackageRouter {
 	
 	/**
@@ -56,6 +65,39 @@ public class PackageRouter {
 	 */
 	protected final int ROUTING_TIMEOUT_IN_SEC = 2;
 	
+	/**
+	 * The scheduler for the replica write timeouts
+	 */
+	private final static ScheduledThreadPoolExecutor timeoutScheduler;
+	
+	/**
+	 * The replica write latency
+	 */
+	private final static Summary replicaWriteLatency = Summary.build()
+			.name("bboxdb_replica_write_latency_seconds")
+			.help("Replica write latency in seconds.")
+			.labelNames("instance")
+			.register();
+	
+	/**
+	 * The failed replica writes
+	 */
+	private final static Counter replicaWriteFailedTotal = Counter.build()
+			.name("bboxdb_replica_write_failed_total")
+			.help("Total failed replica writes.")
+			.labelNames("instance")
+			.register();
+	
+	static {
+		timeoutScheduler = new ScheduledThreadPoolExecutor(1, (r) -> {
+			final Thread thread = new Thread(r, "Replica write timeout");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		timeoutScheduler.setRemoveOnCancelPolicy(true);
+	}
+	
 	/**
 	 * The Logger
 	 */
@@ -69,12 +111,155 @@ public class PackageRouter {
 	}
 
 	/**
-	 * Perform the routing task async
+	 * Perform the routing task async. The first hop of the routing list (the 
+	 * coordinator) sends the tuple to all remaining replicas in parallel and 
+	 * answers the client when the configured write consistency is reached.
+	 * 
 	 * @param packageSequence
 	 * @param insertTupleRequest
-	 * @param boundingBox
+	 * @throws PackageEncodeException 
 	 */
 	public void performInsertPackageRoutingAsync(final short packageSequence, 
+			final InsertTupleRequest insertTupleRequest) throws PackageEncodeException {
+		
+		final RoutingHeader routingHeader = insertTupleRequest.getRoutingHeader();
+		
+		assert (routingHeader.isRoutedPackage()) : "Tuple is not a routed package";
+
+		if(routingHeader.reachedFinalInstance()) {
+			writeRoutingResult(packageSequence, true);
+			return;
+		}
+		
+		// Package of an instance that forwards the tuple hop by hop
+		if(routingHeader.getHop() != 0) {
+			performInsertPackageForwardingAsync(packageSequence, insertTupleRequest);
+			return;
+		}
+		
+		final List<RoutingHop> routingList = routingHeader.getRoutingList();
+		final int neededAcknowledgements = getWriteConsistency().getNeededAcknowledgements(routingList.size());
+		final AtomicReference<ScheduledFuture<?>> timeoutFuture = new AtomicReference<>();
+		
+		final ReplicaAcknowledgementCounter acknowledgementCounter = new ReplicaAcknowledgementCounter(
+				routingList.size(), neededAcknowledgements, (success) -> {
+					writeRoutingResult(packageSequence, success);
+					cancelTimeout(timeoutFuture.get());
+				});
+		
+		// The tuple is already stored on the local instance
+		acknowledgementCounter.handleSuccess();
+		
+		for(final RoutingHop routingHop : routingList.subList(1, routingList.size())) {
+			sendInsertPackageToReplica(insertTupleRequest, routingHop, acknowledgementCounter);
+		}
+		
+		if(! acknowledgementCounter.isDecided()) {
+			timeoutFuture.set(timeoutScheduler.schedule(() -> acknowledgementCounter.handleTimeout(), 
+					ROUTING_TIMEOUT_IN_SEC, TimeUnit.SECONDS));
+			
+			// Result might be received while the timeout was scheduled
+			if(acknowledgementCounter.isDecided()) {
+				cancelTimeout(timeoutFuture.get());
+			}
+		}
+	}
+
+	/**
+	 * Send the insert package to the given replica
+	 * 
+	 * @param insertTupleRequest
+	 * @param routingHop
+	 * @param acknowledgementCounter
+	 */
+	private void sendInsertPackageToReplica(final InsertTupleRequest insertTupleRequest,
+			final RoutingHop routingHop, final ReplicaAcknowledgementCounter acknowledgementCounter) {
+		
+		final BBoxDBInstance receiverInstance = routingHop.getDistributedInstance();
+		final String instanceName = receiverInstance.getStringValue();
+		
+		final BBoxDBConnection connection = MembershipConnectionService
+				.getInstance()
+				.getConnectionForInstance(receiverInstance);
+		
+		if(connection == null) {
+			logger.error("Unable to get a connection to system: {}", receiverInstance);
+			replicaWriteFailedTotal.labels(instanceName).inc();
+			acknowledgementCounter.handleFailure();
+			return;
+		} 
+		
+		// The replica is the final instance of the routing header
+		final RoutingHeader replicaRoutingHeader = new RoutingHeader((short) 0, Arrays.asList(routingHop));
+		final Summary.Timer writeTimer = replicaWriteLatency.labels(instanceName).startTimer();
+		
+		final BBoxDBClient bboxDBClient = connection.getBboxDBClient();
+		final EmptyResultFuture insertFuture = bboxDBClient.insertTuple(
+				insertTupleRequest.getTable().getFullname(), 
+				insertTupleRequest.getTuple(), 
+				replicaRoutingHeader);
+		
+		insertFuture.addCompletionCallback(() -> {
+			writeTimer.observeDuration();
+			
+			if(insertFuture.isFailed()) {
+				logger.warn("Unable to write tuple to replica {}: {}", 
+						instanceName, insertFuture.getAllMessages());
+				replicaWriteFailedTotal.labels(instanceName).inc();
+				acknowledgementCounter.handleFailure();
+			} else {
+				acknowledgementCounter.handleSuccess();
+			}
+		});
+	}
+	
+	/**
+	 * Cancel the timeout future
+	 * @param timeoutFuture
+	 */
+	private void cancelTimeout(final ScheduledFuture<?> timeoutFuture) {
+		if(timeoutFuture != null) {
+			timeoutFuture.cancel(false);
+		}
+	}
+	
+	/**
+	 * Write the result of the routing operation to the client
+	 * @param packageSequence
+	 * @param success
+	 */
+	private void writeRoutingResult(final short packageSequence, final boolean success) {
+		if(success) {
+			final SuccessResponse responsePackage = new SuccessResponse(packageSequence);
+			clientConnectionHandler.writeResultPackageNE(responsePackage);
+		} else {
+			final ErrorResponse responsePackage = new ErrorResponse(packageSequence, ErrorMessages.ERROR_ROUTING_FAILED);
+			clientConnectionHandler.writeResultPackageNE(responsePackage);
+		}
+	}
+	
+	/**
+	 * Get the configured write consistency
+	 * @return
+	 */
+	private WriteConsistency getWriteConsistency() {
+		final String writeConsistency = BBoxDBConfigurationManager.getConfiguration()
+				.getReplicationWriteConsistency();
+		
+		try {
+			return WriteConsistency.valueOf(writeConsistency.toUpperCase());
+		} catch(IllegalArgumentException | NullPointerException e) {
+			logger.error("Unknown write consistency {}, using {}", writeConsistency, WriteConsistency.ALL);
+			return WriteConsistency.ALL;
+		}
+	}
+
+	/**
+	 * Forward the package hop by hop async
+	 * @param packageSequence
+	 * @param insertTupleRequest
+	 */
+	private void performInsertPackageForwardingAsync(final short packageSequence, 
 			final InsertTupleRequest insertTupleRequest) {
 	
 		final Runnable routeRunable = new ExceptionSafeRunnable()  {
@@ -86,14 +271,8 @@ public class PackageRouter {
 
 				try {
 					final RoutingHeader routingHeader = insertTupleRequest.getRoutingHeader();
-					
-					assert (routingHeader.isRoutedPackage()) : "Tuple is not a routed package";
-					
-					if(! routingHeader.reachedFinalInstance()) {
-						routingHeader.dispatchToNextHop();				
-						operationSuccess = sendInsertPackage(insertTupleRequest);
-					}
-					
+					routingHeader.dispatchToNextHop();				
+					operationSuccess = sendInsertPackage(insertTupleRequest);
 				}  catch(InterruptedException e) {
 					logger.error("Exception while routing package", e);
 					Thread.currentThread().interrupt();
@@ -103,13 +282,7 @@ public class PackageRouter {
 					operationSuccess = false;
 				} 
 				
-				if(operationSuccess) {
-					final SuccessResponse responsePackage = new SuccessResponse(packageSequence);
-					clientConnectionHandler.writeResultPackageNE(responsePackage);
-				} else {
-					final ErrorResponse responsePackage = new ErrorResponse(packageSequence, ErrorMessages.ERROR_ROUTING_FAILED);
-					clientConnectionHandler.writeResultPackageNE(responsePackage);
-				}
+				writeRoutingResult(packageSequence, operationSuccess);
 			}
 		};
 		
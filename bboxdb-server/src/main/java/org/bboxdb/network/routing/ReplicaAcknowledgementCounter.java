@@ -0,0 +1,153 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.routing;
+
+import java.util.function.Consumer;
+
+public class ReplicaAcknowledgementCounter {
+
+	/**
+	 * The total number of replicas
+	 */
+	private final int replicas;
+	
+	/**
+	 * The needed number of successful writes
+	 */
+	private final int neededAcknowledgements;
+	
+	/**
+	 * The successful writes
+	 */
+	private int successfulWrites = 0;
+	
+	/**
+	 * The failed writes
+	 */
+	private int failedWrites = 0;
+	
+	/**
+	 * Is the result of the write already decided
+	 */
+	private boolean decided = false;
+	
+	/**
+	 * The consumer of the result (true = success, false = failed)
+	 */
+	private final Consumer<Boolean> resultConsumer;
+
+	public ReplicaAcknowledgementCounter(final int replicas, final int neededAcknowledgements,
+			final Consumer<Boolean> resultConsumer) {
+		
+		if(neededAcknowledgements > replicas) {
+			throw new IllegalArgumentException("Needed acknowledgements " + neededAcknowledgements 
+					+ " are larger than the number of replicas " + replicas);
+		}
+		
+		this.replicas = replicas;
+		this.neededAcknowledgements = neededAcknowledgements;
+		this.resultConsumer = resultConsumer;
+	}
+	
+	/**
+	 * A replica has stored the tuple
+	 */
+	public void handleSuccess() {
+		final boolean result;
+		
+		synchronized (this) {
+			successfulWrites++;
+			
+			if(decided || successfulWrites < neededAcknowledgements) {
+				return;
+			}
+			
+			decided = true;
+			result = true;
+		}
+		
+		resultConsumer.accept(result);
+	}
+	
+	/**
+	 * A replica was not able to store the tuple
+	 */
+	public void handleFailure() {
+		final boolean result;
+		
+		synchronized (this) {
+			failedWrites++;
+			
+			// The needed acknowledgements can still be reached
+			if(decided || replicas - failedWrites >= neededAcknowledgements) {
+				return;
+			}
+			
+			decided = true;
+			result = false;
+		}
+		
+		resultConsumer.accept(result);
+	}
+	
+	/**
+	 * The replicas have not answered in time
+	 */
+	public void handleTimeout() {
+		synchronized (this) {
+			if(decided) {
+				return;
+			}
+			
+			decided = true;
+		}
+		
+		resultConsumer.accept(false);
+	}
+	
+	/**
+	 * Is the result of the write decided
+	 * @return
+	 */
+	public synchronized boolean isDecided() {
+		return decided;
+	}
+
+	/**
+	 * Get the number of successful writes
+	 * @return
+	 */
+	public synchronized int getSuccessfulWrites() {
+		return successfulWrites;
+	}
+
+	/**
+	 * Get the number of failed writes
+	 * @return
+	 */
+	public synchronized int getFailedWrites() {
+		return failedWrites;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "ReplicaAcknowledgementCounter [replicas=" + replicas + ", neededAcknowledgements="
+				+ neededAcknowledgements + ", successfulWrites=" + successfulWrites + ", failedWrites=" 
+				+ failedWrites + ", decided=" + decided + "]";
+	}
+}
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.routing;
+
+public enum WriteConsistency {
+
+	// The insert is confirmed after one replica has stored the tuple
+	ONE,
+
+	// The insert is confirmed after the majority of the replicas have stored the tuple
+	QUORUM,
+
+	// The insert is confirmed after all replicas have stored the tuple
+	ALL;
+
+	/**
+	 * Get the number of needed acknowledgements for the given number of replicas
+	 * @param replicas
+	 * @return
+	 */
+	public int getNeededAcknowledgements(final int replicas) {
+		
+		if(replicas <= 0) {
+			return 0;
+		}
+		
+		switch(this) {
+		case ONE:
+			return 1;
+		case QUORUM:
+			return (replicas / 2) + 1;
+		default:
+			return replicas;
+		}
+	}
+}
@@ -19,8 +19,7 @@ package org.bboxdb.network.server;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import org.bboxdb.commons.math.Hyperrectangle;
@@ -28,8 +27,11 @@ import org.bboxdb.distribution.partitioner.SpacePartitioner;
 import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
 import org.bboxdb.distribution.region.DistributionRegionIdMapper;
 import org.bboxdb.distribution.zookeeper.ZookeeperException;
+import org.bboxdb.misc.BBoxDBConfiguration;
+import org.bboxdb.misc.BBoxDBConfigurationManager;
 import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.network.packages.response.ErrorResponse;
 import org.bboxdb.network.packages.response.MultipleTupleEndResponse;
 import org.bboxdb.network.packages.response.MultipleTupleStartResponse;
 import org.bboxdb.network.packages.response.PageEndResponse;
@@ -71,24 +73,34 @@ public class ContinuousBoundingBoxClientQuery implements ClientQuery {
 	protected long totalSendTuples;
 	
 	/**
-	 * The number of tuples per page
+	 * The max number of tuples per page
 	 */
-	protected final long tuplesPerPage = 1;
+	protected final int tuplesPerPage;
+	
+	/**
+	 * The time to wait for further tuples before a page is sent (in milliseconds)
+	 */
+	protected final long flushDelay;
 	
 	/**
 	 * Is the continuous query active
 	 */
-	protected boolean queryActive = true;
+	protected volatile boolean queryActive = true;
+	
+	/**
+	 * Is the query closed because the queue is overflowed
+	 */
+	protected volatile boolean queueOverflow = false;
 	
 	/**
 	 * The tuples for the given key
 	 */
-	protected final BlockingQueue<Tuple> tupleQueue;
+	protected final ContinuousQueryQueue tupleQueue;
 	
 	/**
-	 * The maximal queue capacity
+	 * The time to wait for the first tuple of a page, before the query state is checked
 	 */
-	protected final static int MAX_QUEUE_CAPACITY = 1024;
+	protected final static long WAIT_TIME_IN_MS = TimeUnit.SECONDS.toMillis(1);
 	
 	/**
 	 * The tuple insert callback
@@ -114,22 +126,24 @@ public class ContinuousBoundingBoxClientQuery implements ClientQuery {
 			this.clientConnectionHandler = clientConnectionHandler;
 			this.querySequence = querySequence;
 			this.requestTable = requestTable;
-			this.tupleQueue = new ArrayBlockingQueue<>(MAX_QUEUE_CAPACITY);
+			
+			final BBoxDBConfiguration configuration = BBoxDBConfigurationManager.getConfiguration();
+			this.tuplesPerPage = Math.max(1, configuration.getContinuousQueryPageSize());
+			this.flushDelay = configuration.getContinuousQueryFlushDelay();
+			this.tupleQueue = new ContinuousQueryQueue(configuration.getContinuousQueryQueueSize(), 
+					getOverflowPolicy(configuration));
 			
 			this.totalSendTuples = 0;
 			
-			// Add each tuple to our tuple queue
+			// Add each tuple to our tuple queue, the callback is only 
+			// executed for tuples that intersect the bounding box
 			this.tupleInsertCallback = (t) -> {
-				
-				// Is the tuple important for the query?
-				if(! t.getBoundingBox().intersects(boundingBox)) {
-					return;
-				}
-				
 				final boolean insertResult = tupleQueue.offer(t);
 				
 				if(! insertResult) {
-					logger.error("Unable to add tuple to continuous query, queue is full");
+					logger.warn("Queue of continuous query {} is full, closing query", querySequence);
+					queueOverflow = true;
+					close();
 				}
 			};
 			
@@ -141,6 +155,23 @@ public class ContinuousBoundingBoxClientQuery implements ClientQuery {
 			}
 	}
 	
+	/**
+	 * Get the configured overflow policy
+	 * @param configuration
+	 * @return
+	 */
+	private ContinuousQueryOverflowPolicy getOverflowPolicy(final BBoxDBConfiguration configuration) {
+		final String overflowPolicy = configuration.getContinuousQueryOverflowPolicy();
+		
+		try {
+			return ContinuousQueryOverflowPolicy.valueOf(overflowPolicy.toUpperCase());
+		} catch(IllegalArgumentException | NullPointerException e) {
+			logger.error("Unknown overflow policy {}, using {}", overflowPolicy, 
+					ContinuousQueryOverflowPolicy.DROP_OLDEST);
+			return ContinuousQueryOverflowPolicy.DROP_OLDEST;
+		}
+	}
+	
 	/**
 	 * Init the query
 	 * @param tupleStoreManagerRegistry 
@@ -172,7 +203,7 @@ public class ContinuousBoundingBoxClientQuery implements ClientQuery {
 			
 			storageManager = QueryHelper.getTupleStoreManager(storageRegistry, tupleStoreName);
 			
-			storageManager.registerInsertCallback(tupleInsertCallback);
+			storageManager.registerInsertCallback(boundingBox, tupleInsertCallback);
 			
 			// Remove tuple store insert listener on connection close
 			clientConnectionHandler.addConnectionClosedHandler((c) -> close());
@@ -186,28 +217,38 @@ public class ContinuousBoundingBoxClientQuery implements ClientQuery {
 	public void fetchAndSendNextTuples(final short packageSequence) throws IOException, PackageEncodeException {
 		
 		try {
-			long sendTuplesInThisPage = 0;
 			clientConnectionHandler.writeResultPackage(new MultipleTupleStartResponse(packageSequence));
 						
 			while(queryActive) {
-				if(sendTuplesInThisPage >= tuplesPerPage) {
-					clientConnectionHandler.writeResultPackage(new PageEndResponse(packageSequence));
-					clientConnectionHandler.flushPendingCompressionPackages();
-					return;
-				}
 				
-				// Send next tuple or wait
-				final Tuple tuple = tupleQueue.take();
+				// Wait for the next tuples and send them as one page
+				final List<Tuple> tuples = tupleQueue.takeBatch(tuplesPerPage, flushDelay, 
+						WAIT_TIME_IN_MS, TimeUnit.MILLISECONDS);
+				
+				if(tuples.isEmpty()) {
+					continue;
+				}
 				
-				final JoinedTuple joinedTuple = new JoinedTuple(tuple, requestTable.getFullname());
+				for(final Tuple tuple : tuples) {
+					final JoinedTuple joinedTuple = new JoinedTuple(tuple, requestTable.getFullname());
+					clientConnectionHandler.writeResultTuple(packageSequence, joinedTuple);
+					totalSendTuples++;
+				}
 				
-				clientConnectionHandler.writeResultTuple(packageSequence, joinedTuple);
-				totalSendTuples++;
-				sendTuplesInThisPage++;
+				clientConnectionHandler.writeResultPackage(new PageEndResponse(packageSequence));
+				clientConnectionHandler.flushPendingCompressionPackages();
+				return;
+			}
+			
+			if(queueOverflow) {
+				// Tuples are lost, the client has to know that the result is incomplete
+				clientConnectionHandler.writeResultPackage(new ErrorResponse(packageSequence, 
+						ErrorMessages.ERROR_QUERY_OVERFLOW));
+			} else {
+				// All tuples are send
+				clientConnectionHandler.writeResultPackage(new MultipleTupleEndResponse(packageSequence));	
 			}
 			
-			// All tuples are send
-			clientConnectionHandler.writeResultPackage(new MultipleTupleEndResponse(packageSequence));	
 			clientConnectionHandler.flushPendingCompressionPackages();
 			
 		} catch (InterruptedException e) {
@@ -224,17 +265,35 @@ public class ContinuousBoundingBoxClientQuery implements ClientQuery {
 
 	@Override
 	public void close() {
-		logger.debug("Closing query {} (send {} result tuples)", querySequence, totalSendTuples);
+		logger.debug("Closing query {} (send {} result tuples, dropped {} tuples, max lag {} ms)", 
+				querySequence, totalSendTuples, tupleQueue.getDroppedTuples(), tupleQueue.getMaxLag());
 	
 		if(storageManager != null) {
-			storageManager.removeInsertCallback(tupleInsertCallback);
+			storageManager.removeBoundingBoxInsertCallback(tupleInsertCallback);
 		}
 		
 		queryActive = false;
+		tupleQueue.clear();
 	}
 
 	@Override
 	public long getTotalSendTuples() {
 		return totalSendTuples;
 	}
+	
+	/**
+	 * Get the number of matched but not delivered tuples
+	 * @return
+	 */
+	public int getQueuedTuples() {
+		return tupleQueue.size();
+	}
+	
+	/**
+	 * Get the lag of the last delivered tuple in milliseconds
+	 * @return
+	 */
+	public long getCurrentLag() {
+		return tupleQueue.getCurrentLag();
+	}
 }
@@ -0,0 +1,252 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bboxdb.storage.entity.Tuple;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Summary;
+
+/**
+ * The queue of a continuous query. The tuples are taken in batches, 
+ * a batch is complete when the max size is reached or the flush
+ * delay has elapsed.
+ */
+public class ContinuousQueryQueue {
+	
+	/**
+	 * A queued tuple
+	 */
+	private final static class QueuedTuple {
+		
+		/**
+		 * The tuple
+		 */
+		private final Tuple tuple;
+		
+		/**
+		 * The enqueue time in nanoseconds
+		 */
+		private final long enqueueTime;
+
+		public QueuedTuple(final Tuple tuple) {
+			this.tuple = tuple;
+			this.enqueueTime = System.nanoTime();
+		}
+	}
+
+	/**
+	 * The queued tuples
+	 */
+	private final BlockingQueue<QueuedTuple> queue;
+	
+	/**
+	 * The overflow policy
+	 */
+	private final ContinuousQueryOverflowPolicy overflowPolicy;
+	
+	/**
+	 * The amount of dropped tuples
+	 */
+	private final AtomicLong droppedTuples = new AtomicLong(0);
+	
+	/**
+	 * The lag of the last delivered tuple in milliseconds
+	 */
+	private volatile long currentLag = 0;
+	
+	/**
+	 * The max lag of the delivered tuples in milliseconds
+	 */
+	private volatile long maxLag = 0;
+	
+	/**
+	 * The delivery lag
+	 */
+	private final static Summary deliveryLag = Summary.build()
+			.name("bboxdb_continuous_query_delivery_lag_seconds")
+			.help("Time between the match of a tuple and the delivery to the client in seconds.")
+			.register();
+	
+	/**
+	 * The queued tuples
+	 */
+	private final static Gauge queuedTuples = Gauge.build()
+			.name("bboxdb_continuous_query_queued_tuples")
+			.help("Tuples waiting for the delivery to continuous queries.")
+			.register();
+	
+	/**
+	 * The dropped tuples
+	 */
+	private final static Counter droppedTuplesTotal = Counter.build()
+			.name("bboxdb_continuous_query_dropped_tuples_total")
+			.help("Total tuples dropped because the queue of a continuous query was full.")
+			.labelNames("policy")
+			.register();
+	
+	public ContinuousQueryQueue(final int capacity, final ContinuousQueryOverflowPolicy overflowPolicy) {
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.overflowPolicy = overflowPolicy;
+	}
+	
+	/**
+	 * Add a new tuple to the queue, the overflow policy is applied when the 
+	 * queue is full. The method can be called by multiple insert threads.
+	 * 
+	 * @param tuple
+	 * @return false if the query has to be closed
+	 */
+	public boolean offer(final Tuple tuple) {
+		final QueuedTuple queuedTuple = new QueuedTuple(tuple);
+		
+		while(! queue.offer(queuedTuple)) {
+			droppedTuples.incrementAndGet();
+			droppedTuplesTotal.labels(overflowPolicy.name()).inc();
+			
+			switch(overflowPolicy) {
+			case DROP_OLDEST:
+				if(queue.poll() != null) {
+					queuedTuples.dec();
+				}
+				break;
+			case DROP_NEWEST:
+				return true;
+			default:
+				return false;
+			}
+		}
+		
+		queuedTuples.inc();
+		return true;
+	}
+	
+	/**
+	 * Take the next batch of tuples. The method waits up to waitTime for the first 
+	 * tuple and up to flushDelay for further tuples.
+	 * 
+	 * @param maxTuples
+	 * @param flushDelay
+	 * @param waitTime
+	 * @param unit
+	 * @return the tuples, an empty list if no tuple arrives within the wait time
+	 * @throws InterruptedException
+	 */
+	public List<Tuple> takeBatch(final int maxTuples, final long flushDelay, final long waitTime, 
+			final TimeUnit unit) throws InterruptedException {
+		
+		final List<Tuple> result = new ArrayList<>();
+		
+		final QueuedTuple firstTuple = queue.poll(waitTime, unit);
+		
+		if(firstTuple == null) {
+			return result;
+		}
+		
+		addToResult(result, firstTuple);
+		
+		final long flushTime = System.nanoTime() + unit.toNanos(flushDelay);
+		
+		while(result.size() < maxTuples) {
+			QueuedTuple queuedTuple = queue.poll();
+			
+			if(queuedTuple == null) {
+				final long remainingTime = flushTime - System.nanoTime();
+				
+				if(remainingTime <= 0) {
+					break;
+				}
+				
+				queuedTuple = queue.poll(remainingTime, TimeUnit.NANOSECONDS);
+			}
+			
+			if(queuedTuple == null) {
+				break;
+			}
+			
+			addToResult(result, queuedTuple);
+		}
+		
+		return result;
+	}
+
+	/**
+	 * Add the tuple to the result and update the lag
+	 * @param result
+	 * @param queuedTuple
+	 */
+	private void addToResult(final List<Tuple> result, final QueuedTuple queuedTuple) {
+		queuedTuples.dec();
+		result.add(queuedTuple.tuple);
+		
+		final long lag = System.nanoTime() - queuedTuple.enqueueTime;
+		deliveryLag.observe(lag / 1_000_000_000.0);
+		
+		currentLag = TimeUnit.NANOSECONDS.toMillis(lag);
+		maxLag = Math.max(maxLag, currentLag);
+	}
+	
+	/**
+	 * Remove all queued tuples
+	 */
+	public void clear() {
+		while(queue.poll() != null) {
+			queuedTuples.dec();
+		}
+	}
+	
+	/**
+	 * Get the number of queued tuples
+	 * @return
+	 */
+	public int size() {
+		return queue.size();
+	}
+	
+	/**
+	 * Get the amount of dropped tuples
+	 * @return
+	 */
+	public long getDroppedTuples() {
+		return droppedTuples.get();
+	}
+	
+	/**
+	 * Get the lag of the last delivered tuple in milliseconds
+	 * @return
+	 */
+	public long getCurrentLag() {
+		return currentLag;
+	}
+	
+	/**
+	 * Get the max lag of the delivered tuples in milliseconds
+	 * @return
+	 */
+	public long getMaxLag() {
+		return maxLag;
+	}
+}
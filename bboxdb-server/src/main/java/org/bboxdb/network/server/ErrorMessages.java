@@ -83,4 +83,19 @@ public class ErrorMessages {
 	 * The tuple is already locked
 	 */
 	public final static String ERROR_LOCK_FAILED_ALREADY_LOCKED = "Tuple is already locked";
+
+	/**
+	 * The requested region is not stored locally
+	 */
+	public final static String ERROR_REGION_NOT_FOUND = "Requested region is not stored on this instance";
+	
+	/**
+	 * The requested histogram is invalid
+	 */
+	public final static String ERROR_INVALID_HISTOGRAM = "Invalid histogram, check bounding box and cell size";
+	
+	/**
+	 * The continuous query is closed, the queue is overflowed
+	 */
+	public final static String ERROR_QUERY_OVERFLOW = "Continuous query closed, the result queue is overflowed";
 }
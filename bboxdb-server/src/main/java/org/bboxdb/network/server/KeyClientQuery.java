@@ -21,8 +21,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
-import org.bboxdb.commons.DuplicateResolver;
 import org.bboxdb.distribution.partitioner.SpacePartitioner;
 import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
 import org.bboxdb.distribution.region.DistributionRegionIdMapper;
@@ -31,23 +31,21 @@ import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.packages.response.MultipleTupleEndResponse;
 import org.bboxdb.network.packages.response.MultipleTupleStartResponse;
 import org.bboxdb.network.packages.response.PageEndResponse;
+import org.bboxdb.network.routing.RoutingHeader;
 import org.bboxdb.network.server.connection.ClientConnectionHandler;
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.JoinedTuple;
-import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreName;
-import org.bboxdb.storage.sstable.duplicateresolver.TupleDuplicateResolverFactory;
+import org.bboxdb.storage.queryprocessor.operator.KeyQueryOperator;
+import org.bboxdb.storage.queryprocessor.operator.Operator;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * The key query is implemented in an own class, because the 
- * result can not be lazy evacuated from the tuple stores.
- * 
- * All tuples for a given key needs to be computed at once
- * so that the duplicates can be removed
- *
+ * The key query reads the tuples for the key from all local tables 
+ * of the request table. The tuples are read with a key query operator,
+ * so the first page is sent before all tables are read.
  */
 public class KeyClientQuery implements ClientQuery {
 
@@ -80,16 +78,26 @@ public class KeyClientQuery implements ClientQuery {
 	 * The request table
 	 */
 	protected final TupleStoreName requestTable;
+	
+	/**
+	 * The routing header of the query
+	 */
+	protected final RoutingHeader routingHeader;
 
 	/**
 	 * The total amount of send tuples
 	 */
 	protected long totalSendTuples;
 	
+	/**
+	 * The operator that reads the tuples for the given key
+	 */
+	protected Operator operator;
+	
 	/**
 	 * The tuples for the given key
 	 */
-	protected final List<Tuple> tuplesForKey = new ArrayList<>();
+	protected Iterator<JoinedTuple> tupleIterator;
 	
 	/**
 	 * The Logger
@@ -99,7 +107,8 @@ public class KeyClientQuery implements ClientQuery {
 
 	public KeyClientQuery(final String key, final boolean pageResult, final short tuplesPerPage, 
 			final ClientConnectionHandler clientConnectionHandler, 
-			final short querySequence, final TupleStoreName requestTable) {
+			final short querySequence, final TupleStoreName requestTable, 
+			final RoutingHeader routingHeader) {
 		
 			this.key = key;
 			this.pageResult = pageResult;
@@ -107,6 +116,7 @@ public class KeyClientQuery implements ClientQuery {
 			this.clientConnectionHandler = clientConnectionHandler;
 			this.querySequence = querySequence;
 			this.requestTable = requestTable;
+			this.routingHeader = routingHeader;
 			
 			this.totalSendTuples = 0;
 			
@@ -114,9 +124,11 @@ public class KeyClientQuery implements ClientQuery {
 	}
 	
 	/**
-	 * Fetch the tuples for the given key and remove the duplicates
+	 * Prepare the operator that fetches the tuples for the given key
 	 */
 	protected void computeTuples() {
+		final List<TupleStoreManager> tupleStoreManagers = new ArrayList<>();
+		
 		try {
 			final String fullname = requestTable.getDistributionGroup();
 			final SpacePartitioner spacePartitioner = SpacePartitionerCache
@@ -125,55 +137,58 @@ public class KeyClientQuery implements ClientQuery {
 			final DistributionRegionIdMapper regionIdMapper = spacePartitioner
 					.getDistributionRegionIdMapper();
 		
-			final List<TupleStoreName> localTables = regionIdMapper.getAllLocalTables(requestTable);
+			final List<TupleStoreName> localTables = getLocalTables(regionIdMapper);
 			
 			for(final TupleStoreName tupleStoreName : localTables) {
 				final TupleStoreManager storageManager = clientConnectionHandler
 						.getStorageRegistry()
 						.getTupleStoreManager(tupleStoreName);
 				
-				final List<Tuple> tuplesInTable = storageManager.get(key);
-				tuplesForKey.addAll(tuplesInTable);
+				tupleStoreManagers.add(storageManager);
 			}
-
-			removeDuplicates(localTables);
 		} catch (BBoxDBException | StorageManagerException e) {
 			logger.error("Got an exception while fetching tuples for key " + key, e);
-			tuplesForKey.clear();
+			tupleStoreManagers.clear();
 		} 
+		
+		operator = new KeyQueryOperator(key, tupleStoreManagers, requestTable.getFullname());
+		tupleIterator = operator.iterator();
 	}
 
 	/**
-	 * Remove the duplicates for the given key
-	 * @param localTables
-	 * @throws StorageManagerException
+	 * Get the local tables to query. When the query is routed to regions (e.g., 
+	 * the regions of the key directory), only these regions are queried.
+	 * 
+	 * @param regionIdMapper
+	 * @return
 	 */
-	protected void removeDuplicates(final List<TupleStoreName> localTables) throws StorageManagerException {
+	private List<TupleStoreName> getLocalTables(final DistributionRegionIdMapper regionIdMapper) {
 		
-		// No local table is known, so no configuration is known
-		if(localTables.isEmpty()) {
-			return;
+		if(routingHeader != null && routingHeader.isRoutedPackage() 
+				&& ! routingHeader.getRoutingList().isEmpty()) {
+			
+			final List<Long> regionIds = routingHeader.getRoutingHop().getDistributionRegions();
+			
+			if(! regionIds.isEmpty()) {
+				final Optional<List<TupleStoreName>> localTables 
+					= regionIdMapper.getLocalTablesForRegionIds(regionIds, requestTable);
+				
+				if(localTables.isPresent()) {
+					return localTables.get();
+				}
+			}
 		}
 		
-		final TupleStoreManager storageManager = clientConnectionHandler
-				.getStorageRegistry()
-				.getTupleStoreManager(localTables.get(0));
-		
-		final DuplicateResolver<Tuple> duplicateResolver 
-			= TupleDuplicateResolverFactory.build(storageManager.getTupleStoreConfiguration());
-		
-		duplicateResolver.removeDuplicates(tuplesForKey);
+		return regionIdMapper.getAllLocalTables(requestTable);
 	}
-	
+
 	@Override
 	public void fetchAndSendNextTuples(final short packageSequence) throws IOException, PackageEncodeException {
 		
 		long sendTuplesInThisPage = 0;
 		clientConnectionHandler.writeResultPackage(new MultipleTupleStartResponse(packageSequence));
 		
-		final Iterator<Tuple> tupleListIterator = tuplesForKey.iterator();
-		
-		while(tupleListIterator.hasNext()) {
+		while(tupleIterator.hasNext()) {
 	 		if(pageResult == true && sendTuplesInThisPage >= tuplesPerPage) {
 				clientConnectionHandler.writeResultPackage(new PageEndResponse(packageSequence));
 				clientConnectionHandler.flushPendingCompressionPackages();
@@ -181,11 +196,7 @@ public class KeyClientQuery implements ClientQuery {
 			}
 			
 			// Send next tuple
-			final Tuple tuple = tupleListIterator.next();
-			tupleListIterator.remove();
-			
-			final JoinedTuple joinedTuple = new JoinedTuple(tuple, requestTable.getFullname());
-			
+			final JoinedTuple joinedTuple = tupleIterator.next();
 			clientConnectionHandler.writeResultTuple(packageSequence, joinedTuple);
 			totalSendTuples++;
 			sendTuplesInThisPage++;
@@ -198,12 +209,18 @@ public class KeyClientQuery implements ClientQuery {
 
 	@Override
 	public boolean isQueryDone() {
-		return tuplesForKey.isEmpty();
+		return ! tupleIterator.hasNext();
 	}
 
 	@Override
 	public void close() {
 		logger.debug("Closing query {} (send {} result tuples)", querySequence, totalSendTuples);
+		
+		try {
+			operator.close();
+		} catch (IOException e) {
+			logger.error("Got an exception while closing the operator", e);
+		}
 	}
 
 	@Override
@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.bboxdb.commons.CloseableHelper;
 import org.bboxdb.distribution.partitioner.SpacePartitioner;
@@ -35,7 +36,13 @@ import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.packages.response.MultipleTupleEndResponse;
 import org.bboxdb.network.packages.response.MultipleTupleStartResponse;
 import org.bboxdb.network.packages.response.PageEndResponse;
+import org.bboxdb.network.packages.response.QueryTraceResponse;
 import org.bboxdb.network.server.connection.ClientConnectionHandler;
+import org.bboxdb.performance.QueryTrace;
+import org.bboxdb.performance.QueryTrace.Counter;
+import org.bboxdb.performance.QueryTrace.Stage;
+import org.bboxdb.performance.StorageMetrics;
+import org.bboxdb.performance.StorageMetrics.Operation;
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.JoinedTuple;
 import org.bboxdb.storage.entity.TupleStoreName;
@@ -98,6 +105,26 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 	 */
 	private final List<TupleStoreName> requestTables;
 	
+	/**
+	 * The time spent to fetch and send the tuples
+	 */
+	private long executionTimeNanos;
+	
+	/**
+	 * Is the execution time recorded
+	 */
+	private boolean executionTimeRecorded;
+	
+	/**
+	 * The start time of the current fetch
+	 */
+	private long fetchStartTime;
+	
+	/**
+	 * The trace of the query (null, if the query is not traced)
+	 */
+	private final QueryTrace queryTrace;
+	
 	/**
 	 * The Logger
 	 */
@@ -106,6 +133,15 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 	public StreamClientQuery(final OperatorTreeBuilder operatorTreeBuilder, final boolean pageResult,
 			final short tuplesPerPage, final ClientConnectionHandler clientConnectionHandler, 
 			final short querySequence, final List<TupleStoreName> requestTables) {
+		
+		this(operatorTreeBuilder, pageResult, tuplesPerPage, clientConnectionHandler, 
+				querySequence, requestTables, null);
+	}
+	
+	public StreamClientQuery(final OperatorTreeBuilder operatorTreeBuilder, final boolean pageResult,
+			final short tuplesPerPage, final ClientConnectionHandler clientConnectionHandler, 
+			final short querySequence, final List<TupleStoreName> requestTables, 
+			final QueryTrace queryTrace) {
 
 		this.operatorTreeBuilder = operatorTreeBuilder;
 		this.pageResult = pageResult;
@@ -114,9 +150,17 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 		this.querySequence = querySequence;
 		this.requestTables = requestTables;
 		this.localTables = new HashMap<TupleStoreName, List<TupleStoreName>>();
+		this.queryTrace = queryTrace;
 
+		final long regionLookupStartTime = System.nanoTime();
 		determineLocalTables(requestTables);
 		
+		if(queryTrace != null) {
+			queryTrace.addStageTime(Stage.REGION_LOOKUP, System.nanoTime() - regionLookupStartTime);
+			queryTrace.incrementCounter(Counter.LOCAL_TABLES, 
+					localTables.values().stream().mapToInt(List::size).sum());
+		}
+		
 		this.totalSendTuples = 0;
 	}
 
@@ -179,6 +223,30 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 	 */
 	@Override
 	public void fetchAndSendNextTuples(final short packageSequence) throws IOException, PackageEncodeException {
+		fetchStartTime = System.nanoTime();
+		
+		if(queryTrace != null) {
+			queryTrace.activate();
+		}
+		
+		try {
+			sendNextTuples(packageSequence);
+		} finally {
+			executionTimeNanos += System.nanoTime() - fetchStartTime;
+			
+			if(queryTrace != null) {
+				QueryTrace.deactivate();
+			}
+		}
+	}
+	
+	/**
+	 * Fetch and send the next page of tuples
+	 * @param packageSequence
+	 * @throws IOException
+	 * @throws PackageEncodeException
+	 */
+	private void sendNextTuples(final short packageSequence) throws IOException, PackageEncodeException {
 
 		long sendTuplesInThisPage = 0;
 		clientConnectionHandler.writeResultPackage(new MultipleTupleStartResponse(packageSequence));
@@ -186,7 +254,12 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 		while(! isDataExhausted()) {
 			
 			if(activeOperatorIterator == null) {
+				final long setupStartTime = System.nanoTime();
 				setupNewIterator();
+				
+				if(queryTrace != null) {
+					queryTrace.addStageTime(Stage.STORAGE_ACQUISITION, System.nanoTime() - setupStartTime);
+				}
 			}
 			
 			// Unable to set up a new iterator
@@ -204,8 +277,15 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 				
 				// Send next tuple
 				final JoinedTuple tuple = activeOperatorIterator.next();
-								
-				clientConnectionHandler.writeResultTuple(packageSequence, tuple);
+				
+				if(queryTrace != null) {
+					final long writeStartTime = System.nanoTime();
+					clientConnectionHandler.writeResultTuple(packageSequence, tuple);
+					queryTrace.addStageTime(Stage.NETWORK_WRITE, System.nanoTime() - writeStartTime);
+				} else {
+					clientConnectionHandler.writeResultTuple(packageSequence, tuple);
+				}
+				
 				totalSendTuples++;
 				sendTuplesInThisPage++;
 			}
@@ -214,10 +294,36 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 		}
 		
 		// All tuples are send
+		if(queryTrace != null) {
+			writeQueryTrace(packageSequence);
+		}
+		
 		clientConnectionHandler.writeResultPackage(new MultipleTupleEndResponse(packageSequence));	
 		clientConnectionHandler.flushPendingCompressionPackages();
 	}
 
+	/**
+	 * Complete the trace of the query and send it to the client. The time 
+	 * that is not spent in the other stages is accounted as tuple read time.
+	 * 
+	 * @param packageSequence
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	private void writeQueryTrace(final short packageSequence) throws IOException, PackageEncodeException {
+		final long totalTime = executionTimeNanos + (System.nanoTime() - fetchStartTime);
+		
+		final long tupleReadTime = totalTime 
+				- queryTrace.getStageTime(Stage.STORAGE_ACQUISITION)
+				- queryTrace.getStageTime(Stage.SPATIAL_INDEX_LOOKUP)
+				- queryTrace.getStageTime(Stage.NETWORK_WRITE);
+		
+		queryTrace.addStageTime(Stage.TUPLE_READ, Math.max(0, tupleReadTime));
+		queryTrace.incrementCounter(Counter.RESULT_TUPLES, totalSendTuples);
+		
+		clientConnectionHandler.writeResultPackage(new QueryTraceResponse(packageSequence, queryTrace));
+	}
+
 	/**
 	 * Is the data if the iterator exhausted?
 	 * @return
@@ -288,6 +394,24 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 	public void close() {
 		logger.debug("Closing query {} (send {} result tuples)", querySequence, totalSendTuples);
 		closeIteratorNE();
+		recordExecutionTime();
+	}
+	
+	/**
+	 * Record the execution time of the query. The time the query waits for 
+	 * the client to request the next page is not included.
+	 */
+	private void recordExecutionTime() {
+		if(executionTimeRecorded || requestTables.isEmpty()) {
+			return;
+		}
+		
+		executionTimeRecorded = true;
+		
+		final Operation operation = requestTables.size() > 1 ? Operation.JOIN : Operation.RANGE_QUERY;
+		
+		StorageMetrics.getLatencyHistogram(operation, requestTables.get(0))
+			.observe(executionTimeNanos / (double) TimeUnit.SECONDS.toNanos(1));
 	}
 
 	/* (non-Javadoc)
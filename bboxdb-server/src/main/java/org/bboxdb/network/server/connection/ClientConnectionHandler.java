@@ -49,6 +49,7 @@ import org.bboxdb.network.routing.RoutingHeader;
 import org.bboxdb.network.routing.RoutingHeaderParser;
 import org.bboxdb.network.server.ClientQuery;
 import org.bboxdb.network.server.ErrorMessages;
+import org.bboxdb.network.server.connection.handler.query.HandleAggregateQuery;
 import org.bboxdb.network.server.connection.handler.query.HandleBoundingBoxQuery;
 import org.bboxdb.network.server.connection.handler.query.HandleBoundingBoxTimeQuery;
 import org.bboxdb.network.server.connection.handler.query.HandleContinuousBoundingBoxQuery;
@@ -65,6 +66,7 @@ import org.bboxdb.network.server.connection.handler.request.DeleteDistributionGr
 import org.bboxdb.network.server.connection.handler.request.DeleteTableHandler;
 import org.bboxdb.network.server.connection.handler.request.DisconnectHandler;
 import org.bboxdb.network.server.connection.handler.request.HandshakeHandler;
+import org.bboxdb.network.server.connection.handler.request.ImportSSTablesHandler;
 import org.bboxdb.network.server.connection.handler.request.InsertTupleHandler;
 import org.bboxdb.network.server.connection.handler.request.KeepAliveHandler;
 import org.bboxdb.network.server.connection.handler.request.LockTupleHandler;
@@ -571,6 +573,7 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 		requestHandlers.put(NetworkConst.REQUEST_TYPE_NEXT_PAGE, new NextPageHandler());
 		requestHandlers.put(NetworkConst.REQUEST_TYPE_CANCEL_QUERY, new CancelRequestHandler());
 		requestHandlers.put(NetworkConst.REQUEST_TYPE_LOCK_TUPLE, new LockTupleHandler());
+		requestHandlers.put(NetworkConst.REQUEST_TYPE_IMPORT_SSTABLES, new ImportSSTablesHandler());
 	}
 	
 	/**
@@ -585,6 +588,7 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 		queryHandlerList.put(NetworkConst.REQUEST_QUERY_BBOX_AND_TIME, new HandleBoundingBoxTimeQuery());
 		queryHandlerList.put(NetworkConst.REQUEST_QUERY_CONTINUOUS_BBOX, new HandleContinuousBoundingBoxQuery());
 		queryHandlerList.put(NetworkConst.REQUEST_QUERY_JOIN, new HandleJoinQuery());
+		queryHandlerList.put(NetworkConst.REQUEST_QUERY_AGGREGATE, new HandleAggregateQuery());
 	}
 
 	/**
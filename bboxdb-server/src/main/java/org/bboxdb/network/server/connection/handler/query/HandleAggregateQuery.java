@@ -0,0 +1,244 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.server.connection.handler.query;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.bboxdb.commons.concurrent.ExceptionSafeRunnable;
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
+import org.bboxdb.distribution.region.DistributionRegionIdMapper;
+import org.bboxdb.distribution.statistics.RegionRequestStatistics;
+import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.network.packages.request.QueryAggregateRequest;
+import org.bboxdb.network.packages.response.AggregateResponse;
+import org.bboxdb.network.packages.response.ErrorResponse;
+import org.bboxdb.network.routing.RoutingHeader;
+import org.bboxdb.network.server.ErrorMessages;
+import org.bboxdb.network.server.QueryHelper;
+import org.bboxdb.network.server.connection.ClientConnectionHandler;
+import org.bboxdb.storage.entity.BoundingBoxAggregate;
+import org.bboxdb.storage.entity.CellGrid;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.queryprocessor.BoundingBoxAggregator;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class HandleAggregateQuery implements QueryHandler {
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(HandleAggregateQuery.class);
+	
+
+	@Override
+	/**
+	 * Handle an aggregate query
+	 */
+	public void handleQuery(final ByteBuffer encodedPackage, 
+			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) 
+					throws IOException, PackageEncodeException {
+
+		final Runnable queryRunable = new ExceptionSafeRunnable() {
+
+			@Override
+			public void runThread() throws Exception {
+				
+				try {	
+					final QueryAggregateRequest queryRequest = QueryAggregateRequest.decodeTuple(encodedPackage);
+					final TupleStoreName requestTable = queryRequest.getTable();
+					
+					if(! QueryHelper.handleNonExstingTable(requestTable, packageSequence, clientConnectionHandler)) {
+						return;
+					}
+					
+					final Optional<CellGrid> cellGrid = getCellGrid(queryRequest);
+					
+					if(queryRequest.isHistogramRequested() && ! cellGrid.isPresent()) {
+						clientConnectionHandler.writeResultPackage(
+								new ErrorResponse(packageSequence, ErrorMessages.ERROR_INVALID_HISTOGRAM));
+						return;
+					}
+					
+					final RoutingHeader routingHeader = queryRequest.getRoutingHeader();
+					RegionRequestStatistics.recordReads(requestTable, routingHeader);
+					
+					final DistributionRegionIdMapper regionIdMapper = SpacePartitionerCache.getInstance()
+							.getSpacePartitionerForGroupName(requestTable.getDistributionGroup())
+							.getDistributionRegionIdMapper();
+					
+					final Optional<Map<Long, Hyperrectangle>> regions 
+						= getRegionsToAggregate(regionIdMapper, routingHeader);
+					
+					if(! regions.isPresent()) {
+						clientConnectionHandler.writeResultPackage(
+								new ErrorResponse(packageSequence, ErrorMessages.ERROR_REGION_NOT_FOUND));
+						return;
+					}
+					
+					final BoundingBoxAggregate aggregate = aggregateRegions(clientConnectionHandler, 
+							queryRequest, requestTable, regions.get(), cellGrid.orElse(null));
+					
+					clientConnectionHandler.writeResultPackage(new AggregateResponse(packageSequence, aggregate));
+				} catch (PackageEncodeException e) {
+					logger.warn("Got exception while decoding package", e);
+					clientConnectionHandler.writeResultPackage(new ErrorResponse(packageSequence, ErrorMessages.ERROR_EXCEPTION));	
+				}
+			}			
+			
+			@Override
+			protected void afterExceptionHook() {
+				final ErrorResponse responsePackage = new ErrorResponse(packageSequence, ErrorMessages.ERROR_EXCEPTION);
+				clientConnectionHandler.writeResultPackageNE(responsePackage);	
+			}
+		};
+
+		// Submit the runnable to our pool
+		if(clientConnectionHandler.getThreadPool().isShutdown()) {
+			logger.warn("Thread pool is shutting down, don't execute query: {}", packageSequence);
+			final ErrorResponse responsePackage = new ErrorResponse(packageSequence, ErrorMessages.ERROR_QUERY_SHUTDOWN);
+			clientConnectionHandler.writeResultPackage(responsePackage);
+		} else {
+			clientConnectionHandler.getThreadPool().submit(queryRunable);
+		}		
+	}
+	
+	/**
+	 * Get the grid for the histogram
+	 * @param queryRequest
+	 * @return the grid or an empty optional if no (valid) histogram is requested
+	 */
+	private Optional<CellGrid> getCellGrid(final QueryAggregateRequest queryRequest) {
+		
+		if(! queryRequest.isHistogramRequested()) {
+			return Optional.empty();
+		}
+		
+		final Hyperrectangle boundingBox = queryRequest.getBoundingBox();
+		final double cellSize = queryRequest.getCellSize();
+		
+		if(boundingBox.getDimension() == 0) {
+			return Optional.empty();
+		}
+		
+		final double cells = BoundingBoxAggregator.getNumberOfHistogramCells(boundingBox, cellSize);
+		
+		if(cells > BoundingBoxAggregator.MAX_HISTOGRAM_CELLS) {
+			logger.warn("Histogram with {} cells requested, the maximum is {}", 
+					cells, BoundingBoxAggregator.MAX_HISTOGRAM_CELLS);
+			return Optional.empty();
+		}
+		
+		return Optional.of(CellGrid.buildWithFixedCellSize(boundingBox, cellSize));
+	}
+	
+	/**
+	 * Get the local regions to aggregate. When the query is routed to regions, exactly 
+	 * these regions are aggregated, because the other regions are aggregated by other 
+	 * requests of the client. 
+	 * 
+	 * @param regionIdMapper
+	 * @param routingHeader
+	 * @return the regions and their bounding boxes or an empty optional if a 
+	 *         requested region is not known locally
+	 */
+	private Optional<Map<Long, Hyperrectangle>> getRegionsToAggregate(
+			final DistributionRegionIdMapper regionIdMapper, final RoutingHeader routingHeader) {
+		
+		final Map<Long, Hyperrectangle> regions = new HashMap<>();
+
+		if(routingHeader != null && routingHeader.isRoutedPackage() 
+				&& ! routingHeader.getRoutingList().isEmpty()) {
+			
+			final List<Long> regionIds = routingHeader.getRoutingHop().getDistributionRegions();
+			
+			for(final long regionId : regionIds) {
+				final Optional<Hyperrectangle> boundingBox = regionIdMapper.getBoundingBoxForRegionId(regionId);
+				
+				if(! boundingBox.isPresent()) {
+					logger.warn("Aggregate query for region {}, but region is not known locally", regionId);
+					return Optional.empty();
+				}
+				
+				regions.put(regionId, boundingBox.get());
+			}
+			
+			return Optional.of(regions);
+		}
+		
+		for(final long regionId : regionIdMapper.getAllRegionIds()) {
+			regionIdMapper.getBoundingBoxForRegionId(regionId)
+				.ifPresent(b -> regions.put(regionId, b));
+		}
+		
+		return Optional.of(regions);
+	}
+
+	/**
+	 * Aggregate the regions in parallel and merge the results
+	 * 
+	 * @param clientConnectionHandler
+	 * @param queryRequest
+	 * @param requestTable
+	 * @param regions
+	 * @param cellGrid
+	 * @return
+	 * @throws Exception
+	 */
+	private BoundingBoxAggregate aggregateRegions(final ClientConnectionHandler clientConnectionHandler,
+			final QueryAggregateRequest queryRequest, final TupleStoreName requestTable, 
+			final Map<Long, Hyperrectangle> regions, final CellGrid cellGrid) throws Exception {
+		
+		final List<BoundingBoxAggregate> regionAggregates = new CopyOnWriteArrayList<>();
+		final List<Exception> failedRegions = new CopyOnWriteArrayList<>();
+		
+		regions.entrySet().parallelStream().forEach(e -> {
+			try {
+				final TupleStoreName tupleStoreName = requestTable.cloneWithDifferntRegionId(e.getKey());
+				
+				final TupleStoreManager tupleStoreManager = clientConnectionHandler
+						.getStorageRegistry()
+						.getTupleStoreManager(tupleStoreName);
+				
+				final BoundingBoxAggregator aggregator = new BoundingBoxAggregator(tupleStoreManager, 
+						queryRequest.getBoundingBox(), e.getValue(), cellGrid);
+				
+				regionAggregates.add(aggregator.aggregate());
+			} catch (Exception ex) {
+				failedRegions.add(ex);
+			}
+		});
+		
+		if(! failedRegions.isEmpty()) {
+			throw failedRegions.get(0);
+		}
+		
+		final BoundingBoxAggregate aggregate = new BoundingBoxAggregate();
+		regionAggregates.forEach(a -> aggregate.merge(a));
+		
+		return aggregate;
+	}
+}
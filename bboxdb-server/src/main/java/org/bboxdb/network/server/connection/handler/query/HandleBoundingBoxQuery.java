@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.distribution.statistics.RegionRequestStatistics;
 import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.packages.request.QueryHyperrectangleRequest;
 import org.bboxdb.network.packages.response.ErrorResponse;
@@ -30,6 +31,7 @@ import org.bboxdb.network.server.ErrorMessages;
 import org.bboxdb.network.server.QueryHelper;
 import org.bboxdb.network.server.StreamClientQuery;
 import org.bboxdb.network.server.connection.ClientConnectionHandler;
+import org.bboxdb.performance.QueryTrace;
 import org.bboxdb.storage.entity.TupleStoreName;
 import org.bboxdb.storage.queryprocessor.OperatorTreeBuilder;
 import org.bboxdb.storage.queryprocessor.operator.Operator;
@@ -66,6 +68,8 @@ public class HandleBoundingBoxQuery implements QueryHandler {
 			if(! QueryHelper.handleNonExstingTable(requestTable, packageSequence, clientConnectionHandler)) {
 				return;
 			}
+
+			RegionRequestStatistics.recordReads(requestTable, queryRequest.getRoutingHeader());
 			
 			final OperatorTreeBuilder operatorTreeBuilder = new OperatorTreeBuilder() {
 				
@@ -83,8 +87,11 @@ public class HandleBoundingBoxQuery implements QueryHandler {
 				}
 			};
 						
+			final QueryTrace queryTrace = queryRequest.isTracingEnabled() ? new QueryTrace() : null;
+			
 			final StreamClientQuery clientQuery = new StreamClientQuery(operatorTreeBuilder, queryRequest.isPagingEnabled(), 
-					queryRequest.getTuplesPerPage(), clientConnectionHandler, packageSequence, Arrays.asList(requestTable));
+					queryRequest.getTuplesPerPage(), clientConnectionHandler, packageSequence, Arrays.asList(requestTable), 
+					queryTrace);
 			
 			clientConnectionHandler.getActiveQueries().put(packageSequence, clientQuery);
 			clientConnectionHandler.sendNextResultsForQuery(packageSequence, packageSequence);
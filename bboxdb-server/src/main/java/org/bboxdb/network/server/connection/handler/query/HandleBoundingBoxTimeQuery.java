@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.distribution.statistics.RegionRequestStatistics;
 import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.packages.request.QueryHyperrectangleTimeRequest;
 import org.bboxdb.network.packages.response.ErrorResponse;
@@ -66,6 +67,8 @@ public class HandleBoundingBoxTimeQuery implements QueryHandler {
 			if(! QueryHelper.handleNonExstingTable(requestTable, packageSequence, clientConnectionHandler)) {
 				return;
 			}
+
+			RegionRequestStatistics.recordReads(requestTable, queryRequest.getRoutingHeader());
 	
 			final OperatorTreeBuilder operatorTreeBuilder = new OperatorTreeBuilder() {
 				
@@ -22,6 +22,7 @@ import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 
+import org.bboxdb.distribution.statistics.RegionRequestStatistics;
 import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.packages.request.QueryInsertTimeRequest;
 import org.bboxdb.network.packages.response.ErrorResponse;
@@ -66,6 +67,8 @@ public class HandleInsertTimeQuery implements QueryHandler {
 			if(! QueryHelper.handleNonExstingTable(requestTable, packageSequence, clientConnectionHandler)) {
 				return;
 			}
+
+			RegionRequestStatistics.recordReads(requestTable, queryRequest.getRoutingHeader());
 			
 			final OperatorTreeBuilder operatorTreeBuilder = new OperatorTreeBuilder() {
 				
@@ -22,6 +22,7 @@ import java.nio.ByteBuffer;
 import java.util.List;
 
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.distribution.statistics.RegionRequestStatistics;
 import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.packages.request.QueryJoinRequest;
 import org.bboxdb.network.packages.response.ErrorResponse;
@@ -70,6 +71,8 @@ public class HandleJoinQuery implements QueryHandler {
 				}
 			}
 			
+			RegionRequestStatistics.recordReads(requestTables, queryRequest.getRoutingHeader());
+			
 			final OperatorTreeBuilder operatorTreeBuilder = new OperatorTreeBuilder() {
 				
 				@Override
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 
 import org.bboxdb.commons.concurrent.ExceptionSafeRunnable;
+import org.bboxdb.distribution.statistics.RegionRequestStatistics;
 import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.packages.request.QueryKeyRequest;
 import org.bboxdb.network.packages.response.ErrorResponse;
@@ -66,11 +67,14 @@ public class HandleKeyQuery implements QueryHandler {
 					if(! QueryHelper.handleNonExstingTable(requestTable, packageSequence, clientConnectionHandler)) {
 						return;
 					}
+
+					RegionRequestStatistics.recordReads(requestTable, queryKeyRequest.getRoutingHeader());
 					
 					final String key = queryKeyRequest.getKey();
 					
 					final ClientQuery clientQuery = new KeyClientQuery(key, queryKeyRequest.isPagingEnabled(), 
-							queryKeyRequest.getTuplesPerPage(), clientConnectionHandler, packageSequence, requestTable);
+							queryKeyRequest.getTuplesPerPage(), clientConnectionHandler, packageSequence, requestTable, 
+							queryKeyRequest.getRoutingHeader());
 					
 					clientConnectionHandler.getActiveQueries().put(packageSequence, clientQuery);
 					clientConnectionHandler.sendNextResultsForQuery(packageSequence, packageSequence);
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.server.connection.handler.request;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.bboxdb.commons.RejectedException;
+import org.bboxdb.distribution.zookeeper.TupleStoreAdapter;
+import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
+import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.network.packages.request.ImportSSTablesRequest;
+import org.bboxdb.network.packages.response.ErrorResponse;
+import org.bboxdb.network.packages.response.SuccessResponse;
+import org.bboxdb.network.server.ErrorMessages;
+import org.bboxdb.network.server.connection.ClientConnectionHandler;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.TupleStoreConfiguration;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.sstable.reader.SSTableFacade;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ImportSSTablesHandler implements RequestHandler {
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(ImportSSTablesHandler.class);
+	
+
+	@Override
+	/**
+	 * Handle the import sstables call
+	 */
+	public boolean handleRequest(final ByteBuffer encodedPackage, 
+			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) 
+					throws IOException, PackageEncodeException {
+		
+		try {			
+			final ImportSSTablesRequest importPackage = ImportSSTablesRequest.decodeTuple(encodedPackage);
+			final TupleStoreName requestTable = importPackage.getTable();
+			final String directory = importPackage.getDirectory();
+			
+			logger.info("Got import call for table {} from {}", requestTable, directory);
+			
+			if(! requestTable.isDistributedTable()) {
+				throw new StorageManagerException("Table has no region id: " + requestTable.getFullname());
+			}
+			
+			final TupleStoreManagerRegistry storageRegistry = clientConnectionHandler.getStorageRegistry();
+			
+			if(! storageRegistry.isStorageManagerKnown(requestTable)) {
+				createTable(requestTable, storageRegistry);
+			}
+			
+			final TupleStoreManager tupleStoreManager = storageRegistry.getTupleStoreManager(requestTable);
+			final List<SSTableFacade> importedTables = tupleStoreManager.importSSTables(directory);
+			
+			logger.info("Imported {} sstables into table {}", importedTables.size(), requestTable);
+			
+			// The import is acknowledged when the key directory entries are written
+			if(KeyDirectoryWriter.isKeyDirectoryMaintained(requestTable)) {
+				final KeyDirectoryWriter keyDirectoryWriter = new KeyDirectoryWriter(storageRegistry);
+				keyDirectoryWriter.writeEntries(requestTable, importedTables);
+			}
+			
+			clientConnectionHandler.writeResultPackage(new SuccessResponse(packageSequence));
+		} catch(RejectedException e) {
+			final ErrorResponse responsePackage = new ErrorResponse(packageSequence, 
+					ErrorMessages.ERROR_LOCAL_OPERATION_REJECTED_RETRY + " " + e.getMessage());
+			clientConnectionHandler.writeResultPackage(responsePackage);	
+		} catch (Exception e) {
+			logger.warn("Error while importing sstables", e);
+
+			final ErrorResponse responsePackage = new ErrorResponse(packageSequence, ErrorMessages.ERROR_EXCEPTION);
+			clientConnectionHandler.writeResultPackage(responsePackage);
+		}
+		
+		return true;
+	}
+
+	/**
+	 * Create the local table with the configuration stored in zookeeper
+	 * @param requestTable
+	 * @param storageRegistry
+	 * @throws Exception
+	 */
+	private void createTable(final TupleStoreName requestTable,
+			final TupleStoreManagerRegistry storageRegistry) throws Exception {
+		
+		final TupleStoreAdapter tupleStoreAdapter = ZookeeperClientFactory
+				.getZookeeperClient().getTupleStoreAdapter();
+		
+		if(! tupleStoreAdapter.isTableKnown(requestTable)) {
+			throw new StorageManagerException("Table: " + requestTable.getFullname() + " is unkown");
+		}
+		
+		final TupleStoreConfiguration config = tupleStoreAdapter.readTuplestoreConfiguration(requestTable);
+		storageRegistry.createTableIfNotExist(requestTable, config);
+	}
+}
@@ -26,10 +26,12 @@ import org.bboxdb.commons.RejectedException;
 import org.bboxdb.distribution.partitioner.SpacePartitioner;
 import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
 import org.bboxdb.distribution.region.DistributionRegionIdMapper;
+import org.bboxdb.distribution.statistics.RegionRequestStatistics;
 import org.bboxdb.distribution.zookeeper.TupleStoreAdapter;
 import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
 import org.bboxdb.distribution.zookeeper.ZookeeperException;
 import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.client.future.EmptyResultFuture;
 import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.packages.request.InsertTupleRequest;
 import org.bboxdb.network.packages.response.ErrorResponse;
@@ -127,7 +129,34 @@ public class InsertTupleHandler implements RequestHandler {
 		
 		final List<Long> distributionRegions = localHop.getDistributionRegions();
 		processInsertPackage(tuple, requestTable, storageRegistry, distributionRegions);
-		forwardRoutedPackage(packageSequence, clientConnectionHandler, insertTupleRequest);
+		
+		if(! KeyDirectoryWriter.isKeyDirectoryMaintained(requestTable)) {
+			forwardRoutedPackage(packageSequence, clientConnectionHandler, insertTupleRequest);
+			return;
+		}
+		
+		// The insert is acknowledged when the key directory entry is written
+		final KeyDirectoryWriter keyDirectoryWriter = new KeyDirectoryWriter(storageRegistry);
+		final List<EmptyResultFuture> directoryFutures = keyDirectoryWriter.writeEntry(requestTable, tuple);
+		
+		KeyDirectoryWriter.whenWritten(directoryFutures, (success) -> {
+			if(! success) {
+				logger.error("Unable to write the key directory entry for key {}", key);
+				final ErrorResponse responsePackage = new ErrorResponse(packageSequence, 
+						ErrorMessages.ERROR_ROUTING_FAILED);
+				clientConnectionHandler.writeResultPackageNE(responsePackage);
+				return;
+			}
+			
+			try {
+				forwardRoutedPackage(packageSequence, clientConnectionHandler, insertTupleRequest);
+			} catch (PackageEncodeException e) {
+				logger.error("Error while forwarding tuple", e);
+				final ErrorResponse responsePackage = new ErrorResponse(packageSequence, 
+						ErrorMessages.ERROR_EXCEPTION);
+				clientConnectionHandler.writeResultPackageNE(responsePackage);
+			}
+		});
 	}
 
 	/**
@@ -136,10 +165,11 @@ public class InsertTupleHandler implements RequestHandler {
 	 * @param packageSequence
 	 * @param clientConnectionHandler
 	 * @param insertTupleRequest
+	 * @throws PackageEncodeException 
 	 */
 	private void forwardRoutedPackage(final short packageSequence, 
 			final ClientConnectionHandler clientConnectionHandler,
-			final InsertTupleRequest insertTupleRequest) {
+			final InsertTupleRequest insertTupleRequest) throws PackageEncodeException {
 		
 		final PackageRouter packageRouter = clientConnectionHandler.getPackageRouter();
 		packageRouter.performInsertPackageRoutingAsync(packageSequence, insertTupleRequest);
@@ -155,7 +185,7 @@ public class InsertTupleHandler implements RequestHandler {
 	 * @throws RejectedException
 	 * @throws BBoxDBException
 	 */
-	protected void processInsertPackage(final Tuple tuple, final TupleStoreName requestTable, 
+	protected static void processInsertPackage(final Tuple tuple, final TupleStoreName requestTable, 
 			final TupleStoreManagerRegistry storageRegistry, final List<Long> distributionRegions) throws RejectedException {
 		
 		try {
@@ -188,6 +218,10 @@ public class InsertTupleHandler implements RequestHandler {
 				final TupleStoreManager storageManager = storageRegistry.getTupleStoreManager(tupleStoreName);
 				storageManager.put(tuple);			
 			}
+			
+			for(final long regionId : distributionRegions) {
+				RegionRequestStatistics.recordWrite(fullname, regionId);
+			}
 		} catch (RejectedException e) {
 			throw e;
 		} catch (Throwable e) {
@@ -198,7 +232,7 @@ public class InsertTupleHandler implements RequestHandler {
 	/**
 	 * Create all missing tables
 	 */
-	protected void createMissingTables(final TupleStoreName requestTable,
+	protected static void createMissingTables(final TupleStoreName requestTable,
 			final TupleStoreManagerRegistry storageRegistry, final Collection<TupleStoreName> localTables)
 			throws StorageManagerException {
 		
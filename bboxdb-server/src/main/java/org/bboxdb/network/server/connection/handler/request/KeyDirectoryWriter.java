@@ -0,0 +1,303 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.server.connection.handler.request;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.bboxdb.commons.RejectedException;
+import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.distribution.membership.MembershipConnectionService;
+import org.bboxdb.distribution.partitioner.SpacePartitionerHelper;
+import org.bboxdb.distribution.region.DistributionRegion;
+import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
+import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.client.BBoxDBConnection;
+import org.bboxdb.network.client.future.EmptyResultFuture;
+import org.bboxdb.network.client.tools.KeyDirectoryHelper;
+import org.bboxdb.network.routing.RoutingHeader;
+import org.bboxdb.network.routing.RoutingHop;
+import org.bboxdb.network.routing.RoutingHopHelper;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.DeletedTuple;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.tuplestore.ReadOnlyTupleStore;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import io.prometheus.client.Counter;
+
+/**
+ * Writes the key directory entries of stored tuples. Every instance that stores a 
+ * tuple writes the entry of the tuple, so the directory contains the tuples of all
+ * writers (clients, imports and redistributions) and no entry is lost when a 
+ * replica is down. Entries of the same key and version are identical, so writing 
+ * an entry more than once is harmless.
+ */
+public class KeyDirectoryWriter {
+	
+	/**
+	 * The storage registry
+	 */
+	private final TupleStoreManagerRegistry storageRegistry;
+	
+	/**
+	 * The max number of unconfirmed directory writes of a bulk write
+	 */
+	private final static int MAX_PENDING_WRITES = 1000;
+	
+	/**
+	 * The timeout for a directory write confirmation
+	 */
+	private final static long CONFIRMATION_TIMEOUT_IN_SEC = 120;
+	
+	/**
+	 * The tables with a key directory (table -> directory exists)
+	 */
+	private final static Cache<String, Boolean> directoryCache = CacheBuilder.newBuilder()
+			.expireAfterWrite(KeyDirectoryHelper.DIRECTORY_CHECK_INTERVAL_IN_SEC, TimeUnit.SECONDS)
+			.build();
+	
+	/**
+	 * The registered distribution groups (group -> group exists)
+	 */
+	private final static Cache<String, Boolean> groupCache = CacheBuilder.newBuilder()
+			.expireAfterWrite(KeyDirectoryHelper.DIRECTORY_CHECK_INTERVAL_IN_SEC, TimeUnit.SECONDS)
+			.build();
+	
+	/**
+	 * The written directory entries
+	 */
+	private final static Counter directoryWritesTotal = Counter.build()
+			.name("bboxdb_key_directory_writes_total")
+			.help("Total written key directory entries.")
+			.register();
+	
+	public KeyDirectoryWriter(final TupleStoreManagerRegistry storageRegistry) {
+		this.storageRegistry = storageRegistry;
+	}
+	
+	/**
+	 * Has the given table a key directory that needs to be maintained
+	 * @param table
+	 * @return
+	 * @throws BBoxDBException
+	 */
+	public static boolean isKeyDirectoryMaintained(final TupleStoreName table) throws BBoxDBException {
+		
+		final Optional<String> directoryOwner 
+			= KeyDirectoryHelper.getGroupForDirectoryGroup(table.getDistributionGroup());
+		
+		// The table is a directory table, the directory has no directory
+		if(directoryOwner.isPresent() && isDistributionGroupRegistered(directoryOwner.get())) {
+			return false;
+		}
+		
+		final String directoryTable = KeyDirectoryHelper.getDirectoryTable(table);
+		
+		try {
+			return directoryCache.get(directoryTable, () -> ZookeeperClientFactory
+					.getZookeeperClient()
+					.getTupleStoreAdapter()
+					.isTableKnown(new TupleStoreName(directoryTable)));
+		} catch (ExecutionException e) {
+			throw new BBoxDBException(e.getCause());
+		}
+	}
+	
+	/**
+	 * Is the given distribution group registered
+	 * @param distributionGroup
+	 * @return
+	 * @throws BBoxDBException
+	 */
+	private static boolean isDistributionGroupRegistered(final String distributionGroup) 
+			throws BBoxDBException {
+		
+		try {
+			return groupCache.get(distributionGroup, () -> ZookeeperClientFactory
+					.getZookeeperClient()
+					.getDistributionGroupAdapter()
+					.isDistributionGroupRegistered(distributionGroup));
+		} catch (ExecutionException e) {
+			throw new BBoxDBException(e.getCause());
+		}
+	}
+	
+	/**
+	 * Write the directory entry of the tuple. Entries on the local instance are 
+	 * written directly, the futures of the entries on other instances are returned.
+	 * 
+	 * @param table
+	 * @param tuple
+	 * @return
+	 * @throws BBoxDBException
+	 * @throws RejectedException
+	 */
+	public List<EmptyResultFuture> writeEntry(final TupleStoreName table, final Tuple tuple) 
+			throws BBoxDBException, RejectedException {
+		
+		final List<EmptyResultFuture> futures = new ArrayList<>();
+		
+		// Deletes are stored in all regions, no directory entry is needed
+		if(tuple instanceof DeletedTuple) {
+			return futures;
+		}
+		
+		final String directoryTable = KeyDirectoryHelper.getDirectoryTable(table);
+		final Tuple directoryTuple = KeyDirectoryHelper.getDirectoryTuple(tuple);
+		final DistributionRegion rootNode = SpacePartitionerHelper.getRootNode(directoryTable);
+		
+		final List<RoutingHop> hops = RoutingHopHelper.getRoutingHopsForWrite(rootNode, 
+				directoryTuple.getBoundingBox());
+		
+		if(hops.isEmpty()) {
+			throw new BBoxDBException("Got no regions for the directory entry of: " + tuple.getKey());
+		}
+		
+		final BBoxDBInstance localInstance = ZookeeperClientFactory.getLocalInstanceName();
+		
+		for(final RoutingHop hop : hops) {
+			final BBoxDBInstance instance = hop.getDistributedInstance();
+			
+			if(localInstance.equals(instance)) {
+				InsertTupleHandler.processInsertPackage(directoryTuple, new TupleStoreName(directoryTable), 
+						storageRegistry, hop.getDistributionRegions());
+				continue;
+			}
+			
+			final BBoxDBConnection connection = MembershipConnectionService.getInstance()
+					.getConnectionForInstance(instance);
+			
+			if(connection == null) {
+				throw new BBoxDBException("Unable to get a connection to system: " + instance);
+			}
+			
+			final RoutingHeader routingHeader = new RoutingHeader((short) 0, Arrays.asList(hop));
+			
+			futures.add(connection.getBboxDBClient().insertTuple(directoryTable, 
+					directoryTuple, routingHeader));
+		}
+		
+		directoryWritesTotal.inc();
+		
+		return futures;
+	}
+	
+	/**
+	 * Write the directory entries of all tuples of the given tuple stores and wait 
+	 * until the entries are written
+	 * 
+	 * @param table
+	 * @param tupleStores
+	 * @throws BBoxDBException
+	 * @throws RejectedException
+	 * @throws StorageManagerException
+	 * @throws InterruptedException
+	 */
+	public void writeEntries(final TupleStoreName table, final List<? extends ReadOnlyTupleStore> tupleStores) 
+			throws BBoxDBException, RejectedException, StorageManagerException, InterruptedException {
+		
+		final Deque<EmptyResultFuture> pendingFutures = new ArrayDeque<>();
+		
+		for(final ReadOnlyTupleStore tupleStore : tupleStores) {
+			
+			if(! tupleStore.acquire()) {
+				throw new StorageManagerException("Unable to acquire tuple store: " 
+						+ tupleStore.getInternalName());
+			}
+			
+			try {
+				for(final Tuple tuple : tupleStore) {
+					pendingFutures.addAll(writeEntry(table, tuple));
+					
+					while(pendingFutures.size() >= MAX_PENDING_WRITES) {
+						waitForWrite(pendingFutures.pollFirst());
+					}
+				}
+			} finally {
+				tupleStore.release();
+			}
+		}
+		
+		while(! pendingFutures.isEmpty()) {
+			waitForWrite(pendingFutures.pollFirst());
+		}
+	}
+
+	/**
+	 * Wait until the directory write is done and check the result
+	 * @param future
+	 * @throws BBoxDBException
+	 * @throws InterruptedException
+	 */
+	private void waitForWrite(final EmptyResultFuture future) throws BBoxDBException, InterruptedException {
+		try {
+			future.waitForCompletion(CONFIRMATION_TIMEOUT_IN_SEC, TimeUnit.SECONDS);
+		} catch (TimeoutException e) {
+			throw new BBoxDBException(e);
+		}
+		
+		if(future.isFailed()) {
+			throw new BBoxDBException("Unable to write key directory entry: " + future.getAllMessages());
+		}
+	}
+	
+	/**
+	 * Call the callback when all directory writes are done. The callback gets 
+	 * true if all writes are successful.
+	 * 
+	 * @param futures
+	 * @param callback
+	 */
+	public static void whenWritten(final List<EmptyResultFuture> futures, final Consumer<Boolean> callback) {
+		
+		if(futures.isEmpty()) {
+			callback.accept(true);
+			return;
+		}
+		
+		final AtomicInteger pendingFutures = new AtomicInteger(futures.size());
+		final AtomicBoolean success = new AtomicBoolean(true);
+		
+		for(final EmptyResultFuture future : futures) {
+			future.addCompletionCallback(() -> {
+				if(future.isFailed()) {
+					success.set(false);
+				}
+				
+				if(pendingFutures.decrementAndGet() == 0) {
+					callback.accept(success.get());
+				}
+			});
+		}
+	}
+}
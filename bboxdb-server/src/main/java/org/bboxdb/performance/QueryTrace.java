@@ -0,0 +1,261 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.performance;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The trace of a single query. The server records the time spent in the 
+ * execution stages and some counters of the query and sends the trace to
+ * the client after the last result tuple.
+ * 
+ * The trace is activated for the thread that executes the query, so the
+ * storage layer can record its stages without passing the trace through
+ * all method calls.
+ */
+public class QueryTrace {
+	
+	public enum Stage {
+		REGION_LOOKUP("region_lookup"),
+		STORAGE_ACQUISITION("storage_acquisition"),
+		SPATIAL_INDEX_LOOKUP("spatial_index_lookup"),
+		TUPLE_READ("tuple_read"),
+		NETWORK_WRITE("network_write");
+		
+		/**
+		 * The name of the stage
+		 */
+		private final String name;
+		
+		private Stage(final String name) {
+			this.name = name;
+		}
+		
+		public String getName() {
+			return name;
+		}
+	}
+	
+	public enum Counter {
+		LOCAL_TABLES("local_tables"),
+		TUPLE_STORES("tuple_stores"),
+		STORAGE_RETRIES("storage_retries"),
+		INDEX_ENTRIES("index_entries"),
+		RESULT_TUPLES("result_tuples");
+		
+		/**
+		 * The name of the counter
+		 */
+		private final String name;
+		
+		private Counter(final String name) {
+			this.name = name;
+		}
+		
+		public String getName() {
+			return name;
+		}
+	}
+	
+	/**
+	 * The time of the stages in nanoseconds
+	 */
+	private final Map<String, Long> stageTimes;
+	
+	/**
+	 * The counters
+	 */
+	private final Map<String, Long> counters;
+	
+	/**
+	 * The trace of the query that is executed by the current thread
+	 */
+	private final static ThreadLocal<QueryTrace> activeTrace = new ThreadLocal<>();
+	
+	public QueryTrace() {
+		this(new LinkedHashMap<>(), new LinkedHashMap<>());
+	}
+	
+	public QueryTrace(final Map<String, Long> stageTimes, final Map<String, Long> counters) {
+		this.stageTimes = stageTimes;
+		this.counters = counters;
+	}
+	
+	/**
+	 * Add the time spent in the given stage
+	 * @param stage
+	 * @param nanoseconds
+	 */
+	public void addStageTime(final Stage stage, final long nanoseconds) {
+		stageTimes.merge(stage.getName(), nanoseconds, Long::sum);
+	}
+	
+	/**
+	 * Increment the given counter
+	 * @param counter
+	 * @param value
+	 */
+	public void incrementCounter(final Counter counter, final long value) {
+		counters.merge(counter.getName(), value, Long::sum);
+	}
+	
+	/**
+	 * Get the time of the stage in nanoseconds
+	 * @param stage
+	 * @return
+	 */
+	public long getStageTime(final Stage stage) {
+		return stageTimes.getOrDefault(stage.getName(), 0L);
+	}
+	
+	/**
+	 * Get the value of the counter
+	 * @param counter
+	 * @return
+	 */
+	public long getCounter(final Counter counter) {
+		return counters.getOrDefault(counter.getName(), 0L);
+	}
+	
+	/**
+	 * Get the time of all stages in nanoseconds (stage name -> time)
+	 * @return
+	 */
+	public Map<String, Long> getStageTimes() {
+		return Collections.unmodifiableMap(stageTimes);
+	}
+	
+	/**
+	 * Get all counters (counter name -> value)
+	 * @return
+	 */
+	public Map<String, Long> getCounters() {
+		return Collections.unmodifiableMap(counters);
+	}
+	
+	/**
+	 * Activate the trace for the current thread
+	 */
+	public void activate() {
+		activeTrace.set(this);
+	}
+	
+	/**
+	 * Deactivate the trace of the current thread
+	 */
+	public static void deactivate() {
+		activeTrace.remove();
+	}
+	
+	/**
+	 * Get the active trace of the current thread
+	 * @return the trace or null, if the query of the thread is not traced
+	 */
+	public static QueryTrace getActiveTrace() {
+		return activeTrace.get();
+	}
+	
+	/**
+	 * Record a lookup in a spatial index for the active trace
+	 * @param nanoseconds
+	 * @param entries
+	 */
+	public static void recordSpatialIndexLookup(final long nanoseconds, final int entries) {
+		final QueryTrace queryTrace = getActiveTrace();
+		
+		if(queryTrace == null) {
+			return;
+		}
+		
+		queryTrace.addStageTime(Stage.SPATIAL_INDEX_LOOKUP, nanoseconds);
+		queryTrace.incrementCounter(Counter.INDEX_ENTRIES, entries);
+	}
+	
+	/**
+	 * Increment the counter of the active trace
+	 * @param counter
+	 * @param value
+	 */
+	public static void recordCounter(final Counter counter, final long value) {
+		final QueryTrace queryTrace = getActiveTrace();
+		
+		if(queryTrace == null) {
+			return;
+		}
+		
+		queryTrace.incrementCounter(counter, value);
+	}
+	
+	/**
+	 * Get the trace as formated string
+	 * @return
+	 */
+	public String getFormatedString() {
+		final StringBuilder sb = new StringBuilder();
+		
+		for(final Map.Entry<String, Long> entry : stageTimes.entrySet()) {
+			final double milliseconds = entry.getValue() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+			sb.append(String.format("%-25s %12.3f ms%n", entry.getKey(), milliseconds));
+		}
+		
+		for(final Map.Entry<String, Long> entry : counters.entrySet()) {
+			sb.append(String.format("%-25s %12d%n", entry.getKey(), entry.getValue()));
+		}
+		
+		return sb.toString();
+	}
+
+	@Override
+	public String toString() {
+		return "QueryTrace [stageTimes=" + stageTimes + ", counters=" + counters + "]";
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((counters == null) ? 0 : counters.hashCode());
+		result = prime * result + ((stageTimes == null) ? 0 : stageTimes.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		QueryTrace other = (QueryTrace) obj;
+		if (counters == null) {
+			if (other.counters != null)
+				return false;
+		} else if (!counters.equals(other.counters))
+			return false;
+		if (stageTimes == null) {
+			if (other.stageTimes != null)
+				return false;
+		} else if (!stageTimes.equals(other.stageTimes))
+			return false;
+		return true;
+	}
+}
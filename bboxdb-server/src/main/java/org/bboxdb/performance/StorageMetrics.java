@@ -0,0 +1,118 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.performance;
+
+import java.util.Objects;
+
+import org.bboxdb.storage.entity.TupleStoreName;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+
+/**
+ * The metrics of the storage hot path. The latencies are labeled with 
+ * the distribution group and the table (without the region id), so the 
+ * number of time series does not grow with the number of regions.
+ */
+public class StorageMetrics {
+
+	public enum Operation {
+		INSERT("insert"),
+		KEY_QUERY("key_query"),
+		RANGE_QUERY("range_query"),
+		JOIN("join"),
+		MEMTABLE_FLUSH("memtable_flush"),
+		COMPACTION("compaction"),
+		WAL_APPEND("wal_append");
+		
+		/**
+		 * The label of the operation
+		 */
+		private final String label;
+		
+		private Operation(final String label) {
+			this.label = label;
+		}
+		
+		public String getLabel() {
+			return label;
+		}
+	}
+	
+	/**
+	 * The latency of the operations
+	 */
+	private final static Histogram operationLatency = Histogram.build()
+			.name("bboxdb_operation_latency_seconds")
+			.help("Latency of the storage operations in seconds.")
+			.labelNames("operation", "group", "table")
+			.buckets(0.00001, 0.000025, 0.00005, 0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 
+					0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 300)
+			.register();
+	
+	/**
+	 * The number of read tuple stores
+	 */
+	private final static Counter readTupleStoresTotal = Counter.build()
+			.name("bboxdb_query_read_tuplestores_total")
+			.help("Number of memtables and SSTables read by the queries.")
+			.labelNames("operation")
+			.register();
+	
+	/**
+	 * The number of visited R-tree nodes
+	 */
+	private final static Counter rtreeNodesVisitedTotal = Counter.build()
+			.name("bboxdb_rtree_nodes_visited_total")
+			.help("Number of visited R-tree nodes of the SSTable spatial indexes.")
+			.register();
+	
+	/**
+	 * Get the latency histogram for the operation on the given table. The
+	 * histogram should be kept by the caller on the hot path. 
+	 * 
+	 * @param operation
+	 * @param tupleStoreName
+	 * @return
+	 */
+	public static Histogram.Child getLatencyHistogram(final Operation operation, 
+			final TupleStoreName tupleStoreName) {
+		
+		final String group = Objects.toString(tupleStoreName.getDistributionGroup(), "");
+		final String table = Objects.toString(tupleStoreName.getTablename(), "");
+		
+		return operationLatency.labels(operation.getLabel(), group, table);
+	}
+	
+	/**
+	 * Count the read tuple stores of a query
+	 * @param operation
+	 * @param tupleStores
+	 */
+	public static void addReadTupleStores(final Operation operation, final int tupleStores) {
+		readTupleStoresTotal.labels(operation.getLabel()).inc(tupleStores);
+	}
+	
+	/**
+	 * Count the visited R-tree nodes
+	 * @param nodes
+	 */
+	public static void addVisitedRTreeNodes(final int nodes) {
+		rtreeNodesVisitedTotal.inc(nodes);
+	}
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.storage.entity;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+
+public class BoundingBoxAggregate {
+
+	/**
+	 * The number of tuples
+	 */
+	private long count;
+	
+	/**
+	 * The box that covers all bounding boxes of the tuples
+	 */
+	private Hyperrectangle coveringBox;
+	
+	/**
+	 * The number of tuples per grid cell
+	 */
+	private final Map<Hyperrectangle, Long> histogram;
+	
+	public BoundingBoxAggregate() {
+		this(0, Hyperrectangle.FULL_SPACE, new HashMap<>());
+	}
+	
+	public BoundingBoxAggregate(final long count, final Hyperrectangle coveringBox, 
+			final Map<Hyperrectangle, Long> histogram) {
+		
+		this.count = count;
+		this.coveringBox = Objects.requireNonNull(coveringBox);
+		this.histogram = new HashMap<>(histogram);
+	}
+	
+	/**
+	 * Increment the number of tuples
+	 */
+	public void incrementCount() {
+		count++;
+	}
+	
+	/**
+	 * Extend the covering box by the given bounding box
+	 * @param boundingBox
+	 */
+	public void extendCoveringBox(final Hyperrectangle boundingBox) {
+		coveringBox = Hyperrectangle.getCoveringBox(coveringBox, boundingBox);
+	}
+	
+	/**
+	 * Increment the number of tuples in the given cell
+	 * @param cell
+	 * @param tuples
+	 */
+	public void addToCell(final Hyperrectangle cell, final long tuples) {
+		histogram.merge(cell, tuples, Long::sum);
+	}
+	
+	/**
+	 * Merge the other aggregate into this aggregate
+	 * @param otherAggregate
+	 */
+	public void merge(final BoundingBoxAggregate otherAggregate) {
+		count = count + otherAggregate.getCount();
+		extendCoveringBox(otherAggregate.getCoveringBox());
+		otherAggregate.getHistogram().forEach((c, v) -> addToCell(c, v));
+	}
+
+	/**
+	 * Get the number of tuples
+	 * @return
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Get the covering box of all tuples, FULL_SPACE if no tuple was aggregated
+	 * @return
+	 */
+	public Hyperrectangle getCoveringBox() {
+		return coveringBox;
+	}
+
+	/**
+	 * Get the number of tuples per grid cell. Empty cells are not contained.
+	 * @return
+	 */
+	public Map<Hyperrectangle, Long> getHistogram() {
+		return Collections.unmodifiableMap(histogram);
+	}
+
+	@Override
+	public String toString() {
+		return "BoundingBoxAggregate [count=" + count + ", coveringBox=" + coveringBox 
+				+ ", histogram=" + histogram + "]";
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (int) (count ^ (count >>> 32));
+		result = prime * result + ((coveringBox == null) ? 0 : coveringBox.hashCode());
+		result = prime * result + ((histogram == null) ? 0 : histogram.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		BoundingBoxAggregate other = (BoundingBoxAggregate) obj;
+		if (count != other.count)
+			return false;
+		if (coveringBox == null) {
+			if (other.coveringBox != null)
+				return false;
+		} else if (!coveringBox.equals(other.coveringBox))
+			return false;
+		if (histogram == null) {
+			if (other.histogram != null)
+				return false;
+		} else if (!histogram.equals(other.histogram))
+			return false;
+		return true;
+	}
+}
@@ -62,6 +62,11 @@ public class TupleStoreMetaData {
 	 */
 	protected int dimensions;
 	
+	/**
+	 * The encoded quantile sketches of the bounding box centers (one per dimension)
+	 */
+	protected double[][] centerSketchData = {};
+	
 	/**
 	 * The logger
 	 */
@@ -85,6 +90,14 @@ public class TupleStoreMetaData {
 		this.dimensions = boundingBoxData.length / 2;
 	}
 	
+	public TupleStoreMetaData(final long tuples, final long oldestTuple, final long newestTuple, 
+			final long newestTupleInsertedTimstamp, final double[] boundingBoxData, 
+			final double[][] centerSketchData) {
+		
+		this(tuples, oldestTuple, newestTuple, newestTupleInsertedTimstamp, boundingBoxData);
+		this.centerSketchData = centerSketchData;
+	}
+	
 	/**
 	 * Export the data to YAML
 	 * @return
@@ -124,6 +137,7 @@ public class TupleStoreMetaData {
 	    data.put("newestTupleInsertedTimstamp", newestTupleInsertedTimstamp);
 		data.put("dimensions", dimensions);
 	    data.put("boundingBoxData", boundingBoxData);
+	    data.put("centerSketchData", centerSketchData);
 		return data;
 	}
 	
@@ -191,6 +205,14 @@ public class TupleStoreMetaData {
 		this.boundingBoxData = boundingBoxData;
 	}
 
+	public double[][] getCenterSketchData() {
+		return centerSketchData;
+	}
+
+	public void setCenterSketchData(final double[][] centerSketchData) {
+		this.centerSketchData = centerSketchData;
+	}
+
 	public int getDimensions() {
 		return dimensions;
 	}
@@ -212,6 +234,7 @@ public class TupleStoreMetaData {
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + Arrays.hashCode(boundingBoxData);
+		result = prime * result + Arrays.deepHashCode(centerSketchData);
 		result = prime * result + dimensions;
 		result = prime * result + (int) (newestTupleInsertedTimstamp ^ (newestTupleInsertedTimstamp >>> 32));
 		result = prime * result + (int) (newestTupleVersionTimestamp ^ (newestTupleVersionTimestamp >>> 32));
@@ -231,6 +254,8 @@ public class TupleStoreMetaData {
 		TupleStoreMetaData other = (TupleStoreMetaData) obj;
 		if (!Arrays.equals(boundingBoxData, other.boundingBoxData))
 			return false;
+		if (!Arrays.deepEquals(centerSketchData, other.centerSketchData))
+			return false;
 		if (dimensions != other.dimensions)
 			return false;
 		if (newestTupleInsertedTimstamp != other.newestTupleInsertedTimstamp)
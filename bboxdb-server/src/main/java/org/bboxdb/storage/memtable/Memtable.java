@@ -19,13 +19,19 @@ package org.bboxdb.storage.memtable;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.misc.BBoxDBService;
 import org.bboxdb.storage.BloomFilterBuilder;
+import org.bboxdb.performance.QueryTrace;
+import org.bboxdb.performance.StorageMetrics;
+import org.bboxdb.performance.StorageMetrics.Operation;
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.DeletedTuple;
 import org.bboxdb.storage.entity.Tuple;
@@ -39,8 +45,12 @@ import org.bboxdb.storage.wal.WriteAheadLogWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.Iterators;
 import com.google.common.hash.BloomFilter;
 
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+
 public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 	
 	/**
@@ -61,7 +71,17 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 	/**
 	 * The spatial index
 	 */
-	private final SpatialIndexBuilder spatialIndex;
+	private volatile SpatialIndexBuilder spatialIndex;
+	
+	/**
+	 * The position of the key in the data array (only used, when versions are collapsed)
+	 */
+	private final Map<String, Integer> keyPositions;
+	
+	/**
+	 * The number of spatial index entries that point to a replaced tuple
+	 */
+	private int staleIndexEntries;
 	
 	/**
 	 * The next free position in the data array
@@ -83,6 +103,18 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 	 */
 	private long sizeInMemory;
 	
+	/**
+	 * The number of tuple versions that are replaced by a newer version. The replaced 
+	 * versions are counted against the max entries, otherwise updates of hot keys
+	 * never fill the memtable and the write ahead log grows without a flush.
+	 */
+	private int replacedVersions;
+	
+	/**
+	 * The size of all written tuples (including the replaced versions) in bytes
+	 */
+	private long writtenSize;
+	
 	/**
 	 * The timestamp when the memtable is created
 	 */
@@ -113,6 +145,18 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 	 */
 	private final WriteAheadLogWriter walWriter;
 	
+	/**
+	 * The latency of the write ahead log appends
+	 */
+	private final Histogram.Child walAppendLatency;
+	
+	/**
+	 * The collapsed tuple versions
+	 */
+	private final static Counter collapsedVersionsTotal = Counter.build()
+			.name("bboxdb_memtable_collapsed_versions_total")
+			.help("Number of tuple versions replaced in the memtable").register();
+	
 	/**
 	 * The Logger
 	 */
@@ -121,17 +165,38 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 	public Memtable(final TupleStoreName table, final int entries, final long maxSizeInMemory, 
 			final WriteAheadLogWriter walWriter) {
 		
+		this(table, entries, maxSizeInMemory, walWriter, false);
+	}
+	
+	/**
+	 * Create a new memtable
+	 * 
+	 * @param table
+	 * @param entries
+	 * @param maxSizeInMemory
+	 * @param walWriter
+	 * @param collapseVersions - keep only the newest version per key. Only allowed, 
+	 *                           when the table stores one version per key.
+	 */
+	public Memtable(final TupleStoreName table, final int entries, final long maxSizeInMemory, 
+			final WriteAheadLogWriter walWriter, final boolean collapseVersions) {
+		
 		this.table = table;
 		this.maxEntries = entries;
 		this.maxSizeInMemory = maxSizeInMemory;
 		this.walWriter = walWriter;
+		this.walAppendLatency = StorageMetrics.getLatencyHistogram(Operation.WAL_APPEND, table);
 		
 		this.data = new Tuple[entries];
 		this.freePos = -1;
 		this.sizeInMemory = 0;
+		this.replacedVersions = 0;
+		this.writtenSize = 0;
 		
 		this.bloomFilter = BloomFilterBuilder.buildBloomFilter(entries);
 		this.spatialIndex = SpatialIndexBuilderFactory.getInstance();
+		this.keyPositions = collapseVersions ? new HashMap<>() : null;
+		this.staleIndexEntries = 0;
 		
 		this.createdTimestamp = System.currentTimeMillis();
 		this.oldestTupleTimestamp = -1;
@@ -167,7 +232,22 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 		}
 		
 		if(walWriter != null) {
+			final Histogram.Timer walTimer = walAppendLatency.startTimer();
 			walWriter.addTuple(value);
+			walTimer.observeDuration();
+		}
+		
+		writtenSize = writtenSize + value.getSize();
+		
+		if(keyPositions != null) {
+			final Integer position = keyPositions.get(value.getKey());
+			
+			if(position != null) {
+				replaceVersion(position, value);
+				return;
+			}
+			
+			keyPositions.put(value.getKey(), freePos);
 		}
 
 		data[freePos] = value;
@@ -178,6 +258,64 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 		freePos++;
 		sizeInMemory = sizeInMemory + value.getSize();
 		
+		updateVersionTimestamps(value);
+	}
+	
+	/**
+	 * Replace the tuple at the given position, when the new tuple is more recent. 
+	 * The old tuple would be removed by the duplicate resolver of the table anyway.
+	 * 
+	 * @param position
+	 * @param value
+	 */
+	private void replaceVersion(final int position, final Tuple value) {
+		final Tuple oldTuple = data[position];
+		
+		collapsedVersionsTotal.inc();
+		replacedVersions++;
+		
+		if(oldTuple.getVersionTimestamp() > value.getVersionTimestamp()) {
+			return;
+		}
+		
+		data[position] = value;
+		sizeInMemory = sizeInMemory - oldTuple.getSize() + value.getSize();
+		
+		if(! Objects.equals(oldTuple.getBoundingBox(), value.getBoundingBox())) {
+			spatialIndex.insert(new SpatialIndexEntry(value.getBoundingBox(), position));
+			staleIndexEntries++;
+		}
+		
+		// Rebuild the spatial index, before the stale entries dominate the index
+		if(staleIndexEntries > maxEntries) {
+			rebuildSpatialIndex();
+		}
+		
+		updateVersionTimestamps(value);
+	}
+	
+	/**
+	 * Rebuild the spatial index with the current tuples
+	 */
+	private void rebuildSpatialIndex() {
+		final SpatialIndexBuilder newSpatialIndex = SpatialIndexBuilderFactory.getInstance();
+		final List<SpatialIndexEntry> entries = new ArrayList<>(freePos);
+		
+		for(int i = 0; i < freePos; i++) {
+			entries.add(new SpatialIndexEntry(data[i].getBoundingBox(), i));
+		}
+		
+		newSpatialIndex.bulkInsert(entries);
+		
+		spatialIndex = newSpatialIndex;
+		staleIndexEntries = 0;
+	}
+
+	/**
+	 * Update the oldest and the newest version timestamp
+	 * @param value
+	 */
+	private void updateVersionTimestamps(final Tuple value) {
 		if(oldestTupleTimestamp == -1) {
 			oldestTupleTimestamp = value.getVersionTimestamp();
 		} else {
@@ -218,6 +356,14 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 		return resultList;
 	}
 	
+	/**
+	 * The tuples of the memtable are already decoded, so all versions are returned
+	 */
+	@Override
+	public List<Tuple> getWithoutData(final String key) {
+		return get(key);
+	}
+	
 	/**
 	 * Delete a tuple, this is implemented by inserting a DeletedTuple object
 	 *
@@ -261,8 +407,14 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 			data[i] = null;
 		}
 		
+		if(keyPositions != null) {
+			keyPositions.clear();
+		}
+		
 		this.freePos = 0;
-		this.sizeInMemory = 0;		
+		this.sizeInMemory = 0;
+		this.replacedVersions = 0;
+		this.writtenSize = 0;
 	}
 	
 	/**
@@ -272,13 +424,13 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 	 */
 	public boolean isFull() {
 		
-		// Check size of the table
-		if(sizeInMemory >= maxSizeInMemory) {
+		// Check size of the table and of the written versions
+		if(sizeInMemory >= maxSizeInMemory || writtenSize >= maxSizeInMemory) {
 			return true;
 		}
 		
-		// Check number of entries
-		if(freePos + 1 > maxEntries) {
+		// Check number of entries and of the replaced versions
+		if(freePos + 1 > maxEntries || freePos + replacedVersions + 1 > maxEntries) {
 			return true;
 		}
 		
@@ -473,7 +625,19 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 	public Iterator<Tuple> getAllTuplesInBoundingBox(final Hyperrectangle boundingBox) {
 		assert (usage.get() > 0);
 
+		final long startTime = System.nanoTime();
 		final List<? extends SpatialIndexEntry> matchingKeys = spatialIndex.getEntriesForRegion(boundingBox);
+		QueryTrace.recordSpatialIndexLookup(System.nanoTime() - startTime, matchingKeys.size());
+		
+		// Index entries of replaced versions point to the new version of the tuple
+		if(keyPositions != null) {
+			return matchingKeys.stream()
+					.mapToInt(e -> (int) e.getValue())
+					.distinct()
+					.mapToObj(p -> data[p])
+					.filter(t -> t.getBoundingBox() == null || t.getBoundingBox().intersects(boundingBox))
+					.iterator();
+		}
 		
 		final Iterator<? extends SpatialIndexEntry> keyIterator = matchingKeys.iterator();
 		
@@ -493,6 +657,11 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 		};
 	}
 
+	@Override
+	public Iterator<String> getAllKeysInBoundingBox(final Hyperrectangle boundingBox) {
+		return Iterators.transform(getAllTuplesInBoundingBox(boundingBox), t -> t.getKey());
+	}
+
 	@Override
 	public boolean isPersistent() {
 		return false;
@@ -23,6 +23,8 @@ import java.util.function.BiConsumer;
 
 import org.bboxdb.commons.FileSizeHelper;
 import org.bboxdb.commons.concurrent.ExceptionSafeRunnable;
+import org.bboxdb.performance.StorageMetrics;
+import org.bboxdb.performance.StorageMetrics.Operation;
 import org.bboxdb.storage.entity.MemtableAndTupleStoreManagerPair;
 import org.bboxdb.storage.entity.TupleStoreName;
 import org.bboxdb.storage.sstable.SSTableWriter;
@@ -33,6 +35,8 @@ import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.prometheus.client.Histogram;
+
 public class MemtableWriterRunnable extends ExceptionSafeRunnable {
 
 	/**
@@ -95,6 +99,9 @@ public class MemtableWriterRunnable extends ExceptionSafeRunnable {
 	protected void flushMemtableToDisk(final Memtable memtable, final TupleStoreManager sstableManager) {
 
 		SSTableFacade facade = null;
+		
+		final Histogram.Timer flushTimer = StorageMetrics.getLatencyHistogram(Operation.MEMTABLE_FLUSH, 
+				sstableManager.getTupleStoreName()).startTimer();
 
 		try {			
 			// Don't write empty memtables to disk
@@ -131,6 +138,8 @@ public class MemtableWriterRunnable extends ExceptionSafeRunnable {
 				Thread.currentThread().interrupt();
 				return;
 			} 
+		} finally {
+			flushTimer.observeDuration();
 		}
 	}
 
@@ -0,0 +1,262 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import org.bboxdb.commons.DuplicateResolver;
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.BoundingBoxAggregate;
+import org.bboxdb.storage.entity.CellGrid;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.sstable.duplicateresolver.TupleDuplicateResolverFactory;
+import org.bboxdb.storage.tuplestore.ReadOnlyTupleStore;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.bboxdb.storage.util.TupleHelper;
+
+/**
+ * Aggregate the tuples of a tuple store manager that intersect a query box. Only the 
+ * keys, the bounding boxes and the timestamps of the tuples are read, the data of the
+ * tuples is never decoded.
+ * 
+ * A tuple that spans multiple distribution regions is stored in each of these regions. 
+ * To count such a tuple only once, it is only counted in the region that contains the
+ * lower corner of the intersection between the tuple and the query box (or the 
+ * histogram cell). The covering box is only extended by the counted tuples.
+ */
+public class BoundingBoxAggregator {
+	
+	/**
+	 * The maximal number of histogram cells
+	 */
+	public final static long MAX_HISTOGRAM_CELLS = 1_000_000;
+
+	/**
+	 * The tuple store manager
+	 */
+	private final TupleStoreManager tupleStoreManager;
+	
+	/**
+	 * The query box
+	 */
+	private final Hyperrectangle queryBox;
+	
+	/**
+	 * The box of the distribution region of the tuple store manager
+	 */
+	private final Hyperrectangle regionBox;
+	
+	/**
+	 * The grid for the histogram, null if no histogram is calculated
+	 */
+	private final CellGrid cellGrid;
+
+	public BoundingBoxAggregator(final TupleStoreManager tupleStoreManager, 
+			final Hyperrectangle queryBox, final Hyperrectangle regionBox, 
+			final CellGrid cellGrid) {
+		
+		this.tupleStoreManager = Objects.requireNonNull(tupleStoreManager);
+		this.queryBox = Objects.requireNonNull(queryBox);
+		this.regionBox = Objects.requireNonNull(regionBox);
+		this.cellGrid = cellGrid;
+	}
+	
+	/**
+	 * Aggregate the tuples
+	 * @return
+	 * @throws StorageManagerException
+	 */
+	public BoundingBoxAggregate aggregate() throws StorageManagerException {
+		
+		final BoundingBoxAggregate aggregate = new BoundingBoxAggregate();
+		
+		final DuplicateResolver<Tuple> resolver 
+			= TupleDuplicateResolverFactory.build(tupleStoreManager.getTupleStoreConfiguration());
+		
+		List<ReadOnlyTupleStore> aquiredStorages = null;
+		
+		try {
+			aquiredStorages = tupleStoreManager.aquireStorage();
+			final Set<String> seenKeys = new HashSet<>();
+			
+			for(final ReadOnlyTupleStore tupleStore : aquiredStorages) {
+				final Iterator<String> keyIterator = tupleStore.getAllKeysInBoundingBox(queryBox);
+				
+				while(keyIterator.hasNext()) {
+					final String key = keyIterator.next();
+					
+					if(! seenKeys.add(key)) {
+						continue;
+					}
+					
+					// Resolve the versions of the tuple like a range query
+					final List<Tuple> tupleVersions = new ArrayList<>();
+					
+					for(final ReadOnlyTupleStore versionStore : aquiredStorages) {
+						tupleVersions.addAll(versionStore.getWithoutData(key));
+					}
+					
+					resolver.removeDuplicates(tupleVersions);
+					
+					for(final Tuple tuple : tupleVersions) {
+						aggregateTuple(tuple, aggregate);
+					}
+				}
+			}
+		} finally {
+			tupleStoreManager.releaseStorage(aquiredStorages);
+		}
+		
+		return aggregate;
+	}
+
+	/**
+	 * Add the tuple to the aggregate
+	 * @param tuple
+	 * @param aggregate
+	 */
+	private void aggregateTuple(final Tuple tuple, final BoundingBoxAggregate aggregate) {
+		
+		if(TupleHelper.isDeletedTuple(tuple)) {
+			return;
+		}
+		
+		final Hyperrectangle boundingBox = tuple.getBoundingBox();
+		
+		if(boundingBox == null || boundingBox.getDimension() == 0) {
+			return;
+		}
+		
+		if(! boundingBox.intersects(queryBox)) {
+			return;
+		}
+		
+		final Hyperrectangle queriedPart = (queryBox.getDimension() == 0) 
+				? boundingBox : boundingBox.getIntersection(queryBox);
+		
+		// Tuple only touches the query box
+		if(queriedPart.getDimension() == 0 || isTouchingBox(boundingBox, queriedPart, queryBox)) {
+			return;
+		}
+		
+		// The covering box contains exactly the counted tuples
+		if(isResponsibleRegion(queriedPart)) {
+			aggregate.incrementCount();
+			aggregate.extendCoveringBox(boundingBox);
+		}
+		
+		if(cellGrid == null) {
+			return;
+		}
+		
+		for(final Hyperrectangle cell : cellGrid.getAllInersectedBoundingBoxes(queriedPart)) {
+			final Hyperrectangle cellPart = boundingBox.getIntersection(cell);
+			
+			// Tuple only touches the border of the cell
+			if(isTouchingBox(boundingBox, cellPart, cell)) {
+				continue;
+			}
+			
+			if(isResponsibleRegion(cellPart)) {
+				aggregate.addToCell(cell, 1);
+			}
+		}
+	}
+	
+	/**
+	 * Does the tuple only touch the border of the box (the query box or a histogram 
+	 * cell)? The intersection of closed intervals is a point in this case.
+	 * 
+	 * @param boundingBox
+	 * @param part - the intersection of the bounding box and the box
+	 * @param box
+	 * @return
+	 */
+	private boolean isTouchingBox(final Hyperrectangle boundingBox, 
+			final Hyperrectangle part, final Hyperrectangle box) {
+		
+		if(box.getDimension() == 0 || part.getDimension() == 0) {
+			return false;
+		}
+		
+		for(int d = 0; d < part.getDimension(); d++) {
+			if(part.getExtent(d) == 0 && boundingBox.getExtent(d) > 0 
+					&& box.getExtent(d) > 0) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Is the region of this aggregator responsible for the box? The region is 
+	 * responsible if it contains the lower corner of the box.
+	 * 
+	 * @param box
+	 * @return
+	 */
+	private boolean isResponsibleRegion(final Hyperrectangle box) {
+		
+		// Box is empty, e.g., the tuple only touches the border of a cell
+		if(box.getDimension() == 0) {
+			return false;
+		}
+		
+		// No region restriction (e.g., a tuple store without a distribution region)
+		if(regionBox.getDimension() == 0) {
+			return true;
+		}
+		
+		if(regionBox.getDimension() != box.getDimension()) {
+			return false;
+		}
+		
+		for(int d = 0; d < box.getDimension(); d++) {
+			if(! regionBox.isCoveringPointInDimension(box.getCoordinateLow(d), d)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Get the number of histogram cells for the given box and cell size
+	 * @param boundingBox
+	 * @param cellSize
+	 * @return
+	 */
+	public static double getNumberOfHistogramCells(final Hyperrectangle boundingBox, 
+			final double cellSize) {
+		
+		double cells = 1;
+		
+		for(int d = 0; d < boundingBox.getDimension(); d++) {
+			cells = cells * Math.ceil(boundingBox.getExtent(d) / cellSize);
+		}
+		
+		return cells;
+	}
+}
@@ -24,6 +24,9 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
+import org.bboxdb.performance.QueryTrace;
+import org.bboxdb.performance.StorageMetrics;
+import org.bboxdb.performance.StorageMetrics.Operation;
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.JoinedTuple;
 import org.bboxdb.storage.entity.Tuple;
@@ -212,6 +215,8 @@ public abstract class AbstractTablescanOperator implements Operator {
 			close();
 			aquiredStorages.addAll(tupleStoreManager.aquireStorage());			
 			unprocessedStorages.addAll(aquiredStorages);
+			StorageMetrics.addReadTupleStores(Operation.RANGE_QUERY, aquiredStorages.size());
+			QueryTrace.recordCounter(QueryTrace.Counter.TUPLE_STORES, aquiredStorages.size());
 			ready = true;		
 		} catch (StorageManagerException e) {
 			logger.error("Unable to aquire tables", e);
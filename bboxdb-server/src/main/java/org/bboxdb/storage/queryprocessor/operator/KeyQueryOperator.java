@@ -0,0 +1,241 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor.operator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.OptionalInt;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+import org.bboxdb.performance.QueryTrace;
+import org.bboxdb.performance.StorageMetrics;
+import org.bboxdb.performance.StorageMetrics.Operation;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.JoinedTuple;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreConfiguration;
+import org.bboxdb.storage.sstable.duplicateresolver.TupleDuplicateResolverFactory;
+import org.bboxdb.storage.tuplestore.ReadOnlyTupleStore;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Iterators;
+
+/**
+ * Read the tuples for a key from multiple tuple stores (e.g., the regions
+ * of a table). The tuple stores of all tuple store managers are acquired when 
+ * the iterator is created and released when the operator is closed.
+ * 
+ * The tuples are returned newest first. The tuple stores are read one after 
+ * another, ordered by their newest tuple version. A tuple is returned as soon
+ * as no unread tuple store can contain a newer version, so only the versions
+ * that are not yet returned are held in memory. The duplicate resolver of the 
+ * table is applied while the tuples are read: the TTL is checked for each tuple 
+ * and the iterator stops after the version limit. Tuple stores that are not 
+ * needed for the version limit are never read.
+ */
+public class KeyQueryOperator implements Operator {
+
+	private final class NewestFirstIterator implements Iterator<Tuple> {
+		
+		/**
+		 * The read but not returned tuples
+		 */
+		private final PriorityQueue<Tuple> readTuples = new PriorityQueue<>(NEWEST_FIRST);
+		
+		/**
+		 * The check for the TTL of the tuples
+		 */
+		private final Predicate<Tuple> tupleFilter;
+		
+		public NewestFirstIterator(final Predicate<Tuple> tupleFilter) {
+			this.tupleFilter = tupleFilter;
+		}
+		
+		/**
+		 * Read the tuple stores until no unread tuple store can contain a newer
+		 * version than the newest read tuple
+		 */
+		private void readTupleStores() {
+			while(! unprocessedStorages.isEmpty()) {
+				final Tuple newestTuple = readTuples.peek();
+				final ReadOnlyTupleStore nextStorage = unprocessedStorages.get(0);
+				
+				if(newestTuple != null && newestTuple.getVersionTimestamp() 
+						>= newestVersions.get(nextStorage)) {
+					return;
+				}
+				
+				unprocessedStorages.remove(0);
+				
+				try {
+					for(final Tuple tuple : nextStorage.get(key)) {
+						if(tupleFilter.test(tuple)) {
+							readTuples.add(tuple);
+						}
+					}
+				} catch (StorageManagerException e) {
+					logger.error("Got an exception while fetching tuples for key " + key, e);
+				}
+			}
+		}
+		
+		@Override
+		public boolean hasNext() {
+			readTupleStores();
+			return ! readTuples.isEmpty();
+		}
+
+		@Override
+		public Tuple next() {
+			
+			if(! hasNext()) {
+				throw new NoSuchElementException("All tuples are read");
+			}
+			
+			return readTuples.poll();
+		}
+	}
+
+	/**
+	 * The key to read
+	 */
+	private final String key;
+	
+	/**
+	 * The tuple stores to read
+	 */
+	private final List<TupleStoreManager> tupleStoreManagers;
+	
+	/**
+	 * The table name of the result tuples
+	 */
+	private final String tablename;
+	
+	/**
+	 * The aquired storages
+	 */
+	private final List<ReadOnlyTupleStore> aquiredStorages = new ArrayList<>();
+	
+	/**
+	 * The unprocessed storages, newest first
+	 */
+	private final List<ReadOnlyTupleStore> unprocessedStorages = new LinkedList<>();
+	
+	/**
+	 * The newest tuple version of the aquired storages. The value is read once,
+	 * a memtable can receive newer tuples while the operator is open.
+	 */
+	private final Map<ReadOnlyTupleStore, Long> newestVersions = new HashMap<>();
+	
+	/**
+	 * Order the tuples by version, newest first
+	 */
+	private final static Comparator<Tuple> NEWEST_FIRST 
+		= Comparator.comparingLong(Tuple::getVersionTimestamp).reversed();
+	
+	/**
+	 * The Logger
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(KeyQueryOperator.class);
+	
+	public KeyQueryOperator(final String key, final List<TupleStoreManager> tupleStoreManagers, 
+			final String tablename) {
+		
+		this.key = key;
+		this.tupleStoreManagers = tupleStoreManagers;
+		this.tablename = tablename;
+	}
+
+	@Override
+	public Iterator<JoinedTuple> iterator() {
+		
+		if(tupleStoreManagers.isEmpty()) {
+			return Collections.emptyIterator();
+		}
+		
+		if(! aquireStorage()) {
+			return Collections.emptyIterator();
+		}
+		
+		// All tuple stores belong to the same table and share the configuration
+		final TupleStoreConfiguration configuration 
+			= tupleStoreManagers.get(0).getTupleStoreConfiguration();
+		
+		final OptionalInt maxVersions = TupleDuplicateResolverFactory.getMaxVersions(configuration);
+		
+		Iterator<Tuple> tupleIterator 
+			= new NewestFirstIterator(TupleDuplicateResolverFactory.buildTupleFilter(configuration));
+		
+		if(maxVersions.isPresent()) {
+			tupleIterator = Iterators.limit(tupleIterator, maxVersions.getAsInt());
+		} 
+		
+		return Iterators.transform(tupleIterator, t -> new JoinedTuple(t, tablename));
+	}
+
+	/**
+	 * Acquire the tuple stores of all tuple store managers
+	 * @return
+	 */
+	private boolean aquireStorage() {
+		try {
+			close();
+			
+			for(final TupleStoreManager tupleStoreManager : tupleStoreManagers) {
+				aquiredStorages.addAll(tupleStoreManager.aquireStorage());
+			}
+			
+			StorageMetrics.addReadTupleStores(Operation.KEY_QUERY, aquiredStorages.size());
+			QueryTrace.recordCounter(QueryTrace.Counter.TUPLE_STORES, aquiredStorages.size());
+			
+			for(final ReadOnlyTupleStore storage : aquiredStorages) {
+				newestVersions.put(storage, storage.getNewestTupleVersionTimestamp());
+			}
+			
+			unprocessedStorages.addAll(aquiredStorages);
+			unprocessedStorages.sort(Comparator.comparingLong(newestVersions::get).reversed());
+			
+			return true;
+		} catch (StorageManagerException e) {
+			logger.error("Unable to aquire tables", e);
+			close();
+			return false;
+		}
+	}
+	
+	/**
+	 * Release all aquired tables
+	 */
+	@Override
+	public void close() {
+		aquiredStorages.forEach(s -> s.release());
+		aquiredStorages.clear();
+		unprocessedStorages.clear();
+		newestVersions.clear();
+	}
+}
@@ -18,6 +18,13 @@
 package org.bboxdb.storage.sstable;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.TupleStoreName;
@@ -264,4 +271,55 @@ public class SSTableHelper {
 	public static boolean isFileNameWAL(final String filename) {
 		return filename.endsWith(SSTableConst.MEMTABLE_WAL_SUFFIX);
 	}
+	
+	/**
+	 * Link (or copy if the directories are located on different file systems) all 
+	 * files of a SSTable into another directory. The SSTable can get a new number.
+	 * 
+	 * @param sourceDirectory
+	 * @param sourceNumber
+	 * @param destinationDirectory
+	 * @param destinationNumber
+	 * @param name
+	 * @return the created files
+	 * @throws IOException
+	 */
+	public static List<File> linkOrCopySSTable(final String sourceDirectory, final int sourceNumber, 
+			final String destinationDirectory, final int destinationNumber, final TupleStoreName name) 
+					throws IOException {
+		
+		final String sourceBase = getSSTableBase(sourceDirectory, name, sourceNumber);
+		final String destinationBase = getSSTableBase(destinationDirectory, name, destinationNumber);
+		
+		final List<String> suffixes = Arrays.asList(SSTableConst.SST_FILE_SUFFIX, 
+				SSTableConst.SST_INDEX_SUFFIX, SSTableConst.SST_SPATIAL_INDEX_SUFFIX, 
+				SSTableConst.SST_BLOOM_SUFFIX, SSTableConst.SST_META_SUFFIX);
+		
+		final List<File> createdFiles = new ArrayList<>();
+		
+		try {
+			for(final String suffix : suffixes) {
+				final Path source = Paths.get(sourceBase + suffix);
+				final Path destination = Paths.get(destinationBase + suffix);
+				
+				// The bloom filter is optional
+				if(! Files.exists(source) && suffix.equals(SSTableConst.SST_BLOOM_SUFFIX)) {
+					continue;
+				}
+				
+				try {
+					Files.createLink(destination, source);
+				} catch (UnsupportedOperationException | IOException e) {
+					Files.copy(source, destination);
+				}
+				
+				createdFiles.add(destination.toFile());
+			}
+		} catch (IOException e) {
+			createdFiles.forEach(f -> f.delete());
+			throw e;
+		}
+		
+		return createdFiles;
+	}
 }
@@ -17,7 +17,11 @@
  *******************************************************************************/
 package org.bboxdb.storage.sstable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.commons.math.QuantileSketch;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreMetaData;
 
@@ -48,6 +52,11 @@ public class SSTableMetadataBuilder {
 	 */
 	protected Hyperrectangle boundingBox;
 	
+	/**
+	 * The quantile sketches of the bounding box centers (one per dimension)
+	 */
+	protected final List<QuantileSketch> centerSketches = new ArrayList<>();
+	
 	/**
 	 * Update the metadata 
 	 */
@@ -61,6 +70,8 @@ public class SSTableMetadataBuilder {
 			// the bounding box of the tuple
 			boundingBox = Hyperrectangle.getCoveringBox(boundingBox, tuple.getBoundingBox());
 		}
+		
+		updateCenterSketches(tuple.getBoundingBox());
 				
 		// Update the newest and the oldest tuple
 		newestTupleVersionTimstamp = Math.max(newestTupleVersionTimstamp, tuple.getVersionTimestamp());
@@ -68,6 +79,37 @@ public class SSTableMetadataBuilder {
 		newestTupleInsertedTimstamp = Math.max(newestTupleInsertedTimstamp, tuple.getReceivedTimestamp());
 	}
 	
+	/**
+	 * Add the center of the bounding box to the sketches
+	 * @param tupleBoundingBox
+	 */
+	public void updateCenterSketches(final Hyperrectangle tupleBoundingBox) {
+		
+		// Ignore tuples with an empty box (e.g. deleted tuples)
+		if(tupleBoundingBox == null || tupleBoundingBox.equals(Hyperrectangle.FULL_SPACE)) {
+			return;
+		}
+		
+		final int dimensions = tupleBoundingBox.getDimension();
+		
+		while(centerSketches.size() < dimensions) {
+			centerSketches.add(new QuantileSketch());
+		}
+		
+		for(int dimension = 0; dimension < dimensions; dimension++) {
+			final double center = tupleBoundingBox.getIntervalForDimension(dimension).getMidpoint();
+			centerSketches.get(dimension).add(center);
+		}
+	}
+	
+	/**
+	 * Get the quantile sketches of the bounding box centers
+	 * @return
+	 */
+	public List<QuantileSketch> getCenterSketches() {
+		return centerSketches;
+	}
+	
 	/**
 	 * Get the metadata object for the seen tuples
 	 * @return
@@ -79,7 +121,14 @@ public class SSTableMetadataBuilder {
 			boundingBoxArray = boundingBox.toDoubleArray();
 		}
 		
+		final double[][] centerSketchData = new double[centerSketches.size()][];
+		
+		for(int dimension = 0; dimension < centerSketches.size(); dimension++) {
+			centerSketchData[dimension] = centerSketches.get(dimension).toArray();
+		}
+		
 		return new TupleStoreMetaData(tuples, oldestTupleVersionTimestamp, 
-				newestTupleVersionTimstamp, newestTupleInsertedTimstamp, boundingBoxArray);
+				newestTupleVersionTimstamp, newestTupleInsertedTimstamp, boundingBoxArray, 
+				centerSketchData);
 	}
 }
@@ -59,7 +59,7 @@ public class CompactorHelper {
 			final SpacePartitioner spacePartitioner = SpacePartitionerCache.getInstance()
 					.getSpacePartitionerForGroupName(distributionGroup);
 			
-			final DistributionRegion distributionRegion = spacePartitioner.getRootNode();
+			final DistributionRegion distributionRegion = spacePartitioner.getRootNodeSnapshot();
 
 			final DistributionRegion regionToSplit = DistributionRegionHelper
 					.getDistributionRegionForNamePrefix(distributionRegion, regionId);
@@ -37,6 +37,8 @@ import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
 import org.bboxdb.distribution.zookeeper.ZookeeperException;
 import org.bboxdb.misc.BBoxDBConfiguration;
 import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.performance.StorageMetrics;
+import org.bboxdb.performance.StorageMetrics.Operation;
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.TupleStoreName;
 import org.bboxdb.storage.sstable.SSTableWriter;
@@ -51,6 +53,9 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
 
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+
 public class SSTableServiceRunnable extends ExceptionSafeRunnable {
 	
 	/**
@@ -63,6 +68,13 @@ public class SSTableServiceRunnable extends ExceptionSafeRunnable {
 	 */
 	protected final DiskStorage storage;
 	
+	/**
+	 * The dropped expired SSTables
+	 */
+	private final static Counter expiredSSTablesTotal = Counter.build()
+			.name("bboxdb_expired_sstables_dropped_total")
+			.help("Number of SSTables dropped because all tuples are older than the TTL").register();
+	
 	/**
 	 * The logger
 	 */
@@ -138,6 +150,8 @@ public class SSTableServiceRunnable extends ExceptionSafeRunnable {
 					continue;
 				}
 			
+				dropExpiredSSTables(tupleStoreManager);
+			
 				final List<SSTableFacade> facades = getAllTupleStores(tupleStoreManager);
 				final MergeTask mergeTask = mergeStrategy.getMergeTask(facades);
 				executeCompactTask(mergeTask, tupleStoreManager);
@@ -149,6 +163,37 @@ public class SSTableServiceRunnable extends ExceptionSafeRunnable {
 		}		
 	}
 	
+	/**
+	 * Drop the SSTables that contain only tuples older than the TTL of the table. 
+	 * The decision is based on the metadata of the SSTable, the data is not read.
+	 * 
+	 * @param tupleStoreManager
+	 * @throws StorageManagerException
+	 */
+	private void dropExpiredSSTables(final TupleStoreManager tupleStoreManager) 
+			throws StorageManagerException {
+		
+		final List<SSTableFacade> expiredFacades = getAllTupleStores(tupleStoreManager)
+				.stream()
+				.filter(f -> tupleStoreManager.isTupleStoreExpired(f))
+				.collect(Collectors.toList());
+		
+		if(expiredFacades.isEmpty()) {
+			return;
+		}
+		
+		logger.info("Dropping {} expired SSTables of {}", expiredFacades.size(), 
+				tupleStoreManager.getTupleStoreName().getFullname());
+		
+		try {
+			tupleStoreManager.replaceCompactedSStables(new ArrayList<>(), expiredFacades);
+			expiredFacades.forEach(f -> f.deleteOnClose());
+			expiredSSTablesTotal.inc(expiredFacades.size());
+		} catch (RejectedException e) {
+			throw new StorageManagerException(e);
+		}
+	}
+	
 	/**
 	 * Should the compact run be skipped?
 	 * @param tupleStoreName
@@ -260,6 +305,9 @@ public class SSTableServiceRunnable extends ExceptionSafeRunnable {
 			writeMergeLog(facades, majorCompaction);
 		}
 		
+		final Histogram.Timer compactionTimer = StorageMetrics.getLatencyHistogram(Operation.COMPACTION, 
+				sstableManager.getTupleStoreName()).startTimer();
+		
 		// Run the compact process
 		final SSTableCompactor ssTableCompactor = new SSTableCompactor(sstableManager, reader);
 		ssTableCompactor.setMajorCompaction(majorCompaction);
@@ -272,7 +320,8 @@ public class SSTableServiceRunnable extends ExceptionSafeRunnable {
 				ssTableCompactor.getReadTuples(), ssTableCompactor.getWrittenTuples(), 
 				mergeFactor);
 		
-		registerNewFacadeAndDeleteOldInstances(sstableManager, facades, newTables);		
+		registerNewFacadeAndDeleteOldInstances(sstableManager, facades, newTables);
+		compactionTimer.observeDuration();
 	}
 
 	/**
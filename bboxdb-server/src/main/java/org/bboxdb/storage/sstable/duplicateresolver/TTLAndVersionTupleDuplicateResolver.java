@@ -29,7 +29,8 @@ public class TTLAndVersionTupleDuplicateResolver implements DuplicateResolver<Tu
 	protected final List<DuplicateResolver<Tuple>> duplicateResolver;
 
 	public TTLAndVersionTupleDuplicateResolver(final long ttl, final TimeUnit timeUnit, final int versions) {
-		this(ttl, timeUnit, versions, System.currentTimeMillis());
+		// Tuple timestamp is in microseconds
+		this(ttl, timeUnit, versions, System.currentTimeMillis() * 1000);
 	}
 	
 	public TTLAndVersionTupleDuplicateResolver(final long ttl, final TimeUnit timeUnit,
@@ -17,7 +17,9 @@
  *******************************************************************************/
 package org.bboxdb.storage.sstable.duplicateresolver;
 
+import java.util.OptionalInt;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 import org.bboxdb.commons.DuplicateResolver;
 import org.bboxdb.storage.entity.Tuple;
@@ -58,4 +60,59 @@ public class TupleDuplicateResolverFactory {
 		return new DoNothingDuplicateResolver();
 	}
 	
+	/**
+	 * Does the duplicate resolver of the configuration keep only the newest version of a key?
+	 * @param tupleStoreConfiguration
+	 * @return
+	 */
+	public static boolean isOnlyNewestVersionKept(final TupleStoreConfiguration tupleStoreConfiguration) {
+		
+		if(! tupleStoreConfiguration.isAllowDuplicates()) {
+			return true;
+		}
+		
+		// Only the newest version is kept, a configured TTL can remove this version too,
+		// but never keeps a older version
+		return tupleStoreConfiguration.getVersions() == 1;
+	}
+	
+	/**
+	 * Get the maximal number of versions of a key that are kept by the 
+	 * duplicate resolver of the configuration
+	 * @param tupleStoreConfiguration
+	 * @return the number of versions or an empty optional, if the versions are not limited
+	 */
+	public static OptionalInt getMaxVersions(final TupleStoreConfiguration tupleStoreConfiguration) {
+		
+		if(! tupleStoreConfiguration.isAllowDuplicates()) {
+			return OptionalInt.of(1);
+		}
+		
+		if(tupleStoreConfiguration.getVersions() > 0) {
+			return OptionalInt.of(tupleStoreConfiguration.getVersions());
+		}
+		
+		return OptionalInt.empty();
+	}
+	
+	/**
+	 * Get the part of the duplicate resolver of the configuration that can be applied
+	 * to each tuple on its own (the TTL). Together with getMaxVersions(), the resolver 
+	 * can be applied while the versions of a key are read newest first.
+	 * @param tupleStoreConfiguration
+	 * @return
+	 */
+	public static Predicate<Tuple> buildTupleFilter(final TupleStoreConfiguration tupleStoreConfiguration) {
+		
+		// The TTL is only applied, when duplicates are allowed
+		if(! tupleStoreConfiguration.isAllowDuplicates() || tupleStoreConfiguration.getTTL() <= 0) {
+			return t -> true;
+		}
+		
+		// Tuple timestamp is in microseconds
+		final long removalTimestamp = System.currentTimeMillis() * 1000 
+				- TimeUnit.MILLISECONDS.toMicros(tupleStoreConfiguration.getTTL());
+		
+		return t -> t.getVersionTimestamp() >= removalTimestamp;
+	}
 }
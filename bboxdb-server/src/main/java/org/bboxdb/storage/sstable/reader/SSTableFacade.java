@@ -28,6 +28,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.misc.BBoxDBService;
+import org.bboxdb.performance.QueryTrace;
 import org.bboxdb.storage.BloomFilterBuilder;
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.Tuple;
@@ -43,6 +44,8 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.hash.BloomFilter;
 
+import io.prometheus.client.Counter;
+
 public class SSTableFacade implements BBoxDBService, ReadOnlyTupleStore {
 	 
 	/**
@@ -71,14 +74,19 @@ public class SSTableFacade implements BBoxDBService, ReadOnlyTupleStore {
 	protected final TupleStoreMetaData ssTableMetadata;
 	
 	/**
-	 * The spatial index
+	 * The spatial index (loaded on first access)
+	 */
+	protected volatile SpatialIndexReader spatialIndex;
+	
+	/**
+	 * The Bloom filter (loaded on first access)
 	 */
-	protected SpatialIndexReader spatialIndex;
+	protected volatile BloomFilter<String> bloomfilter;
 	
 	/**
-	 * The Bloom filter
+	 * Is the bloom filter loaded
 	 */
-	protected BloomFilter<String> bloomfilter;
+	protected volatile boolean bloomfilterLoaded;
 	
 	/**
 	 * The number of the table
@@ -100,6 +108,20 @@ public class SSTableFacade implements BBoxDBService, ReadOnlyTupleStore {
 	 */
 	protected int keyCacheElements;
 	
+	/**
+	 * The bloom filter requests
+	 */
+	private final static Counter bloomFilterRequestsTotal = Counter.build()
+			.name("bboxdb_bloomfilter_requests_total")
+			.help("Number of key lookups checked against the SSTable bloom filters.").register();
+	
+	/**
+	 * The bloom filter false positives
+	 */
+	private final static Counter bloomFilterFalsePositivesTotal = Counter.build()
+			.name("bboxdb_bloomfilter_false_positives_total")
+			.help("Number of key lookups that passed the bloom filter, but found no tuple.").register();
+	
 	/**
 	 * The Logger
 	 */
@@ -155,7 +177,7 @@ public class SSTableFacade implements BBoxDBService, ReadOnlyTupleStore {
 	 * Load the spatial index from file
 	 * @throws StorageManagerException 
 	 */
-	protected void loadSpatialIndex(final File spatialIndexFile) throws StorageManagerException {
+	protected SpatialIndexReader loadSpatialIndex(final File spatialIndexFile) throws StorageManagerException {
 		if(! spatialIndexFile.exists()) {
 			throw new StorageManagerException("The spatial index does not exists: " + spatialIndexFile);
 		}
@@ -163,9 +185,9 @@ public class SSTableFacade implements BBoxDBService, ReadOnlyTupleStore {
 		try (   final RandomAccessFile randomAccessFile = new RandomAccessFile(spatialIndexFile, "r") 
 			) {
 			
-			spatialIndex = SpatialIndexReaderFactory.getInstance();
-			spatialIndex.readFromFile(randomAccessFile);
-			
+			final SpatialIndexReader spatialIndexReader = SpatialIndexReaderFactory.getInstance();
+			spatialIndexReader.readFromFile(randomAccessFile);
+			return spatialIndexReader;
 		} catch (Exception e) {
 			throw new StorageManagerException(e);
 		}
@@ -175,21 +197,62 @@ public class SSTableFacade implements BBoxDBService, ReadOnlyTupleStore {
 	 * Load the boom filter from file
 	 * @param bloomFilterFile
 	 */
-	protected void loadBloomFilter(final File bloomFilterFile) {
+	protected BloomFilter<String> loadBloomFilter(final File bloomFilterFile) {
 		
 		if(! bloomFilterFile.exists()) {
-			logger.warn("Bloom filter file {} does not exist, working without bloom filter");
-			bloomfilter = null;
-			return;
+			logger.warn("Bloom filter file {} does not exist, working without bloom filter", bloomFilterFile);
+			return null;
 		}
 	
 		try {
-			bloomfilter = BloomFilterBuilder.loadBloomFilterFromFile(bloomFilterFile);
+			return BloomFilterBuilder.loadBloomFilterFromFile(bloomFilterFile);
 		} catch (IOException e) {
 			logger.warn("Unable to load the bloom filter", e);
-			bloomfilter = null;
+			return null;
 		}	
 	}
+	
+	/**
+	 * Get the spatial index, the index is loaded on the first access
+	 * @return
+	 * @throws StorageManagerException
+	 */
+	protected SpatialIndexReader getSpatialIndex() throws StorageManagerException {
+		
+		if(spatialIndex != null) {
+			return spatialIndex;
+		}
+		
+		synchronized (this) {
+			if(spatialIndex == null) {
+				final File spatialIndexFile = getSpatialIndexFile(directory, tablename, tablenumber);
+				spatialIndex = loadSpatialIndex(spatialIndexFile); 
+			}
+			
+			return spatialIndex;
+		}
+	}
+	
+	/**
+	 * Get the bloom filter, the filter is loaded on the first access
+	 * @return the bloom filter or null
+	 */
+	protected BloomFilter<String> getBloomFilter() {
+		
+		if(bloomfilterLoaded) {
+			return bloomfilter;
+		}
+		
+		synchronized (this) {
+			if(! bloomfilterLoaded) {
+				final File bloomFilterFile = getBloomFilterFile(directory, tablename, tablenumber);
+				bloomfilter = loadBloomFilter(bloomFilterFile);
+				bloomfilterLoaded = true;
+			}
+			
+			return bloomfilter;
+		}
+	}
 
 	/**
 	 * Calculate the name of the metadata file
@@ -218,13 +281,13 @@ public class SSTableFacade implements BBoxDBService, ReadOnlyTupleStore {
 			ssTableKeyIndexReader.init();
 			ssTableKeyIndexReader.activateKeyCache(keyCacheElements);
 			
-			// Spatial index
+			// The spatial index and the bloom filter are loaded on the first access, 
+			// only ensure that the spatial index exists
 			final File spatialIndexFile = getSpatialIndexFile(directory, tablename, tablenumber);
-			loadSpatialIndex(spatialIndexFile); 
 			
-			// Bloom filter
-			final File bloomFilterFile = getBloomFilterFile(directory, tablename, tablenumber);
-			loadBloomFilter(bloomFilterFile);
+			if(! spatialIndexFile.exists()) {
+				throw new StorageManagerException("The spatial index does not exists: " + spatialIndexFile);
+			}
 		} catch (StorageManagerException e) {
 			throw new BBoxDBException(e);
 		}
@@ -240,8 +303,11 @@ public class SSTableFacade implements BBoxDBService, ReadOnlyTupleStore {
 			ssTableReader.shutdown();
 		}
 		
-		if(spatialIndex != null) {
-			spatialIndex.close();
+		synchronized (this) {
+			if(spatialIndex != null) {
+				spatialIndex.close();
+				spatialIndex = null;
+			}
 		}
 	}
 
@@ -387,24 +453,59 @@ public class SSTableFacade implements BBoxDBService, ReadOnlyTupleStore {
 		
 		assert (usage.get() > 0);
 
+		final List<Tuple> resultList = new ArrayList<>();
+		
+		for(final Integer position : getPositionsForKey(key)) {
+			resultList.add(ssTableReader.getTupleAtPosition(position));
+		}
+		
+		return resultList;
+	}
+	
+	@Override
+	public List<Tuple> getWithoutData(final String key) throws StorageManagerException {
+		
+		assert (usage.get() > 0);
+
+		final List<Tuple> resultList = new ArrayList<>();
+		
+		for(final Integer position : getPositionsForKey(key)) {
+			resultList.add(ssTableReader.getTupleWithoutDataAtPosition(position));
+		}
+		
+		return resultList;
+	}
+
+	/**
+	 * Get the positions of the tuples for the given key
+	 * 
+	 * @param key
+	 * @return
+	 * @throws StorageManagerException
+	 */
+	private List<Integer> getPositionsForKey(final String key) throws StorageManagerException {
+		
 		// Check bloom filter first
+		final BloomFilter<String> bloomfilter = getBloomFilter();
+		
 		if(bloomfilter == null) {
 			logger.warn("File {} does not have a bloom filter", tablename);
 		} else {
+			bloomFilterRequestsTotal.inc();
+			
 			if(! bloomfilter.mightContain(key)) {
 				// Not found
 				return new ArrayList<>();
 			}
 		}
 		
-		final List<Tuple> resultList = new ArrayList<>();
 		final List<Integer> positions = ssTableKeyIndexReader.getPositionsForTuple(key);
 		
-		for(final Integer position : positions) {
-			resultList.add(ssTableReader.getTupleAtPosition(position));
+		if(bloomfilter != null && positions.isEmpty()) {
+			bloomFilterFalsePositivesTotal.inc();
 		}
 		
-		return resultList;
+		return positions;
 	}
 
 	@Override
@@ -450,7 +551,9 @@ public class SSTableFacade implements BBoxDBService, ReadOnlyTupleStore {
 		List<SpatialIndexEntry> entries;
 		
 		try {
-			entries = spatialIndex.getEntriesForRegion(boundingBox);
+			final long startTime = System.nanoTime();
+			entries = getSpatialIndex().getEntriesForRegion(boundingBox);
+			QueryTrace.recordSpatialIndexLookup(System.nanoTime() - startTime, entries.size());
 		} catch (StorageManagerException e) {
 			throw new RuntimeException(e);
 		}
@@ -478,6 +581,40 @@ public class SSTableFacade implements BBoxDBService, ReadOnlyTupleStore {
 		};
 	}
 
+	@Override
+	public Iterator<String> getAllKeysInBoundingBox(final Hyperrectangle boundingBox) {
+		assert (usage.get() > 0);
+
+		List<SpatialIndexEntry> entries;
+		
+		try {
+			final long startTime = System.nanoTime();
+			entries = getSpatialIndex().getEntriesForRegion(boundingBox);
+			QueryTrace.recordSpatialIndexLookup(System.nanoTime() - startTime, entries.size());
+		} catch (StorageManagerException e) {
+			throw new RuntimeException(e);
+		}
+		
+		return entries.stream()
+				.mapToInt(e -> e.getValue())
+				.distinct()
+				.mapToObj(p -> decodeKeyAtPosition(p))
+				.iterator();
+	}
+
+	/**
+	 * Decode the key of the tuple at the given position
+	 * @param position
+	 * @return
+	 */
+	private String decodeKeyAtPosition(final int position) {
+		try {
+			return ssTableReader.decodeOnlyKeyFromTupleAtPosition(position);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	@Override
 	public boolean isPersistent() {
 		return true;
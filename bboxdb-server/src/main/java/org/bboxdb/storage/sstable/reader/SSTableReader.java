@@ -55,6 +55,13 @@ public class SSTableReader extends AbstractFileReader {
 			.name("bboxdb_read_tuple_bytes")
 			.help("Total read tuple bytes").register();
 	
+	/**
+	 * The total read tuple headers (without data) counter
+	 */
+	protected final static Counter readTupleHeadersTotal = Counter.build()
+			.name("bboxdb_read_tuple_headers_total")
+			.help("Total read tuple headers (key, bounding box, timestamps)").register();
+	
 	/**
 	 * The Logger
 	 */
@@ -143,6 +150,37 @@ public class SSTableReader extends AbstractFileReader {
 		}
 	}
 	
+	/**
+	 * Get the tuple at the given position without decoding its data
+	 * 
+	 * @param position
+	 * @return The tuple with an empty data array
+	 * @throws StorageManagerException
+	 */
+	public synchronized Tuple getTupleWithoutDataAtPosition(final int position) 
+			throws StorageManagerException {
+		
+		try {
+			// The memory was unmapped
+			if(! serviceState.isInRunningState()) {
+				logger.warn("Read request to unmapped memory for relation: " + name);
+				return null;
+			}
+			
+			acquire();
+			memory.position(position);
+			
+			final Tuple tuple = TupleHelper.decodeTupleWithoutData(memory);
+			readTupleHeadersTotal.inc();
+			
+			return tuple;
+		} catch (Exception e) {
+			throw new StorageManagerException("Exception while decoding position: " + position, e);
+		} finally {
+			release();
+		}
+	}
+	
 	/**
 	 * Decode only the key of the tuple
 	 * @return
@@ -19,6 +19,7 @@ package org.bboxdb.storage.sstable.spatialindex.rtree;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -202,11 +203,24 @@ public class RTreeDirectoryNode implements BoundingBoxEntity {
 	 * @return
 	 */
 	public List<SpatialIndexEntry> getEntriesForRegion(final Hyperrectangle boundingBox) {
+		return getEntriesForRegion(boundingBox, new AtomicInteger(0));
+	}
+	
+	/**
+	 * Get all entries for a given region and count the visited nodes
+	 * @param boundingBox
+	 * @param visitedNodes
+	 * @return
+	 */
+	public List<SpatialIndexEntry> getEntriesForRegion(final Hyperrectangle boundingBox, 
+			final AtomicInteger visitedNodes) {
 		
 		assert(boundingBox != null) : "Query bounding box has to be != null";
 		assert(indexEntries != null) : "Index entries has to be != null";
 		assert(directoryNodeChilds != null) : "Directory node childs has to be != null";
 		
+		visitedNodes.incrementAndGet();
+		
 		try {
 		final List<SpatialIndexEntry> nodeMatches = indexEntries
 			.stream()
@@ -216,7 +230,7 @@ public class RTreeDirectoryNode implements BoundingBoxEntity {
 		final List<SpatialIndexEntry> childMatches = directoryNodeChilds
 			.stream()
 			.filter(c -> c.getBoundingBox().intersects(boundingBox))
-			.map(c -> c.getEntriesForRegion(boundingBox))
+			.map(c -> c.getEntriesForRegion(boundingBox, visitedNodes))
 			.flatMap(List::stream)
 			.collect(Collectors.toList());
 
@@ -25,9 +25,11 @@ import java.util.List;
 import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.bboxdb.commons.io.DataEncoderHelper;
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.performance.StorageMetrics;
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.sstable.spatialindex.SpatialIndexEntry;
 
@@ -165,7 +167,13 @@ public class RTreeMemoryReader extends AbstractRTreeReader {
 
 	@Override
 	public List<SpatialIndexEntry> getEntriesForRegion(final Hyperrectangle boundingBox) {
-		return rootNode.getEntriesForRegion(boundingBox);
+		final AtomicInteger visitedNodes = new AtomicInteger(0);
+		
+		try {
+			return rootNode.getEntriesForRegion(boundingBox, visitedNodes);
+		} finally {
+			StorageMetrics.addVisitedRTreeNodes(visitedNodes.get());
+		}
 	}
 	
 
@@ -31,6 +31,7 @@ import org.bboxdb.commons.io.DataEncoderHelper;
 import org.bboxdb.commons.io.UnsafeMemoryHelper;
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.misc.Const;
+import org.bboxdb.performance.StorageMetrics;
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.sstable.spatialindex.SpatialIndexEntry;
 import org.bboxdb.storage.sstable.spatialindex.rtree.AbstractRTreeReader;
@@ -103,6 +104,7 @@ public class RTreeMMFReader extends AbstractRTreeReader {
 		final List<SpatialIndexEntry> resultList = new ArrayList<>();
 		final Queue<Integer> readTasks = new LinkedTransferQueue<>();
 		readTasks.add(firstNodePos);
+		int visitedNodes = 0;
 		
 		try {
 			
@@ -112,6 +114,7 @@ public class RTreeMMFReader extends AbstractRTreeReader {
 				memory.position(position);
 				final DirectoryNode directoryNode = new DirectoryNode();
 				directoryNode.initFromByteBuffer(memory, maxNodeSize);
+				visitedNodes++;
 				
 				if(directoryNode.getBoundingBox().intersects(boundingBox)) {
 					readTasks.addAll(directoryNode.getChildNodes());
@@ -129,6 +132,8 @@ public class RTreeMMFReader extends AbstractRTreeReader {
 			return resultList;
 		} catch (IOException e) {
 			throw new StorageManagerException(e);
+		} finally {
+			StorageMetrics.addVisitedRTreeNodes(visitedNodes);
 		}
 	}
 
@@ -47,6 +47,17 @@ public interface ReadOnlyTupleStore extends Iterable<Tuple>, AcquirableResource
 	 * @throws StorageManagerException
 	 */
 	public List<Tuple> get(final String key) throws StorageManagerException;
+	
+	/**
+	 * Search for tuple and return all versions without decoding the data
+	 * of the tuples. The returned tuples contain only the key, the bounding 
+	 * box and the timestamps.
+	 * 
+	 * @param key
+	 * @return
+	 * @throws StorageManagerException
+	 */
+	public List<Tuple> getWithoutData(final String key) throws StorageManagerException;
 
 	/**
 	 * Get all tuples that are inside the bounding box
@@ -55,6 +66,13 @@ public interface ReadOnlyTupleStore extends Iterable<Tuple>, AcquirableResource
 	 */
 	public Iterator<Tuple> getAllTuplesInBoundingBox(final Hyperrectangle boundingBox);
 	
+	/**
+	 * Get the keys of all tuples that are inside the bounding box
+	 * @param boundingBox
+	 * @return
+	 */
+	public Iterator<String> getAllKeysInBoundingBox(final Hyperrectangle boundingBox);
+	
 	/**
 	 * Get the number of tuples in the storage
 	 * @return
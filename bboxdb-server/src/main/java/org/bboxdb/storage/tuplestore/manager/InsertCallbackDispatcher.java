@@ -0,0 +1,177 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.tuplestore.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.bboxdb.storage.entity.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Summary;
+
+public class InsertCallbackDispatcher {
+
+	/**
+	 * The number of dispatcher threads
+	 */
+	public final static int DISPATCHER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+	
+	/**
+	 * The max number of pending dispatches per thread
+	 */
+	public final static int MAX_PENDING_DISPATCHES = 10000;
+	
+	/**
+	 * The dispatcher executors. A callback is always executed by the same
+	 * executor, so the tuples are delivered in insert order.
+	 */
+	private final static List<ThreadPoolExecutor> executors;
+	
+	/**
+	 * The dispatch latency
+	 */
+	private final static Summary dispatchLatency = Summary.build()
+			.name("bboxdb_insert_callback_dispatch_latency_seconds")
+			.help("Latency between the insert of a tuple and the execution of the subscribed callbacks in seconds.")
+			.register();
+	
+	/**
+	 * The dispatched tuples
+	 */
+	private final static Counter dispatchedTotal = Counter.build()
+			.name("bboxdb_insert_callback_dispatched_total")
+			.help("Total tuples dispatched to subscribed callbacks.")
+			.register();
+	
+	/**
+	 * The dropped tuples
+	 */
+	private final static Counter droppedTotal = Counter.build()
+			.name("bboxdb_insert_callback_dropped_total")
+			.help("Total tuples not dispatched to subscribed callbacks because the dispatcher queue was full.")
+			.register();
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(InsertCallbackDispatcher.class);
+	
+	static {
+		executors = new ArrayList<>();
+		
+		for(int i = 0; i < DISPATCHER_THREADS; i++) {
+			final String threadName = "Insert callback dispatcher " + i;
+			
+			final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, 
+					new ArrayBlockingQueue<>(MAX_PENDING_DISPATCHES), (r) -> {
+						final Thread thread = new Thread(r, threadName);
+						thread.setDaemon(true);
+						return thread;
+					});
+			
+			executors.add(executor);
+		}
+	}
+	
+	/**
+	 * Dispatch the tuple to the given callbacks. The callbacks are executed 
+	 * asynchronously, the tuple is dropped for the callbacks if the queue
+	 * of the dispatcher thread is full.
+	 * 
+	 * @param tuple
+	 * @param callbacks
+	 */
+	public static void dispatch(final Tuple tuple, final List<Consumer<Tuple>> callbacks) {
+		
+		if(callbacks.isEmpty()) {
+			return;
+		}
+		
+		final long insertTime = System.nanoTime();
+		
+		if(callbacks.size() == 1) {
+			submit(tuple, callbacks, insertTime, getExecutorNumber(callbacks.get(0)));
+			return;
+		}
+		
+		final List<List<Consumer<Tuple>>> callbacksPerExecutor = new ArrayList<>(DISPATCHER_THREADS);
+		
+		for(int i = 0; i < DISPATCHER_THREADS; i++) {
+			callbacksPerExecutor.add(new ArrayList<>());
+		}
+		
+		for(final Consumer<Tuple> callback : callbacks) {
+			callbacksPerExecutor.get(getExecutorNumber(callback)).add(callback);
+		}
+		
+		for(int i = 0; i < DISPATCHER_THREADS; i++) {
+			final List<Consumer<Tuple>> executorCallbacks = callbacksPerExecutor.get(i);
+			
+			if(! executorCallbacks.isEmpty()) {
+				submit(tuple, executorCallbacks, insertTime, i);
+			}
+		}
+	}
+
+	/**
+	 * Submit the dispatch task to the executor
+	 * @param tuple
+	 * @param callbacks
+	 * @param insertTime
+	 * @param executorNumber
+	 */
+	private static void submit(final Tuple tuple, final List<Consumer<Tuple>> callbacks, 
+			final long insertTime, final int executorNumber) {
+		
+		try {
+			executors.get(executorNumber).execute(() -> {
+				for(final Consumer<Tuple> callback : callbacks) {
+					try {
+						callback.accept(tuple);
+					} catch(Exception e) {
+						logger.error("Got exception while executing insert callback", e);
+					}
+				}
+				
+				dispatchedTotal.inc(callbacks.size());
+				dispatchLatency.observe((System.nanoTime() - insertTime) / 1_000_000_000.0);
+			});
+		} catch(RejectedExecutionException e) {
+			logger.debug("Dispatcher queue is full, dropping tuple {} for {} callbacks", 
+					tuple.getKey(), callbacks.size());
+			droppedTotal.inc(callbacks.size());
+		}
+	}
+	
+	/**
+	 * Get the executor for the callback
+	 * @param callback
+	 * @return
+	 */
+	private static int getExecutorNumber(final Consumer<Tuple> callback) {
+		return Math.floorMod(System.identityHashCode(callback), DISPATCHER_THREADS);
+	}
+}
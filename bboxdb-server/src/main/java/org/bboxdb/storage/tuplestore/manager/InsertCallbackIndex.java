@@ -0,0 +1,291 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.tuplestore.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.sstable.spatialindex.SpatialIndexEntry;
+import org.bboxdb.storage.sstable.spatialindex.rtree.RTreeBuilder;
+
+/**
+ * The spatial index of the insert callbacks of a tuple store. Each callback is 
+ * registered together with a bounding box and is only returned for tuples
+ * that intersect the bounding box.
+ * 
+ * The index is immutable and replaced atomically on each change, so the lookups
+ * on the insert path are lock free. New callbacks are kept in a small list that 
+ * is scanned on each lookup, the R-tree is rebuilt when this list or the number 
+ * of removed callbacks reaches the rebuild threshold.
+ */
+public class InsertCallbackIndex {
+	
+	/**
+	 * The node size of the R-tree (small nodes make the rebuild cheap)
+	 */
+	private final static int INDEX_NODE_SIZE = 16;
+	
+	/**
+	 * The number of changes after the R-tree is rebuilt
+	 */
+	private final static int REBUILD_THRESHOLD = 128;
+	
+	/**
+	 * A registered callback
+	 */
+	private final static class Subscription {
+		
+		/**
+		 * The bounding box
+		 */
+		private final Hyperrectangle boundingBox;
+		
+		/**
+		 * The callback
+		 */
+		private final Consumer<Tuple> callback;
+
+		public Subscription(final Hyperrectangle boundingBox, final Consumer<Tuple> callback) {
+			this.boundingBox = boundingBox;
+			this.callback = callback;
+		}
+	}
+	
+	/**
+	 * An immutable version of the index
+	 */
+	private final static class IndexSnapshot {
+		
+		/**
+		 * The indexed subscriptions, the position is the value of the index entry. 
+		 * Removed subscriptions are replaced by null until the next rebuild.
+		 */
+		private final List<Subscription> indexedSubscriptions;
+		
+		/**
+		 * The R-trees per dimension
+		 */
+		private final Map<Integer, RTreeBuilder> indexPerDimension;
+		
+		/**
+		 * The subscriptions that are not part of the R-tree (new subscriptions 
+		 * and subscriptions for the full space)
+		 */
+		private final List<Subscription> scannedSubscriptions;
+		
+		/**
+		 * The number of changes since the last rebuild
+		 */
+		private final int changes;
+		
+		/**
+		 * The number of subscriptions
+		 */
+		private final int size;
+		
+		public IndexSnapshot(final List<Subscription> indexedSubscriptions, 
+				final Map<Integer, RTreeBuilder> indexPerDimension, 
+				final List<Subscription> scannedSubscriptions, final int changes, final int size) {
+			
+			this.indexedSubscriptions = indexedSubscriptions;
+			this.indexPerDimension = indexPerDimension;
+			this.scannedSubscriptions = scannedSubscriptions;
+			this.changes = changes;
+			this.size = size;
+		}
+		
+		/**
+		 * Get all active subscriptions
+		 * @return
+		 */
+		public List<Subscription> getSubscriptions() {
+			final List<Subscription> subscriptions = new ArrayList<>(size);
+			
+			indexedSubscriptions.stream()
+				.filter(Objects::nonNull)
+				.forEach(subscriptions::add);
+			
+			subscriptions.addAll(scannedSubscriptions);
+			
+			return subscriptions;
+		}
+	}
+	
+	/**
+	 * The current snapshot of the index
+	 */
+	private volatile IndexSnapshot snapshot = buildSnapshot(new ArrayList<>());
+	
+	/**
+	 * Register a new callback for the given bounding box
+	 * @param boundingBox
+	 * @param callback
+	 */
+	public synchronized void registerCallback(final Hyperrectangle boundingBox, 
+			final Consumer<Tuple> callback) {
+		
+		final Subscription subscription = new Subscription(boundingBox, callback);
+		
+		if(snapshot.changes + 1 >= REBUILD_THRESHOLD) {
+			final List<Subscription> subscriptions = snapshot.getSubscriptions();
+			subscriptions.add(subscription);
+			snapshot = buildSnapshot(subscriptions);
+			return;
+		}
+		
+		final List<Subscription> scannedSubscriptions = new ArrayList<>(snapshot.scannedSubscriptions);
+		scannedSubscriptions.add(subscription);
+		
+		snapshot = new IndexSnapshot(snapshot.indexedSubscriptions, snapshot.indexPerDimension, 
+				scannedSubscriptions, snapshot.changes + 1, snapshot.size + 1);
+	}
+	
+	/**
+	 * Remove the given callback
+	 * @param callback
+	 * @return
+	 */
+	public synchronized boolean removeCallback(final Consumer<Tuple> callback) {
+		
+		final List<Subscription> scannedSubscriptions = new ArrayList<>(snapshot.scannedSubscriptions);
+		
+		if(scannedSubscriptions.removeIf(s -> s.callback == callback)) {
+			snapshot = new IndexSnapshot(snapshot.indexedSubscriptions, snapshot.indexPerDimension, 
+					scannedSubscriptions, snapshot.changes, 
+					snapshot.size - (snapshot.scannedSubscriptions.size() - scannedSubscriptions.size()));
+			
+			return true;
+		}
+		
+		final List<Subscription> indexedSubscriptions = new ArrayList<>(snapshot.indexedSubscriptions);
+		int removed = 0;
+		
+		for(int i = 0; i < indexedSubscriptions.size(); i++) {
+			final Subscription subscription = indexedSubscriptions.get(i);
+			
+			if(subscription != null && subscription.callback == callback) {
+				indexedSubscriptions.set(i, null);
+				removed++;
+			}
+		}
+		
+		if(removed == 0) {
+			return false;
+		}
+		
+		snapshot = new IndexSnapshot(indexedSubscriptions, snapshot.indexPerDimension, 
+				snapshot.scannedSubscriptions, snapshot.changes + removed, snapshot.size - removed);
+		
+		if(snapshot.changes >= REBUILD_THRESHOLD) {
+			snapshot = buildSnapshot(snapshot.getSubscriptions());
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Build a new snapshot, all subscriptions with a bounding box are indexed
+	 * @param subscriptions
+	 * @return
+	 */
+	private static IndexSnapshot buildSnapshot(final List<Subscription> subscriptions) {
+		final List<Subscription> indexedSubscriptions = new ArrayList<>();
+		final Map<Integer, RTreeBuilder> indexPerDimension = new HashMap<>();
+		final List<Subscription> scannedSubscriptions = new ArrayList<>();
+		
+		for(final Subscription subscription : subscriptions) {
+			final Hyperrectangle boundingBox = subscription.boundingBox;
+			
+			if(boundingBox.getDimension() == 0) {
+				scannedSubscriptions.add(subscription);
+				continue;
+			}
+			
+			indexPerDimension.computeIfAbsent(boundingBox.getDimension(), 
+					(d) -> new RTreeBuilder(INDEX_NODE_SIZE))
+				.insert(new SpatialIndexEntry(boundingBox, indexedSubscriptions.size()));
+			
+			indexedSubscriptions.add(subscription);
+		}
+		
+		return new IndexSnapshot(indexedSubscriptions, indexPerDimension, 
+				scannedSubscriptions, 0, subscriptions.size());
+	}
+	
+	/**
+	 * Get the callbacks with a bounding box that intersects the given tuple
+	 * @param tuple
+	 * @return
+	 */
+	public List<Consumer<Tuple>> getCallbacksForTuple(final Tuple tuple) {
+		final IndexSnapshot indexSnapshot = snapshot;
+		
+		if(indexSnapshot.size == 0) {
+			return Collections.emptyList();
+		}
+		
+		final Hyperrectangle boundingBox = tuple.getBoundingBox();
+		
+		// Tuples without a bounding box (e.g., deletions) intersect all subscriptions
+		if(boundingBox == null || boundingBox.getDimension() == 0) {
+			return indexSnapshot.getSubscriptions().stream()
+					.map(s -> s.callback)
+					.collect(Collectors.toList());
+		}
+		
+		final List<Consumer<Tuple>> result = new ArrayList<>();
+		
+		for(final Subscription subscription : indexSnapshot.scannedSubscriptions) {
+			if(subscription.boundingBox.intersects(boundingBox)) {
+				result.add(subscription.callback);
+			}
+		}
+		
+		final RTreeBuilder index = indexSnapshot.indexPerDimension.get(boundingBox.getDimension());
+		
+		if(index == null) {
+			return result;
+		}
+		
+		for(final SpatialIndexEntry entry : index.getEntriesForRegion(boundingBox)) {
+			final Subscription subscription = indexSnapshot.indexedSubscriptions.get(entry.getValue());
+			
+			if(subscription != null) {
+				result.add(subscription.callback);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Get the number of registered callbacks
+	 * @return
+	 */
+	public int getNumberOfCallbacks() {
+		return snapshot.size;
+	}
+}
@@ -146,6 +146,16 @@ public class TupleStoreInstanceManager {
 		sstableFacades.add(newSStable);
 	}
 	
+	/**
+	 * Add a list of new SSTables, all SSTables become visible at once
+	 * @param newSStables
+	 */
+	public synchronized void addNewDetectedSSTables(final List<SSTableFacade> newSStables) {
+		assert(! newSStables.contains(null)) : "New sstables contain null element";
+		
+		sstableFacades.addAll(newSStables);
+	}
+	
 	/**
 	 * Get a list with all active storages
 	 * @return
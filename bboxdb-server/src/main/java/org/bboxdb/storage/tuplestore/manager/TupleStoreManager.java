@@ -19,14 +19,19 @@ package org.bboxdb.storage.tuplestore.manager;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 import org.bboxdb.commons.DuplicateResolver;
 import org.bboxdb.commons.RejectedException;
+import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.commons.service.ServiceState;
 import org.bboxdb.commons.service.ServiceState.State;
 import org.bboxdb.distribution.DistributionGroupMetadataHelper;
@@ -40,6 +45,9 @@ import org.bboxdb.misc.BBoxDBConfiguration;
 import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.misc.BBoxDBService;
 import org.bboxdb.misc.Const;
+import org.bboxdb.performance.QueryTrace;
+import org.bboxdb.performance.StorageMetrics;
+import org.bboxdb.performance.StorageMetrics.Operation;
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.DistributionGroupMetadata;
 import org.bboxdb.storage.entity.MemtableAndTupleStoreManagerPair;
@@ -49,16 +57,19 @@ import org.bboxdb.storage.entity.TupleStoreName;
 import org.bboxdb.storage.memtable.Memtable;
 import org.bboxdb.storage.sstable.SSTableConst;
 import org.bboxdb.storage.sstable.SSTableHelper;
+import org.bboxdb.storage.sstable.SSTableWriter;
 import org.bboxdb.storage.sstable.duplicateresolver.TupleDuplicateResolverFactory;
 import org.bboxdb.storage.sstable.reader.SSTableFacade;
 import org.bboxdb.storage.tuplestore.DiskStorage;
 import org.bboxdb.storage.tuplestore.ReadOnlyTupleStore;
+import org.bboxdb.storage.util.TupleHelper;
 import org.bboxdb.storage.wal.WriteAheadLogManager;
 import org.bboxdb.storage.wal.WriteAheadLogReader;
 import org.bboxdb.storage.wal.WriteAheadLogWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.prometheus.client.Histogram;
 import io.prometheus.client.Summary;
 
 public class TupleStoreManager implements BBoxDBService {
@@ -102,6 +113,21 @@ public class TupleStoreManager implements BBoxDBService {
 	 * The insert callbacks
 	 */
 	protected final List<Consumer<Tuple>> insertCallbacks;
+	
+	/**
+	 * The spatially indexed insert callbacks
+	 */
+	protected final InsertCallbackIndex insertCallbackIndex;
+
+	/**
+	 * The insert latency of the table
+	 */
+	private final Histogram.Child insertLatency;
+	
+	/**
+	 * The key query latency of the table
+	 */
+	private final Histogram.Child keyQueryLatency;
 
 	/**
 	 * The get performance counter
@@ -110,6 +136,14 @@ public class TupleStoreManager implements BBoxDBService {
 			.name("bboxdb_request_get_latency_seconds")
 			.help("Get request latency in seconds.").register();
 
+	/**
+	 * The open performance counter
+	 */
+	private final static Summary openLatency = Summary.build()
+			.name("bboxdb_tuplestore_open_latency_seconds")
+			.help("Latency of the tuple store open phases in seconds.")
+			.labelNames("phase").register();
+
 	/**
 	 * The logger
 	 */
@@ -123,7 +157,10 @@ public class TupleStoreManager implements BBoxDBService {
 		this.tupleStoreName = sstablename;
 		this.nextFreeTableNumber = new AtomicInteger();
 		this.tupleStoreInstances = new TupleStoreInstanceManager();
-		this.insertCallbacks = new ArrayList<>();
+		this.insertCallbacks = new CopyOnWriteArrayList<>();
+		this.insertCallbackIndex = new InsertCallbackIndex();
+		this.insertLatency = StorageMetrics.getLatencyHistogram(Operation.INSERT, sstablename);
+		this.keyQueryLatency = StorageMetrics.getLatencyHistogram(Operation.KEY_QUERY, sstablename);
 
 		// Close open resources when the failed state is entered
 		this.serviceState = new ServiceState();
@@ -153,9 +190,9 @@ public class TupleStoreManager implements BBoxDBService {
 
 			tupleStoreInstances.clear();
 
+			loadTuplstoreMetaData();
 			initNewMemtable();
 			scanForExistingTables();
-			loadTuplstoreMetaData();
 
 			nextFreeTableNumber.set(getLastSequencenumberFromReader() + 1);
 			tupleStoreInstances.setReadWrite();
@@ -255,15 +292,24 @@ public class TupleStoreManager implements BBoxDBService {
 		final String storageDir = storage.getBasedir().getAbsolutePath();
 		final String baseDir = SSTableHelper.getSSTableDir(storageDir, tupleStoreName);
 
+		// The files are returned in the order they were written
 		final List<File> walFiles = WriteAheadLogManager.getAllWalFiles(new File(baseDir));
+		
+		if(walFiles.isEmpty()) {
+			return;
+		}
+		
 		logger.debug("Apply old WAL files {}", walFiles);
+		
+		final Summary.Timer walTimer = openLatency.labels("wal_replay").startTimer();
 
 		for(final File walFile: walFiles) {
 			try(
 					final WriteAheadLogReader reader = new WriteAheadLogReader(walFile);
 			){
+				// The instance is not running yet, write into the memtable directly
 				for(final Tuple tuple : reader) {
-					put(tuple);
+					putIntoMemtable(tuple);
 				}
 
 				reader.close();
@@ -272,6 +318,8 @@ public class TupleStoreManager implements BBoxDBService {
 				logger.error("Got an exception while applying WAL", e);
 			}
 		}
+		
+		walTimer.observeDuration();
 	}
 
 	/**
@@ -438,21 +486,57 @@ public class TupleStoreManager implements BBoxDBService {
 		checkSSTableDir(directoryHandle);
 
 		final File[] entries = directoryHandle.listFiles();
+		final List<SSTableFacade> facades = new ArrayList<>();
 
 		for(final File file : entries) {
 			final String filename = file.getName();
 			if(SSTableHelper.isFileNameSSTable(filename)) {
 				logger.info("Found sstable: {}", filename);
 
-				try {
-					final int sequenceNumber = SSTableHelper.extractSequenceFromFilename(tupleStoreName, filename);
-					final SSTableFacade facade = new SSTableFacade(storageDir, tupleStoreName, sequenceNumber,
-							configuration.getSstableKeyCacheEntries());
-					facade.init();
-					tupleStoreInstances.addNewDetectedSSTable(facade);
-				} catch(BBoxDBException e) {
-					throw new StorageManagerException(e);
-				}
+				final int sequenceNumber = SSTableHelper.extractSequenceFromFilename(tupleStoreName, filename);
+				final SSTableFacade facade = new SSTableFacade(storageDir, tupleStoreName, sequenceNumber,
+						configuration.getSstableKeyCacheEntries());
+				facades.add(facade);
+			}
+		}
+
+		final Summary.Timer openTimer = openLatency.labels("sstable_open").startTimer();
+
+		// Map the SSTables in parallel, the bloom filter and the spatial index
+		// are loaded on the first access
+		final List<Exception> failures = new CopyOnWriteArrayList<>();
+
+		facades.parallelStream().forEach(f -> {
+			try {
+				f.init();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				failures.add(e);
+			} catch (BBoxDBException e) {
+				failures.add(e);
+			}
+		});
+
+		openTimer.observeDuration();
+
+		if(! failures.isEmpty()) {
+			closeFacades(facades);
+			throw new StorageManagerException(failures.get(0));
+		}
+
+		facades.forEach(f -> tupleStoreInstances.addNewDetectedSSTable(f));
+	}
+
+	/**
+	 * Close the given facades
+	 * @param facades
+	 */
+	private void closeFacades(final List<SSTableFacade> facades) {
+		for(final SSTableFacade facade : facades) {
+			try {
+				facade.shutdown();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
 			}
 		}
 	}
@@ -566,12 +650,14 @@ public class TupleStoreManager implements BBoxDBService {
 		}
 
 		final Summary.Timer requestTimer = getRequestLatency.startTimer();
+		final Histogram.Timer latencyTimer = keyQueryLatency.startTimer();
 
 		final List<ReadOnlyTupleStore> aquiredStorages = new ArrayList<>();
 		final List<Tuple> tupleList = new ArrayList<>();
 
 		try {
 			aquiredStorages.addAll(aquireStorage());
+			StorageMetrics.addReadTupleStores(Operation.KEY_QUERY, aquiredStorages.size());
 
 			for(final ReadOnlyTupleStore tupleStorage : aquiredStorages) {
 				final List<Tuple> resultTuples = tupleStorage.get(key);
@@ -582,6 +668,7 @@ public class TupleStoreManager implements BBoxDBService {
 		} finally {
 			releaseStorage(aquiredStorages);
 			requestTimer.observeDuration();
+			latencyTimer.observeDuration();
 		}
 
 		final DuplicateResolver<Tuple> resolver = TupleDuplicateResolverFactory.build(tupleStoreConfiguration);
@@ -601,6 +688,9 @@ public class TupleStoreManager implements BBoxDBService {
 
 			final List<ReadOnlyTupleStore> aquiredStorages = new ArrayList<>();
 			final List<ReadOnlyTupleStore> knownStorages = tupleStoreInstances.getAllTupleStorages();
+			
+			// Expired SSTables contain no visible tuples, don't read them
+			knownStorages.removeIf(s -> s.isPersistent() && isTupleStoreExpired(s));
 
 			for(final ReadOnlyTupleStore tupleStorage : knownStorages) {
 				final boolean canBeUsed = tupleStorage.acquire();
@@ -616,6 +706,7 @@ public class TupleStoreManager implements BBoxDBService {
 			}
 
 			if(knownStorages.size() == aquiredStorages.size()) {
+				QueryTrace.recordCounter(QueryTrace.Counter.STORAGE_RETRIES, execution);
 				return aquiredStorages;
 			} else {
 				// one or more storages could not be acquired
@@ -691,9 +782,13 @@ public class TupleStoreManager implements BBoxDBService {
 
 		final WriteAheadLogWriter walWriter = getWriteAheadLogWriter();
 
+		final boolean collapseVersions = configuration.isMemtableCollapseVersions()
+				&& tupleStoreConfiguration != null
+				&& TupleDuplicateResolverFactory.isOnlyNewestVersionKept(tupleStoreConfiguration);
+
 		final Memtable memtable = new Memtable(tupleStoreName,
 				configuration.getMemtableEntriesMax(),
-				configuration.getMemtableSizeMax(), walWriter);
+				configuration.getMemtableSizeMax(), walWriter, collapseVersions);
 
 		memtable.acquire();
 		memtable.init();
@@ -749,25 +844,258 @@ public class TupleStoreManager implements BBoxDBService {
 			throw new RejectedException("Storage manager is in read only state: " + tupleStoreName);
 		}
 
+		final Histogram.Timer latencyTimer = insertLatency.startTimer();
+		
 		try {
-			// Ensure that only one memtable is newly created
-			synchronized (this) {
-				if(getMemtable().isFull()) {
-					initNewMemtable();
-				}
-
-				getMemtable().put(tuple);
-			}
+			putIntoMemtable(tuple);
 
 			// Notify callbacks
 			insertCallbacks.forEach(c -> c.accept(tuple));
+			InsertCallbackDispatcher.dispatch(tuple, insertCallbackIndex.getCallbacksForTuple(tuple));
 
 		} catch (StorageManagerException e) {
 			serviceState.dispatchToFailed(e);
 			throw e;
+		} finally {
+			latencyTimer.observeDuration();
+		}
+	}
+
+	/**
+	 * Store the tuple in the active memtable, a new memtable is created if needed
+	 * @param tuple
+	 * @throws StorageManagerException
+	 */
+	private void putIntoMemtable(final Tuple tuple) throws StorageManagerException {
+		// Ensure that only one memtable is newly created
+		synchronized (this) {
+			if(getMemtable().isFull()) {
+				initNewMemtable();
+			}
+
+			getMemtable().put(tuple);
 		}
 	}
 
+	/**
+	 * Write the given tuples directly into a new SSTable and attach the SSTable
+	 * to this tuple store. The memtable, the write ahead log and the insert
+	 * callbacks are bypassed.
+	 * 
+	 * @param tuples
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 */
+	public void bulkLoad(final List<Tuple> tuples) throws StorageManagerException, RejectedException {
+		
+		if(! serviceState.isInRunningState()) {
+			throw new StorageManagerException("Storage manager is not ready: "
+					+ tupleStoreName.getFullname()
+					+ " state: " + serviceState);
+		}
+
+		if(tupleStoreInstances.getState() == TupleStoreManagerState.READ_ONLY) {
+			throw new RejectedException("Storage manager is in read only state: " + tupleStoreName);
+		}
+		
+		if(tuples.isEmpty()) {
+			return;
+		}
+		
+		final List<Tuple> sortedTuples = new ArrayList<>(tuples);
+		sortedTuples.sort(TupleHelper.TUPLE_KEY_AND_VERSION_COMPARATOR);
+		
+		final String dataDirectory = storage.getBasedir().getAbsolutePath();
+		final int tableNumber = increaseTableNumber();
+		
+		logger.info("Bulk loading {} tuples into table {} number {}", sortedTuples.size(), 
+				tupleStoreName.getFullname(), tableNumber);
+		
+		final SSTableWriter ssTableWriter = new SSTableWriter(dataDirectory, 
+				tupleStoreName, tableNumber, sortedTuples.size());
+		
+		try {
+			ssTableWriter.open();
+			ssTableWriter.addData(sortedTuples);
+		} finally {
+			// Half written files are deleted by the writer
+			ssTableWriter.close();
+		}
+		
+		SSTableFacade facade = null;
+		
+		try {
+			facade = new SSTableFacade(dataDirectory, tupleStoreName, tableNumber, 
+					configuration.getSstableKeyCacheEntries());
+			
+			facade.init();
+			
+			if(! facade.getSsTableReader().isReady() || ! facade.getSsTableKeyIndexReader().isReady()) {
+				throw new StorageManagerException("Invalid bulk loaded SSTable " + tableNumber);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			abortBulkLoad(ssTableWriter, facade);
+			throw new StorageManagerException(e);
+		} catch (BBoxDBException | StorageManagerException e) {
+			abortBulkLoad(ssTableWriter, facade);
+			throw new StorageManagerException("Unable to bulk load table " + tableNumber, e);
+		}
+		
+		tupleStoreInstances.addNewDetectedSSTable(facade);
+	}
+
+	/**
+	 * Import the SSTables of this tuple store that are stored in the given staging 
+	 * directory. The staging directory has the layout of a storage directory 
+	 * (e.g., the SSTables are written by a SSTableWriter with the staging directory 
+	 * as base directory). The files are linked or copied into the storage, validated 
+	 * and all imported SSTables become visible at once. The memtable and the 
+	 * write ahead log are bypassed. The staging directory has to be located in a 
+	 * storage directory or in one of the configured import directories.
+	 * 
+	 * @param stagingDirectory
+	 * @return the imported SSTables
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 */
+	public List<SSTableFacade> importSSTables(final String stagingDirectory) 
+			throws StorageManagerException, RejectedException {
+		
+		if(! serviceState.isInRunningState()) {
+			throw new StorageManagerException("Storage manager is not ready: "
+					+ tupleStoreName.getFullname()
+					+ " state: " + serviceState);
+		}
+
+		if(tupleStoreInstances.getState() == TupleStoreManagerState.READ_ONLY) {
+			throw new RejectedException("Storage manager is in read only state: " + tupleStoreName);
+		}
+		
+		checkImportDirectory(stagingDirectory);
+		
+		final File importDir = new File(SSTableHelper.getSSTableDir(stagingDirectory, tupleStoreName));
+		
+		if(! importDir.isDirectory()) {
+			throw new StorageManagerException("Import directory does not exist: " + importDir);
+		}
+		
+		final File[] entries = importDir.listFiles((d, n) -> SSTableHelper.isFileNameSSTable(n));
+		final String dataDirectory = storage.getBasedir().getAbsolutePath();
+		final List<File> importedFiles = new ArrayList<>();
+		final List<SSTableFacade> importedFacades = new ArrayList<>();
+		
+		try {
+			final List<Integer> sourceNumbers = new ArrayList<>();
+			
+			for(final File entry : entries) {
+				sourceNumbers.add(SSTableHelper.extractSequenceFromFilename(tupleStoreName, entry.getName()));
+			}
+			
+			// Import the SSTables in the order they were written
+			Collections.sort(sourceNumbers);
+			
+			for(final int sourceNumber : sourceNumbers) {
+				final int tableNumber = increaseTableNumber();
+				
+				logger.info("Importing SSTable {} from {} as number {}", sourceNumber, 
+						importDir, tableNumber);
+				
+				importedFiles.addAll(SSTableHelper.linkOrCopySSTable(stagingDirectory, sourceNumber, 
+						dataDirectory, tableNumber, tupleStoreName));
+				
+				final SSTableFacade facade = new SSTableFacade(dataDirectory, tupleStoreName, tableNumber, 
+						configuration.getSstableKeyCacheEntries());
+				
+				importedFacades.add(facade);
+				
+				// Validates the magic bytes of the files, the readers log 
+				// validation errors and remain in a not ready state
+				facade.init();
+				
+				if(! facade.getSsTableReader().isReady() || ! facade.getSsTableKeyIndexReader().isReady()) {
+					throw new StorageManagerException("Invalid SSTable " + sourceNumber 
+							+ " in " + importDir);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			abortImport(importedFiles, importedFacades);
+			throw new StorageManagerException(e);
+		} catch (IOException | BBoxDBException | StorageManagerException e) {
+			abortImport(importedFiles, importedFacades);
+			throw new StorageManagerException("Unable to import SSTables from: " + importDir, e);
+		}
+		
+		tupleStoreInstances.addNewDetectedSSTables(importedFacades);
+		
+		return importedFacades;
+	}
+
+	/**
+	 * Ensure that the staging directory is located in a configured import directory
+	 * or in a storage directory. The storage directories themselves and their data 
+	 * directories are rejected, the staged tables would be read as tables of the storage.
+	 * 
+	 * @param stagingDirectory
+	 * @throws StorageManagerException
+	 */
+	private void checkImportDirectory(final String stagingDirectory) throws StorageManagerException {
+		
+		final List<String> storageDirectories = new ArrayList<>(configuration.getStorageDirectories());
+		storageDirectories.add(storage.getBasedir().getAbsolutePath());
+		
+		try {
+			final Path stagingPath = new File(stagingDirectory).getCanonicalFile().toPath();
+			
+			for(final String importDirectory : configuration.getStorageImportDirectories()) {
+				if(stagingPath.startsWith(new File(importDirectory).getCanonicalFile().toPath())) {
+					return;
+				}
+			}
+			
+			for(final String storageDirectory : storageDirectories) {
+				final Path storagePath = new File(storageDirectory).getCanonicalFile().toPath();
+				final Path dataPath = new File(SSTableHelper.getDataDir(storageDirectory))
+						.getCanonicalFile().toPath();
+				
+				if(stagingPath.startsWith(storagePath) && ! stagingPath.equals(storagePath)
+						&& ! stagingPath.startsWith(dataPath)) {
+					return;
+				}
+			}
+		} catch (IOException e) {
+			throw new StorageManagerException("Unable to resolve staging directory " + stagingDirectory, e);
+		}
+		
+		throw new StorageManagerException("Staging directory " + stagingDirectory 
+				+ " is not located in an import directory " + configuration.getStorageImportDirectories()
+				+ " or a storage directory " + storageDirectories);
+	}
+
+	/**
+	 * Close the facade of the bulk loaded SSTable and remove the written files
+	 * @param ssTableWriter
+	 * @param facade
+	 */
+	private void abortBulkLoad(final SSTableWriter ssTableWriter, final SSTableFacade facade) {
+		if(facade != null) {
+			closeFacades(Collections.singletonList(facade));
+		}
+		
+		ssTableWriter.deleteFromDisk();
+	}
+
+	/**
+	 * Close the facades and remove the imported files
+	 * @param importedFiles
+	 * @param importedFacades
+	 */
+	private void abortImport(final List<File> importedFiles, final List<SSTableFacade> importedFacades) {
+		closeFacades(importedFacades);
+		importedFiles.forEach(f -> f.delete());
+	}
+
 	/**
 	 * Delete the given tuple
 	 * @param key
@@ -934,6 +1262,32 @@ public class TupleStoreManager implements BBoxDBService {
 		return tupleStoreConfiguration;
 	}
 
+	/**
+	 * Are all tuples of the tuple store older than the TTL of the table? The duplicate 
+	 * resolver removes these tuples, so the tuple store can be skipped by queries and 
+	 * dropped by the compactor without reading it.
+	 * 
+	 * @param tupleStore
+	 * @return
+	 */
+	public boolean isTupleStoreExpired(final ReadOnlyTupleStore tupleStore) {
+		
+		if(tupleStoreConfiguration == null) {
+			return false;
+		}
+		
+		// The TTL is only applied, when duplicates are allowed (see TupleDuplicateResolverFactory)
+		if(! tupleStoreConfiguration.isAllowDuplicates() || tupleStoreConfiguration.getTTL() <= 0) {
+			return false;
+		}
+		
+		// Tuple timestamps are in microseconds
+		final long ttlInMicroseconds = TimeUnit.MILLISECONDS.toMicros(tupleStoreConfiguration.getTTL());
+		final long removalTimestamp = System.currentTimeMillis() * 1000 - ttlInMicroseconds;
+		
+		return tupleStore.getNewestTupleVersionTimestamp() < removalTimestamp;
+	}
+
 	/**
 	 * Register a new insert callback
 	 * @param callback
@@ -949,6 +1303,27 @@ public class TupleStoreManager implements BBoxDBService {
 	public boolean removeInsertCallback(final Consumer<Tuple> callback) {
 		return insertCallbacks.remove(callback);
 	}
+	
+	/**
+	 * Register a new insert callback for the given bounding box. The callback 
+	 * is only executed for tuples that intersect the bounding box. The 
+	 * callback is executed asynchronously by the insert callback dispatcher.
+	 * 
+	 * @param boundingBox
+	 * @param callback
+	 */
+	public void registerInsertCallback(final Hyperrectangle boundingBox, final Consumer<Tuple> callback) {
+		insertCallbackIndex.registerCallback(boundingBox, callback);
+	}
+	
+	/**
+	 * Remove a insert callback for a bounding box
+	 * @param callback
+	 * @return
+	 */
+	public boolean removeBoundingBoxInsertCallback(final Consumer<Tuple> callback) {
+		return insertCallbackIndex.removeCallback(callback);
+	}
 
 	/**
 	 * Get the most recent version of the tuple
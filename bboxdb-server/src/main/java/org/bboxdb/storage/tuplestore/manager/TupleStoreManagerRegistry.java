@@ -21,12 +21,18 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -48,6 +54,8 @@ import org.slf4j.LoggerFactory;
 import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Multiset;
 
+import io.prometheus.client.Gauge;
+
 public class TupleStoreManagerRegistry implements BBoxDBService {
 
 	/**
@@ -85,6 +93,14 @@ public class TupleStoreManagerRegistry implements BBoxDBService {
 	 */
 	private final TupleStoreZookeeperObserver zookeeperObserver;
 	
+	/**
+	 * The duration of the startup phases
+	 */
+	private final static Gauge startupPhaseDuration = Gauge.build()
+			.name("bboxdb_startup_phase_seconds")
+			.help("Duration of the storage startup phases in seconds")
+			.labelNames("phase").register();
+	
 	/**
 	 * The logger
 	 */
@@ -119,6 +135,8 @@ public class TupleStoreManagerRegistry implements BBoxDBService {
 			throw new IllegalArgumentException("Unable to init storage registry without any data directory");
 		}
 		
+		final long scanStart = System.currentTimeMillis();
+		
 		// Populate the sstable location map
 		for(final String directory : storageDirs) {
 			try {
@@ -134,9 +152,85 @@ public class TupleStoreManagerRegistry implements BBoxDBService {
 			}
 		}
 		
+		startupPhaseDuration.labels("tuplestore_scan").set((System.currentTimeMillis() - scanStart) / 1000.0);
+		
+		final long openStart = System.currentTimeMillis();
+		openExistingTupleStores();
+		startupPhaseDuration.labels("tuplestore_open").set((System.currentTimeMillis() - openStart) / 1000.0);
+		
 		serviceState.dispatchToRunning();
 	}
 	
+	/**
+	 * Open all existing tuple stores in parallel. Otherwise, the tuple stores are
+	 * opened one by one on their first access.
+	 * 
+	 * @throws InterruptedException
+	 */
+	private void openExistingTupleStores() throws InterruptedException {
+		final int startupThreads = configuration.getStorageStartupThreads();
+		
+		if(startupThreads <= 0) {
+			logger.info("Eager opening of the tuple stores is disabled");
+			return;
+		}
+		
+		final List<TupleStoreName> tupleStoreNames = getAllTables();
+		
+		logger.info("Opening {} existing tuple stores with {} threads", 
+				tupleStoreNames.size(), startupThreads);
+		
+		final ExecutorService executor = Executors.newFixedThreadPool(startupThreads);
+		final Map<TupleStoreName, Future<?>> openFutures = new HashMap<>();
+		
+		try {
+			for(final TupleStoreName tupleStoreName : tupleStoreNames) {
+				if(tupleStoreName.isValid()) {
+					openFutures.put(tupleStoreName, executor.submit(() -> openExistingTupleStore(tupleStoreName)));
+				}
+			}
+			
+			executor.shutdown();
+			
+			for(final Entry<TupleStoreName, Future<?>> openFuture : openFutures.entrySet()) {
+				try {
+					openFuture.getValue().get();
+				} catch (ExecutionException e) {
+					// Failed instances are opened again on the first access
+					logger.error("Unable to open tuple store " + openFuture.getKey().getFullname() 
+						+ " on startup", e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			throw e;
+		}
+		
+		logger.info("Opening existing tuple stores done ({} active)", managerInstances.size());
+	}
+	
+	/**
+	 * Open the given existing tuple store
+	 * @param tupleStoreName
+	 */
+	private void openExistingTupleStore(final TupleStoreName tupleStoreName) {
+		final String location = tupleStoreLocations.get(tupleStoreName);
+		final DiskStorage storage = storages.get(location);
+		
+		final TupleStoreManager tupleStoreManager = new TupleStoreManager(storage, 
+				tupleStoreName, configuration);
+		
+		tupleStoreManager.init();
+		
+		// Failed instances are opened again on the first access
+		if(! tupleStoreManager.getServiceState().isInRunningState()) {
+			logger.warn("Unable to open tuple store {} on startup", tupleStoreName.getFullname());
+			return;
+		}
+		
+		managerInstances.put(tupleStoreName, tupleStoreManager);
+	}
+	
 	/**
 	 * Get the storage manager for a given table. If the storage manager does not 
 	 * exist, it will be created
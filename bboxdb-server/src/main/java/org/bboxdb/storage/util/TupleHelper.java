@@ -167,7 +167,47 @@ public class TupleHelper {
 		
 		return new Tuple(keyString, boundingBox, dataBytes, versionTimestamp, receivedTimestamp);
 	}
-	
+
+	/**
+	 * Decode the tuple at the current reader position, but skip the data of the
+	 * tuple. The returned tuple has an empty data array. Only the data of deleted
+	 * tuples is read, to distinguish them from regular tuples.
+	 *
+	 * @param byteBuffer
+	 * @return
+	 * @throws IOException
+	 */
+	public static Tuple decodeTupleWithoutData(final ByteBuffer byteBuffer) throws IOException {
+		final short keyLength = byteBuffer.getShort();
+		final int boxLength = byteBuffer.getInt();
+		final int dataLength = byteBuffer.getInt();
+		final long versionTimestamp = byteBuffer.getLong();
+		final long receivedTimestamp = byteBuffer.getLong();
+
+		final byte[] keyBytes = new byte[keyLength];
+		byteBuffer.get(keyBytes, 0, keyBytes.length);
+
+		final byte[] boxBytes = new byte[boxLength];
+		byteBuffer.get(boxBytes, 0, boxBytes.length);
+
+		final String keyString = new String(keyBytes);
+
+		if(Arrays.equals(boxBytes, SSTableConst.DELETED_MARKER)) {
+			final byte[] dataBytes = new byte[dataLength];
+			byteBuffer.get(dataBytes, 0, dataBytes.length);
+
+			if(isDeletedTuple(boxBytes, dataBytes)) {
+				return new DeletedTuple(keyString, versionTimestamp);
+			}
+		} else {
+			byteBuffer.position(byteBuffer.position() + dataLength);
+		}
+
+		final Hyperrectangle boundingBox = Hyperrectangle.fromByteArray(boxBytes);
+
+		return new Tuple(keyString, boundingBox, new byte[] {}, versionTimestamp, receivedTimestamp);
+	}
+
 	/**
 	 * Read the tuple from the input stream
 	 * @param inputStream
@@ -19,6 +19,7 @@ package org.bboxdb.storage.wal;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 import org.bboxdb.storage.sstable.SSTableConst;
@@ -26,6 +27,11 @@ import org.bboxdb.storage.sstable.SSTableHelper;
 
 public class WriteAheadLogManager {
 	
+	/**
+	 * The prefix of the WAL files
+	 */
+	private final static String WAL_PREFIX = "wal_";
+	
 	/**
 	 * Get the WAL filename
 	 * @param basedir
@@ -33,17 +39,44 @@ public class WriteAheadLogManager {
 	 * @return
 	 */
 	public static File getFileForWal(final File basedir, final long memtableNumber) {
-		return new File(basedir.getAbsolutePath() + "/" + "wal_" 
+		return new File(basedir.getAbsolutePath() + "/" + WAL_PREFIX 
 				+ memtableNumber + SSTableConst.MEMTABLE_WAL_SUFFIX);
 	}
 	
 	/**
-	 * Get all WAL files from the given basedir
+	 * Get the memtable number of the given WAL file
+	 * @param walFile
+	 * @return
+	 */
+	public static long getMemtableNumberForWal(final File walFile) {
+		final String filename = walFile.getName();
+		
+		if(! filename.startsWith(WAL_PREFIX) || ! SSTableHelper.isFileNameWAL(filename)) {
+			throw new IllegalArgumentException("Not a WAL file: " + walFile);
+		}
+		
+		final String memtableNumber = filename.substring(WAL_PREFIX.length(), 
+				filename.length() - SSTableConst.MEMTABLE_WAL_SUFFIX.length());
+		
+		try {
+			return Long.parseLong(memtableNumber);
+		} catch(NumberFormatException e) {
+			throw new IllegalArgumentException("Not a WAL file: " + walFile, e);
+		}
+	}
+	
+	/**
+	 * Get all WAL files from the given basedir, ordered by the memtable number
+	 * (the order the files are written)
 	 * @param basedir
 	 * @return
 	 */
 	public static List<File> getAllWalFiles(final File basedir) {
 		final File[] files = basedir.listFiles((d, n) -> SSTableHelper.isFileNameWAL(n));
+		
+		// The memtable number is not zero padded, so the file names can not be sorted
+		Arrays.sort(files, Comparator.comparingLong(WriteAheadLogManager::getMemtableNumberForWal));
+		
 		return Arrays.asList(files);
 	}
 	
@@ -17,8 +17,11 @@
  *******************************************************************************/
 package org.bboxdb;
 
+import java.util.Arrays;
+
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.distribution.DistributionGroupConfigurationCache;
+import org.bboxdb.distribution.partitioner.DistributionRegionState;
 import org.bboxdb.distribution.region.DistributionRegion;
 import org.bboxdb.storage.entity.DistributionGroupConfiguration;
 import org.bboxdb.storage.entity.DistributionGroupConfigurationBuilder;
@@ -59,6 +62,94 @@ public class TestDistributionGroup {
 		Assert.assertEquals(1, distributionRegion.getTotalLevel());
 	}
 
+	/**
+	 * Test the region index of the root region
+	 */
+	@Test(timeout=60000)
+	public void testRegionIndex() {
+		final DistributionRegion root = createDistributionGroup(2);
+		
+		final DistributionRegion child1 = new DistributionRegion("foo", root, 
+				new Hyperrectangle(0d, 5d, 0d, 10d), 1);
+		final DistributionRegion child2 = new DistributionRegion("foo", root, 
+				new Hyperrectangle(5d, 10d, 0d, 10d), 2);
+		final DistributionRegion child21 = new DistributionRegion("foo", child2, 
+				new Hyperrectangle(5d, 10d, 0d, 5d), 3);
+		
+		// Attach the subtree of child2 at once
+		child2.addChildren(0, child21);
+		root.addChildren(0, child1);
+		root.addChildren(1, child2);
+		
+		final Hyperrectangle queryBox = new Hyperrectangle(6d, 7d, 1d, 2d);
+		
+		Assert.assertEquals(Arrays.asList(root, child2, child21), 
+				root.getThisAndChildRegions(queryBox, r -> true));
+		Assert.assertEquals(Arrays.asList(child21), 
+				root.getThisAndChildRegions(queryBox, r -> r.isLeafRegion()));
+		Assert.assertEquals(root.getThisAndChildRegions(r -> r.getConveringBox().intersects(queryBox)),
+				root.getThisAndChildRegions(queryBox, r -> true));
+		
+		root.removeChildren(1);
+		Assert.assertEquals(Arrays.asList(root), root.getThisAndChildRegions(queryBox, r -> true));
+		
+		root.merge();
+		Assert.assertEquals(Arrays.asList(root), root.getThisAndChildRegions(Hyperrectangle.FULL_SPACE, r -> true));
+	}
+
+	/**
+	 * Test the read only snapshot of the region tree
+	 */
+	@Test(timeout=60000)
+	public void testSnapshot() {
+		final DistributionRegion root = createDistributionGroup(2);
+		
+		final DistributionRegion child1 = new DistributionRegion("foo", root, 
+				new Hyperrectangle(0d, 5d, 0d, 10d), 1);
+		final DistributionRegion child2 = new DistributionRegion("foo", root, 
+				new Hyperrectangle(5d, 10d, 0d, 10d), 2);
+		
+		root.setState(DistributionRegionState.SPLIT);
+		child1.setState(DistributionRegionState.ACTIVE);
+		root.addChildren(0, child1);
+		root.addChildren(1, child2);
+		
+		final DistributionRegion snapshot = root.createSnapshot();
+		
+		Assert.assertNotSame(root, snapshot);
+		Assert.assertTrue(snapshot.isReadOnly());
+		Assert.assertFalse(root.isReadOnly());
+		Assert.assertEquals(DistributionRegionState.SPLIT, snapshot.getState());
+		Assert.assertEquals(3, snapshot.getThisAndChildRegions().size());
+		Assert.assertEquals(DistributionRegionState.ACTIVE, snapshot.getChildNumber(0).getState());
+		Assert.assertEquals(2, snapshot.getChildNumber(1).getRegionId());
+		Assert.assertEquals(snapshot, snapshot.getChildNumber(1).getParent());
+		
+		final Hyperrectangle queryBox = new Hyperrectangle(6d, 7d, 1d, 2d);
+		Assert.assertEquals(Arrays.asList(snapshot, snapshot.getChildNumber(1)), 
+				snapshot.getThisAndChildRegions(queryBox, r -> true));
+		
+		// Changes of the tree are not visible in the snapshot
+		root.removeChildren(1);
+		child1.setState(DistributionRegionState.SPLITTING);
+		Assert.assertEquals(3, snapshot.getThisAndChildRegions().size());
+		Assert.assertEquals(DistributionRegionState.ACTIVE, snapshot.getChildNumber(0).getState());
+		
+		try {
+			snapshot.getChildNumber(0).setState(DistributionRegionState.SPLIT);
+			Assert.fail("Snapshot is modifiable");
+		} catch(UnsupportedOperationException e) {
+			// Expected
+		}
+		
+		try {
+			child1.createSnapshot();
+			Assert.fail("Snapshot of a non root region was created");
+		} catch(IllegalStateException e) {
+			// Expected
+		}
+	}
+
 	/**
 	 * @param dimensions 
 	 * @return
@@ -108,4 +108,40 @@ public class TestMultiFuture {
 		latch.await();
 	}
 	
+	@Test(timeout=60000)
+	public void testHedgedExecution() throws InterruptedException {
+		final NetworkOperationFuture future1 = Mockito.mock(NetworkOperationFuture.class);
+		final NetworkOperationFuture future2 = Mockito.mock(NetworkOperationFuture.class);
+
+		final NetworkOperationFutureMultiImpl multiFuture = new NetworkOperationFutureMultiImpl(
+				Arrays.asList(future1, future2), 100);
+		
+		multiFuture.execute();
+		Mockito.verify(future1, Mockito.times(1)).execute();
+		Mockito.verify(future2, Mockito.never()).execute();
+		
+		// The hedged request is executed after the delay
+		Mockito.verify(future2, Mockito.timeout(10000).times(1)).execute();
+		Mockito.verify(future1, Mockito.times(1)).execute();
+	}
+	
+	@Test(timeout=60000)
+	public void testFailoverExecution() throws InterruptedException {
+		final NetworkOperationFuture future1 = Mockito.mock(NetworkOperationFuture.class);
+		final NetworkOperationFuture future2 = Mockito.mock(NetworkOperationFuture.class);
+
+		final NetworkOperationFutureMultiImpl multiFuture = new NetworkOperationFutureMultiImpl(
+				Arrays.asList(future1, future2), -1);
+		
+		multiFuture.execute();
+		Mockito.verify(future1, Mockito.times(1)).execute();
+		Mockito.verify(future2, Mockito.never()).execute();
+		
+		// The second future is executed on failure
+		Assert.assertTrue(multiFuture.handleErrorCallback(future1));
+		Mockito.verify(future2, Mockito.times(1)).execute();
+		
+		// No more replicas are available
+		Assert.assertFalse(multiFuture.handleErrorCallback(future2));
+	}
 }
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb;
+
+import org.bboxdb.performance.StorageMetrics;
+import org.bboxdb.performance.StorageMetrics.Operation;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Histogram;
+
+public class TestStorageMetrics {
+
+	/**
+	 * Test the labels of the latency histogram
+	 */
+	@Test(timeout=60000)
+	public void testLatencyHistogramLabels() {
+		final TupleStoreName tupleStoreName1 = new TupleStoreName("testgroup_testtable_1");
+		final TupleStoreName tupleStoreName2 = new TupleStoreName("testgroup_testtable_2");
+		
+		final Histogram.Child histogram1 = StorageMetrics.getLatencyHistogram(Operation.INSERT, tupleStoreName1);
+		final Histogram.Child histogram2 = StorageMetrics.getLatencyHistogram(Operation.INSERT, tupleStoreName2);
+		
+		// The region id is not part of the labels
+		Assert.assertSame(histogram1, histogram2);
+		
+		final double countBefore = getSampleCount("insert", "testgroup", "testtable");
+		histogram1.observe(0.001);
+		histogram2.observe(0.002);
+		Assert.assertEquals(countBefore + 2, getSampleCount("insert", "testgroup", "testtable"), 0.0);
+		
+		final Histogram.Child histogram3 = StorageMetrics.getLatencyHistogram(Operation.KEY_QUERY, tupleStoreName1);
+		Assert.assertNotSame(histogram1, histogram3);
+	}
+	
+	/**
+	 * Test an invalid table name
+	 */
+	@Test(timeout=60000)
+	public void testInvalidTablename() {
+		final TupleStoreName tupleStoreName = new TupleStoreName("invalid");
+		Assert.assertFalse(tupleStoreName.isValid());
+		
+		final Histogram.Child histogram = StorageMetrics.getLatencyHistogram(Operation.INSERT, tupleStoreName);
+		Assert.assertNotNull(histogram);
+	}
+	
+	/**
+	 * Test the counter
+	 */
+	@Test(timeout=60000)
+	public void testCounter() {
+		final Double before = CollectorRegistry.defaultRegistry.getSampleValue(
+				"bboxdb_rtree_nodes_visited_total");
+		
+		StorageMetrics.addVisitedRTreeNodes(5);
+		
+		final Double after = CollectorRegistry.defaultRegistry.getSampleValue(
+				"bboxdb_rtree_nodes_visited_total");
+		
+		Assert.assertEquals(before + 5, after, 0.0);
+	}
+
+	/**
+	 * Get the number of observations
+	 * @param operation
+	 * @param group
+	 * @param table
+	 * @return
+	 */
+	private double getSampleCount(final String operation, final String group, final String table) {
+		final Double value = CollectorRegistry.defaultRegistry.getSampleValue(
+				"bboxdb_operation_latency_seconds_count", 
+				new String[] {"operation", "group", "table"}, 
+				new String[] {operation, group, table});
+		
+		return value == null ? 0 : value;
+	}
+}
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.commons.math.QuantileSketch;
+import org.bboxdb.distribution.partitioner.DistributionRegionState;
+import org.bboxdb.distribution.partitioner.SpacePartitioner;
+import org.bboxdb.distribution.partitioner.regionsplit.PreSplitHelper;
+import org.bboxdb.distribution.partitioner.regionsplit.SplitpointStrategy;
+import org.bboxdb.distribution.region.DistributionRegion;
+import org.bboxdb.distribution.region.DistributionRegionCallback;
+import org.bboxdb.distribution.region.DistributionRegionEvent;
+import org.bboxdb.misc.BBoxDBException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+public class TestPreSplitHelper {
+
+	/**
+	 * The name of the distribution group
+	 */
+	private final static String TEST_GROUP = "abc";
+	
+	/**
+	 * Test the selection of the region to split
+	 */
+	@Test(timeout=60000)
+	public void testRegionToSplit() {
+		final DistributionRegion root = new DistributionRegion(TEST_GROUP, Hyperrectangle.FULL_SPACE);
+		final DistributionRegion region1 = new DistributionRegion(TEST_GROUP, root, 
+				new Hyperrectangle(0d, 10d, 0d, 10d), 1);
+		final DistributionRegion region2 = new DistributionRegion(TEST_GROUP, root, 
+				new Hyperrectangle(10d, 20d, 0d, 10d), 2);
+		
+		final List<DistributionRegion> regions = Arrays.asList(region1, region2);
+		final List<Hyperrectangle> samples = new ArrayList<>();
+		
+		// No samples
+		Assert.assertNull(PreSplitHelper.getRegionToSplit(regions, samples));
+		
+		samples.add(new Hyperrectangle(1d, 2d, 1d, 2d));
+		samples.add(new Hyperrectangle(11d, 12d, 1d, 2d));
+		samples.add(new Hyperrectangle(13d, 14d, 1d, 2d));
+		samples.add(Hyperrectangle.FULL_SPACE);
+		
+		Assert.assertEquals(region2, PreSplitHelper.getRegionToSplit(regions, samples));
+		
+		// One sample is not enough for a split
+		Assert.assertNull(PreSplitHelper.getRegionToSplit(Arrays.asList(region1), samples));
+		
+		samples.add(new Hyperrectangle(3d, 4d, 1d, 2d));
+		samples.add(new Hyperrectangle(5d, 6d, 1d, 2d));
+		Assert.assertEquals(region1, PreSplitHelper.getRegionToSplit(regions, samples));
+		Assert.assertEquals(root, PreSplitHelper.getRegionToSplit(Arrays.asList(root), samples));
+	}
+	
+	/**
+	 * Test the sketches of a region
+	 */
+	@Test(timeout=60000)
+	public void testSketchesForRegion() {
+		final DistributionRegion root = new DistributionRegion(TEST_GROUP, Hyperrectangle.FULL_SPACE);
+		final DistributionRegion region = new DistributionRegion(TEST_GROUP, root, 
+				new Hyperrectangle(0d, 10d, 0d, 10d), 1);
+		
+		final List<Hyperrectangle> samples = new ArrayList<>();
+		
+		for(int i = 0; i < 20; i++) {
+			samples.add(new Hyperrectangle((double) i, (double) i + 1, 4d, 6d));
+		}
+		
+		final List<QuantileSketch> sketches = PreSplitHelper.getSketchesForRegion(region, samples);
+		Assert.assertEquals(2, sketches.size());
+		Assert.assertEquals(10, sketches.get(0).getCount());
+		Assert.assertEquals(9.5, sketches.get(0).getMax(), 0.0001);
+		Assert.assertEquals(5, sketches.get(1).getQuantile(0.5), 0.0001);
+		
+		final List<QuantileSketch> rootSketches = PreSplitHelper.getSketchesForRegion(root, samples);
+		Assert.assertEquals(20, rootSketches.get(0).getCount());
+	}
+	
+	/**
+	 * Pre-split without root node
+	 * @throws BBoxDBException 
+	 */
+	@Test(expected=BBoxDBException.class)
+	public void testPreSplitWithoutRoot() throws BBoxDBException {
+		final SpacePartitioner spacePartitioner = Mockito.mock(SpacePartitioner.class);
+		PreSplitHelper.preSplit(spacePartitioner, new ArrayList<>(), 10);
+	}
+	
+	/**
+	 * Pre-split into multiple regions, the split is completed asynchronously 
+	 * like the zookeeper callback of a real space partitioner
+	 * @throws BBoxDBException 
+	 */
+	@Test(timeout=60000)
+	public void testPreSplitMultipleRegions() throws BBoxDBException {
+		final DistributionRegion root = new DistributionRegion(TEST_GROUP, 
+				new Hyperrectangle(0d, 100d, 0d, 100d));
+		root.setState(DistributionRegionState.ACTIVE);
+		
+		final SpacePartitioner spacePartitioner = getAsyncSpacePartitioner(root);
+		
+		final Random random = new Random(42);
+		final List<Hyperrectangle> samples = new ArrayList<>();
+		
+		for(int i = 0; i < 1000; i++) {
+			final double x = random.nextDouble() * 99;
+			final double y = random.nextDouble() * 99;
+			samples.add(new Hyperrectangle(x, x + 1, y, y + 1));
+		}
+		
+		Assert.assertEquals(7, PreSplitHelper.preSplit(spacePartitioner, samples, 7));
+		
+		final long activeRegions = root.getThisAndChildRegions().stream()
+				.filter(r -> r.getState() == DistributionRegionState.ACTIVE)
+				.count();
+		
+		Assert.assertEquals(7, activeRegions);
+		Assert.assertEquals(13, root.getThisAndChildRegions().size());
+	}
+
+	/**
+	 * Get a space partitioner that splits the regions in the given tree. The new 
+	 * regions become active in a different thread after the split is completed.
+	 * @param root
+	 * @return
+	 * @throws BBoxDBException
+	 */
+	private SpacePartitioner getAsyncSpacePartitioner(final DistributionRegion root) 
+			throws BBoxDBException {
+		
+		final SpacePartitioner spacePartitioner = Mockito.mock(SpacePartitioner.class);
+		final Set<DistributionRegionCallback> callbacks = new CopyOnWriteArraySet<>();
+		final AtomicLong regionIds = new AtomicLong(1);
+		
+		Mockito.when(spacePartitioner.getRootNode()).thenReturn(root);
+		
+		Mockito.when(spacePartitioner.registerCallback(ArgumentMatchers.any())).thenAnswer(
+				i -> callbacks.add(i.getArgument(0)));
+		
+		Mockito.when(spacePartitioner.unregisterCallback(ArgumentMatchers.any())).thenAnswer(
+				i -> callbacks.remove(i.getArgument(0)));
+		
+		Mockito.when(spacePartitioner.splitRegion(ArgumentMatchers.any(DistributionRegion.class), 
+				ArgumentMatchers.any(SplitpointStrategy.class))).thenAnswer(i -> {
+					final DistributionRegion region = i.getArgument(0);
+					final SplitpointStrategy strategy = i.getArgument(1);
+					
+					if(region.hasChildren()) {
+						throw new BBoxDBException("Region " + region + " is already split");
+					}
+					
+					final int dimension = region.getLevel() % 2;
+					final Hyperrectangle box = region.getConveringBox();
+					final double splitPoint = strategy.getSplitPoint(dimension, box);
+					
+					region.addChildren(0, new DistributionRegion(TEST_GROUP, region, 
+							box.splitAndGetLeft(splitPoint, dimension, true), regionIds.getAndIncrement()));
+					region.addChildren(1, new DistributionRegion(TEST_GROUP, region, 
+							box.splitAndGetRight(splitPoint, dimension, false), regionIds.getAndIncrement()));
+					
+					return region.getDirectChildren();
+				});
+		
+		Mockito.doAnswer(i -> {
+			final DistributionRegion region = i.getArgument(0);
+			final List<DistributionRegion> destination = i.getArgument(1);
+			
+			final Thread thread = new Thread(() -> {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				
+				region.setState(DistributionRegionState.SPLIT);
+				destination.forEach(r -> r.setState(DistributionRegionState.ACTIVE));
+				callbacks.forEach(c -> c.regionChanged(DistributionRegionEvent.CHANGED, region));
+			});
+			
+			thread.start();
+			return null;
+		}).when(spacePartitioner).splitComplete(ArgumentMatchers.any(), ArgumentMatchers.any());
+		
+		return spacePartitioner;
+	}
+}
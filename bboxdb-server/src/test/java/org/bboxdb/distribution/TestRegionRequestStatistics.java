@@ -0,0 +1,80 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.bboxdb.distribution.statistics.RegionRequestStatistics;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestRegionRequestStatistics {
+	
+	@Before
+	@After
+	public void clear() {
+		RegionRequestStatistics.clear();
+	}
+
+	/**
+	 * Test the recording of requests
+	 */
+	@Test(timeout=60000)
+	public void testRecordRequests() {
+		RegionRequestStatistics.recordRead("group1", 1);
+		RegionRequestStatistics.recordRead("group1", 1);
+		RegionRequestStatistics.recordWrite("group1", 1);
+		RegionRequestStatistics.recordWrite("group1", 2);
+		
+		Assert.assertEquals(2, RegionRequestStatistics.getNumberOfRecordedRegions());
+		Assert.assertEquals(2, RegionRequestStatistics.getAndResetReadRequests("group1", 1));
+		Assert.assertEquals(0, RegionRequestStatistics.getAndResetReadRequests("group1", 1));
+		Assert.assertEquals(1, RegionRequestStatistics.getAndResetWriteRequests("group1", 1));
+		Assert.assertEquals(1, RegionRequestStatistics.getAndResetWriteRequests("group1", 2));
+		Assert.assertEquals(0, RegionRequestStatistics.getAndResetWriteRequests("group2", 2));
+	}
+	
+	/**
+	 * Remove the requests of inactive regions and deleted groups
+	 */
+	@Test(timeout=60000)
+	public void testRemoveInactiveRegions() {
+		RegionRequestStatistics.recordRead("group1", 1);
+		RegionRequestStatistics.recordWrite("group1", 2);
+		RegionRequestStatistics.recordWrite("group1", 3);
+		RegionRequestStatistics.recordRead("group2", 1);
+		RegionRequestStatistics.recordRead("group3", 1);
+		
+		Assert.assertEquals(5, RegionRequestStatistics.getNumberOfRecordedRegions());
+		
+		// Region 1 is split into 2 and 3
+		RegionRequestStatistics.retainRegions("group1", new HashSet<>(Arrays.asList(2L, 3L)));
+		Assert.assertEquals(4, RegionRequestStatistics.getNumberOfRecordedRegions());
+		Assert.assertEquals(0, RegionRequestStatistics.getAndResetReadRequests("group1", 1));
+		Assert.assertEquals(1, RegionRequestStatistics.getAndResetWriteRequests("group1", 2));
+		Assert.assertEquals(1, RegionRequestStatistics.getAndResetReadRequests("group2", 1));
+		
+		// Group 3 is deleted
+		RegionRequestStatistics.retainDistributionGroups(Arrays.asList("group1", "group2"));
+		Assert.assertEquals(3, RegionRequestStatistics.getNumberOfRecordedRegions());
+		Assert.assertEquals(0, RegionRequestStatistics.getAndResetReadRequests("group3", 1));
+	}
+}
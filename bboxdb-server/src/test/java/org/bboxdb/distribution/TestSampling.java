@@ -17,14 +17,18 @@
  *******************************************************************************/
 package org.bboxdb.distribution;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import org.bboxdb.commons.RejectedException;
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.commons.math.QuantileSketch;
 import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
 import org.bboxdb.distribution.partitioner.regionsplit.SamplingBasedSplitStrategy;
 import org.bboxdb.distribution.partitioner.regionsplit.SamplingHelper;
 import org.bboxdb.distribution.partitioner.regionsplit.SimpleSplitStrategy;
+import org.bboxdb.distribution.partitioner.regionsplit.SketchBasedSplitStrategy;
 import org.bboxdb.distribution.partitioner.regionsplit.SplitpointStrategy;
 import org.bboxdb.distribution.region.DistributionRegion;
 import org.bboxdb.distribution.zookeeper.DistributionGroupAdapter;
@@ -232,4 +236,88 @@ public class TestSampling {
 		Assert.assertTrue(coveringBox.isCoveringPointInDimension(splitPoint0, 0));
 		Assert.assertTrue(coveringBox.isCoveringPointInDimension(splitPoint1, 1));
 	}
+	
+	/**
+	 * Test the sketches of a region
+	 * @throws RejectedException 
+	 * @throws StorageManagerException 
+	 * @throws BBoxDBException 
+	 */
+	@Test(timeout=60000)
+	public void testSketches1() throws StorageManagerException, RejectedException, BBoxDBException {
+				
+		createDummyTable();
+		
+		final DistributionRegion rootNode 
+			= SpacePartitionerCache.getInstance().getSpacePartitionerForGroupName(TEST_GROUP).getRootNode();
+		
+		final List<QuantileSketch> sketches = SamplingHelper.getSketchesForRegion(rootNode, storageRegistry);
+		
+		// Deleted tuples are ignored
+		Assert.assertEquals(2, sketches.size());
+		Assert.assertEquals(100, sketches.get(0).getCount());
+		Assert.assertEquals(1.5, sketches.get(0).getQuantile(0.5), 0.0001);
+		Assert.assertEquals(10.5, sketches.get(1).getQuantile(0.5), 0.0001);
+	}
+	
+	/**
+	 * Test the sketch based splitpoint strategy on skewed data
+	 * @throws StorageManagerException 
+	 */
+	@Test(timeout=60000)
+	public void testSketchBasedSplitStrategy1() throws StorageManagerException {
+		final QuantileSketch sketch = new QuantileSketch();
+		
+		// 90% of the data is located in [0, 10]
+		for(int i = 0; i < 9000; i++) {
+			sketch.add(i / 900.0);
+		}
+		
+		for(int i = 0; i < 1000; i++) {
+			sketch.add(10 + i / 10.0);
+		}
+		
+		final List<QuantileSketch> sketches = new ArrayList<>();
+		sketches.add(sketch);
+		
+		final SplitpointStrategy splitpointStrategy = new SketchBasedSplitStrategy(sketches);
+		final Hyperrectangle coveringBox1 = new Hyperrectangle(0d, 110d);
+		final double splitPoint1 = splitpointStrategy.getSplitPoint(0, coveringBox1);
+		Assert.assertTrue(coveringBox1.isCoveringPointInDimension(splitPoint1, 0));
+		Assert.assertEquals(0.5, sketch.getRank(splitPoint1), 0.03);
+		
+		// Only the data in the covering box is used
+		final Hyperrectangle coveringBox2 = new Hyperrectangle(10d, 110d);
+		final double splitPoint2 = splitpointStrategy.getSplitPoint(0, coveringBox2);
+		Assert.assertTrue(coveringBox2.isCoveringPointInDimension(splitPoint2, 0));
+		Assert.assertEquals(60, splitPoint2, 3);
+	}
+	
+	/**
+	 * Test the sketch based splitpoint strategy without data
+	 * @throws StorageManagerException 
+	 */
+	@Test(expected=StorageManagerException.class)
+	public void testSketchBasedSplitStrategy2() throws StorageManagerException {
+		final SplitpointStrategy splitpointStrategy = new SketchBasedSplitStrategy(new ArrayList<>());
+		final Hyperrectangle coveringBox = new Hyperrectangle(1d, 2d, -1d, 20d);
+		splitpointStrategy.getSplitPoint(0, coveringBox);
+	}
+	
+	/**
+	 * Test the sketch based splitpoint strategy without data in the covering box
+	 * @throws StorageManagerException 
+	 */
+	@Test(expected=StorageManagerException.class)
+	public void testSketchBasedSplitStrategy3() throws StorageManagerException {
+		final QuantileSketch sketch = new QuantileSketch();
+		sketch.add(5);
+		
+		final List<QuantileSketch> sketches = new ArrayList<>();
+		sketches.add(sketch);
+		
+		final SplitpointStrategy splitpointStrategy = new SketchBasedSplitStrategy(sketches);
+		final Hyperrectangle coveringBox = new Hyperrectangle(10d, 20d);
+		splitpointStrategy.getSplitPoint(0, coveringBox);
+	}
 }
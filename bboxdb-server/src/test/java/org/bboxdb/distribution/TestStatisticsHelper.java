@@ -17,7 +17,13 @@
  *******************************************************************************/
 package org.bboxdb.distribution;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+
+import org.bboxdb.distribution.membership.BBoxDBInstance;
 import org.bboxdb.distribution.partitioner.regionsplit.StatisticsHelper;
+import org.bboxdb.distribution.zookeeper.ZookeeperNodeNames;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -55,4 +61,54 @@ public class TestStatisticsHelper {
 		Assert.assertEquals(0, StatisticsHelper.getAverageStatistics(TABLENAME), DELTA);
 		Assert.assertFalse(StatisticsHelper.isEnoughHistoryDataAvailable(TABLENAME));
 	}
+
+	@Test(timeout=60000)
+	public void testRequestRateHistory() {
+		StatisticsHelper.clearHistory();
+		
+		Assert.assertFalse(StatisticsHelper.isRequestRateSustainedAbove(TABLENAME, 10));
+
+		final int historyLength = StatisticsHelper.HISTORY_LENGTH;
+		
+		for(int i = 0; i < historyLength - 1; i++) {
+			StatisticsHelper.updateRequestRateHistory(TABLENAME, 100);
+		}
+		
+		// Not enough history
+		Assert.assertFalse(StatisticsHelper.isRequestRateSustainedAbove(TABLENAME, 10));
+		
+		StatisticsHelper.updateRequestRateHistory(TABLENAME, 100);
+		Assert.assertTrue(StatisticsHelper.isRequestRateSustainedAbove(TABLENAME, 10));
+		Assert.assertFalse(StatisticsHelper.isRequestRateSustainedAbove(TABLENAME, 100));
+
+		// Short drop of the rate
+		StatisticsHelper.updateRequestRateHistory(TABLENAME, 5);
+		Assert.assertFalse(StatisticsHelper.isRequestRateSustainedAbove(TABLENAME, 10));
+
+		StatisticsHelper.clearHistory();
+		Assert.assertFalse(StatisticsHelper.isRequestRateSustainedAbove(TABLENAME, 10));
+	}
+	
+	@Test(timeout=60000)
+	public void testCalculateRequestRate() {
+		final Map<BBoxDBInstance, Map<String, Long>> statistics = new HashMap<>();
+		
+		final Map<String, Long> system1 = new HashMap<>();
+		system1.put(ZookeeperNodeNames.NAME_STATISTICS_TOTAL_SIZE, 10L);
+		statistics.put(new BBoxDBInstance("node1:123"), system1);
+		
+		// No rates published
+		Assert.assertEquals(OptionalDouble.empty(), StatisticsHelper.calculateRequestRate(statistics));
+		
+		system1.put(ZookeeperNodeNames.NAME_STATISTICS_READ_RATE, 20L);
+		system1.put(ZookeeperNodeNames.NAME_STATISTICS_WRITE_RATE, 50L);
+
+		final Map<String, Long> system2 = new HashMap<>();
+		system2.put(ZookeeperNodeNames.NAME_STATISTICS_READ_RATE, 30L);
+		system2.put(ZookeeperNodeNames.NAME_STATISTICS_WRITE_RATE, 40L);
+		statistics.put(new BBoxDBInstance("node2:123"), system2);
+		
+		// Reads are summed up, writes are replicated
+		Assert.assertEquals(100.0, StatisticsHelper.calculateRequestRate(statistics).getAsDouble(), DELTA);
+	}
 }
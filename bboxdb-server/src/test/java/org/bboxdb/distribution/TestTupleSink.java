@@ -35,6 +35,9 @@ import org.bboxdb.distribution.zookeeper.TupleStoreAdapter;
 import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
 import org.bboxdb.distribution.zookeeper.ZookeeperException;
 import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.client.BBoxDBClient;
+import org.bboxdb.network.client.BBoxDBConnection;
+import org.bboxdb.network.client.future.EmptyResultFuture;
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.DeletedTuple;
 import org.bboxdb.storage.entity.DistributionGroupConfiguration;
@@ -250,5 +253,62 @@ public class TestTupleSink {
 		
 		Assert.assertEquals(1, localSinks);
 	}
+	
+	/**
+	 * Test the window of the network tuple sink
+	 * @throws Exception 
+	 */
+	@Test(timeout=60000)
+	public void testNetworkTupleSinkWindow() throws Exception {
+		final EmptyResultFuture pendingFuture = Mockito.mock(EmptyResultFuture.class);
+		Mockito.when(pendingFuture.isDone()).thenReturn(false, false, true);
+		
+		final EmptyResultFuture doneFuture = Mockito.mock(EmptyResultFuture.class);
+		Mockito.when(doneFuture.isDone()).thenReturn(true);
+		
+		final BBoxDBClient client = Mockito.mock(BBoxDBClient.class);
+		Mockito.when(client.insertTuple(Mockito.anyString(), Mockito.any(Tuple.class)))
+			.thenReturn(pendingFuture, doneFuture);
+		
+		final BBoxDBConnection connection = Mockito.mock(BBoxDBConnection.class);
+		Mockito.when(connection.getBboxDBClient()).thenReturn(client);
+		
+		final NetworkTupleSink tupleSink = new NetworkTupleSink(TABLENAME, connection, 2);
+		final Tuple tuple = new Tuple("abc", new Hyperrectangle(0.0, 1.0), "".getBytes());
+		
+		tupleSink.sinkTuple(tuple);
+		Assert.assertEquals(1, tupleSink.getPendingFutures());
+		
+		// Window is full, the oldest future is awaited
+		tupleSink.sinkTuple(tuple);
+		Mockito.verify(pendingFuture, Mockito.times(1)).waitForCompletion(Mockito.anyLong(), Mockito.any());
+		Assert.assertEquals(1, tupleSink.getPendingFutures());
+		
+		tupleSink.flush();
+		Assert.assertEquals(0, tupleSink.getPendingFutures());
+		Assert.assertEquals(2, tupleSink.getSinkedTuples());
+	}
+	
+	/**
+	 * Test a failed insert in the network tuple sink
+	 * @throws Exception 
+	 */
+	@Test(timeout=60000, expected=StorageManagerException.class)
+	public void testNetworkTupleSinkFailed() throws Exception {
+		final EmptyResultFuture failedFuture = Mockito.mock(EmptyResultFuture.class);
+		Mockito.when(failedFuture.isDone()).thenReturn(true);
+		Mockito.when(failedFuture.isFailed()).thenReturn(true);
 
+		final BBoxDBClient client = Mockito.mock(BBoxDBClient.class);
+		Mockito.when(client.insertTuple(Mockito.anyString(), Mockito.any(Tuple.class)))
+			.thenReturn(failedFuture);
+		
+		final BBoxDBConnection connection = Mockito.mock(BBoxDBConnection.class);
+		Mockito.when(connection.getBboxDBClient()).thenReturn(client);
+		
+		final NetworkTupleSink tupleSink = new NetworkTupleSink(TABLENAME, connection, 10);
+		final Tuple tuple = new Tuple("abc", new Hyperrectangle(0.0, 1.0), "".getBytes());
+		tupleSink.sinkTuple(tuple);
+		tupleSink.flush();
+	}
 }
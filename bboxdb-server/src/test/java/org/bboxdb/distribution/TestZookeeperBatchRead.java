@@ -0,0 +1,208 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.zookeeper.AsyncCallback.ChildrenCallback;
+import org.apache.zookeeper.AsyncCallback.DataCallback;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.KeeperException.Code;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.ZooKeeper;
+import org.apache.zookeeper.data.Stat;
+import org.bboxdb.distribution.zookeeper.ZookeeperBatchRead;
+import org.bboxdb.distribution.zookeeper.ZookeeperException;
+import org.bboxdb.distribution.zookeeper.ZookeeperNotFoundException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+public class TestZookeeperBatchRead {
+
+	/**
+	 * Create a zookeeper mock, the results are delivered by another thread
+	 * @param dataCode
+	 * @return
+	 */
+	private ZooKeeper createZookeeperMock(final Code dataCode) {
+		final ZooKeeper zookeeper = Mockito.mock(ZooKeeper.class);
+		
+		Mockito.doAnswer(i -> {
+			final String path = i.getArgument(0);
+			final DataCallback callback = i.getArgument(2);
+			final Code code = path.endsWith("missing") ? Code.NONODE : dataCode;
+			new Thread(() -> callback.processResult(code.intValue(), path, null, 
+					path.getBytes(), null)).start();
+			return null;
+		}).when(zookeeper).getData(ArgumentMatchers.anyString(), ArgumentMatchers.nullable(Watcher.class), 
+				ArgumentMatchers.any(DataCallback.class), ArgumentMatchers.any());
+		
+		Mockito.doAnswer(i -> {
+			final String path = i.getArgument(0);
+			final ChildrenCallback callback = i.getArgument(2);
+			new Thread(() -> callback.processResult(Code.OK.intValue(), path, null, 
+					Arrays.asList("child-1", "child-2"))).start();
+			return null;
+		}).when(zookeeper).getChildren(ArgumentMatchers.anyString(), ArgumentMatchers.nullable(Watcher.class), 
+				ArgumentMatchers.any(ChildrenCallback.class), ArgumentMatchers.any());
+		
+		return zookeeper;
+	}
+	
+	/**
+	 * Test the pipelined execution of the requests
+	 * @throws ZookeeperException
+	 * @throws ZookeeperNotFoundException
+	 */
+	@Test(timeout=60000)
+	public void testBatchRead() throws ZookeeperException, ZookeeperNotFoundException {
+		final ZooKeeper zookeeper = createZookeeperMock(Code.OK);
+		final ZookeeperBatchRead batchRead = new ZookeeperBatchRead(zookeeper, 10000);
+		
+		batchRead.getData("/a").getData("/b").getData("/missing").getChildren("/c");
+		Assert.assertTrue(batchRead.isRequested("/a"));
+		Assert.assertFalse(batchRead.isRequested("/d"));
+		Assert.assertFalse(batchRead.exists("/a"));
+
+		batchRead.execute();
+		
+		Assert.assertEquals(1, batchRead.getRoundTrips());
+		Assert.assertEquals("/a", batchRead.getStringResult("/a"));
+		Assert.assertEquals("/b", batchRead.getStringResult("/b"));
+		Assert.assertEquals(Arrays.asList("child-1", "child-2"), batchRead.getChildrenResult("/c"));
+		Assert.assertTrue(batchRead.exists("/a"));
+		Assert.assertTrue(batchRead.exists("/c"));
+		Assert.assertFalse(batchRead.exists("/missing"));
+		Assert.assertTrue(batchRead.isRequested("/missing"));
+		
+		// Nothing pending
+		batchRead.execute();
+		Assert.assertEquals(1, batchRead.getRoundTrips());
+
+		batchRead.getData("/d");
+		batchRead.execute();
+		Assert.assertEquals(2, batchRead.getRoundTrips());
+		Assert.assertEquals("/d", batchRead.getStringResult("/d"));
+		Assert.assertEquals("/a", batchRead.getStringResult("/a"));
+		
+		Mockito.verify(zookeeper, Mockito.times(4)).getData(ArgumentMatchers.anyString(), 
+				ArgumentMatchers.any(), ArgumentMatchers.any(DataCallback.class), ArgumentMatchers.any());
+	}
+	
+	/**
+	 * Read a non existing node
+	 * @throws ZookeeperException
+	 * @throws ZookeeperNotFoundException
+	 */
+	@Test(expected=ZookeeperNotFoundException.class)
+	public void testNotFound() throws ZookeeperException, ZookeeperNotFoundException {
+		final ZooKeeper zookeeper = createZookeeperMock(Code.OK);
+		final ZookeeperBatchRead batchRead = new ZookeeperBatchRead(zookeeper, 10000);
+		batchRead.getData("/missing");
+		batchRead.execute();
+		batchRead.getDataResult("/missing");
+	}
+	
+	/**
+	 * Test a failed batch
+	 */
+	@Test(timeout=60000)
+	public void testFailedRequest() {
+		final ZooKeeper zookeeper = createZookeeperMock(Code.CONNECTIONLOSS);
+		final ZookeeperBatchRead batchRead = new ZookeeperBatchRead(zookeeper, 10000);
+		batchRead.getData("/a");
+		
+		try {
+			batchRead.execute();
+			Assert.fail("Exception expected");
+		} catch (ZookeeperException e) {
+			// Expected
+		}
+		
+		// Request can be executed again
+		Assert.assertFalse(batchRead.isRequested("/a"));
+	}
+	
+	/**
+	 * Test the execution on the zookeeper event thread
+	 * @throws Exception 
+	 */
+	@Test(timeout=60000)
+	public void testEventThread() throws Exception {
+		final ZooKeeper zookeeper = createZookeeperMock(Code.OK);
+		
+		Mockito.when(zookeeper.getData(ArgumentMatchers.eq("/a"), ArgumentMatchers.nullable(Watcher.class), 
+				ArgumentMatchers.nullable(Stat.class))).thenReturn("sync".getBytes());
+		
+		Mockito.when(zookeeper.getData(ArgumentMatchers.eq("/missing"), ArgumentMatchers.nullable(Watcher.class), 
+				ArgumentMatchers.nullable(Stat.class))).thenThrow(new KeeperException.NoNodeException());
+		
+		// The batch is executed synchronously, the async callbacks are never executed
+		final ZookeeperBatchRead batchRead = new ZookeeperBatchRead(zookeeper, 10000, true);
+		batchRead.getData("/a").getData("/missing");
+		batchRead.execute();
+		
+		Assert.assertEquals("sync", batchRead.getStringResult("/a"));
+		Assert.assertFalse(batchRead.exists("/missing"));
+		
+		Mockito.verify(zookeeper, Mockito.never()).getData(ArgumentMatchers.anyString(), 
+				ArgumentMatchers.any(), ArgumentMatchers.any(DataCallback.class), ArgumentMatchers.any());
+	}
+	
+	/**
+	 * Test the results that are delivered after the timeout of the batch
+	 * @throws Exception 
+	 */
+	@Test(timeout=60000)
+	public void testLateResults() throws Exception {
+		final ZooKeeper zookeeper = Mockito.mock(ZooKeeper.class);
+		final AtomicReference<DataCallback> lateCallback = new AtomicReference<>();
+		
+		Mockito.doAnswer(i -> {
+			final String path = i.getArgument(0);
+			final DataCallback callback = i.getArgument(2);
+			
+			if(path.equals("/late")) {
+				lateCallback.set(callback);
+			} else {
+				callback.processResult(Code.OK.intValue(), path, null, path.getBytes(), null);
+			}
+			
+			return null;
+		}).when(zookeeper).getData(ArgumentMatchers.anyString(), ArgumentMatchers.nullable(Watcher.class), 
+				ArgumentMatchers.any(DataCallback.class), ArgumentMatchers.any());
+		
+		final ZookeeperBatchRead batchRead = new ZookeeperBatchRead(zookeeper, 100);
+		batchRead.getData("/a").getData("/late");
+		
+		try {
+			batchRead.execute();
+			Assert.fail("Exception expected");
+		} catch (ZookeeperException e) {
+			// Expected
+		}
+		
+		// The results of the timed out batch are not used
+		lateCallback.get().processResult(Code.OK.intValue(), "/late", null, "/late".getBytes(), null);
+		Assert.assertFalse(batchRead.exists("/a"));
+		Assert.assertFalse(batchRead.exists("/late"));
+	}
+}
@@ -0,0 +1,222 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.partition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.bboxdb.commons.math.HilbertCurve;
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.distribution.partitioner.HilbertSpacePartitioner;
+import org.bboxdb.distribution.partitioner.regionsplit.SamplingBasedSplitStrategy;
+import org.bboxdb.distribution.partitioner.regionsplit.SimpleSplitStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestHilbertSpacePartitioner {
+
+	/**
+	 * The allowed delta in the tests
+	 */
+	private final static double DELTA = 0.000001;
+	
+	/**
+	 * Test the split of a square
+	 */
+	@Test(timeout=60000)
+	public void testSplitSquare() {
+		final Hyperrectangle rootBox = new Hyperrectangle(0d, 4d, 0d, 4d);
+		final List<Hyperrectangle> children = HilbertSpacePartitioner.splitBox(rootBox, rootBox);
+		
+		Assert.assertEquals(2, children.size());
+		Assert.assertEquals(rootBox.getVolume() / 2, children.get(0).getVolume(), DELTA);
+		Assert.assertEquals(rootBox.getVolume() / 2, children.get(1).getVolume(), DELTA);
+		Assert.assertEquals(rootBox, Hyperrectangle.getCoveringBox(children));
+		
+		// The halves of the halves are squares again
+		for(final Hyperrectangle child : children) {
+			for(final Hyperrectangle grandchild : HilbertSpacePartitioner.splitBox(rootBox, child)) {
+				Assert.assertEquals(grandchild.getExtent(0), grandchild.getExtent(1), DELTA);
+				Assert.assertEquals(2, grandchild.getExtent(0), DELTA);
+			}
+		}
+	}
+	
+	/**
+	 * The leaves of the tree are ordered along the curve
+	 */
+	@Test(timeout=60000)
+	public void testCurveOrder2D() {
+		testCurveOrder(new Hyperrectangle(-180d, 180d, -90d, 90d), 8);
+	}
+	
+	/**
+	 * The leaves of the tree are ordered along the curve
+	 */
+	@Test(timeout=60000)
+	public void testCurveOrder3D() {
+		testCurveOrder(new Hyperrectangle(0d, 1d, 0d, 1d, 0d, 1d), 9);
+	}
+	
+	/**
+	 * Split the tree completely and test the order of the leaves
+	 * @param rootBox
+	 * @param levels
+	 */
+	private void testCurveOrder(final Hyperrectangle rootBox, final int levels) {
+		List<Hyperrectangle> leaves = Arrays.asList(rootBox);
+		
+		for(int level = 0; level < levels; level++) {
+			final List<Hyperrectangle> nextLevel = new ArrayList<>();
+			
+			for(final Hyperrectangle leaf : leaves) {
+				final List<Hyperrectangle> children = HilbertSpacePartitioner.splitBox(rootBox, leaf);
+				Assert.assertEquals(leaf.getVolume(), children.get(0).getVolume() 
+						+ children.get(1).getVolume(), DELTA);
+				Assert.assertFalse(children.get(0).intersects(children.get(1).enlarge(-DELTA)));
+				nextLevel.addAll(children);
+			}
+			
+			leaves = nextLevel;
+		}
+		
+		Assert.assertEquals(1 << levels, leaves.size());
+		
+		final int bits = HilbertCurve.getMaxBitsPerDimension(rootBox.getDimension());
+		long lastIndex = -1;
+		
+		for(final Hyperrectangle leaf : leaves) {
+			final double[] center = new double[leaf.getDimension()];
+			
+			for(int dimension = 0; dimension < leaf.getDimension(); dimension++) {
+				center[dimension] = leaf.getIntervalForDimension(dimension).getMidpoint();
+			}
+			
+			final long index = HilbertCurve.getIndex(rootBox, center, bits);
+			Assert.assertTrue(index > lastIndex);
+			lastIndex = index;
+		}
+	}
+	
+	/**
+	 * Split a box that is not aligned to the curve
+	 */
+	@Test(timeout=60000)
+	public void testSplitUnalignedBox() {
+		final Hyperrectangle rootBox = new Hyperrectangle(0d, 4d, 0d, 4d);
+		final Hyperrectangle box = new Hyperrectangle(0d, 3d, 0d, 0.5d);
+		final List<Hyperrectangle> children = HilbertSpacePartitioner.splitBox(rootBox, box);
+		
+		Assert.assertEquals(new Hyperrectangle(0d, 1.5d, 0d, 0.5d), children.get(0));
+		Assert.assertEquals(box, Hyperrectangle.getCoveringBox(children));
+	}
+	
+	/**
+	 * Split a box that is not aligned to the curve and consists of many cells
+	 */
+	@Test(timeout=60000)
+	public void testSplitUnalignedBoxManyCells() {
+		final Hyperrectangle rootBox = new Hyperrectangle(0d, 1d, 0d, 1d, 0d, 1d);
+		final Hyperrectangle box = new Hyperrectangle(0d, 1d, 0d, 1d, 0d, 0.000001d);
+		final List<Hyperrectangle> children = HilbertSpacePartitioner.splitBox(rootBox, box);
+		
+		Assert.assertEquals(2, children.size());
+		Assert.assertEquals(box, Hyperrectangle.getCoveringBox(children));
+	}
+	
+	/**
+	 * Split with skewed samples, the children contain the same number of samples
+	 * @throws Exception 
+	 */
+	@Test(timeout=60000)
+	public void testSplitSkewedSamples() throws Exception {
+		final Hyperrectangle rootBox = new Hyperrectangle(0d, 4d, 0d, 4d);
+		final Random random = new Random(42);
+		final List<Hyperrectangle> samples = new ArrayList<>();
+		
+		// Most points are located in a small part of the space
+		for(int i = 0; i < 1000; i++) {
+			final double range = (i % 10 == 0) ? 4 : 0.5;
+			final double x = random.nextDouble() * range;
+			final double y = random.nextDouble() * range;
+			samples.add(new Hyperrectangle(x, x, y, y));
+		}
+		
+		List<Hyperrectangle> boxes = Arrays.asList(rootBox);
+		
+		for(int level = 0; level < 3; level++) {
+			final List<Hyperrectangle> nextLevel = new ArrayList<>();
+			
+			for(final Hyperrectangle box : boxes) {
+				// The samples of the region
+				final List<Hyperrectangle> boxSamples = samples.stream()
+						.filter(b -> box.intersects(b))
+						.collect(Collectors.toList());
+				
+				final List<Hyperrectangle> curveHalves = HilbertSpacePartitioner.splitBox(rootBox, box);
+				final List<Hyperrectangle> children = HilbertSpacePartitioner.splitBox(rootBox, box, 
+						new SamplingBasedSplitStrategy(boxSamples));
+				
+				Assert.assertEquals(2, children.size());
+				Assert.assertEquals(box.getVolume(), children.get(0).getVolume() 
+						+ children.get(1).getVolume(), DELTA);
+				Assert.assertFalse(children.get(0).intersects(children.get(1).enlarge(-DELTA)));
+				
+				// The children follow the order of the curve
+				Assert.assertTrue(children.get(0).intersects(curveHalves.get(0).enlarge(-DELTA)));
+				
+				final long samplesInBox = boxSamples.size();
+				final long samplesChild0 = boxSamples.stream().filter(b -> children.get(0).intersects(b)).count();
+				final long samplesChild1 = boxSamples.stream().filter(b -> children.get(1).intersects(b)).count();
+				
+				Assert.assertEquals(samplesInBox, samplesChild0 + samplesChild1, 2);
+				Assert.assertEquals(samplesChild0, samplesChild1, samplesInBox * 0.02 + 2);
+				
+				nextLevel.addAll(children);
+			}
+			
+			boxes = nextLevel;
+		}
+		
+		// The curve halves are not balanced
+		final List<Hyperrectangle> curveHalves = HilbertSpacePartitioner.splitBox(rootBox, rootBox);
+		final long samplesCurveHalf = samples.stream().filter(b -> curveHalves.get(0).intersects(b)).count();
+		Assert.assertTrue(samplesCurveHalf > 900 || samplesCurveHalf < 100);
+	}
+	
+	/**
+	 * Split without samples, the box is split into the curve halves
+	 */
+	@Test(timeout=60000)
+	public void testSplitWithoutSamples() {
+		final Hyperrectangle rootBox = new Hyperrectangle(0d, 4d, 0d, 4d);
+		final Hyperrectangle box = new Hyperrectangle(2d, 4d, 0d, 2d);
+		
+		Assert.assertEquals(HilbertSpacePartitioner.splitBox(rootBox, box), 
+				HilbertSpacePartitioner.splitBox(rootBox, box, new SimpleSplitStrategy()));
+		
+		final Hyperrectangle samplesOutside = new Hyperrectangle(3d, 3d, 3d, 3d);
+		
+		Assert.assertEquals(HilbertSpacePartitioner.splitBox(rootBox, box), 
+				HilbertSpacePartitioner.splitBox(rootBox, box, 
+						new SamplingBasedSplitStrategy(Arrays.asList(samplesOutside))));
+	}
+}
@@ -20,6 +20,7 @@ package org.bboxdb.distribution.partition;
 import java.util.HashSet;
 
 import org.bboxdb.distribution.partitioner.StaticgridSpacePartitioner;
+import org.bboxdb.distribution.partitioner.regionsplit.SimpleSplitStrategy;
 import org.bboxdb.distribution.region.DistributionRegionIdMapper;
 import org.bboxdb.distribution.zookeeper.DistributionGroupAdapter;
 import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
@@ -136,7 +137,19 @@ public class TestStaticgridSpacePartitioner2 {
 	@Test(expected=BBoxDBException.class)
 	public void testSplitRegion() throws BBoxDBException, ZookeeperException, ZookeeperNotFoundException {
 		final StaticgridSpacePartitioner spacePartitioner = getSpacePartitioner();
-		spacePartitioner.splitRegion(null, null);
+		spacePartitioner.splitRegion(null, new HashSet<>());
+	}
+	
+	/**
+	 * Test the split region call with a split point strategy
+	 * @throws BBoxDBException 
+	 * @throws ZookeeperNotFoundException 
+	 * @throws ZookeeperException 
+	 */
+	@Test(expected=BBoxDBException.class)
+	public void testSplitRegionWithStrategy() throws BBoxDBException, ZookeeperException, ZookeeperNotFoundException {
+		final StaticgridSpacePartitioner spacePartitioner = getSpacePartitioner();
+		spacePartitioner.splitRegion(null, new SimpleSplitStrategy());
 	}
 	
 	/**
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.placement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.distribution.membership.BBoxDBInstanceState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+
+public class TestRequestLoadRessourcePlacement extends TestRandomRessourcePlacement {
+	
+	/**
+	 * System Utilization
+	 */
+	final Multiset<BBoxDBInstance> utilization = HashMultiset.create();
+	
+	/**
+	 * System request load
+	 */
+	final Map<BBoxDBInstance, Double> load = new HashMap<>();
+	
+	/**
+	 * The number of system load calculations
+	 */
+	final AtomicInteger loadCalculations = new AtomicInteger(0);
+	
+	/**
+	 * Get the placement strategy for the test
+	 * @return
+	 */
+	@Override
+	public AbstractUtilizationPlacementStrategy getPlacementStrategy() {
+		
+		RequestLoadPlacementStrategy.invalidateSystemLoadCache();
+		
+		return new RequestLoadPlacementStrategy() {
+			@Override
+			protected Multiset<BBoxDBInstance> calculateSystemUsage() {
+				return utilization;
+			}
+			
+			@Override
+			protected Map<BBoxDBInstance, Double> calculateSystemLoad() {
+				loadCalculations.incrementAndGet();
+				return load;
+			}
+		};
+	}
+
+	/**
+	 * Test the request load placement
+	 * @throws ResourceAllocationException
+	 */
+	@Test(timeout=60000)
+	public void testLoadPlacement() throws ResourceAllocationException {
+		final ResourcePlacementStrategy resourcePlacementStrategy = getPlacementStrategy();
+		final List<BBoxDBInstance> systems = new ArrayList<>();
+		
+		final BBoxDBInstance instance1 = new BBoxDBInstance("node1:123", "0.1", BBoxDBInstanceState.READY);
+		systems.add(instance1);
+		final BBoxDBInstance instance2 = new BBoxDBInstance("node2:123", "0.1", BBoxDBInstanceState.READY);
+		systems.add(instance2);
+		final BBoxDBInstance instance3 = new BBoxDBInstance("node3:123", "0.1", BBoxDBInstanceState.READY);
+		systems.add(instance3);
+		
+		utilization.clear();
+		load.clear();
+		
+		// Unused system
+		utilization.setCount(instance1, 1);
+		utilization.setCount(instance2, 1);
+		Assert.assertEquals(instance3, resourcePlacementStrategy.getInstancesForNewRessource(systems));
+
+		// Without load, the system with the fewest regions is used
+		utilization.setCount(instance3, 3);
+		utilization.setCount(instance2, 2);
+		Assert.assertEquals(instance1, resourcePlacementStrategy.getInstancesForNewRessource(systems));
+
+		// Hot region on instance 1
+		load.put(instance1, 500.0);
+		load.put(instance2, 20.0);
+		load.put(instance3, 10.0);
+		Assert.assertEquals(instance3, resourcePlacementStrategy.getInstancesForNewRessource(systems));
+		
+		load.put(instance3, 1000.0);
+		Assert.assertEquals(instance2, resourcePlacementStrategy.getInstancesForNewRessource(systems));
+	}
+	
+	/**
+	 * The system load is cached across the instances of the strategy
+	 * @throws ResourceAllocationException
+	 */
+	@Test(timeout=60000)
+	public void testSystemLoadCache() throws ResourceAllocationException {
+		final List<BBoxDBInstance> systems = new ArrayList<>();
+		systems.add(new BBoxDBInstance("node1:123", "0.1", BBoxDBInstanceState.READY));
+		systems.add(new BBoxDBInstance("node2:123", "0.1", BBoxDBInstanceState.READY));
+		
+		final ResourcePlacementStrategy resourcePlacementStrategy = getPlacementStrategy();
+		Assert.assertEquals(0, loadCalculations.get());
+		
+		resourcePlacementStrategy.getInstancesForNewRessource(systems);
+		resourcePlacementStrategy.getInstancesForNewRessource(systems);
+		Assert.assertEquals(1, loadCalculations.get());
+		
+		// A new instance is created for each allocation
+		final RequestLoadPlacementStrategy otherStrategy = new RequestLoadPlacementStrategy() {
+			@Override
+			protected Multiset<BBoxDBInstance> calculateSystemUsage() {
+				return utilization;
+			}
+			
+			@Override
+			protected Map<BBoxDBInstance, Double> calculateSystemLoad() {
+				throw new IllegalStateException("System load is not cached");
+			}
+		};
+		
+		otherStrategy.getInstancesForNewRessource(systems);
+		Assert.assertEquals(1, loadCalculations.get());
+		
+		RequestLoadPlacementStrategy.invalidateSystemLoadCache();
+		resourcePlacementStrategy.getInstancesForNewRessource(systems);
+		Assert.assertEquals(2, loadCalculations.get());
+	}
+}
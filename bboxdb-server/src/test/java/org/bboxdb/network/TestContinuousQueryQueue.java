@@ -0,0 +1,168 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.network.server.ContinuousQueryOverflowPolicy;
+import org.bboxdb.network.server.ContinuousQueryQueue;
+import org.bboxdb.storage.entity.Tuple;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestContinuousQueryQueue {
+
+	/**
+	 * Test the batch size
+	 * @throws InterruptedException
+	 */
+	@Test(timeout=60000)
+	public void testBatchSize() throws InterruptedException {
+		final ContinuousQueryQueue queue = new ContinuousQueryQueue(100, 
+				ContinuousQueryOverflowPolicy.DROP_OLDEST);
+		
+		for(int i = 0; i < 10; i++) {
+			Assert.assertTrue(queue.offer(createTuple(i)));
+		}
+		
+		Assert.assertEquals(10, queue.size());
+		Assert.assertEquals(Arrays.asList("0", "1", "2", "3"), getKeys(queue.takeBatch(4, 0, 1, TimeUnit.SECONDS)));
+		Assert.assertEquals(6, getKeys(queue.takeBatch(100, 0, 1, TimeUnit.SECONDS)).size());
+		Assert.assertEquals(0, queue.size());
+	}
+	
+	/**
+	 * Test the wait and flush time
+	 * @throws InterruptedException
+	 */
+	@Test(timeout=60000)
+	public void testFlushDelay() throws InterruptedException {
+		final ContinuousQueryQueue queue = new ContinuousQueryQueue(100, 
+				ContinuousQueryOverflowPolicy.DROP_OLDEST);
+		
+		// Nothing queued
+		Assert.assertTrue(queue.takeBatch(100, 10, 10, TimeUnit.MILLISECONDS).isEmpty());
+		
+		final Thread producer = new Thread(() -> {
+			try {
+				for(int i = 0; i < 3; i++) {
+					queue.offer(createTuple(i));
+					Thread.sleep(20);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		
+		producer.start();
+		
+		// All tuples arrive within the flush delay
+		final List<Tuple> tuples = queue.takeBatch(100, 1000, TimeUnit.SECONDS.toMillis(10), 
+				TimeUnit.MILLISECONDS);
+		
+		producer.join();
+		Assert.assertEquals(Arrays.asList("0", "1", "2"), getKeys(tuples));
+	}
+	
+	/**
+	 * Test the overflow policies
+	 * @throws InterruptedException 
+	 */
+	@Test(timeout=60000)
+	public void testOverflowPolicies() throws InterruptedException {
+		final ContinuousQueryQueue queue1 = new ContinuousQueryQueue(2, 
+				ContinuousQueryOverflowPolicy.DROP_OLDEST);
+		
+		final ContinuousQueryQueue queue2 = new ContinuousQueryQueue(2, 
+				ContinuousQueryOverflowPolicy.DROP_NEWEST);
+		
+		final ContinuousQueryQueue queue3 = new ContinuousQueryQueue(2, 
+				ContinuousQueryOverflowPolicy.DISCONNECT);
+		
+		for(int i = 0; i < 2; i++) {
+			Assert.assertTrue(queue1.offer(createTuple(i)));
+			Assert.assertTrue(queue2.offer(createTuple(i)));
+			Assert.assertTrue(queue3.offer(createTuple(i)));
+		}
+		
+		Assert.assertTrue(queue1.offer(createTuple(2)));
+		Assert.assertTrue(queue2.offer(createTuple(2)));
+		Assert.assertFalse(queue3.offer(createTuple(2)));
+		
+		Assert.assertEquals(Arrays.asList("1", "2"), getKeys(queue1.takeBatch(10, 0, 1, TimeUnit.SECONDS)));
+		Assert.assertEquals(Arrays.asList("0", "1"), getKeys(queue2.takeBatch(10, 0, 1, TimeUnit.SECONDS)));
+		Assert.assertEquals(1, queue1.getDroppedTuples());
+		Assert.assertEquals(1, queue2.getDroppedTuples());
+		Assert.assertEquals(1, queue3.getDroppedTuples());
+		
+		queue3.clear();
+		Assert.assertEquals(0, queue3.size());
+	}
+	
+	/**
+	 * Test the dropped tuples with concurrent inserts
+	 * @throws InterruptedException 
+	 */
+	@Test(timeout=60000)
+	public void testConcurrentOverflow() throws InterruptedException {
+		final ContinuousQueryQueue queue = new ContinuousQueryQueue(10, 
+				ContinuousQueryOverflowPolicy.DROP_NEWEST);
+		
+		final List<Thread> producers = new ArrayList<>();
+		
+		for(int thread = 0; thread < 4; thread++) {
+			producers.add(new Thread(() -> {
+				for(int i = 0; i < 10000; i++) {
+					queue.offer(createTuple(i));
+				}
+			}));
+		}
+		
+		producers.forEach(Thread::start);
+		
+		for(final Thread producer : producers) {
+			producer.join();
+		}
+		
+		Assert.assertEquals(10, queue.size());
+		Assert.assertEquals(4 * 10000 - 10, queue.getDroppedTuples());
+	}
+	
+	/**
+	 * Create a new tuple
+	 * @param key
+	 * @return
+	 */
+	private Tuple createTuple(final int key) {
+		return new Tuple(Integer.toString(key), Hyperrectangle.FULL_SPACE, "abc".getBytes());
+	}
+	
+	/**
+	 * Get the keys of the tuples
+	 * @param tuples
+	 * @return
+	 */
+	private List<String> getKeys(final List<Tuple> tuples) {
+		return tuples.stream().map(Tuple::getKey).collect(Collectors.toList());
+	}
+}
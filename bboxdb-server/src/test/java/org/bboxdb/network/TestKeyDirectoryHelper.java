@@ -0,0 +1,133 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.network.client.tools.KeyDirectoryHelper;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestKeyDirectoryHelper {
+
+	/**
+	 * Test the names of the directory
+	 */
+	@Test(timeout=60000)
+	public void testDirectoryNames() {
+		Assert.assertEquals("testgroupkeydirectory", KeyDirectoryHelper.getDirectoryGroup("testgroup"));
+		
+		final String directoryTable = KeyDirectoryHelper.getDirectoryTable("testgroup_table1");
+		Assert.assertEquals("testgroupkeydirectory_table1", directoryTable);
+		
+		final TupleStoreName tupleStoreName = new TupleStoreName(directoryTable);
+		Assert.assertTrue(tupleStoreName.isValid());
+		Assert.assertEquals("testgroupkeydirectory", tupleStoreName.getDistributionGroup());
+		Assert.assertEquals("table1", tupleStoreName.getTablename());
+		
+		// The local table of a region
+		Assert.assertEquals(directoryTable, KeyDirectoryHelper.getDirectoryTable(
+				new TupleStoreName("testgroup_table1_5")));
+		
+		Assert.assertEquals(Optional.of("testgroup"), 
+				KeyDirectoryHelper.getGroupForDirectoryGroup(tupleStoreName.getDistributionGroup()));
+		Assert.assertEquals(Optional.of("my"), KeyDirectoryHelper.getGroupForDirectoryGroup("mykeydirectory"));
+		Assert.assertFalse(KeyDirectoryHelper.getGroupForDirectoryGroup("testgroup").isPresent());
+		Assert.assertFalse(KeyDirectoryHelper.getGroupForDirectoryGroup("keydirectory").isPresent());
+	}
+	
+	/**
+	 * Test the position of the keys
+	 */
+	@Test(timeout=60000)
+	public void testDirectoryBoundingBox() {
+		final Hyperrectangle box1 = KeyDirectoryHelper.getDirectoryBoundingBox("key1");
+		final Hyperrectangle box2 = KeyDirectoryHelper.getDirectoryBoundingBox("key2");
+		
+		Assert.assertEquals(1, box1.getDimension());
+		Assert.assertEquals(box1.getCoordinateLow(0), box1.getCoordinateHigh(0), 0.0);
+		Assert.assertEquals(box1, KeyDirectoryHelper.getDirectoryBoundingBox("key1"));
+		Assert.assertNotEquals(box1, box2);
+	}
+	
+	/**
+	 * Test the creation of the directory tuple
+	 */
+	@Test(timeout=60000)
+	public void testDirectoryTuple() {
+		final Hyperrectangle boundingBox = new Hyperrectangle(1d, 2d, 3d, 4d);
+		final Tuple tuple = new Tuple("key1", boundingBox, "abc".getBytes(), 1234);
+		final Tuple directoryTuple = KeyDirectoryHelper.getDirectoryTuple(tuple);
+		
+		Assert.assertEquals("key1", directoryTuple.getKey());
+		Assert.assertEquals(1234, directoryTuple.getVersionTimestamp());
+		Assert.assertEquals(KeyDirectoryHelper.getDirectoryBoundingBox("key1"), 
+				directoryTuple.getBoundingBox());
+		
+		final Optional<Hyperrectangle> result = KeyDirectoryHelper.getBoundingBoxForKey("key1", 
+				Arrays.asList(directoryTuple));
+		
+		Assert.assertTrue(result.isPresent());
+		Assert.assertEquals(boundingBox, result.get());
+	}
+	
+	/**
+	 * Test the covering box and the hash collisions
+	 */
+	@Test(timeout=60000)
+	public void testBoundingBoxForKey() {
+		final Tuple tuple1 = new Tuple("key1", new Hyperrectangle(1d, 2d, 1d, 2d), "abc".getBytes());
+		final Tuple tuple2 = new Tuple("key1", new Hyperrectangle(5d, 6d, 5d, 6d), "abc".getBytes());
+		final Tuple tuple3 = new Tuple("key2", new Hyperrectangle(10d, 20d, 10d, 20d), "abc".getBytes());
+
+		final Optional<Hyperrectangle> result = KeyDirectoryHelper.getBoundingBoxForKey("key1", 
+				Arrays.asList(KeyDirectoryHelper.getDirectoryTuple(tuple1), 
+						KeyDirectoryHelper.getDirectoryTuple(tuple2), 
+						KeyDirectoryHelper.getDirectoryTuple(tuple3)));
+		
+		Assert.assertTrue(result.isPresent());
+		Assert.assertEquals(new Hyperrectangle(1d, 6d, 1d, 6d), result.get());
+		
+		final Optional<Hyperrectangle> result2 = KeyDirectoryHelper.getBoundingBoxForKey("key3", 
+				Arrays.asList(KeyDirectoryHelper.getDirectoryTuple(tuple3)));
+		
+		Assert.assertFalse(result2.isPresent());
+		Assert.assertFalse(KeyDirectoryHelper.getBoundingBoxForKey("key1", new ArrayList<>()).isPresent());
+	}
+	
+	/**
+	 * A tuple without a bounding box is stored in all regions
+	 */
+	@Test(timeout=60000)
+	public void testFullSpace() {
+		final Tuple tuple1 = new Tuple("key1", new Hyperrectangle(1d, 2d), "abc".getBytes());
+		final Tuple tuple2 = new Tuple("key1", Hyperrectangle.FULL_SPACE, "abc".getBytes());
+
+		final Optional<Hyperrectangle> result = KeyDirectoryHelper.getBoundingBoxForKey("key1", 
+				Arrays.asList(KeyDirectoryHelper.getDirectoryTuple(tuple1), 
+						KeyDirectoryHelper.getDirectoryTuple(tuple2)));
+		
+		Assert.assertTrue(result.isPresent());
+		Assert.assertEquals(Hyperrectangle.FULL_SPACE, result.get());
+	}
+}
@@ -23,7 +23,9 @@ import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.bboxdb.commons.math.Hyperrectangle;
@@ -41,10 +43,12 @@ import org.bboxdb.network.packages.request.DeleteDistributionGroupRequest;
 import org.bboxdb.network.packages.request.DeleteTableRequest;
 import org.bboxdb.network.packages.request.DisconnectRequest;
 import org.bboxdb.network.packages.request.HelloRequest;
+import org.bboxdb.network.packages.request.ImportSSTablesRequest;
 import org.bboxdb.network.packages.request.InsertTupleRequest;
 import org.bboxdb.network.packages.request.KeepAliveRequest;
 import org.bboxdb.network.packages.request.LockTupleRequest;
 import org.bboxdb.network.packages.request.NextPageRequest;
+import org.bboxdb.network.packages.request.QueryAggregateRequest;
 import org.bboxdb.network.packages.request.QueryHyperrectangleContinuousRequest;
 import org.bboxdb.network.packages.request.QueryHyperrectangleRequest;
 import org.bboxdb.network.packages.request.QueryHyperrectangleTimeRequest;
@@ -52,15 +56,19 @@ import org.bboxdb.network.packages.request.QueryInsertTimeRequest;
 import org.bboxdb.network.packages.request.QueryJoinRequest;
 import org.bboxdb.network.packages.request.QueryKeyRequest;
 import org.bboxdb.network.packages.request.QueryVersionTimeRequest;
+import org.bboxdb.network.packages.response.AggregateResponse;
 import org.bboxdb.network.packages.response.CompressionEnvelopeResponse;
 import org.bboxdb.network.packages.response.HelloResponse;
 import org.bboxdb.network.packages.response.JoinedTupleResponse;
 import org.bboxdb.network.packages.response.ListTablesResponse;
+import org.bboxdb.network.packages.response.QueryTraceResponse;
 import org.bboxdb.network.packages.response.SuccessResponse;
 import org.bboxdb.network.packages.response.TupleLockedResponse;
 import org.bboxdb.network.packages.response.TupleResponse;
 import org.bboxdb.network.routing.RoutingHeader;
 import org.bboxdb.network.routing.RoutingHop;
+import org.bboxdb.performance.QueryTrace;
+import org.bboxdb.storage.entity.BoundingBoxAggregate;
 import org.bboxdb.storage.entity.DeletedTuple;
 import org.bboxdb.storage.entity.DistributionGroupConfiguration;
 import org.bboxdb.storage.entity.DistributionGroupConfigurationBuilder;
@@ -444,6 +452,30 @@ public class TestNetworkClasses {
 		Assert.assertEquals(deletePackage.toString(), decodedPackage.toString());
 	}
 	
+	/**
+	 * The the encoding and decoding of an import sstables package
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void encodeAndDecodeImportSSTables() throws IOException, PackageEncodeException {
+		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		
+		final ImportSSTablesRequest importPackage = new ImportSSTablesRequest(sequenceNumber, 
+				"testgroup_table1_2", "/tmp/staging");
+		
+		byte[] encodedVersion = networkPackageToByte(importPackage);
+		Assert.assertNotNull(encodedVersion);
+
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedVersion);
+		final ImportSSTablesRequest decodedPackage = ImportSSTablesRequest.decodeTuple(bb);
+				
+		Assert.assertEquals(importPackage.getTable(), decodedPackage.getTable());
+		Assert.assertEquals(importPackage.getDirectory(), decodedPackage.getDirectory());
+		Assert.assertEquals(importPackage, decodedPackage);
+		Assert.assertEquals(importPackage.hashCode(), decodedPackage.hashCode());
+	}
+	
 	/**
 	 * The the encoding and decoding of an create table package
 	 * @throws IOException 
@@ -535,6 +567,122 @@ public class TestNetworkClasses {
 		Assert.assertEquals(queryRequest.toString(), decodedPackage.toString());
 	}
 	
+	/**
+	 * Test decode bounding box query with paging and tracing
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void testDecodeBoundingBoxQueryTracing() throws IOException, PackageEncodeException {
+		final String table = "table1";
+		final Hyperrectangle boundingBox = new Hyperrectangle(10d, 20d);
+		
+		for(final boolean paging : Arrays.asList(true, false)) {
+			final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+
+			final QueryHyperrectangleRequest queryRequest = new QueryHyperrectangleRequest(sequenceNumber, 
+					ROUTING_HEADER_ROUTED, table, boundingBox, paging, (short) 10, true);
+			
+			final byte[] encodedPackage = networkPackageToByte(queryRequest);
+			final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedPackage);
+			final QueryHyperrectangleRequest decodedPackage = QueryHyperrectangleRequest.decodeTuple(bb);
+			
+			Assert.assertEquals(paging, decodedPackage.isPagingEnabled());
+			Assert.assertTrue(decodedPackage.isTracingEnabled());
+			Assert.assertEquals(queryRequest.toString(), decodedPackage.toString());
+		}
+	}
+	
+	/**
+	 * Test the encoding and decoding of the query trace response
+	 * @throws IOException
+	 * @throws PackageEncodeException
+	 */
+	@Test(timeout=60000)
+	public void testQueryTraceResponse() throws IOException, PackageEncodeException {
+		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		
+		final QueryTrace queryTrace = new QueryTrace();
+		queryTrace.addStageTime(QueryTrace.Stage.REGION_LOOKUP, 1234);
+		queryTrace.addStageTime(QueryTrace.Stage.NETWORK_WRITE, 5678);
+		queryTrace.addStageTime(QueryTrace.Stage.NETWORK_WRITE, 2);
+		queryTrace.incrementCounter(QueryTrace.Counter.RESULT_TUPLES, 42);
+		
+		final QueryTraceResponse response = new QueryTraceResponse(sequenceNumber, queryTrace);
+		final byte[] encodedPackage = networkPackageToByte(response);
+		Assert.assertNotNull(encodedPackage);
+		
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedPackage);
+		final QueryTraceResponse decodedPackage = QueryTraceResponse.decodePackage(bb);
+		
+		Assert.assertEquals(sequenceNumber, decodedPackage.getSequenceNumber());
+		Assert.assertEquals(queryTrace, decodedPackage.getQueryTrace());
+		Assert.assertEquals(5680, decodedPackage.getQueryTrace().getStageTime(QueryTrace.Stage.NETWORK_WRITE));
+		Assert.assertEquals(42, decodedPackage.getQueryTrace().getCounter(QueryTrace.Counter.RESULT_TUPLES));
+		Assert.assertEquals(0, decodedPackage.getQueryTrace().getCounter(QueryTrace.Counter.TUPLE_STORES));
+	}
+	
+	/**
+	 * Test decode aggregate query
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void testDecodeAggregateQuery() throws IOException, PackageEncodeException {
+		final String table = "table1";
+		final Hyperrectangle boundingBox = new Hyperrectangle(10d, 20d, -5d, 5d);
+		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+
+		final QueryAggregateRequest queryRequest = new QueryAggregateRequest(sequenceNumber, 
+				ROUTING_HEADER_ROUTED, table, boundingBox, 2.5);
+		
+		final byte[] encodedPackage = networkPackageToByte(queryRequest);
+		Assert.assertNotNull(encodedPackage);
+
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedPackage);
+		final boolean result = NetworkPackageDecoder.validateRequestPackageHeader(bb, NetworkConst.REQUEST_TYPE_QUERY);
+		Assert.assertTrue(result);
+
+		final QueryAggregateRequest decodedPackage = QueryAggregateRequest.decodeTuple(bb);
+		Assert.assertEquals(queryRequest.getBoundingBox(), decodedPackage.getBoundingBox());
+		Assert.assertEquals(queryRequest.getTable(), decodedPackage.getTable());
+		Assert.assertEquals(2.5, decodedPackage.getCellSize(), 0.0001);
+		Assert.assertTrue(decodedPackage.isHistogramRequested());
+		Assert.assertEquals(ROUTING_HEADER_ROUTED, decodedPackage.getRoutingHeader());
+		Assert.assertEquals(NetworkConst.REQUEST_QUERY_AGGREGATE, NetworkPackageDecoder.getQueryTypeFromRequest(bb));
+		Assert.assertEquals(queryRequest.toString(), decodedPackage.toString());
+	}
+	
+	/**
+	 * Test the encoding and decoding of the aggregate response
+	 * @throws IOException
+	 * @throws PackageEncodeException
+	 */
+	@Test(timeout=60000)
+	public void testAggregateResponse() throws IOException, PackageEncodeException {
+		final Map<Hyperrectangle, Long> histogram = new HashMap<>();
+		histogram.put(new Hyperrectangle(0d, 1d, 0d, 1d), 5l);
+		histogram.put(new Hyperrectangle(1d, 2d, 0d, 1d), 7l);
+		
+		final BoundingBoxAggregate aggregate1 = new BoundingBoxAggregate(12, 
+				new Hyperrectangle(-1d, 2d, -3d, 1d), histogram);
+		
+		final BoundingBoxAggregate aggregate2 = new BoundingBoxAggregate();
+		
+		for(final BoundingBoxAggregate aggregate : Arrays.asList(aggregate1, aggregate2)) {
+			final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+			final AggregateResponse response = new AggregateResponse(sequenceNumber, aggregate);
+			final byte[] encodedPackage = networkPackageToByte(response);
+			Assert.assertNotNull(encodedPackage);
+			
+			final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedPackage);
+			final AggregateResponse decodedPackage = AggregateResponse.decodePackage(bb);
+			
+			Assert.assertEquals(sequenceNumber, decodedPackage.getSequenceNumber());
+			Assert.assertEquals(aggregate, decodedPackage.getAggregate());
+		}
+	}
+	
 	/**
 	 * Test decode bounding box query
 	 * @throws IOException 
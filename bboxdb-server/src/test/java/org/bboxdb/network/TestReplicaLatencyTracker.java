@@ -0,0 +1,85 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bboxdb.network.client.BBoxDBConnection;
+import org.bboxdb.network.client.tools.ReplicaLatencyTracker;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestReplicaLatencyTracker {
+	
+	@After
+	public void after() {
+		ReplicaLatencyTracker.getInstance().clear();
+	}
+
+	/**
+	 * Test the replica order
+	 */
+	@Test(timeout=60000)
+	public void testReplicaOrder() {
+		final ReplicaLatencyTracker latencyTracker = ReplicaLatencyTracker.getInstance();
+		
+		final BBoxDBConnection connection1 = new BBoxDBConnection(new InetSocketAddress("10.0.0.1", 50505));
+		final BBoxDBConnection connection2 = new BBoxDBConnection(new InetSocketAddress("10.0.0.2", 50505));
+		final BBoxDBConnection connection3 = new BBoxDBConnection(new InetSocketAddress("10.0.0.3", 50505));
+
+		latencyTracker.updateLatency(connection1, 100);
+		latencyTracker.updateLatency(connection2, 10);
+		latencyTracker.updateLatency(connection3, 50);
+		
+		final List<BBoxDBConnection> connections = new ArrayList<>(
+				Arrays.asList(connection1, connection2, connection3));
+		
+		latencyTracker.sortByScore(connections);
+		Assert.assertEquals(Arrays.asList(connection2, connection3, connection1), connections);
+		
+		// Failures makes a replica less attractive
+		latencyTracker.handleFailure(connection2);
+		latencyTracker.handleFailure(connection2);
+		latencyTracker.handleFailure(connection2);
+		
+		latencyTracker.sortByScore(connections);
+		Assert.assertEquals(Arrays.asList(connection3, connection2, connection1), connections);
+	}
+	
+	/**
+	 * Test the hedge delay
+	 */
+	@Test(timeout=60000)
+	public void testHedgeDelay() {
+		final ReplicaLatencyTracker latencyTracker = ReplicaLatencyTracker.getInstance();
+		final long defaultDelay = latencyTracker.getHedgeDelay();
+		Assert.assertTrue(defaultDelay > 0);
+
+		final BBoxDBConnection connection = new BBoxDBConnection(new InetSocketAddress("10.0.0.1", 50505));
+
+		for(int i = 1; i <= 100; i++) {
+			latencyTracker.updateLatency(connection, i);
+		}
+		
+		Assert.assertEquals(95, latencyTracker.getHedgeDelay());
+	}
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bboxdb.network.routing.ReplicaAcknowledgementCounter;
+import org.bboxdb.network.routing.WriteConsistency;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestWriteConsistency {
+
+	/**
+	 * Test the needed acknowledgements
+	 */
+	@Test(timeout=60000)
+	public void testNeededAcknowledgements() {
+		Assert.assertEquals(0, WriteConsistency.ONE.getNeededAcknowledgements(0));
+		Assert.assertEquals(1, WriteConsistency.ONE.getNeededAcknowledgements(1));
+		Assert.assertEquals(1, WriteConsistency.ONE.getNeededAcknowledgements(3));
+		
+		Assert.assertEquals(1, WriteConsistency.QUORUM.getNeededAcknowledgements(1));
+		Assert.assertEquals(2, WriteConsistency.QUORUM.getNeededAcknowledgements(2));
+		Assert.assertEquals(2, WriteConsistency.QUORUM.getNeededAcknowledgements(3));
+		Assert.assertEquals(3, WriteConsistency.QUORUM.getNeededAcknowledgements(4));
+		
+		Assert.assertEquals(1, WriteConsistency.ALL.getNeededAcknowledgements(1));
+		Assert.assertEquals(3, WriteConsistency.ALL.getNeededAcknowledgements(3));
+	}
+	
+	/**
+	 * Test the quorum success
+	 */
+	@Test(timeout=60000)
+	public void testQuorumSuccess() {
+		final List<Boolean> results = new ArrayList<>();
+		final ReplicaAcknowledgementCounter counter = new ReplicaAcknowledgementCounter(3, 2, 
+				(r) -> results.add(r));
+		
+		counter.handleSuccess();
+		Assert.assertFalse(counter.isDecided());
+		Assert.assertTrue(results.isEmpty());
+		
+		counter.handleFailure();
+		Assert.assertFalse(counter.isDecided());
+
+		counter.handleSuccess();
+		Assert.assertTrue(counter.isDecided());
+		Assert.assertEquals(1, results.size());
+		Assert.assertTrue(results.get(0));
+		
+		// Late answers and timeouts don't change the result
+		counter.handleFailure();
+		counter.handleTimeout();
+		Assert.assertEquals(1, results.size());
+	}
+	
+	/**
+	 * Test the quorum failure
+	 */
+	@Test(timeout=60000)
+	public void testQuorumFailure() {
+		final List<Boolean> results = new ArrayList<>();
+		final ReplicaAcknowledgementCounter counter = new ReplicaAcknowledgementCounter(3, 2, 
+				(r) -> results.add(r));
+		
+		counter.handleSuccess();
+		counter.handleFailure();
+		Assert.assertFalse(counter.isDecided());
+		
+		counter.handleFailure();
+		Assert.assertTrue(counter.isDecided());
+		Assert.assertEquals(1, results.size());
+		Assert.assertFalse(results.get(0));
+		
+		counter.handleSuccess();
+		Assert.assertEquals(1, results.size());
+	}
+	
+	/**
+	 * Test the timeout and write consistency one
+	 */
+	@Test(timeout=60000)
+	public void testTimeoutAndOne() {
+		final List<Boolean> results = new ArrayList<>();
+		final ReplicaAcknowledgementCounter counter1 = new ReplicaAcknowledgementCounter(3, 3, 
+				(r) -> results.add(r));
+		
+		counter1.handleSuccess();
+		counter1.handleSuccess();
+		counter1.handleTimeout();
+		Assert.assertEquals(1, results.size());
+		Assert.assertFalse(results.get(0));
+		
+		results.clear();
+		final ReplicaAcknowledgementCounter counter2 = new ReplicaAcknowledgementCounter(3, 1, 
+				(r) -> results.add(r));
+		counter2.handleSuccess();
+		Assert.assertTrue(counter2.isDecided());
+		Assert.assertEquals(1, results.size());
+		Assert.assertTrue(results.get(0));
+	}
+	
+	/**
+	 * Test invalid parameter
+	 */
+	@Test(timeout=60000, expected=IllegalArgumentException.class)
+	public void testInvalidAcknowledgements() {
+		new ReplicaAcknowledgementCounter(2, 3, (r) -> {});
+	}
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.storage;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.entity.BoundingBoxAggregate;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestBoundingBoxAggregate {
+
+	/**
+	 * Test the empty aggregate
+	 */
+	@Test(timeout=60000)
+	public void testEmptyAggregate() {
+		final BoundingBoxAggregate aggregate = new BoundingBoxAggregate();
+		Assert.assertEquals(0, aggregate.getCount());
+		Assert.assertEquals(Hyperrectangle.FULL_SPACE, aggregate.getCoveringBox());
+		Assert.assertTrue(aggregate.getHistogram().isEmpty());
+		
+		aggregate.merge(new BoundingBoxAggregate());
+		Assert.assertEquals(new BoundingBoxAggregate(), aggregate);
+	}
+	
+	/**
+	 * Test the merge of aggregates
+	 */
+	@Test(timeout=60000)
+	public void testMergeAggregates() {
+		final Hyperrectangle cell1 = new Hyperrectangle(0d, 1d, 0d, 1d);
+		final Hyperrectangle cell2 = new Hyperrectangle(1d, 2d, 0d, 1d);
+		
+		final BoundingBoxAggregate aggregate1 = new BoundingBoxAggregate();
+		aggregate1.incrementCount();
+		aggregate1.extendCoveringBox(new Hyperrectangle(-1d, 0.5d, -2d, 0.5d));
+		aggregate1.addToCell(cell1, 1);
+		
+		final Map<Hyperrectangle, Long> histogram = new HashMap<>();
+		histogram.put(cell1, 2l);
+		histogram.put(cell2, 3l);
+		
+		final BoundingBoxAggregate aggregate2 = new BoundingBoxAggregate(5, 
+				new Hyperrectangle(0.5d, 1.5d, -3d, -1d), histogram);
+		
+		final BoundingBoxAggregate result = new BoundingBoxAggregate();
+		result.merge(aggregate1);
+		result.merge(aggregate2);
+		
+		Assert.assertEquals(6, result.getCount());
+		Assert.assertEquals(new Hyperrectangle(-1d, 1.5d, -3d, 0.5d), result.getCoveringBox());
+		Assert.assertEquals(2, result.getHistogram().size());
+		Assert.assertEquals(3, (long) result.getHistogram().get(cell1));
+		Assert.assertEquals(3, (long) result.getHistogram().get(cell2));
+	}
+}
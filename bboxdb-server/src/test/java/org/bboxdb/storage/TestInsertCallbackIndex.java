@@ -0,0 +1,197 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.entity.DeletedTuple;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.tuplestore.manager.InsertCallbackDispatcher;
+import org.bboxdb.storage.tuplestore.manager.InsertCallbackIndex;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestInsertCallbackIndex {
+
+	/**
+	 * Test the lookup against the intersection with all registered boxes
+	 */
+	@Test(timeout=60000)
+	public void testLookup() {
+		final Random random = new Random();
+		final InsertCallbackIndex index = new InsertCallbackIndex();
+		final List<Hyperrectangle> boxes = new ArrayList<>();
+		final List<Consumer<Tuple>> callbacks = new ArrayList<>();
+		
+		for(int i = 0; i < 1000; i++) {
+			final Hyperrectangle box = getRandomBox(random, 10);
+			final Consumer<Tuple> callback = createCallback();
+			index.registerCallback(box, callback);
+			boxes.add(box);
+			callbacks.add(callback);
+		}
+		
+		Assert.assertEquals(1000, index.getNumberOfCallbacks());
+		checkLookup(random, index, boxes, callbacks);
+		
+		// Remove every second callback
+		for(int i = boxes.size() - 1; i >= 0; i -= 2) {
+			Assert.assertTrue(index.removeCallback(callbacks.remove(i)));
+			boxes.remove(i);
+		}
+		
+		Assert.assertEquals(500, index.getNumberOfCallbacks());
+		checkLookup(random, index, boxes, callbacks);
+	}
+
+	/**
+	 * Compare the lookup with the intersection of all boxes
+	 * @param random
+	 * @param index
+	 * @param boxes
+	 * @param callbacks
+	 */
+	private void checkLookup(final Random random, final InsertCallbackIndex index, 
+			final List<Hyperrectangle> boxes, final List<Consumer<Tuple>> callbacks) {
+		
+		for(int i = 0; i < 100; i++) {
+			final Hyperrectangle tupleBox = getRandomBox(random, 1);
+			final Tuple tuple = new Tuple(Integer.toString(i), tupleBox, "abc".getBytes());
+			
+			final Set<Consumer<Tuple>> expected = new HashSet<>();
+			for(int j = 0; j < boxes.size(); j++) {
+				if(boxes.get(j).intersects(tupleBox)) {
+					expected.add(callbacks.get(j));
+				}
+			}
+			
+			final List<Consumer<Tuple>> result = index.getCallbacksForTuple(tuple);
+			Assert.assertEquals(expected.size(), result.size());
+			Assert.assertEquals(expected, new HashSet<>(result));
+		}
+	}
+	
+	/**
+	 * Test the full space subscriptions and tuples
+	 */
+	@Test(timeout=60000)
+	public void testFullSpace() {
+		final InsertCallbackIndex index = new InsertCallbackIndex();
+		final Consumer<Tuple> callback1 = createCallback();
+		final Consumer<Tuple> callback2 = createCallback();
+		final Consumer<Tuple> callback3 = createCallback();
+
+		index.registerCallback(new Hyperrectangle(0d, 1d, 0d, 1d), callback1);
+		index.registerCallback(Hyperrectangle.FULL_SPACE, callback2);
+		index.registerCallback(new Hyperrectangle(0d, 1d), callback3);
+		
+		final Tuple tuple1 = new Tuple("1", new Hyperrectangle(5d, 6d, 5d, 6d), "abc".getBytes());
+		Assert.assertEquals(Arrays.asList(callback2), index.getCallbacksForTuple(tuple1));
+		
+		final Tuple tuple2 = new Tuple("2", new Hyperrectangle(0.5d, 0.6d, 0.5d, 0.6d), "abc".getBytes());
+		Assert.assertEquals(new HashSet<>(Arrays.asList(callback1, callback2)), 
+				new HashSet<>(index.getCallbacksForTuple(tuple2)));
+		
+		final Tuple tuple3 = new DeletedTuple("3");
+		Assert.assertEquals(3, index.getCallbacksForTuple(tuple3).size());
+	}
+	
+	/**
+	 * Test the removal of callbacks
+	 */
+	@Test(timeout=60000)
+	public void testRemove() {
+		final InsertCallbackIndex index = new InsertCallbackIndex();
+		final Consumer<Tuple> callback1 = createCallback();
+		final Consumer<Tuple> callback2 = createCallback();
+		
+		final Hyperrectangle box = new Hyperrectangle(0d, 1d, 0d, 1d);
+		index.registerCallback(box, callback1);
+		index.registerCallback(box, callback2);
+		
+		final Tuple tuple = new Tuple("1", box, "abc".getBytes());
+		Assert.assertEquals(2, index.getCallbacksForTuple(tuple).size());
+		
+		Assert.assertTrue(index.removeCallback(callback1));
+		Assert.assertFalse(index.removeCallback(callback1));
+		Assert.assertEquals(Arrays.asList(callback2), index.getCallbacksForTuple(tuple));
+		
+		Assert.assertTrue(index.removeCallback(callback2));
+		Assert.assertTrue(index.getCallbacksForTuple(tuple).isEmpty());
+		Assert.assertEquals(0, index.getNumberOfCallbacks());
+	}
+	
+	/**
+	 * Test the dispatcher delivers the tuples in insert order
+	 * @throws InterruptedException 
+	 */
+	@Test(timeout=60000)
+	public void testDispatchOrder() throws InterruptedException {
+		final int tuples = 1000;
+		final CountDownLatch latch = new CountDownLatch(2 * tuples);
+		final List<String> received1 = new CopyOnWriteArrayList<>();
+		final List<String> received2 = new CopyOnWriteArrayList<>();
+		
+		final Consumer<Tuple> callback1 = (t) -> { received1.add(t.getKey()); latch.countDown(); };
+		final Consumer<Tuple> callback2 = (t) -> { received2.add(t.getKey()); latch.countDown(); };
+		
+		final List<String> expected = new ArrayList<>();
+		
+		for(int i = 0; i < tuples; i++) {
+			final Tuple tuple = new Tuple(Integer.toString(i), Hyperrectangle.FULL_SPACE, "abc".getBytes());
+			InsertCallbackDispatcher.dispatch(tuple, Arrays.asList(callback1, callback2));
+			expected.add(tuple.getKey());
+		}
+		
+		latch.await();
+		Assert.assertEquals(expected, received1);
+		Assert.assertEquals(expected, received2);
+	}
+
+	/**
+	 * Get a random 2d box
+	 * @param random
+	 * @param maxExtent
+	 * @return
+	 */
+	private Hyperrectangle getRandomBox(final Random random, final double maxExtent) {
+		final double x = random.nextDouble() * 100;
+		final double y = random.nextDouble() * 100;
+		
+		return new Hyperrectangle(x, x + random.nextDouble() * maxExtent, 
+				y, y + random.nextDouble() * maxExtent);
+	}
+	
+	/**
+	 * Create a new callback instance
+	 * @return
+	 */
+	private Consumer<Tuple> createCallback() {
+		final List<Tuple> receivedTuples = new ArrayList<>();
+		return receivedTuples::add;
+	}
+}
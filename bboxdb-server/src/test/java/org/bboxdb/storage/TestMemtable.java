@@ -18,26 +18,37 @@
 package org.bboxdb.storage;
 
 
+import java.io.File;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
 import org.bboxdb.commons.MicroSecondTimestampProvider;
 import org.bboxdb.commons.ObjectSerializer;
 import org.bboxdb.commons.entity.PersonEntity;
+import org.bboxdb.commons.io.FileUtil;
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.misc.BBoxDBConfiguration;
 import org.bboxdb.storage.entity.DeletedTuple;
+import org.bboxdb.storage.entity.MemtableAndTupleStoreManagerPair;
 import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreConfigurationBuilder;
 import org.bboxdb.storage.entity.TupleStoreName;
 import org.bboxdb.storage.memtable.Memtable;
 import org.bboxdb.storage.queryprocessor.predicate.NewerAsVersionTimePredicate;
 import org.bboxdb.storage.queryprocessor.predicate.Predicate;
 import org.bboxdb.storage.queryprocessor.predicate.PredicateTupleFilterIterator;
+import org.bboxdb.storage.sstable.SSTableHelper;
+import org.bboxdb.storage.tuplestore.DiskStorage;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
 
 public class TestMemtable {
 	
@@ -572,4 +583,111 @@ public class TestMemtable {
 		memtable.deleteOnClose();
 		Assert.assertEquals(0, memtable.getSize());
 	}
+	
+	/**
+	 * Test the version collapsing memtable
+	 * @throws StorageManagerException 
+	 */
+	@Test(timeout=60000)
+	public void testCollapseVersions1() throws StorageManagerException {
+		final Memtable memtable = new Memtable(MEMTABLE_TABLE_NAME, MEMTABLE_MAX_ENTRIES, 
+				MEMTABLE_MAX_SIZE, null, true);
+		memtable.init();
+		memtable.acquire();
+		
+		final Tuple createdTuple1 = new Tuple("1", new Hyperrectangle(1d, 2d), "abc".getBytes(), 60);
+		final Tuple createdTuple2 = new Tuple("1", new Hyperrectangle(5d, 6d), "defg".getBytes(), 70);
+		final Tuple createdTuple3 = new Tuple("1", new Hyperrectangle(8d, 9d), "hi".getBytes(), 65);
+		final Tuple createdTuple4 = new Tuple("2", new Hyperrectangle(1d, 2d), "abc".getBytes(), 60);
+
+		memtable.put(createdTuple1);
+		memtable.put(createdTuple2);
+		memtable.put(createdTuple3);
+		memtable.put(createdTuple4);
+		
+		Assert.assertEquals(2, memtable.getNumberOfTuples());
+		Assert.assertEquals(createdTuple2.getSize() + createdTuple4.getSize(), memtable.getSize());
+		Assert.assertEquals(Arrays.asList(createdTuple2), memtable.get("1"));
+		Assert.assertEquals(Arrays.asList(createdTuple2, createdTuple4), memtable.getSortedTupleList());
+		
+		// The old bounding box of the key is not longer indexed
+		final List<Tuple> oldBoxTuples = Lists.newArrayList(
+				memtable.getAllTuplesInBoundingBox(new Hyperrectangle(1d, 2d)));
+		Assert.assertEquals(Arrays.asList(createdTuple4), oldBoxTuples);
+		
+		final List<Tuple> newBoxTuples = Lists.newArrayList(
+				memtable.getAllTuplesInBoundingBox(new Hyperrectangle(5d, 6d)));
+		Assert.assertEquals(Arrays.asList(createdTuple2), newBoxTuples);
+		
+		memtable.deleteOnClose();
+		memtable.release();
+	}
+	
+	/**
+	 * Test the spatial index rebuild of the version collapsing memtable
+	 * @throws StorageManagerException 
+	 */
+	@Test(timeout=60000)
+	public void testCollapseVersions2() throws StorageManagerException {
+		final Memtable memtable = new Memtable(MEMTABLE_TABLE_NAME, 10, 
+				MEMTABLE_MAX_SIZE, null, true);
+		memtable.init();
+		memtable.acquire();
+		
+		for(int i = 0; i < 100; i++) {
+			final double pos = (double) i;
+			memtable.put(new Tuple("1", new Hyperrectangle(pos, pos + 0.5), "abc".getBytes(), i));
+		}
+		
+		// The replaced versions are counted against the max entries
+		Assert.assertTrue(memtable.isFull());
+		
+		Assert.assertEquals(1, memtable.getNumberOfTuples());
+		Assert.assertEquals(99, memtable.get("1").get(0).getVersionTimestamp());
+		Assert.assertEquals(1, Iterators.size(memtable.getAllTuplesInBoundingBox(Hyperrectangle.FULL_SPACE)));
+		Assert.assertEquals(0, Iterators.size(memtable.getAllTuplesInBoundingBox(new Hyperrectangle(1d, 1.5d))));
+		
+		memtable.deleteOnClose();
+		memtable.release();
+	}
+	
+	/**
+	 * Test that updates of a single key trigger a memtable flush
+	 * @throws Exception 
+	 */
+	@Test(timeout=60000)
+	public void testCollapseVersionsFlush() throws Exception {
+		final TupleStoreName tableName = new TupleStoreName("testgroup1_collapse_1");
+		final File storageDir = Files.createTempDir();
+		
+		try {
+			new File(SSTableHelper.getSSTableDir(storageDir.getAbsolutePath(), tableName)).mkdirs();
+			
+			final BBoxDBConfiguration configuration = new BBoxDBConfiguration();
+			configuration.setMemtableEntriesMax(10);
+			Assert.assertTrue(configuration.isMemtableCollapseVersions());
+			
+			final DiskStorage storage = new DiskStorage(null, storageDir, 1);
+			final TupleStoreManager tupleStoreManager = new TupleStoreManager(storage, tableName, configuration);
+			tupleStoreManager.create(TupleStoreConfigurationBuilder.create().build());
+			tupleStoreManager.init();
+			
+			for(int i = 0; i < 25; i++) {
+				tupleStoreManager.put(new Tuple("1", new Hyperrectangle(1d, 2d), "abc".getBytes(), i + 1));
+			}
+			
+			// Two full memtables are scheduled for flushing
+			for(int i = 0; i < 2; i++) {
+				final MemtableAndTupleStoreManagerPair flushTask = storage.takeNextUnflushedMemtable();
+				Assert.assertEquals(tupleStoreManager, flushTask.getTupleStoreManager());
+				Assert.assertEquals(1, flushTask.getMemtable().getNumberOfTuples());
+			}
+			
+			Assert.assertEquals(25, tupleStoreManager.get("1").get(0).getVersionTimestamp());
+			
+			tupleStoreManager.setToReadOnly();
+		} finally {
+			FileUtil.deleteRecursive(storageDir.toPath());
+		}
+	}
 }
@@ -18,20 +18,28 @@
 package org.bboxdb.storage;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.bboxdb.commons.MicroSecondTimestampProvider;
 import org.bboxdb.commons.RejectedException;
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.storage.entity.BoundingBoxAggregate;
+import org.bboxdb.storage.entity.CellGrid;
 import org.bboxdb.storage.entity.JoinedTuple;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreConfiguration;
+import org.bboxdb.storage.entity.TupleStoreConfigurationBuilder;
 import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.queryprocessor.BoundingBoxAggregator;
 import org.bboxdb.storage.queryprocessor.operator.BoundingBoxSelectOperator;
 import org.bboxdb.storage.queryprocessor.operator.FullTablescanOperator;
 import org.bboxdb.storage.queryprocessor.operator.IndexedSpatialJoinOperator;
+import org.bboxdb.storage.queryprocessor.operator.KeyQueryOperator;
 import org.bboxdb.storage.queryprocessor.operator.Operator;
 import org.bboxdb.storage.queryprocessor.operator.SpatialIndexReadOperator;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
@@ -455,4 +463,188 @@ public class TestQueryProcessing {
 		Assert.assertEquals(2, resultList.get(0).getBoundingBox().getDimension());
 		Assert.assertEquals(new Hyperrectangle(4.0d, 5.0d, 4.0d, 5.0d), resultList.get(0).getBoundingBox());
 	}
+	
+	/**
+	 * Test the key query across multiple tables (newest version only)
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 * @throws IOException 
+	 */
+	@Test(timeout=60000)
+	public void testKeyQuery1() throws StorageManagerException, RejectedException, IOException {
+		final TupleStoreManager storageManager1 = storageRegistry.getTupleStoreManager(TABLE_1);
+		final TupleStoreManager storageManager2 = storageRegistry.getTupleStoreManager(TABLE_2);
+
+		storageManager1.put(new Tuple("1", new Hyperrectangle(1.0, 2.0), "value1".getBytes(), 1));
+		storageManager2.put(new Tuple("1", new Hyperrectangle(1.0, 2.0), "value2".getBytes(), 2));
+		storageManager2.put(new Tuple("2", new Hyperrectangle(1.0, 2.0), "value3".getBytes(), 3));
+
+		final Operator operator = new KeyQueryOperator("1", 
+				Arrays.asList(storageManager1, storageManager2), TABLE_1.getFullname());
+		
+		final List<JoinedTuple> resultList = Lists.newArrayList(operator.iterator());
+		operator.close();
+		
+		Assert.assertEquals(1, resultList.size());
+		Assert.assertEquals("value2", new String(resultList.get(0).getTuple(0).getDataBytes()));
+		Assert.assertEquals(TABLE_1.getFullname(), resultList.get(0).getTupleStoreName(0));
+	}
+	
+	/**
+	 * Test the key query across multiple tables (limited versions)
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 * @throws IOException 
+	 */
+	@Test(timeout=60000)
+	public void testKeyQuery2() throws StorageManagerException, RejectedException, IOException {
+		final TupleStoreConfiguration configuration = TupleStoreConfigurationBuilder.create()
+				.allowDuplicates(true)
+				.withVersions(3)
+				.build();
+		
+		final List<TupleStoreManager> storageManagers = new ArrayList<>();
+		
+		for(final TupleStoreName tupleStoreName : Arrays.asList(TABLE_1, TABLE_2, TABLE_3)) {
+			storageRegistry.deleteTable(tupleStoreName);
+			storageRegistry.createTable(tupleStoreName, configuration);
+			storageManagers.add(storageRegistry.getTupleStoreManager(tupleStoreName));
+		}
+		
+		for(int version = 1; version <= 9; version++) {
+			final Tuple tuple = new Tuple("1", new Hyperrectangle(1.0, 2.0), 
+					Integer.toString(version).getBytes(), version);
+			
+			storageManagers.get(version % storageManagers.size()).put(tuple);
+		}
+		
+		final Operator operator = new KeyQueryOperator("1", storageManagers, TABLE_1.getFullname());
+		final List<JoinedTuple> resultList = Lists.newArrayList(operator.iterator());
+		operator.close();
+		
+		final List<Long> versions = resultList.stream()
+				.map(t -> t.getTuple(0).getVersionTimestamp())
+				.collect(Collectors.toList());
+		
+		Assert.assertEquals(Arrays.asList(9L, 8L, 7L), versions);
+	}
+	
+	/**
+	 * Test the key query across multiple tables (unlimited versions)
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 * @throws IOException 
+	 */
+	@Test(timeout=60000)
+	public void testKeyQuery3() throws StorageManagerException, RejectedException, IOException {
+		final TupleStoreConfiguration configuration = TupleStoreConfigurationBuilder.create()
+				.allowDuplicates(true)
+				.build();
+		
+		final List<TupleStoreManager> storageManagers = new ArrayList<>();
+		
+		for(final TupleStoreName tupleStoreName : Arrays.asList(TABLE_1, TABLE_2)) {
+			storageRegistry.deleteTable(tupleStoreName);
+			storageRegistry.createTable(tupleStoreName, configuration);
+			storageManagers.add(storageRegistry.getTupleStoreManager(tupleStoreName));
+		}
+		
+		for(int version = 1; version <= 10; version++) {
+			final Tuple tuple = new Tuple("1", new Hyperrectangle(1.0, 2.0), 
+					Integer.toString(version).getBytes(), version);
+			
+			storageManagers.get(version % storageManagers.size()).put(tuple);
+		}
+		
+		final Operator operator = new KeyQueryOperator("1", storageManagers, TABLE_1.getFullname());
+		final List<JoinedTuple> resultList = Lists.newArrayList(operator.iterator());
+		operator.close();
+		
+		// Newest first across all tables
+		final List<Long> versions = resultList.stream()
+				.map(t -> t.getTuple(0).getVersionTimestamp())
+				.collect(Collectors.toList());
+		
+		Assert.assertEquals(Arrays.asList(10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L), versions);
+		
+		final Operator emptyOperator = new KeyQueryOperator("1", new ArrayList<>(), TABLE_1.getFullname());
+		Assert.assertFalse(emptyOperator.iterator().hasNext());
+		emptyOperator.close();
+	}
+	
+	/**
+	 * Test the aggregation of the bounding boxes
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 */
+	@Test(timeout=60000)
+	public void testBoundingBoxAggregation() throws StorageManagerException, RejectedException {
+		final TupleStoreManager storageManager = storageRegistry.getTupleStoreManager(TABLE_1);
+
+		final Tuple tuple1 = new Tuple("1", new Hyperrectangle(1.0, 2.0, 1.0, 2.0), "value1".getBytes());
+		final Tuple tuple2 = new Tuple("2", new Hyperrectangle(1.5, 2.4, 1.5, 2.4), "value2".getBytes());
+		final Tuple tuple3 = new Tuple("3", new Hyperrectangle(8.0, 9.0, 8.0, 9.0), "value3".getBytes());
+		final Tuple tuple4 = new Tuple("1", new Hyperrectangle(3.0, 4.0, 3.0, 4.0), "value4".getBytes());
+		final Tuple tuple5 = new Tuple("5", new Hyperrectangle(1.0, 2.0, 1.0, 2.0), "value5".getBytes());
+		final Tuple tuple6 = new Tuple("6", new Hyperrectangle(5.0, 6.0, 1.0, 2.0), "value6".getBytes());
+
+		storageManager.put(tuple1);
+		storageManager.put(tuple2);
+		storageManager.put(tuple3);
+		storageManager.put(tuple6);
+		storageManager.flush();
+		storageManager.put(tuple4);
+		storageManager.put(tuple5);
+		storageManager.delete("5", MicroSecondTimestampProvider.getNewTimestamp());
+		
+		final Hyperrectangle queryBox = new Hyperrectangle(0.0, 5.0, 0.0, 5.0);
+		final CellGrid cellGrid = CellGrid.buildWithFixedCellSize(queryBox, 2.5);
+		final Hyperrectangle coveringBox = new Hyperrectangle(1.5, 4.0, 1.5, 4.0);
+		
+		for(int i = 0; i < 2; i++) {
+			final BoundingBoxAggregate aggregate = new BoundingBoxAggregator(storageManager, 
+					queryBox, Hyperrectangle.FULL_SPACE, cellGrid).aggregate();
+			
+			Assert.assertEquals(2, aggregate.getCount());
+			Assert.assertEquals(coveringBox, aggregate.getCoveringBox());
+			Assert.assertEquals(2, aggregate.getHistogram().size());
+			Assert.assertEquals(2, aggregate.getHistogram().values().stream().mapToLong(l -> l).sum());
+			
+			// Only the tuples with the lower corner in the region are counted
+			final BoundingBoxAggregate regionAggregate = new BoundingBoxAggregator(storageManager, 
+					queryBox, new Hyperrectangle(0.0, 2.0, 0.0, 2.0), null).aggregate();
+			
+			Assert.assertEquals(1, regionAggregate.getCount());
+			Assert.assertEquals(new Hyperrectangle(1.5, 2.4, 1.5, 2.4), regionAggregate.getCoveringBox());
+			Assert.assertTrue(regionAggregate.getHistogram().isEmpty());
+			
+			storageManager.flush();
+		}
+	}
+	
+	/**
+	 * Test the histogram with a tuple that ends on a cell border
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 */
+	@Test(timeout=60000)
+	public void testBoundingBoxAggregationCellBorder() throws StorageManagerException, RejectedException {
+		final TupleStoreManager storageManager = storageRegistry.getTupleStoreManager(TABLE_1);
+
+		final Tuple tuple1 = new Tuple("1", new Hyperrectangle(1.0, 2.5, 1.0, 2.0), "value1".getBytes());
+		storageManager.put(tuple1);
+		
+		final Hyperrectangle queryBox = new Hyperrectangle(0.0, 5.0, 0.0, 5.0);
+		final CellGrid cellGrid = CellGrid.buildWithFixedCellSize(queryBox, 2.5);
+		final Hyperrectangle lowerCell = cellGrid.getAllInersectedBoundingBoxes(
+				new Hyperrectangle(1.0, 1.0, 1.0, 1.0)).iterator().next();
+		
+		final BoundingBoxAggregate aggregate = new BoundingBoxAggregator(storageManager, 
+				queryBox, Hyperrectangle.FULL_SPACE, cellGrid).aggregate();
+		
+		// The tuple touches the cell [2.5, 5) x [0, 2.5) only on the border
+		Assert.assertEquals(1, aggregate.getCount());
+		Assert.assertEquals(1, aggregate.getHistogram().size());
+		Assert.assertEquals(1, (long) aggregate.getHistogram().get(lowerCell));
+	}
 }
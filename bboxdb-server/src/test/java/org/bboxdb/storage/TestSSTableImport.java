@@ -0,0 +1,331 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bboxdb.commons.io.FileUtil;
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.misc.BBoxDBConfiguration;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreConfigurationBuilder;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.sstable.SSTableHelper;
+import org.bboxdb.storage.sstable.SSTableWriter;
+import org.bboxdb.storage.sstable.reader.SSTableFacade;
+import org.bboxdb.storage.tuplestore.DiskStorage;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.io.Files;
+
+public class TestSSTableImport {
+
+	/**
+	 * The name of the test table
+	 */
+	private static final TupleStoreName TABLE = new TupleStoreName("testgroup1_import_1");
+
+	/**
+	 * The temp dir
+	 */
+	private File tempDir;
+
+	/**
+	 * The storage directory
+	 */
+	private File storageDir;
+
+	/**
+	 * The staging directory
+	 */
+	private File stagingDir;
+
+	@Before
+	public void before() {
+		tempDir = Files.createTempDir();
+		storageDir = new File(tempDir, "storage");
+		stagingDir = new File(tempDir, "staging");
+
+		new File(SSTableHelper.getSSTableDir(storageDir.getAbsolutePath(), TABLE)).mkdirs();
+		new File(SSTableHelper.getSSTableDir(stagingDir.getAbsolutePath(), TABLE)).mkdirs();
+	}
+
+	@After
+	public void after() {
+		if(tempDir != null) {
+			FileUtil.deleteRecursive(tempDir.toPath());
+		}
+	}
+
+	/**
+	 * Link the files of a SSTable
+	 * @throws Exception
+	 */
+	@Test(timeout=60000)
+	public void testLinkSSTable() throws Exception {
+		writeSSTable(stagingDir, 3, "key1", "key2");
+
+		final List<File> files = SSTableHelper.linkOrCopySSTable(stagingDir.getAbsolutePath(), 3,
+				storageDir.getAbsolutePath(), 7, TABLE);
+
+		Assert.assertEquals(5, files.size());
+
+		final Path source = new File(SSTableHelper.getSSTableFilename(
+				stagingDir.getAbsolutePath(), TABLE, 3)).toPath();
+		final Path destination = new File(SSTableHelper.getSSTableFilename(
+				storageDir.getAbsolutePath(), TABLE, 7)).toPath();
+
+		Assert.assertTrue(files.contains(destination.toFile()));
+		Assert.assertTrue(java.nio.file.Files.isSameFile(source, destination));
+	}
+
+	/**
+	 * Copy the files of a SSTable, when the staging directory is located
+	 * on a different file system
+	 * @throws Exception
+	 */
+	@Test(timeout=60000)
+	public void testCopySSTable() throws Exception {
+		final File otherFileSystem = new File("/dev/shm");
+		Assume.assumeTrue(otherFileSystem.canWrite());
+		Assume.assumeFalse(java.nio.file.Files.getFileStore(otherFileSystem.toPath())
+				.equals(java.nio.file.Files.getFileStore(tempDir.toPath())));
+
+		final File otherStagingDir = Files.createTempDir();
+		final File shmStagingDir = new File(otherFileSystem, otherStagingDir.getName());
+		otherStagingDir.delete();
+
+		try {
+			new File(SSTableHelper.getSSTableDir(shmStagingDir.getAbsolutePath(), TABLE)).mkdirs();
+			writeSSTable(shmStagingDir, 1, "key1");
+
+			final List<File> files = SSTableHelper.linkOrCopySSTable(shmStagingDir.getAbsolutePath(), 1,
+					storageDir.getAbsolutePath(), 2, TABLE);
+
+			Assert.assertEquals(5, files.size());
+
+			final File source = new File(SSTableHelper.getSSTableFilename(
+					shmStagingDir.getAbsolutePath(), TABLE, 1));
+			final File destination = new File(SSTableHelper.getSSTableFilename(
+					storageDir.getAbsolutePath(), TABLE, 2));
+
+			Assert.assertFalse(java.nio.file.Files.isSameFile(source.toPath(), destination.toPath()));
+			Assert.assertArrayEquals(java.nio.file.Files.readAllBytes(source.toPath()),
+					java.nio.file.Files.readAllBytes(destination.toPath()));
+		} finally {
+			FileUtil.deleteRecursive(shmStagingDir.toPath());
+		}
+	}
+
+	/**
+	 * Link a incomplete SSTable, no files should be left
+	 * @throws Exception
+	 */
+	@Test(timeout=60000)
+	public void testLinkIncompleteSSTable() throws Exception {
+		writeSSTable(stagingDir, 1, "key1");
+
+		new File(SSTableHelper.getSSTableIndexFilename(stagingDir.getAbsolutePath(), TABLE, 1)).delete();
+
+		try {
+			SSTableHelper.linkOrCopySSTable(stagingDir.getAbsolutePath(), 1,
+					storageDir.getAbsolutePath(), 1, TABLE);
+			Assert.fail("Incomplete SSTable is linked");
+		} catch (IOException e) {
+			// Expected
+		}
+
+		Assert.assertEquals(0, getTableDir(storageDir).list().length);
+	}
+
+	/**
+	 * Import the SSTables of a staging directory
+	 * @throws Exception
+	 */
+	@Test(timeout=60000)
+	public void testImportSSTables() throws Exception {
+		writeSSTable(stagingDir, 0, "key1", "key2");
+		writeSSTable(stagingDir, 1, "key3");
+
+		final TupleStoreManager tupleStoreManager = createTupleStoreManager(getConfiguration());
+
+		final List<SSTableFacade> facades = tupleStoreManager.importSSTables(stagingDir.getAbsolutePath());
+		Assert.assertEquals(2, facades.size());
+		Assert.assertEquals(2, tupleStoreManager.getSstableFacades().size());
+
+		for(final String key : Arrays.asList("key1", "key2", "key3")) {
+			final List<Tuple> tuples = tupleStoreManager.get(key);
+			Assert.assertEquals(1, tuples.size());
+			Assert.assertEquals(key, new String(tuples.get(0).getDataBytes()));
+		}
+
+		tupleStoreManager.setToReadOnly();
+	}
+
+	/**
+	 * Import a invalid SSTable after a valid SSTable, the already imported SSTable
+	 * has to be removed
+	 * @throws Exception
+	 */
+	@Test(timeout=60000)
+	public void testImportInvalidSSTable() throws Exception {
+		writeSSTable(stagingDir, 0, "key1");
+		writeSSTable(stagingDir, 1, "key2");
+
+		// Destroy the magic bytes of the second SSTable
+		final String sstableFile = SSTableHelper.getSSTableFilename(stagingDir.getAbsolutePath(), TABLE, 1);
+
+		try (final RandomAccessFile file = new RandomAccessFile(sstableFile, "rw")) {
+			file.write(new byte[] {0, 0, 0, 0});
+		}
+
+		final TupleStoreManager tupleStoreManager = createTupleStoreManager(getConfiguration());
+		final int filesBeforeImport = getTableDir(storageDir).list().length;
+
+		try {
+			tupleStoreManager.importSSTables(stagingDir.getAbsolutePath());
+			Assert.fail("Invalid SSTable is imported");
+		} catch (StorageManagerException e) {
+			// Expected
+		}
+
+		Assert.assertEquals(0, tupleStoreManager.getSstableFacades().size());
+		Assert.assertEquals(filesBeforeImport, getTableDir(storageDir).list().length);
+		Assert.assertTrue(tupleStoreManager.get("key1").isEmpty());
+
+		// The staged files are untouched
+		Assert.assertTrue(new File(SSTableHelper.getSSTableFilename(
+				stagingDir.getAbsolutePath(), TABLE, 0)).exists());
+
+		tupleStoreManager.setToReadOnly();
+	}
+
+	/**
+	 * Import from staging directories outside of the storage and import directories
+	 * @throws Exception
+	 */
+	@Test(timeout=60000)
+	public void testImportFromInvalidDirectory() throws Exception {
+		writeSSTable(stagingDir, 0, "key1");
+
+		final BBoxDBConfiguration configuration = getConfiguration();
+		configuration.setStorageImportDirectories(Arrays.asList(stagingDir.getAbsolutePath()));
+
+		final TupleStoreManager tupleStoreManager = createTupleStoreManager(configuration);
+
+		final List<String> invalidDirectories = Arrays.asList(
+				// Not configured
+				tempDir.getAbsolutePath(),
+				// Leaves the import directory
+				stagingDir.getAbsolutePath() + File.separator + ".." + File.separator + "staging2",
+				// The storage directory and its data directory
+				storageDir.getAbsolutePath(),
+				SSTableHelper.getDataDir(storageDir.getAbsolutePath()) + File.separator + "staging");
+
+		for(final String directory : invalidDirectories) {
+			try {
+				tupleStoreManager.importSSTables(directory);
+				Assert.fail("Import from " + directory + " is accepted");
+			} catch (StorageManagerException e) {
+				Assert.assertTrue(e.getMessage().startsWith("Staging directory"));
+			}
+		}
+
+		Assert.assertEquals(0, tupleStoreManager.getSstableFacades().size());
+
+		// Staging directories in the storage directory are allowed
+		final File storageStagingDir = new File(storageDir, "staging");
+		new File(SSTableHelper.getSSTableDir(storageStagingDir.getAbsolutePath(), TABLE)).mkdirs();
+		writeSSTable(storageStagingDir, 0, "key2");
+
+		Assert.assertEquals(1, tupleStoreManager.importSSTables(storageStagingDir.getAbsolutePath()).size());
+		Assert.assertEquals(1, tupleStoreManager.get("key2").size());
+
+		tupleStoreManager.setToReadOnly();
+	}
+
+	/**
+	 * Get the configuration with the staging dir as import directory
+	 * @return
+	 */
+	private BBoxDBConfiguration getConfiguration() {
+		final BBoxDBConfiguration configuration = new BBoxDBConfiguration();
+		configuration.setStorageDirectories(Arrays.asList(storageDir.getAbsolutePath()));
+		configuration.setStorageImportDirectories(Arrays.asList(tempDir.getAbsolutePath()
+				+ File.separator + "staging"));
+		return configuration;
+	}
+
+	/**
+	 * Create a tuple store manager for the test table
+	 * @param configuration
+	 * @return
+	 * @throws StorageManagerException
+	 */
+	private TupleStoreManager createTupleStoreManager(final BBoxDBConfiguration configuration)
+			throws StorageManagerException {
+
+		final DiskStorage storage = new DiskStorage(null, storageDir, 1);
+		final TupleStoreManager tupleStoreManager = new TupleStoreManager(storage, TABLE, configuration);
+		tupleStoreManager.create(TupleStoreConfigurationBuilder.create().build());
+		tupleStoreManager.init();
+		Assert.assertTrue(tupleStoreManager.getServiceState().isInRunningState());
+
+		return tupleStoreManager;
+	}
+
+	/**
+	 * Write a SSTable with the given keys (the value is the key)
+	 * @param directory
+	 * @param tableNumber
+	 * @param keys
+	 * @throws StorageManagerException
+	 */
+	private void writeSSTable(final File directory, final int tableNumber, final String... keys)
+			throws StorageManagerException {
+
+		try (final SSTableWriter writer = new SSTableWriter(directory.getAbsolutePath(), TABLE,
+				tableNumber, keys.length)) {
+
+			writer.open();
+
+			for(final String key : keys) {
+				writer.addNextTuple(new Tuple(key, new Hyperrectangle(1d, 2d), key.getBytes()));
+			}
+		}
+	}
+
+	/**
+	 * Get the directory of the test table
+	 * @param directory
+	 * @return
+	 */
+	private File getTableDir(final File directory) {
+		return new File(SSTableHelper.getSSTableDir(directory.getAbsolutePath(), TABLE));
+	}
+}
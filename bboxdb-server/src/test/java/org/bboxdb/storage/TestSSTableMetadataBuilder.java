@@ -21,6 +21,7 @@ import java.io.File;
 import java.io.IOException;
 
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.commons.math.QuantileSketch;
 import org.bboxdb.storage.entity.DeletedTuple;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreMetaData;
@@ -248,6 +249,39 @@ public class TestSSTableMetadataBuilder {
 		Assert.assertEquals(metaData, metaDataRead);
 	}
 	
+	/**
+	 * Test the center sketches of the metadata
+	 */
+	@Test(timeout=60000)
+	public void testCenterSketches() {
+		final SSTableMetadataBuilder ssTableIndexBuilder = new SSTableMetadataBuilder();
+		
+		for(int i = 0; i < 1000; i++) {
+			final Hyperrectangle boundingBox = new Hyperrectangle((double) i, (double) i + 2, 5d, 7d);
+			ssTableIndexBuilder.addTuple(new Tuple(Integer.toString(i), boundingBox, "".getBytes()));
+		}
+		
+		// Deleted tuples are not part of the sketches
+		ssTableIndexBuilder.addTuple(new DeletedTuple("abc"));
+		
+		final TupleStoreMetaData metaData = ssTableIndexBuilder.getMetaData();
+		Assert.assertEquals(2, metaData.getCenterSketchData().length);
+		
+		final QuantileSketch sketch1 = QuantileSketch.fromArray(metaData.getCenterSketchData()[0]);
+		final QuantileSketch sketch2 = QuantileSketch.fromArray(metaData.getCenterSketchData()[1]);
+		Assert.assertEquals(1000, sketch1.getCount());
+		Assert.assertEquals(500, sketch1.getQuantile(0.5), 20);
+		Assert.assertEquals(6, sketch2.getQuantile(0.5), 0.0001);
+		
+		final String yamlData = metaData.exportToYaml();
+		final TupleStoreMetaData metaDataRead = TupleStoreMetaData.importFromYaml(yamlData);
+		Assert.assertEquals(metaData, metaDataRead);
+		
+		// Metadata without sketches (written by older versions)
+		final TupleStoreMetaData oldMetaData = TupleStoreMetaData.importFromYaml("tuples: 5");
+		Assert.assertEquals(0, oldMetaData.getCenterSketchData().length);
+	}
+	
 	/**
 	 * Read from non existing file
 	 */
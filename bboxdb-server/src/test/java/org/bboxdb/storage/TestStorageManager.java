@@ -18,6 +18,7 @@
 package org.bboxdb.storage;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -171,6 +172,67 @@ public class TestStorageManager {
 		Assert.assertEquals(2, receivedTuples.size());
 	}
 	
+	@Test(timeout=60000)
+	public void testBulkLoad() throws StorageManagerException, RejectedException {
+		final int sstablesBefore = storageManager.getSstableFacades().size();
+		final List<Tuple> tuples = new ArrayList<>();
+		
+		for(int i = 0; i < 1000; i++) {
+			tuples.add(new Tuple(Integer.toString(i), Hyperrectangle.FULL_SPACE, "abc".getBytes()));
+		}
+		
+		storageManager.bulkLoad(tuples);
+		
+		Assert.assertEquals(sstablesBefore + 1, storageManager.getSstableFacades().size());
+		Assert.assertTrue(storageManager.getMemtable().isEmpty());
+		Assert.assertEquals(1000, storageManager.getNumberOfTuples());
+		Assert.assertEquals(tuples.get(500), storageManager.get("500").get(0));
+	}
+	
+	@Test(timeout=60000)
+	public void testExpiredSSTables() throws StorageManagerException, RejectedException {
+		final TupleStoreName ttlRelation = new TupleStoreName("testgroup1_ttl");
+		storageRegistry.deleteTable(ttlRelation);
+		
+		final TupleStoreConfiguration tupleStoreConfiguration = TupleStoreConfigurationBuilder.create()
+				.allowDuplicates(true)
+				.withTTL(1, TimeUnit.HOURS)
+				.build();
+		
+		storageRegistry.createTable(ttlRelation, tupleStoreConfiguration);
+		final TupleStoreManager ttlManager = storageRegistry.getTupleStoreManager(ttlRelation);
+		
+		final long now = System.currentTimeMillis() * 1000;
+		final long expiredVersion = now - TimeUnit.HOURS.toMicros(2);
+		
+		ttlManager.bulkLoad(Arrays.asList(
+				new Tuple("1", Hyperrectangle.FULL_SPACE, "abc".getBytes(), expiredVersion),
+				new Tuple("2", Hyperrectangle.FULL_SPACE, "abc".getBytes(), expiredVersion)));
+		
+		ttlManager.bulkLoad(Arrays.asList(
+				new Tuple("3", Hyperrectangle.FULL_SPACE, "abc".getBytes(), now)));
+		
+		final long expiredTables = ttlManager.getSstableFacades()
+				.stream()
+				.filter(f -> ttlManager.isTupleStoreExpired(f))
+				.count();
+		
+		Assert.assertEquals(2, ttlManager.getSstableFacades().size());
+		Assert.assertEquals(1, expiredTables);
+		
+		// Expired SSTables are skipped by the queries
+		Assert.assertEquals(1, ttlManager.getNumberOfTuples());
+		Assert.assertTrue(ttlManager.get("1").isEmpty());
+		Assert.assertEquals(1, ttlManager.get("3").size());
+		
+		// Tables without TTL never expire
+		Assert.assertFalse(ttlManager.getSstableFacades()
+				.stream()
+				.anyMatch(f -> storageManager.isTupleStoreExpired(f)));
+		
+		storageRegistry.deleteTable(ttlRelation);
+	}
+	
 	@Test(timeout=60000)
 	public void testTupleDelete() throws Exception {
 		final Tuple createdTuple = new Tuple("1", Hyperrectangle.FULL_SPACE, "abc".getBytes());
@@ -23,6 +23,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.OptionalInt;
 import java.util.concurrent.TimeUnit;
 
 import org.bboxdb.commons.DuplicateResolver;
@@ -31,10 +32,13 @@ import org.bboxdb.storage.entity.DeletedTuple;
 import org.bboxdb.storage.entity.JoinedTuple;
 import org.bboxdb.storage.entity.JoinedTupleIdentifier;
 import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreConfiguration;
+import org.bboxdb.storage.entity.TupleStoreConfigurationBuilder;
 import org.bboxdb.storage.sstable.duplicateresolver.DoNothingDuplicateResolver;
 import org.bboxdb.storage.sstable.duplicateresolver.NewestTupleDuplicateResolver;
 import org.bboxdb.storage.sstable.duplicateresolver.TTLAndVersionTupleDuplicateResolver;
 import org.bboxdb.storage.sstable.duplicateresolver.TTLTupleDuplicateResolver;
+import org.bboxdb.storage.sstable.duplicateresolver.TupleDuplicateResolverFactory;
 import org.bboxdb.storage.sstable.duplicateresolver.VersionTupleDuplicateResolver;
 import org.bboxdb.storage.util.TupleHelper;
 import org.junit.Assert;
@@ -308,6 +312,40 @@ public class TestTupleHelper {
 		Assert.assertEquals(tuple, readTuple2);
 	}
 
+	/**
+	 * Decode tuples without data
+	 * @throws IOException 
+	 */
+	@Test(timeout=60000)
+	public void decodeTupleWithoutData() throws IOException {
+		final Tuple tuple1 = new Tuple("abc", new Hyperrectangle(1.0, 2.0, 3.0, 4.0), "abcdef".getBytes(), 12, 13);
+		final Tuple tuple2 = new DeletedTuple("def", 14);
+		final Tuple tuple3 = new Tuple("ghi", new Hyperrectangle(5.0, 6.0), "ghi".getBytes(), 15, 16);
+
+		final ByteBuffer bb = ByteBuffer.allocate(1024);
+		bb.put(TupleHelper.tupleToBytes(tuple1));
+		bb.put(TupleHelper.tupleToBytes(tuple2));
+		bb.put(TupleHelper.tupleToBytes(tuple3));
+		bb.flip();
+		
+		final Tuple readTuple1 = TupleHelper.decodeTupleWithoutData(bb);
+		Assert.assertEquals(tuple1.getKey(), readTuple1.getKey());
+		Assert.assertEquals(tuple1.getBoundingBox(), readTuple1.getBoundingBox());
+		Assert.assertEquals(tuple1.getVersionTimestamp(), readTuple1.getVersionTimestamp());
+		Assert.assertEquals(tuple1.getReceivedTimestamp(), readTuple1.getReceivedTimestamp());
+		Assert.assertEquals(0, readTuple1.getDataBytes().length);
+		
+		final Tuple readTuple2 = TupleHelper.decodeTupleWithoutData(bb);
+		Assert.assertEquals(tuple2, readTuple2);
+		Assert.assertTrue(TupleHelper.isDeletedTuple(readTuple2));
+		
+		final Tuple readTuple3 = TupleHelper.decodeTupleWithoutData(bb);
+		Assert.assertEquals(tuple3.getKey(), readTuple3.getKey());
+		Assert.assertEquals(tuple3.getBoundingBox(), readTuple3.getBoundingBox());
+		Assert.assertFalse(TupleHelper.isDeletedTuple(readTuple3));
+		Assert.assertEquals(0, bb.remaining());
+	}
+
 	/**
 	 * Test misc methods of a tuple
 	 */
@@ -386,4 +424,31 @@ public class TestTupleHelper {
 		
 		Assert.assertTrue(joinedTupleIdentifier.toString().length() > 10);
 	}
+	
+	/**
+	 * Test the max versions of the duplicate resolver
+	 */
+	@Test(timeout=60000)
+	public void testMaxVersions() {
+		final TupleStoreConfiguration configuration1 = TupleStoreConfigurationBuilder.create()
+				.allowDuplicates(false)
+				.build();
+		
+		Assert.assertEquals(OptionalInt.of(1), TupleDuplicateResolverFactory.getMaxVersions(configuration1));
+		
+		final TupleStoreConfiguration configuration2 = TupleStoreConfigurationBuilder.create()
+				.allowDuplicates(true)
+				.withVersions(5)
+				.withTTL(10, TimeUnit.SECONDS)
+				.build();
+		
+		Assert.assertEquals(OptionalInt.of(5), TupleDuplicateResolverFactory.getMaxVersions(configuration2));
+		
+		final TupleStoreConfiguration configuration3 = TupleStoreConfigurationBuilder.create()
+				.allowDuplicates(true)
+				.withTTL(10, TimeUnit.SECONDS)
+				.build();
+		
+		Assert.assertFalse(TupleDuplicateResolverFactory.getMaxVersions(configuration3).isPresent());
+	}
 }
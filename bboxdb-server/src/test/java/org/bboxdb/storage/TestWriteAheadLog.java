@@ -26,10 +26,15 @@ import java.util.List;
 
 import org.bboxdb.commons.io.FileUtil;
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.misc.BBoxDBConfigurationManager;
 import org.bboxdb.storage.entity.DeletedTuple;
 import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreConfigurationBuilder;
 import org.bboxdb.storage.entity.TupleStoreName;
 import org.bboxdb.storage.memtable.Memtable;
+import org.bboxdb.storage.sstable.SSTableHelper;
+import org.bboxdb.storage.tuplestore.DiskStorage;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
 import org.bboxdb.storage.util.TupleHelper;
 import org.bboxdb.storage.wal.WriteAheadLogManager;
 import org.bboxdb.storage.wal.WriteAheadLogReader;
@@ -249,4 +254,58 @@ public class TestWriteAheadLog {
 		
 		Assert.assertFalse(walFile.exists());
 	}
+	
+	@Test
+	public void testWalFilesOrderedByMemtableNumber() throws IOException {
+		for(int memtableNumber = 12; memtableNumber > 0; memtableNumber--) {
+			final WriteAheadLogWriter walWriter = new WriteAheadLogWriter(tempDir, memtableNumber);
+			walWriter.close();
+		}
+		
+		final List<File> walFiles = WriteAheadLogManager.getAllWalFiles(tempDir);
+		Assert.assertEquals(12, walFiles.size());
+		
+		for(int i = 0; i < walFiles.size(); i++) {
+			Assert.assertEquals(i + 1, WriteAheadLogManager.getMemtableNumberForWal(walFiles.get(i)));
+		}
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testMemtableNumberOfInvalidWal() {
+		WriteAheadLogManager.getMemtableNumberForWal(new File(tempDir, "wal_abc.wal"));
+	}
+	
+	@Test(timeout=60000)
+	public void testRecoveryAppliesWalFilesInWriteOrder() throws Exception {
+		final TupleStoreName tupleStoreName = new TupleStoreName("testgroup1_walrecovery");
+		final DiskStorage storage = new DiskStorage(null, tempDir, 1);
+		
+		// The distribution group dir exists, no group meta data needs to be written
+		final String storageDir = tempDir.getAbsolutePath();
+		new File(SSTableHelper.getDistributionGroupDir(storageDir, tupleStoreName)).mkdirs();
+
+		final TupleStoreManager tupleStoreManager = new TupleStoreManager(storage, tupleStoreName, 
+				BBoxDBConfigurationManager.getConfiguration());
+		
+		tupleStoreManager.create(TupleStoreConfigurationBuilder.create().build());
+		
+		// All versions have the same timestamp, the last written version has to win
+		final File tableDir = new File(SSTableHelper.getSSTableDir(storageDir, tupleStoreName));
+		
+		for(int memtableNumber = 1; memtableNumber <= 12; memtableNumber++) {
+			final WriteAheadLogWriter walWriter = new WriteAheadLogWriter(tableDir, memtableNumber);
+			walWriter.addTuple(new Tuple("key", new Hyperrectangle(1d, 2d), 
+					Integer.toString(memtableNumber).getBytes(), 1));
+			walWriter.close();
+		}
+		
+		tupleStoreManager.init();
+		Assert.assertTrue(tupleStoreManager.getServiceState().isInRunningState());
+		
+		final List<Tuple> tuples = tupleStoreManager.get("key");
+		Assert.assertEquals(1, tuples.size());
+		Assert.assertEquals("12", new String(tuples.get(0).getDataBytes()));
+		
+		tupleStoreManager.setToReadOnly();
+	}
 }
@@ -33,6 +33,8 @@ import org.bboxdb.storage.sstable.spatialindex.rtree.RTreeMemoryReader;
 import org.junit.Assert;
 import org.junit.Test;
 
+import io.prometheus.client.CollectorRegistry;
+
 public class TestRTreeMemoryDeserializer {
 
 	/**
@@ -166,5 +168,49 @@ public class TestRTreeMemoryDeserializer {
 		RTreeTestHelper.queryIndex(tupleList, indexRead);
 	}
 	
-
+	
+	/**
+	 * Test the counter of the visited nodes, only the queries of the reader are counted
+	 * @throws StorageManagerException 
+	 * @throws IOException 
+	 * @throws InterruptedException 
+	 */
+	@Test(timeout=60000)
+	public void testVisitedNodesCounter() throws StorageManagerException, IOException, InterruptedException {
+		final List<SpatialIndexEntry> tupleList = RTreeTestHelper.generateRandomTupleList(2);
+		
+		final SpatialIndexBuilder index = new RTreeBuilder();
+		index.bulkInsert(tupleList);
+		
+		final double visitedNodes = getVisitedNodes();
+		index.getEntriesForRegion(Hyperrectangle.FULL_SPACE);
+		Assert.assertEquals(visitedNodes, getVisitedNodes(), 0.0);
+		
+		final File tempFile = File.createTempFile("rtree-", "-test");
+		tempFile.deleteOnExit();
+		final RandomAccessFile raf = new RandomAccessFile(tempFile, "rw");		
+		index.writeToFile(raf);
+		raf.close();
+		
+		final AbstractRTreeReader indexRead = getRTreeReader();
+		final RandomAccessFile rafRead = new RandomAccessFile(tempFile, "r");
+		indexRead.readFromFile(rafRead);
+		rafRead.close();
+		
+		indexRead.getEntriesForRegion(new Hyperrectangle(1.0, 1.2, 1.0, 1.2));
+		Assert.assertTrue(getVisitedNodes() > visitedNodes);
+		
+		indexRead.close();
+	}
+	
+	/**
+	 * Get the number of visited R-tree nodes
+	 * @return
+	 */
+	private double getVisitedNodes() {
+		final Double visitedNodes = CollectorRegistry.defaultRegistry.getSampleValue(
+				"bboxdb_rtree_nodes_visited_total");
+		
+		return visitedNodes == null ? 0 : visitedNodes;
+	}
 }
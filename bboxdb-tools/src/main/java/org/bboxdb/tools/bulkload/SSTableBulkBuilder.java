@@ -0,0 +1,278 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.tools.bulkload;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bboxdb.commons.MathUtil;
+import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.distribution.membership.BBoxDBInstanceManager;
+import org.bboxdb.distribution.membership.MembershipConnectionService;
+import org.bboxdb.distribution.partitioner.SpacePartitioner;
+import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
+import org.bboxdb.distribution.region.DistributionRegion;
+import org.bboxdb.distribution.region.DistributionRegionHelper;
+import org.bboxdb.distribution.zookeeper.ZookeeperClient;
+import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
+import org.bboxdb.network.client.BBoxDBConnection;
+import org.bboxdb.network.client.future.EmptyResultFuture;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.sstable.SSTableHelper;
+import org.bboxdb.storage.sstable.SSTableWriter;
+import org.bboxdb.storage.util.TupleHelper;
+import org.bboxdb.tools.TupleFileReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Build the SSTables for a table offline and attach them to the
+ * BBoxDB instances. The tuples are partitioned with the current space 
+ * partitioner of the distribution group, sorted and written into a 
+ * staging directory that uses the layout of the storage directory.
+ */
+public class SSTableBulkBuilder implements Runnable {
+
+	/**
+	 * The input file
+	 */
+	private final String filename;
+	
+	/**
+	 * The format of the file
+	 */
+	private final String format;
+	
+	/**
+	 * The table to load
+	 */
+	private final TupleStoreName table;
+	
+	/**
+	 * The staging directory
+	 */
+	private final String stagingDirectory;
+	
+	/**
+	 * The max number of tuples per SSTable
+	 */
+	private final int tuplesPerSSTable;
+	
+	/**
+	 * The buffered tuples per region
+	 */
+	private final Map<DistributionRegion, List<Tuple>> buffers;
+	
+	/**
+	 * The next table number per region
+	 */
+	private final Map<DistributionRegion, Integer> tableNumbers;
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(SSTableBulkBuilder.class);
+
+	public SSTableBulkBuilder(final String filename, final String format, final String table, 
+			final String stagingDirectory, final int tuplesPerSSTable) {
+		
+		this.filename = filename;
+		this.format = format;
+		this.table = new TupleStoreName(table);
+		this.stagingDirectory = stagingDirectory;
+		this.tuplesPerSSTable = tuplesPerSSTable;
+		this.buffers = new HashMap<>();
+		this.tableNumbers = new HashMap<>();
+	}
+
+	@Override
+	public void run() {
+		
+		try {
+			final SpacePartitioner spacePartitioner = SpacePartitionerCache.getInstance()
+					.getSpacePartitionerForGroupName(table.getDistributionGroup());
+			
+			final DistributionRegion rootRegion = spacePartitioner.getRootNode();
+			
+			final TupleFileReader tupleFile = new TupleFileReader(filename, format);
+			
+			tupleFile.addTupleListener(t -> {
+				final List<DistributionRegion> regions = DistributionRegionHelper
+						.getDistributionRegionsForBoundingBox(rootRegion, t.getBoundingBox());
+				
+				for(final DistributionRegion region : regions) {
+					if(! DistributionRegionHelper.PREDICATE_REGIONS_FOR_WRITE.test(region.getState())) {
+						continue;
+					}
+					
+					final List<Tuple> buffer = buffers.computeIfAbsent(region, r -> new ArrayList<>());
+					buffer.add(t);
+					
+					if(buffer.size() >= tuplesPerSSTable) {
+						flushBuffer(region);
+					}
+				}
+		    });
+			
+			tupleFile.processFile();
+			
+			for(final DistributionRegion region : new ArrayList<>(buffers.keySet())) {
+				flushBuffer(region);
+			}
+			
+			logger.info("Processed {} lines, written SSTables for {} regions", 
+					tupleFile.getProcessedLines(), tableNumbers.size());
+		} catch (Exception e) {
+			logger.error("Got an exception", e);
+			System.exit(-1);
+		}	
+	}
+
+	/**
+	 * Write the buffered tuples of the region into a new SSTable
+	 * @param region
+	 */
+	private void flushBuffer(final DistributionRegion region) {
+		final List<Tuple> buffer = buffers.remove(region);
+		
+		if(buffer == null || buffer.isEmpty()) {
+			return;
+		}
+		
+		buffer.sort(TupleHelper.TUPLE_KEY_AND_VERSION_COMPARATOR);
+		
+		final TupleStoreName regionTable = table.cloneWithDifferntRegionId(region.getRegionId());
+		final int tableNumber = tableNumbers.merge(region, 1, Integer::sum) - 1;
+		
+		final File tableDir = new File(SSTableHelper.getSSTableDir(stagingDirectory, regionTable));
+		
+		if(! tableDir.isDirectory() && ! tableDir.mkdirs()) {
+			throw new IllegalStateException("Unable to create directory: " + tableDir);
+		}
+		
+		logger.info("Writing {} tuples into {} number {}", buffer.size(), 
+				regionTable.getFullname(), tableNumber);
+		
+		try (final SSTableWriter writer = new SSTableWriter(stagingDirectory, regionTable, 
+				tableNumber, buffer.size())) {
+			
+			writer.open();
+			writer.addData(buffer);
+		} catch (StorageManagerException e) {
+			throw new IllegalStateException("Unable to write SSTable for " + regionTable, e);
+		}
+	}
+	
+	/**
+	 * Attach the written SSTables to all systems of the regions. The staging 
+	 * directory has to be readable by the BBoxDB instances (e.g., a shared 
+	 * file system) and located in one of their storage or import directories 
+	 * (see storageImportDirectories).
+	 * @return 
+	 * @throws InterruptedException 
+	 */
+	public boolean attachSSTables() throws InterruptedException {
+		final MembershipConnectionService connectionService = MembershipConnectionService.getInstance();
+		final String absoluteDirectory = new File(stagingDirectory).getAbsolutePath();
+		final List<EmptyResultFuture> futures = new ArrayList<>();
+		
+		for(final DistributionRegion region : tableNumbers.keySet()) {
+			final String regionTable = table.cloneWithDifferntRegionId(region.getRegionId()).getFullname();
+			
+			for(final BBoxDBInstance instance : region.getSystems()) {
+				final BBoxDBConnection connection = connectionService.getConnectionForInstance(instance);
+				
+				if(connection == null) {
+					logger.error("Unable to get a connection for {}", instance);
+					return false;
+				}
+				
+				logger.info("Attaching {} on {}", regionTable, instance);
+				futures.add(connection.getBboxDBClient().importSSTables(regionTable, absoluteDirectory));
+			}
+		}
+		
+		boolean result = true;
+		
+		for(final EmptyResultFuture future : futures) {
+			future.waitForCompletion();
+			
+			if(future.isFailed()) {
+				logger.error("Attach failed: {}", future.getAllMessages());
+				result = false;
+			}
+		}
+		
+		return result;
+	}
+	
+	public static void main(final String[] args) throws Exception {
+		if(args.length != 7 && args.length != 8) {
+			System.err.println("Usage: <File> <Format> <Table> <Staging directory> <Tuples per SSTable> "
+					+ "<ZookeeperEndpoint> <Clustername> [attach]");
+			System.exit(-1);
+		}
+		
+		final String filename = args[0];
+		final String format = args[1];
+		final String table = args[2];
+		final String stagingDirectory = args[3];
+		final int tuplesPerSSTable = MathUtil.tryParseInt(args[4], () -> "Unable to parse: " + args[4]);
+		final String zookeeperEndpoint = args[5];
+		final String clustername = args[6];
+		final boolean attach = args.length == 8 && "attach".equals(args[7]);
+		
+		final ZookeeperClient zookeeperClient = new ZookeeperClient(
+				Arrays.asList(zookeeperEndpoint), clustername);
+		
+		zookeeperClient.init();
+		
+		if(! zookeeperClient.isConnected()) {
+			System.err.println("Unable to connect to zookeeper at: " + zookeeperEndpoint);
+			System.exit(-1);
+		}
+
+		ZookeeperClientFactory.setDefaultZookeeperClient(zookeeperClient);
+		
+		final SSTableBulkBuilder bulkBuilder = new SSTableBulkBuilder(filename, format, table, 
+				stagingDirectory, tuplesPerSSTable);
+		
+		bulkBuilder.run();
+		
+		if(! attach) {
+			System.exit(0);
+		}
+		
+		BBoxDBInstanceManager.getInstance().startMembershipObserver(zookeeperClient);
+		MembershipConnectionService.getInstance().init();
+		
+		final boolean result = bulkBuilder.attachSSTables();
+		
+		MembershipConnectionService.getInstance().shutdown();
+		BBoxDBInstanceManager.getInstance().stopMembershipObserver();
+		zookeeperClient.shutdown();
+		
+		System.exit(result ? 0 : -1);
+	}
+}
@@ -43,12 +43,13 @@ import org.bboxdb.distribution.region.DistributionRegion;
 import org.bboxdb.distribution.zookeeper.ZookeeperNotFoundException;
 import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.misc.Const;
-import org.bboxdb.network.client.BBoxDB;
 import org.bboxdb.network.client.BBoxDBCluster;
+import org.bboxdb.network.client.BBoxDBConnection;
 import org.bboxdb.network.client.future.EmptyResultFuture;
 import org.bboxdb.network.client.future.JoinedTupleListFuture;
 import org.bboxdb.network.client.future.TupleListFuture;
 import org.bboxdb.network.client.tools.FixedSizeFutureStore;
+import org.bboxdb.performance.QueryTrace;
 import org.bboxdb.storage.entity.DistributionGroupConfiguration;
 import org.bboxdb.storage.entity.DistributionGroupConfigurationBuilder;
 import org.bboxdb.storage.entity.JoinedTuple;
@@ -57,6 +58,7 @@ import org.bboxdb.storage.entity.TupleStoreConfiguration;
 import org.bboxdb.storage.entity.TupleStoreConfigurationBuilder;
 import org.bboxdb.tools.TupleFileReader;
 import org.bboxdb.tools.converter.tuple.TupleBuilderFactory;
+import org.bboxdb.tools.partitioning.SampleReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -74,7 +76,7 @@ public class CLI implements Runnable, AutoCloseable {
 	/**
 	 * The connection to the bboxDB Server
 	 */
-	private BBoxDB bboxDbConnection;
+	private BBoxDBCluster bboxDbConnection;
 
 	/**
 	 * The pending futures
@@ -86,6 +88,11 @@ public class CLI implements Runnable, AutoCloseable {
 	 */
 	private final static int MAX_PENDING_FUTURES = 5000;
 
+	/**
+	 * The default number of samples for the pre-split of a distribution group
+	 */
+	private final static int DEFAULT_SAMPLE_SIZE = 10000;
+
 	/**
 	 * The Logger
 	 */
@@ -347,6 +354,10 @@ public class CLI implements Runnable, AutoCloseable {
 		}
 
 		try {
+			if(line.hasOption(CLIParameter.TRACE)) {
+				bboxDbConnection.setQueryTracingEnabled(true);
+			}
+			
 			final TupleListFuture resultFuture = buildQueryFuture(line);
 
 			if(resultFuture == null) {
@@ -365,6 +376,10 @@ public class CLI implements Runnable, AutoCloseable {
 				printTuple(tuple);
 			}
 
+			if(line.hasOption(CLIParameter.TRACE)) {
+				printQueryTraces(resultFuture);
+			}
+			
 			System.out.println("Query done");
 		} catch (BBoxDBException e) {
 			System.err.println("Got an exception while performing query: " + e);
@@ -375,6 +390,26 @@ public class CLI implements Runnable, AutoCloseable {
 		}
 	}
 
+	/**
+	 * Print the traces of the query
+	 * @param resultFuture
+	 */
+	private void printQueryTraces(final TupleListFuture resultFuture) {
+		for(int resultId = 0; resultId < resultFuture.getNumberOfResultObjets(); resultId++) {
+			final QueryTrace queryTrace = resultFuture.getQueryTrace(resultId);
+			
+			if(queryTrace == null) {
+				continue;
+			}
+			
+			final BBoxDBConnection connection = resultFuture.getConnection(resultId);
+			final String connectionName = connection == null ? "unknown" : connection.getConnectionName();
+			
+			System.out.println("Query trace for " + connectionName);
+			System.out.println(queryTrace.getFormatedString());
+		}
+	}
+
 	/**
 	 * Execute the given query
 	 * @param line
@@ -880,6 +915,11 @@ public class CLI implements Runnable, AutoCloseable {
 					.withSpacePartitioner(spacePartitioner, spacePartitionerConfig)
 					.build();
 
+			if(line.hasOption(CLIParameter.FILE)) {
+				createPreSplitDgroup(line, distributionGroup, configuration);
+				return;
+			}
+
 			final EmptyResultFuture future = bboxDbConnection.createDistributionGroup(
 					distributionGroup, configuration);
 
@@ -899,6 +939,51 @@ public class CLI implements Runnable, AutoCloseable {
 		}
 	}
 
+	/**
+	 * Create a new distribution group and pre-split it based on a sample of the given file
+	 * @param line
+	 * @param distributionGroup
+	 * @param configuration
+	 * @throws BBoxDBException
+	 * @throws InterruptedException
+	 */
+	private void createPreSplitDgroup(final CommandLine line, final String distributionGroup,
+			final DistributionGroupConfiguration configuration) throws BBoxDBException, InterruptedException {
+
+		final List<String> requiredArgs = Arrays.asList(CLIParameter.FILE,
+				CLIParameter.FORMAT, CLIParameter.PARTITIONS);
+
+		checkRequiredArgs(requiredArgs);
+
+		final String filename = line.getOptionValue(CLIParameter.FILE);
+		final String format = line.getOptionValue(CLIParameter.FORMAT);
+
+		final String partitionsString = line.getOptionValue(CLIParameter.PARTITIONS);
+
+		final int partitions = MathUtil.tryParseIntOrExit(partitionsString,
+				() -> "This is not a valid number of partitions: " + partitionsString);
+
+		final String sampleSizeString = CLIHelper.getParameterOrDefault(
+				line, CLIParameter.SAMPLE_SIZE, Integer.toString(DEFAULT_SAMPLE_SIZE));
+
+		final int sampleSize = MathUtil.tryParseIntOrExit(sampleSizeString,
+				() -> "This is not a valid sample size: " + sampleSizeString);
+
+		try {
+			System.out.format("Reading %d samples from file: %s%n", sampleSize, filename);
+			final List<Hyperrectangle> samples = SampleReader.readSamples(filename, format, sampleSize);
+
+			final int regions = bboxDbConnection.createDistributionGroup(distributionGroup,
+					configuration, samples, partitions);
+
+			System.out.format("Distribution group %s is split into %d regions%n",
+					distributionGroup, regions);
+		} catch (IOException e) {
+			System.err.println("Unable to read the samples: " + e);
+			System.exit(-1);
+		}
+	}
+
 	/**
 	 * Check the command line for all needed parameter
 	 * @param options
@@ -1071,6 +1156,24 @@ public class CLI implements Runnable, AutoCloseable {
 				.build();
 		options.addOption(format);
 
+		// Partitions
+		final Option partitions = Option.builder(CLIParameter.PARTITIONS)
+				.hasArg()
+				.argName("partitions")
+				.desc("The number of regions for the pre-split of a distribution group "
+						+ "(the sample is read from the file)")
+				.build();
+		options.addOption(partitions);
+
+		// Sample size
+		final Option sampleSize = Option.builder(CLIParameter.SAMPLE_SIZE)
+				.hasArg()
+				.argName("samplesize")
+				.desc("The number of random samples read from the file (default: "
+						+ DEFAULT_SAMPLE_SIZE + ")")
+				.build();
+		options.addOption(sampleSize);
+
 		// Table
 		final Option table = Option.builder(CLIParameter.TABLE)
 				.hasArg()
@@ -1118,6 +1221,12 @@ public class CLI implements Runnable, AutoCloseable {
 				.desc("The version time stamp of the tuple")
 				.build();
 		options.addOption(time);
+		
+		// Trace
+		final Option trace = Option.builder(CLIParameter.TRACE)
+				.desc("Trace the execution stages of a bounding box query")
+				.build();
+		options.addOption(trace);
 
 		return options;
 	}
@@ -153,4 +153,19 @@ public class CLIParameter {
 	 * The name of the spatial index reader
 	 */
 	public static final String SPATIAL_INDEX_READER = "sindexreader";
+	
+	/**
+	 * The number of regions for the pre-split of a distribution group
+	 */
+	public static final String PARTITIONS = "partitions";
+	
+	/**
+	 * The number of samples read from the file
+	 */
+	public static final String SAMPLE_SIZE = "samplesize";
+	
+	/**
+	 * Trace the execution of the query
+	 */
+	public static final String TRACE = "trace";
 }
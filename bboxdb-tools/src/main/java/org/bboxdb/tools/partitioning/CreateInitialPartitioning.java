@@ -17,17 +17,14 @@
  *******************************************************************************/
 package org.bboxdb.tools.partitioning;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
-import org.bboxdb.commons.ListHelper;
 import org.bboxdb.commons.MathUtil;
 import org.bboxdb.commons.math.Hyperrectangle;
-import org.bboxdb.distribution.partitioner.DistributionRegionState;
 import org.bboxdb.distribution.partitioner.SpacePartitioner;
 import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
+import org.bboxdb.distribution.partitioner.regionsplit.PreSplitHelper;
 import org.bboxdb.distribution.region.DistributionRegion;
 import org.bboxdb.distribution.zookeeper.DistributionGroupAdapter;
 import org.bboxdb.distribution.zookeeper.DistributionRegionAdapter;
@@ -36,7 +33,6 @@ import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
 import org.bboxdb.distribution.zookeeper.ZookeeperException;
 import org.bboxdb.distribution.zookeeper.ZookeeperNotFoundException;
 import org.bboxdb.misc.BBoxDBException;
-import org.bboxdb.tools.TupleFileReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -79,17 +75,8 @@ public class CreateInitialPartitioning implements Runnable {
 	@Override
 	public void run() {
 		
-		final TupleFileReader tupleFile = new TupleFileReader(filename, format);
-		
-		final List<Hyperrectangle> samples = new ArrayList<>();
-		
-		tupleFile.addTupleListener(t -> {
-			final Hyperrectangle polygonBoundingBox = t.getBoundingBox();
-			samples.add(polygonBoundingBox);
-	    });
-		
 		try {
-			tupleFile.processFile();
+			final List<Hyperrectangle> samples = SampleReader.readSamples(filename, format, 0);
 		
 			final SpacePartitioner spacePartitioner = SpacePartitionerCache.getInstance()
 					.getSpacePartitionerForGroupName(distributionGroup);
@@ -97,19 +84,8 @@ public class CreateInitialPartitioning implements Runnable {
 			final DistributionRegionAdapter adapter 
 				= ZookeeperClientFactory.getZookeeperClient().getDistributionRegionAdapter();
 			
-			while(getActiveRegions(spacePartitioner).size() < partitions) {
-				logger.info("We have now {} of {} active partitons, executing split", 
-						getActiveRegions(spacePartitioner).size() < partitions);
-				
-				final List<DistributionRegion> activeRegions = getActiveRegions(spacePartitioner);
-				final DistributionRegion regionToSplit = ListHelper.getElementRandom(activeRegions);
-				
-				logger.info("Splitting region {}", regionToSplit.getRegionId());
-				final List<DistributionRegion> destination 
-					= spacePartitioner.splitRegion(regionToSplit, samples);
-				
-				spacePartitioner.splitComplete(regionToSplit, destination);
-			}
+			final int regions = PreSplitHelper.preSplit(spacePartitioner, samples, partitions);
+			logger.info("Distribution group {} has now {} partitions", distributionGroup, regions);
 			
 			// Prevent merging of nodes
 			for(DistributionRegion region : spacePartitioner.getRootNode().getAllChildren()) {
@@ -121,24 +97,8 @@ public class CreateInitialPartitioning implements Runnable {
 		}	
 	}
 
-	/**
-	 * Get the active regions
-	 * @param spacePartitioner
-	 * @return
-	 * @throws BBoxDBException
-	 */
-	private List<DistributionRegion> getActiveRegions(final SpacePartitioner spacePartitioner) 
-			throws BBoxDBException {
-		
-		return spacePartitioner.getRootNode()
-				.getThisAndChildRegions()
-				.stream()
-				.filter(r -> r.getState() == DistributionRegionState.ACTIVE)
-				.collect(Collectors.toList());
-	}
-	
 	public static void main(final String[] args) throws Exception {
-		if(args.length != 5) {
+		if(args.length != 6) {
 			System.err.println("Usage: <File> <Format> <Distribution group> <Partitiones> "
 					+ "<ZookeeperEndpoint> <Clustername>");
 			System.exit(-1);
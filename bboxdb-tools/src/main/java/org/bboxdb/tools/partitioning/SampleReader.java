@@ -0,0 +1,73 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.tools.partitioning;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.tools.TupleFileReader;
+
+public class SampleReader {
+
+	/**
+	 * Read a uniform random sample of the bounding boxes of the file (reservoir sampling)
+	 * 
+	 * @param filename
+	 * @param format
+	 * @param sampleSize - the max number of samples, a value <= 0 reads all bounding boxes
+	 * @return
+	 * @throws IOException
+	 */
+	public static List<Hyperrectangle> readSamples(final String filename, final String format, 
+			final int sampleSize) throws IOException {
+		
+		final TupleFileReader tupleFile = new TupleFileReader(filename, format);
+		final List<Hyperrectangle> samples = new ArrayList<>();
+		final Random random = new Random();
+		final long[] seenBoxes = {0};
+		
+		tupleFile.addTupleListener(t -> {
+			
+			if(t == null) {
+				return;
+			}
+			
+			final Hyperrectangle boundingBox = t.getBoundingBox();
+			seenBoxes[0]++;
+			
+			if(sampleSize <= 0 || samples.size() < sampleSize) {
+				samples.add(boundingBox);
+				return;
+			}
+			
+			// Replace a sample with the probability sampleSize / seenBoxes
+			final long position = (long) (random.nextDouble() * seenBoxes[0]);
+			
+			if(position < sampleSize) {
+				samples.set((int) position, boundingBox);
+			}
+	    });
+		
+		tupleFile.processFile();
+		
+		return samples;
+	}
+}